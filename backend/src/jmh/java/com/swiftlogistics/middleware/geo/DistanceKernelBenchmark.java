@@ -0,0 +1,89 @@
+package com.swiftlogistics.middleware.geo;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distances from one point to a batch of points: the pairwise haversine
+ * helper the services used before, the scalar and SIMD batch kernels, and
+ * the equirectangular approximation on both
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class DistanceKernelBenchmark {
+
+    // Odd sizes leave a scalar tail after the vector loop
+    @Param({"15", "250", "4001"})
+    private int points;
+
+    private double fromLatitude;
+    private double fromLongitude;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] out;
+
+    private DistanceKernel scalarHaversine;
+    private DistanceKernel vectorHaversine;
+    private DistanceKernel scalarEquirectangular;
+    private DistanceKernel vectorEquirectangular;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        fromLatitude = 6.9271;
+        fromLongitude = 79.8612;
+        latitudes = new double[points];
+        longitudes = new double[points];
+        out = new double[points];
+        for (int i = 0; i < points; i++) {
+            // Spread over Colombo like the generated delivery addresses
+            latitudes[i] = fromLatitude + (random.nextDouble() - 0.5) * 0.1;
+            longitudes[i] = fromLongitude + (random.nextDouble() - 0.5) * 0.1;
+        }
+        scalarHaversine = new ScalarDistanceKernel(DistanceKernel.Formula.HAVERSINE);
+        scalarEquirectangular = new ScalarDistanceKernel(DistanceKernel.Formula.EQUIRECTANGULAR);
+        vectorHaversine = GeoMath.vectorKernel(DistanceKernel.Formula.HAVERSINE);
+        vectorEquirectangular = GeoMath.vectorKernel(DistanceKernel.Formula.EQUIRECTANGULAR);
+        if (vectorHaversine == null || vectorEquirectangular == null) {
+            throw new IllegalStateException("Run with --add-modules jdk.incubator.vector");
+        }
+    }
+
+    @Benchmark
+    public double[] pairwiseHaversine() {
+        for (int i = 0; i < points; i++) {
+            out[i] = GeoMath.haversineKm(fromLatitude, fromLongitude, latitudes[i], longitudes[i]);
+        }
+        return out;
+    }
+
+    @Benchmark
+    public double[] scalarHaversine() {
+        scalarHaversine.distances(fromLatitude, fromLongitude, latitudes, longitudes, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] vectorHaversine() {
+        vectorHaversine.distances(fromLatitude, fromLongitude, latitudes, longitudes, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] scalarEquirectangular() {
+        scalarEquirectangular.distances(fromLatitude, fromLongitude, latitudes, longitudes, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] vectorEquirectangular() {
+        vectorEquirectangular.distances(fromLatitude, fromLongitude, latitudes, longitudes, out);
+        return out;
+    }
+}
@@ -0,0 +1,217 @@
+package com.swiftlogistics.middleware.integration;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logging cost of one order through the saga and of one GPS fix, as the
+ * code printed it before the switch to SLF4J and as it logs now. Every
+ * mode writes to the same stdout-like stream over /dev/null, so only the
+ * logging path differs:
+ * <ul>
+ *   <li>console-println: the old System.out lines, payload dumps included</li>
+ *   <li>sync-debug: the new log calls, DEBUG, synchronous console appender</li>
+ *   <li>async-debug: the same through the shipped 8192-event async appender</li>
+ *   <li>async-info: the shipped configuration, com.swiftlogistics at INFO</li>
+ * </ul>
+ * sync-debug against async-debug isolates the appender, async-debug against
+ * async-info the level change. The async modes shed DEBUG/INFO events once
+ * the queue is 80% full; the share written is printed at the end of each trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class HotPathLoggingBenchmark {
+
+    @Param({"console-println", "sync-debug", "async-debug", "async-info"})
+    private String mode;
+
+    private PrintStream out;
+    private LoggerContext context;
+    private Logger sagaLog;
+    private Logger gpsLog;
+    private boolean println;
+
+    // Saga log calls per order: 4 at INFO, 16 more at DEBUG
+    private static final int INFO_EVENTS = 4;
+    private static final int DEBUG_EVENTS = 16;
+
+    // Not constants, so the old string concatenation happens at run time as it did
+    private String orderNumber = ORDER;
+    private String driverId = "DRV-0042";
+    private double latitude = 6.9271;
+    private double longitude = 79.8612;
+
+    private final LongAdder orders = new LongAdder();
+    private final LongAdder fixes = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    private static final String ORDER = "ORD-1739182736451";
+    private static final String SOAP = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+        + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body><SubmitOrder>"
+        + "<OrderNumber>" + ORDER + "</OrderNumber><ClientId>42</ClientId>"
+        + "<DeliveryAddress>27 Galle Road, Colombo 03</DeliveryAddress><RecipientName>Nimal Perera</RecipientName>"
+        + "<RecipientPhone>+94771234567</RecipientPhone></SubmitOrder></soap:Body></soap:Envelope>";
+    private static final String WMS_MESSAGE = "WMS_COMMAND:ADD_PACKAGE\nORDER_ID:1042\nORDER_NUMBER:" + ORDER
+        + "\nCLIENT_ID:42\nDELIVERY_ADDRESS:27 Galle Road, Colombo 03\nRECIPIENT:Nimal Perera\n"
+        + "TIMESTAMP:1739182736451\nEND_MESSAGE\n";
+    private static final String WMS_RESPONSE =
+        "WMS_RESPONSE:SUCCESS\nPACKAGE_ID:PKG-1739182736999\nLOCATION:A1-B2-C3\nSTATUS:RECEIVED\n";
+    private static final String ROS_REQUEST = "{\"orderId\":1042,\"orderNumber\":\"" + ORDER + "\","
+        + "\"deliveryAddress\":\"27 Galle Road, Colombo 03\",\"priority\":\"NORMAL\",\"vehicleType\":\"VAN\"}";
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws FileNotFoundException {
+        // Same shape as System.out: small buffer, flushed on every line
+        out = new PrintStream(new BufferedOutputStream(new FileOutputStream("/dev/null"), 128), true);
+        println = mode.equals("console-println");
+        if (println) {
+            return;
+        }
+        // The bound context carries the MDC adapter events need; start it from a blank configuration
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} - %msg%n");
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> console = new OutputStreamAppender<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                written.increment();
+                super.append(event);
+            }
+        };
+        console.setContext(context);
+        console.setEncoder(encoder);
+        console.setOutputStream(out);
+        console.start();
+
+        ch.qos.logback.classic.Logger root = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        if (mode.startsWith("async")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            // As in logback-spring.xml: default discarding threshold, blocks rather than drop WARN+
+            async.setQueueSize(8192);
+            async.addAppender(console);
+            async.start();
+            root.addAppender(async);
+        } else {
+            root.addAppender(console);
+        }
+        context.getLogger("com.swiftlogistics").setLevel(mode.endsWith("debug") ? Level.DEBUG : Level.INFO);
+        // Payload dumps stay off, as shipped
+        context.getLogger(PayloadLogger.LOGGER_NAME).setLevel(Level.INFO);
+        sagaLog = context.getLogger("com.swiftlogistics.middleware.service.OrderProcessingService");
+        gpsLog = context.getLogger("com.swiftlogistics.middleware.service.GPSTrackingService");
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.stop();
+            boolean debug = mode.endsWith("debug");
+            long logged = orders.sum() * (INFO_EVENTS + (debug ? DEBUG_EVENTS : 0)) + (debug ? fixes.sum() : 0);
+            System.out.printf("%s: %d of %d events written%n", mode, written.sum(), logged);
+        }
+        out.close();
+    }
+
+    /**
+     * Lines one successful order produces from the queue listener through
+     * CMS, WMS and ROS and the three status updates
+     */
+    @Benchmark
+    public void orderSaga() {
+        if (println) {
+            out.println("Processing order from queue: " + orderNumber);
+            out.println("Sending SOAP request to CMS: " + SOAP);
+            out.println("CMS Response: Order " + orderNumber + " accepted");
+            out.println("Order " + orderNumber + " submitted to CMS successfully");
+            out.println("Saga step completed: CMS_SUBMIT - CMS submission successful");
+            statusPrintln("PROCESSING");
+            out.println("Establishing TCP connection to WMS at localhost:8083");
+            out.println("Sending WMS message:");
+            out.println(WMS_MESSAGE);
+            out.println("WMS Response:");
+            out.println(WMS_RESPONSE);
+            out.println("Package added to WMS for order: " + orderNumber);
+            out.println("Saga step completed: WMS_ADD - WMS package added");
+            statusPrintln("IN_WAREHOUSE");
+            out.println("Sending REST request to ROS: " + ROS_REQUEST);
+            out.println("ROS Response: Route optimized for delivery to 27 Galle Road, Colombo 03");
+            out.println("Estimated delivery time: 2-4 hours");
+            out.println("Assigned vehicle: VAN-001");
+            out.println("Route planned for order " + orderNumber + " via ROS");
+            out.println("Saga step completed: ROS_PLAN - Route planned successfully");
+            statusPrintln("ROUTE_PLANNED");
+            out.println("Order processing completed successfully: " + orderNumber);
+            out.println("Order processed successfully: " + orderNumber);
+            return;
+        }
+        orders.increment();
+        sagaLog.debug("Processing order from queue: {}", orderNumber);
+        sagaLog.debug("Sending SOAP request to CMS for order {}", orderNumber);
+        sagaLog.debug("CMS Response: Order {} accepted", orderNumber);
+        sagaLog.info("Order {} submitted to CMS successfully", orderNumber);
+        sagaLog.debug("Saga step completed: {} - {}", "CMS_SUBMIT", "CMS submission successful");
+        statusLog("PROCESSING");
+        sagaLog.debug("Establishing TCP connection to WMS at {}:{}", "localhost", 8083);
+        sagaLog.info("Package added to WMS for order: {}", orderNumber);
+        sagaLog.debug("Saga step completed: {} - {}", "WMS_ADD", "WMS package added");
+        statusLog("IN_WAREHOUSE");
+        sagaLog.debug("Sending REST request to ROS for order {}", orderNumber);
+        sagaLog.debug("ROS Response: Route optimized for delivery to {}, estimated delivery time: 2-4 hours, "
+            + "assigned vehicle: {}", "27 Galle Road, Colombo 03", "VAN-001");
+        sagaLog.info("Route planned for order {} via ROS", orderNumber);
+        sagaLog.debug("Saga step completed: {} - {}", "ROS_PLAN", "Route planned successfully");
+        statusLog("ROUTE_PLANNED");
+        sagaLog.info("Order processing completed successfully: {}", orderNumber);
+        sagaLog.debug("Order processed successfully: {}", orderNumber);
+    }
+
+    /**
+     * One location update. The old path printed every fix; the ingest writer
+     * no longer logs per fix, so the new path is that line kept at DEBUG:
+     * a level check at INFO, a real event in the debug modes.
+     */
+    @Benchmark
+    public void gpsFix() {
+        if (println) {
+            out.println("Updated location for driver " + driverId + ": " + latitude + ", " + longitude);
+            return;
+        }
+        fixes.increment();
+        gpsLog.debug("Updated location for driver {}: {}, {}", driverId, latitude, longitude);
+    }
+
+    private void statusPrintln(String status) {
+        out.println("Status update sent: " + orderNumber + " -> " + status);
+        out.println("Processing status update: " + orderNumber + " -> " + status);
+    }
+
+    private void statusLog(String status) {
+        sagaLog.debug("Status update sent: {} -> {}", orderNumber, status);
+        sagaLog.debug("Processing status update: {} -> {}", orderNumber, status);
+    }
+}
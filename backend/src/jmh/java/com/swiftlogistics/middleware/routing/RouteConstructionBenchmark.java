@@ -0,0 +1,76 @@
+package com.swiftlogistics.middleware.routing;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-neighbour construction plus route length, computed per candidate
+ * with haversine (the previous implementation) versus from a distance
+ * matrix built once
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteConstructionBenchmark {
+
+    @Param({"50", "200", "1000"})
+    private int stops;
+
+    private List<double[]> points;
+    private double[] latitudes;
+    private double[] longitudes;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        points = new ArrayList<>(stops);
+        latitudes = new double[stops];
+        longitudes = new double[stops];
+        for (int i = 0; i < stops; i++) {
+            // Spread over Colombo like the generated delivery addresses
+            latitudes[i] = 6.9271 + (random.nextDouble() - 0.5) * 0.1;
+            longitudes[i] = 79.8612 + (random.nextDouble() - 0.5) * 0.1;
+            points.add(new double[] {latitudes[i], longitudes[i]});
+        }
+    }
+
+    @Benchmark
+    public double perCandidateHaversine() {
+        List<double[]> order = new ArrayList<>(stops);
+        List<double[]> remaining = new ArrayList<>(points.subList(1, stops));
+        double[] current = points.get(0);
+        order.add(current);
+        while (!remaining.isEmpty()) {
+            double[] from = current;
+            double[] nearest = remaining.stream()
+                .min(Comparator.comparingDouble(p -> GeoMath.haversineKm(from[0], from[1], p[0], p[1])))
+                .orElse(remaining.get(0));
+            order.add(nearest);
+            remaining.remove(nearest);
+            current = nearest;
+        }
+        double total = 0;
+        for (int i = 0; i < order.size() - 1; i++) {
+            double[] a = order.get(i);
+            double[] b = order.get(i + 1);
+            total += GeoMath.haversineKm(a[0], a[1], b[0], b[1]);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public double distanceMatrix() {
+        DistanceMatrix matrix = DistanceMatrix.haversine(latitudes, longitudes);
+        int[] tour = TourConstruction.nearestNeighbour(matrix, 0);
+        return matrix.pathDistance(tour);
+    }
+}
@@ -1,11 +1,14 @@
 package com.swiftlogistics.middleware.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.retry.annotation.EnableRetry;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 /**
  * Async configuration for high-volume processing
@@ -53,4 +56,48 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    @Bean(name = "geofenceEventExecutor")
+    public Executor geofenceEventExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(10000);
+        executor.setThreadNamePrefix("Geofence-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Long-running planning jobs; bounded so queued jobs are rejected
+     * rather than piling up behind a minute-long search
+     */
+    @Bean(name = "routePlanningExecutor")
+    public Executor routePlanningExecutor(@Value("${app.routing.planning.max-concurrent-jobs:1}") int concurrentJobs,
+                                          @Value("${app.routing.planning.queue-capacity:4}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(concurrentJobs, 1));
+        executor.setMaxPoolSize(Math.max(concurrentJobs, 1));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("RoutePlanner-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * CPU-bound route optimization; parallelism 0 uses every core
+     */
+    @Bean(name = "routeOptimizationPool", destroyMethod = "shutdown")
+    public ForkJoinPool routeOptimizationPool(@Value("${app.routing.multi-start.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("RouteOptimizer-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
 }
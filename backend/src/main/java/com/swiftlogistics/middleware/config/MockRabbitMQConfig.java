@@ -1,5 +1,7 @@
 package com.swiftlogistics.middleware.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -15,6 +17,8 @@ import java.util.concurrent.TimeUnit;
 @Profile("demo")
 public class MockRabbitMQConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(MockRabbitMQConfig.class);
+
     @Bean
     public MockMessageQueue mockOrderQueue() {
         return new MockMessageQueue("order.processing");
@@ -47,14 +51,14 @@ public class MockRabbitMQConfig {
 
         public void send(Object message) {
             messages.offer(message);
-            System.out.println("Mock Queue [" + queueName + "] received message: " + message);
+            log.debug("Mock Queue [{}] received message: {}", queueName, message);
         }
 
         private void startProcessing() {
             scheduler.scheduleWithFixedDelay(() -> {
                 Object message = messages.poll();
                 if (message != null) {
-                    System.out.println("Mock Queue [" + queueName + "] processing: " + message);
+                    log.debug("Mock Queue [{}] processing: {}", queueName, message);
                     // Simulate processing time
                     try {
                         Thread.sleep(100);
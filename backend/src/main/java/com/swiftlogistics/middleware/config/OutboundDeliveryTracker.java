@@ -0,0 +1,64 @@
+package com.swiftlogistics.middleware.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks, per WebSocket session, whether the last message sent to a given
+ * destination has been written to the client. Installed on the client
+ * outbound channel so publishers can skip a session whose previous message
+ * is still waiting instead of queueing more behind it.
+ */
+public class OutboundDeliveryTracker implements ExecutorChannelInterceptor {
+
+    private final String destinationPrefix;
+    private final ConcurrentHashMap<String, Long> inFlightSince = new ConcurrentHashMap<>();
+
+    public OutboundDeliveryTracker(String destinationPrefix) {
+        this.destinationPrefix = destinationPrefix;
+    }
+
+    /**
+     * Record that a message for the session has been handed to the broker
+     */
+    public void markSent(String sessionId) {
+        inFlightSince.put(sessionId, System.currentTimeMillis());
+    }
+
+    /**
+     * Whether a message for the session is still pending. A message pending for
+     * longer than timeoutMillis is treated as lost so the session is not stuck.
+     */
+    public boolean isInFlight(String sessionId, long timeoutMillis) {
+        Long since = inFlightSince.get(sessionId);
+        if (since == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - since > timeoutMillis) {
+            inFlightSince.remove(sessionId, since);
+            return false;
+        }
+        return true;
+    }
+
+    public void forget(String sessionId) {
+        inFlightSince.remove(sessionId);
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel,
+                                    MessageHandler handler, Exception ex) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination != null && destination.startsWith(destinationPrefix)) {
+            String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+            if (sessionId != null) {
+                inFlightSince.remove(sessionId);
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@ public class RabbitMQConfig {
     public static final String ORDER_PROCESSING_QUEUE = "order.processing";
     public static final String STATUS_UPDATE_QUEUE = "status.update";
     public static final String NOTIFICATION_QUEUE = "notification";
+    public static final String DISPATCH_QUEUE = "dispatch.order-status";
     public static final String DLQ_SUFFIX = ".dlq";
     
     // Exchange names
@@ -84,6 +85,20 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(NOTIFICATION_QUEUE + DLQ_SUFFIX).build();
     }
 
+    // Order status events feeding the streaming dispatcher
+    @Bean
+    public Queue dispatchQueue() {
+        return QueueBuilder.durable(DISPATCH_QUEUE)
+                .withArgument("x-dead-letter-exchange", DLX_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", DISPATCH_QUEUE + DLQ_SUFFIX)
+                .build();
+    }
+
+    @Bean
+    public Queue dispatchDLQ() {
+        return QueueBuilder.durable(DISPATCH_QUEUE + DLQ_SUFFIX).build();
+    }
+
     // Bindings
     @Bean
     public Binding orderProcessingBinding() {
@@ -106,6 +121,13 @@ public class RabbitMQConfig {
                 .with("notification.*");
     }
 
+    @Bean
+    public Binding dispatchBinding() {
+        return BindingBuilder.bind(dispatchQueue())
+                .to(topicExchange())
+                .with("status.update.order");
+    }
+
     // DLQ Bindings
     @Bean
     public Binding orderProcessingDLQBinding() {
@@ -128,6 +150,13 @@ public class RabbitMQConfig {
                 .with(NOTIFICATION_QUEUE + DLQ_SUFFIX);
     }
 
+    @Bean
+    public Binding dispatchDLQBinding() {
+        return BindingBuilder.bind(dispatchDLQ())
+                .to(deadLetterExchange())
+                .with(DISPATCH_QUEUE + DLQ_SUFFIX);
+    }
+
     // JSON Message Converter
     @Bean
     public Jackson2JsonMessageConverter jsonMessageConverter() {
@@ -1,10 +1,14 @@
 package com.swiftlogistics.middleware.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 /**
  * WebSocket configuration for real-time notifications
@@ -13,11 +17,19 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    public static final String LIVE_LOCATION_QUEUE = "/queue/fleet-locations";
+
+    @Value("${app.websocket.send-buffer-size-kb:512}")
+    private int sendBufferSizeKb;
+
+    @Value("${app.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple broker for topics
-        config.enableSimpleBroker("/topic");
-        
+        // Enable simple broker for topics and per-session queues
+        config.enableSimpleBroker("/topic", "/queue");
+
         // Set application destination prefix
         config.setApplicationDestinationPrefixes("/app");
     }
@@ -29,4 +41,21 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Bound what a slow client can hold on the server before it is disconnected
+        registration.setSendBufferSizeLimit(sendBufferSizeKb * 1024);
+        registration.setSendTimeLimit(sendTimeLimitMillis);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(liveLocationDeliveryTracker());
+    }
+
+    @Bean
+    public OutboundDeliveryTracker liveLocationDeliveryTracker() {
+        return new OutboundDeliveryTracker(LIVE_LOCATION_QUEUE);
+    }
 }
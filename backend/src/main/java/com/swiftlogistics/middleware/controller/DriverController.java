@@ -7,6 +7,8 @@ import com.swiftlogistics.middleware.service.DeliveryManagementService;
 import com.swiftlogistics.middleware.service.RouteService;
 import com.swiftlogistics.middleware.dto.DriverDashboardResponse;
 import com.swiftlogistics.middleware.dto.DriverStatusRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -30,6 +32,8 @@ import java.util.Map;
 }, allowCredentials = "false")
 public class DriverController {
 
+    private static final Logger log = LoggerFactory.getLogger(DriverController.class);
+
     @Autowired
     private DriverService driverService;
 
@@ -56,7 +60,7 @@ public class DriverController {
             );
             return ResponseEntity.ok(savedDriver);
         } catch (Exception e) {
-            System.err.println("Error creating driver: " + e.getMessage());
+            log.error("Error creating driver: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -111,9 +115,9 @@ public class DriverController {
             if (routeProgress != null) {
                 enhancedDashboard.put("currentRoute", Map.of(
                     "routeId", routeProgress.getRoute().getRouteId(),
-                    "totalDeliveries", routeProgress.getRoute().getTotalDeliveryPoints(),
-                    "completedDeliveries", routeProgress.getCompletedDeliveries().size(),
-                    "progressPercentage", routeProgress.getRoute().getProgressPercentage(),
+                    "totalDeliveries", routeProgress.getTotalStops(),
+                    "completedDeliveries", routeProgress.getCompletedCount(),
+                    "progressPercentage", routeProgress.getProgressPercentage(),
                     "estimatedCompletion", "Calculating..." // Could add ETA calculation
                 ));
             }
@@ -124,7 +128,7 @@ public class DriverController {
             return ResponseEntity.ok(enhancedDashboard);
             
         } catch (Exception e) {
-            System.err.println("Error fetching dashboard data for driver " + driverId + ": " + e.getMessage());
+            log.error("Error fetching dashboard data for driver {}: {}", driverId, e.getMessage());
             
             // Fallback to basic data if real-time services fail
             try {
@@ -159,7 +163,7 @@ public class DriverController {
             Driver driver = driverService.getDriverByDriverId(driverId);
             return ResponseEntity.ok(driver);
         } catch (Exception e) {
-            System.err.println("Error fetching driver profile: " + e.getMessage());
+            log.error("Error fetching driver profile: {}", e.getMessage());
             return ResponseEntity.notFound().build();
         }
     }
@@ -249,7 +253,7 @@ public class DriverController {
             deliveries.put("message", "No active deliveries at the moment");
             return ResponseEntity.ok(deliveries);
         } catch (Exception e) {
-            System.err.println("Error fetching deliveries for driver " + driverId + ": " + e.getMessage());
+            log.error("Error fetching deliveries for driver {}: {}", driverId, e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -266,7 +270,7 @@ public class DriverController {
             DriverDashboardResponse stats = driverService.getDriverStats(driverId, targetDate);
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
-            System.err.println("Error fetching driver stats: " + e.getMessage());
+            log.error("Error fetching driver stats: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -280,7 +284,7 @@ public class DriverController {
             List<Driver> drivers = driverService.getAllDrivers();
             return ResponseEntity.ok(drivers);
         } catch (Exception e) {
-            System.err.println("Error fetching all drivers: " + e.getMessage());
+            log.error("Error fetching all drivers: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
         }
     }
@@ -0,0 +1,47 @@
+package com.swiftlogistics.middleware.controller;
+
+import com.swiftlogistics.middleware.dto.LocationSubscription;
+import com.swiftlogistics.middleware.service.LiveLocationBroadcaster;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+/**
+ * STOMP controller for live fleet locations
+ * Clients send a subscription to /app/fleet/subscribe and receive pushes on
+ * /user/queue/fleet-locations
+ */
+@Controller
+public class LiveLocationController {
+
+    @Autowired
+    private LiveLocationBroadcaster liveLocationBroadcaster;
+
+    /**
+     * Subscribe this session to a viewport or a set of drivers
+     */
+    @MessageMapping("/fleet/subscribe")
+    public void subscribe(@Payload LocationSubscription subscription, SimpMessageHeaderAccessor headers) {
+        liveLocationBroadcaster.subscribe(headers.getSessionId(), subscription);
+    }
+
+    /**
+     * Stop live-location pushes for this session
+     */
+    @MessageMapping("/fleet/unsubscribe")
+    public void unsubscribe(SimpMessageHeaderAccessor headers) {
+        liveLocationBroadcaster.unsubscribe(headers.getSessionId());
+    }
+
+    @MessageExceptionHandler(IllegalArgumentException.class)
+    @SendToUser(destinations = "/queue/errors", broadcast = false)
+    public Map<String, Object> handleInvalidSubscription(IllegalArgumentException e) {
+        return Map.of("success", false, "message", e.getMessage());
+    }
+}
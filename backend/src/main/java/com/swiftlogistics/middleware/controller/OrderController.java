@@ -2,6 +2,7 @@ package com.swiftlogistics.middleware.controller;
 
 import com.swiftlogistics.middleware.model.Order;
 import com.swiftlogistics.middleware.model.Client;
+import com.swiftlogistics.middleware.service.MessageService;
 import com.swiftlogistics.middleware.service.OrderService;
 import com.swiftlogistics.middleware.repository.OrderRepository;
 import com.swiftlogistics.middleware.repository.ClientRepository;
@@ -25,6 +26,9 @@ public class OrderController {
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private MessageService messageService;
+
     @PostMapping
     public ResponseEntity<Order> createOrder(@Valid @RequestBody OrderRequest orderRequest) {
         // Create new order entity
@@ -34,6 +38,9 @@ public class OrderController {
         order.setDeliveryAddress(orderRequest.getDeliveryAddress());
         order.setRecipientName(orderRequest.getRecipientName());
         order.setRecipientPhone(orderRequest.getRecipientPhone());
+        order.setDeliveryWindowStart(orderRequest.getDeliveryWindowStart());
+        order.setDeliveryWindowEnd(orderRequest.getDeliveryWindowEnd());
+        order.setServiceMinutes(orderRequest.getServiceMinutes());
         order.setStatus(Order.OrderStatus.PROCESSING);
         order.setCreatedAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
@@ -93,6 +100,7 @@ public class OrderController {
                 order.setStatus(Order.OrderStatus.valueOf(status));
                 order.setUpdatedAt(LocalDateTime.now());
                 Order updatedOrder = orderRepository.save(order);
+                messageService.sendStatusUpdate(updatedOrder);
                 return ResponseEntity.ok(updatedOrder);
             })
             .orElse(ResponseEntity.notFound().build());
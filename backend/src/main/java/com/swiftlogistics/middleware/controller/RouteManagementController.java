@@ -1,14 +1,26 @@
 package com.swiftlogistics.middleware.controller;
 
+import com.swiftlogistics.middleware.dto.LocationFix;
+import com.swiftlogistics.middleware.dto.OptimizedRoute;
+import com.swiftlogistics.middleware.geo.GeocodeResult;
 import com.swiftlogistics.middleware.service.DeliveryManagementService;
 import com.swiftlogistics.middleware.service.GPSTrackingService;
+import com.swiftlogistics.middleware.service.GeocodingService;
+import com.swiftlogistics.middleware.service.LiveLocationBroadcaster;
+import com.swiftlogistics.middleware.service.RoadNetworkService;
+import com.swiftlogistics.middleware.service.RoutePlanningJobService;
 import com.swiftlogistics.middleware.service.RouteOptimizationService;
+import com.swiftlogistics.middleware.service.StreamingDispatchService;
+import com.swiftlogistics.middleware.tracking.DriverLocationStore;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST Controller for real route and delivery management
@@ -34,6 +46,27 @@ public class RouteManagementController {
     @Autowired
     private RouteOptimizationService routeOptimizationService;
 
+    @Autowired
+    private LiveLocationBroadcaster liveLocationBroadcaster;
+
+    @Autowired
+    private GeocodingService geocodingService;
+
+    @Autowired
+    private RoadNetworkService roadNetworkService;
+
+    @Autowired
+    private RoutePlanningJobService routePlanningJobService;
+
+    @Autowired
+    private StreamingDispatchService streamingDispatchService;
+
+    @Value("${app.gps.nearest.max-k:100}")
+    private int nearbyMaxK;
+
+    @Value("${app.gps.nearest.max-radius-km:50}")
+    private double nearbyMaxRadiusKm;
+
     /**
      * Automatically assign deliveries to available drivers
      */
@@ -48,6 +81,89 @@ public class RouteManagementController {
         }
     }
 
+    /**
+     * Streaming dispatcher counters: events, batches, orders placed and parked
+     */
+    @GetMapping("/dispatch/stats")
+    public ResponseEntity<Map<String, Object>> getDispatchStats() {
+        return ResponseEntity.ok(streamingDispatchService.getStats());
+    }
+
+    /**
+     * Submit a next-day planning job; poll it for progress and fetch its routes when finished
+     */
+    @PostMapping("/plan-jobs")
+    public ResponseEntity<Map<String, Object>> submitPlanningJob(@RequestParam(required = false) Long budgetSeconds) {
+        try {
+            Map<String, Object> job = routePlanningJobService.submit(budgetSeconds);
+            return job.containsKey("jobId") ? ResponseEntity.accepted().body(job) : ResponseEntity.ok(job);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503)
+                .body(Map.of("error", "Planning queue is full, retry once a running job finishes"));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to submit planning job: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * List retained planning jobs, newest first
+     */
+    @GetMapping("/plan-jobs")
+    public ResponseEntity<List<Map<String, Object>>> listPlanningJobs() {
+        return ResponseEntity.ok(routePlanningJobService.listJobs());
+    }
+
+    /**
+     * Get a planning job's state, progress and best distance so far
+     */
+    @GetMapping("/plan-jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> getPlanningJob(@PathVariable String jobId) {
+        Map<String, Object> status = routePlanningJobService.getStatus(jobId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Cancel a planning job; a running search keeps its best plan so far
+     */
+    @DeleteMapping("/plan-jobs/{jobId}")
+    public ResponseEntity<Map<String, Object>> cancelPlanningJob(@PathVariable String jobId) {
+        Map<String, Object> status = routePlanningJobService.cancel(jobId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Get the routes a finished planning job produced
+     */
+    @GetMapping("/plan-jobs/{jobId}/result")
+    public ResponseEntity<Map<String, Object>> getPlanningJobResult(@PathVariable String jobId) {
+        Map<String, Object> status = routePlanningJobService.getStatus(jobId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        List<OptimizedRoute> routes = routePlanningJobService.getResult(jobId);
+        if (routes == null) {
+            return ResponseEntity.status(409).body(Map.of("error", "Planning job " + jobId + " has no result yet"));
+        }
+        Map<String, Object> result = new HashMap<>(status);
+        result.put("routes", routes);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Insert an urgent order into the cheapest live route
+     */
+    @PostMapping("/insert/{orderId}")
+    public ResponseEntity<Map<String, Object>> insertUrgentOrder(@PathVariable Long orderId) {
+        try {
+            Map<String, Object> result = deliveryManagementService.insertUrgentOrder(orderId);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to insert order: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get real-time status of all active deliveries
      */
@@ -78,12 +194,20 @@ public class RouteManagementController {
             double heading = locationData.containsKey("heading") ? 
                 ((Number) locationData.get("heading")).doubleValue() : 0.0;
 
-            gpsTrackingService.updateDriverLocation(driverId, latitude, longitude, 
+            Map<String, Object> result = gpsTrackingService.updateDriverLocation(driverId, latitude, longitude,
                 speed, heading, new java.util.Date());
+            if (((Number) result.get("rejected")).intValue() > 0) {
+                return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Invalid location data: fix out of range"));
+            }
+            if (((Number) result.get("dropped")).intValue() > 0) {
+                return ResponseEntity.status(503)
+                    .body(Map.of("error", "Location ingest queue is full, retry shortly"));
+            }
 
             return ResponseEntity.ok(Map.of(
                 "status", "success",
-                "message", "Location updated for driver " + driverId
+                "message", "Location accepted for driver " + driverId
             ));
 
         } catch (Exception e) {
@@ -92,6 +216,37 @@ public class RouteManagementController {
         }
     }
 
+    /**
+     * Bulk ingest of location fixes from many drivers
+     */
+    @PostMapping("/location/batch")
+    public ResponseEntity<Map<String, Object>> ingestLocationBatch(@RequestBody List<LocationFix> fixes) {
+        try {
+            Map<String, Object> result = gpsTrackingService.ingestLocationBatch(fixes);
+            result.put("status", "success");
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Invalid location batch: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get batch ingest pipeline counters
+     */
+    @GetMapping("/location/ingest/stats")
+    public ResponseEntity<Map<String, Object>> getIngestStats() {
+        return ResponseEntity.ok(gpsTrackingService.getIngestStats());
+    }
+
+    /**
+     * Get live-location push channel counters
+     */
+    @GetMapping("/fleet/live/stats")
+    public ResponseEntity<Map<String, Object>> getLiveLocationStats() {
+        return ResponseEntity.ok(liveLocationBroadcaster.getStats());
+    }
+
     /**
      * Get live tracking data for a specific driver
      */
@@ -106,6 +261,25 @@ public class RouteManagementController {
         }
     }
 
+    /**
+     * Get recorded location history for a driver (epoch millis range)
+     */
+    @GetMapping("/tracking/{driverId}/history")
+    public ResponseEntity<Map<String, Object>> getDriverHistory(
+            @PathVariable String driverId,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to) {
+        try {
+            Map<String, Object> history = gpsTrackingService.getLocationHistory(driverId,
+                from != null ? from : 0L,
+                to != null ? to : Long.MAX_VALUE);
+            return ResponseEntity.ok(history);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to get location history: " + e.getMessage()));
+        }
+    }
+
     /**
      * Calculate ETA to a specific address
      */
@@ -122,6 +296,38 @@ public class RouteManagementController {
         }
     }
 
+    /**
+     * Geocode an address against the offline gazetteer
+     */
+    @GetMapping("/geocode")
+    public ResponseEntity<GeocodeResult> geocode(@RequestParam String address) {
+        return ResponseEntity.ok(geocodingService.geocode(address));
+    }
+
+    /**
+     * Get geocoding cache counters
+     */
+    @GetMapping("/geocode/stats")
+    public ResponseEntity<Map<String, Object>> getGeocodingStats() {
+        return ResponseEntity.ok(geocodingService.getStats());
+    }
+
+    /**
+     * Get road network routing counters
+     */
+    @GetMapping("/road-network/stats")
+    public ResponseEntity<Map<String, Object>> getRoadNetworkStats() {
+        return ResponseEntity.ok(roadNetworkService.getStats());
+    }
+
+    /**
+     * Get route result and road leg cache counters
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getRouteCacheStats() {
+        return ResponseEntity.ok(routeOptimizationService.getCacheStats());
+    }
+
     /**
      * Complete a delivery
      */
@@ -166,24 +372,26 @@ public class RouteManagementController {
     @GetMapping("/fleet/locations")
     public ResponseEntity<Map<String, Object>> getFleetLocations() {
         try {
-            Map<String, GPSTrackingService.DriverLocation> locations = 
-                gpsTrackingService.getAllDriverLocations();
+            DriverLocationStore.LocationSnapshot snapshot = gpsTrackingService.getFleetSnapshot();
             
             // Convert to a more JSON-friendly format
             Map<String, Object> response = new java.util.HashMap<>();
-            locations.forEach((driverId, location) -> {
-                response.put(driverId, Map.of(
-                    "latitude", location.getLatitude(),
-                    "longitude", location.getLongitude(),
-                    "speed", location.getSpeed(),
-                    "heading", location.getHeading(),
-                    "timestamp", location.getTimestamp()
+            for (int slot = 0; slot < snapshot.size(); slot++) {
+                if (!snapshot.hasFix(slot)) {
+                    continue;
+                }
+                response.put(snapshot.getDriverId(slot), Map.of(
+                    "latitude", snapshot.getLatitude(slot),
+                    "longitude", snapshot.getLongitude(slot),
+                    "speed", snapshot.getSpeed(slot),
+                    "heading", snapshot.getHeading(slot),
+                    "timestamp", new java.util.Date(snapshot.getTimestamp(slot))
                 ));
-            });
+            }
 
             return ResponseEntity.ok(Map.of(
                 "status", "success",
-                "driverCount", locations.size(),
+                "driverCount", response.size(),
                 "locations", response
             ));
 
@@ -193,6 +401,43 @@ public class RouteManagementController {
         }
     }
 
+    /**
+     * Find active drivers near a point: k nearest, or all within radiusKm when given
+     */
+    @GetMapping("/fleet/nearby")
+    public ResponseEntity<Map<String, Object>> findNearbyDrivers(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(required = false) Double radiusKm) {
+        if (!(latitude >= -90.0 && latitude <= 90.0) || !(longitude >= -180.0 && longitude <= 180.0)) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "latitude and longitude must be valid coordinates"));
+        }
+        if (radiusKm != null && !(radiusKm > 0 && radiusKm <= nearbyMaxRadiusKm)) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "radiusKm must be above 0 and at most " + nearbyMaxRadiusKm));
+        }
+        if (radiusKm == null && (k < 1 || k > nearbyMaxK)) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "k must be between 1 and " + nearbyMaxK));
+        }
+        try {
+            List<GPSTrackingService.NearbyDriver> drivers = radiusKm != null
+                ? gpsTrackingService.findDriversInRadius(latitude, longitude, radiusKm)
+                : gpsTrackingService.findNearestDrivers(latitude, longitude, k);
+
+            return ResponseEntity.ok(Map.of(
+                "status", "success",
+                "driverCount", drivers.size(),
+                "drivers", drivers
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to find nearby drivers: " + e.getMessage()));
+        }
+    }
+
     /**
      * Health check for route management system
      */
@@ -0,0 +1,63 @@
+package com.swiftlogistics.middleware.dto;
+
+/**
+ * DTO for the cheapest feasible place of a new order in a live route
+ */
+public class LiveInsertion {
+
+    private String driverId;
+    private String routeId;
+    private String orderReference;
+    private int routePointIndex; // Index the new point takes in the route's point list
+    private String previousStop; // Order reference of the stop before, null right after the current position
+    private double addedDistanceKm;
+    private double addedMinutes; // Later completion of the route on the traffic-aware schedule
+    private int estimatedArrivalMinutes; // From now
+    private int routesEvaluated;
+    private long elapsedMicros;
+
+    // Constructors
+    public LiveInsertion() {}
+
+    public LiveInsertion(String driverId, String routeId, String orderReference, int routePointIndex,
+                         String previousStop, double addedDistanceKm, int estimatedArrivalMinutes) {
+        this.driverId = driverId;
+        this.routeId = routeId;
+        this.orderReference = orderReference;
+        this.routePointIndex = routePointIndex;
+        this.previousStop = previousStop;
+        this.addedDistanceKm = addedDistanceKm;
+        this.estimatedArrivalMinutes = estimatedArrivalMinutes;
+    }
+
+    // Getters and Setters
+    public String getDriverId() { return driverId; }
+    public void setDriverId(String driverId) { this.driverId = driverId; }
+
+    public String getRouteId() { return routeId; }
+    public void setRouteId(String routeId) { this.routeId = routeId; }
+
+    public String getOrderReference() { return orderReference; }
+    public void setOrderReference(String orderReference) { this.orderReference = orderReference; }
+
+    public int getRoutePointIndex() { return routePointIndex; }
+    public void setRoutePointIndex(int routePointIndex) { this.routePointIndex = routePointIndex; }
+
+    public String getPreviousStop() { return previousStop; }
+    public void setPreviousStop(String previousStop) { this.previousStop = previousStop; }
+
+    public double getAddedDistanceKm() { return addedDistanceKm; }
+    public void setAddedDistanceKm(double addedDistanceKm) { this.addedDistanceKm = addedDistanceKm; }
+
+    public double getAddedMinutes() { return addedMinutes; }
+    public void setAddedMinutes(double addedMinutes) { this.addedMinutes = addedMinutes; }
+
+    public int getEstimatedArrivalMinutes() { return estimatedArrivalMinutes; }
+    public void setEstimatedArrivalMinutes(int estimatedArrivalMinutes) { this.estimatedArrivalMinutes = estimatedArrivalMinutes; }
+
+    public int getRoutesEvaluated() { return routesEvaluated; }
+    public void setRoutesEvaluated(int routesEvaluated) { this.routesEvaluated = routesEvaluated; }
+
+    public long getElapsedMicros() { return elapsedMicros; }
+    public void setElapsedMicros(long elapsedMicros) { this.elapsedMicros = elapsedMicros; }
+}
@@ -0,0 +1,46 @@
+package com.swiftlogistics.middleware.dto;
+
+/**
+ * DTO for the latest position of one driver in a live-location push
+ */
+public class LocationDelta {
+
+    private String driverId;
+    private double latitude;
+    private double longitude;
+    private double speed;
+    private double heading;
+    private long timestamp; // epoch millis of the fix
+
+    // Constructors
+    public LocationDelta() {}
+
+    public LocationDelta(String driverId, double latitude, double longitude,
+                         double speed, double heading, long timestamp) {
+        this.driverId = driverId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.speed = speed;
+        this.heading = heading;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and Setters
+    public String getDriverId() { return driverId; }
+    public void setDriverId(String driverId) { this.driverId = driverId; }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+
+    public double getSpeed() { return speed; }
+    public void setSpeed(double speed) { this.speed = speed; }
+
+    public double getHeading() { return heading; }
+    public void setHeading(double heading) { this.heading = heading; }
+
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+}
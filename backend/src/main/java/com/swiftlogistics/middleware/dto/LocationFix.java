@@ -0,0 +1,42 @@
+package com.swiftlogistics.middleware.dto;
+
+/**
+ * DTO for a single GPS fix pushed by a driver device
+ */
+public class LocationFix {
+
+    private String driverId;
+    private double latitude;
+    private double longitude;
+    private Double speed; // km/h
+    private Double heading; // degrees
+    private Long timestamp; // epoch millis, defaults to receive time
+
+    // Constructors
+    public LocationFix() {}
+
+    public LocationFix(String driverId, double latitude, double longitude) {
+        this.driverId = driverId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    // Getters and Setters
+    public String getDriverId() { return driverId; }
+    public void setDriverId(String driverId) { this.driverId = driverId; }
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+
+    public Double getSpeed() { return speed; }
+    public void setSpeed(Double speed) { this.speed = speed; }
+
+    public Double getHeading() { return heading; }
+    public void setHeading(Double heading) { this.heading = heading; }
+
+    public Long getTimestamp() { return timestamp; }
+    public void setTimestamp(Long timestamp) { this.timestamp = timestamp; }
+}
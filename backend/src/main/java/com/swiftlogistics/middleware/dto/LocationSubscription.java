@@ -0,0 +1,42 @@
+package com.swiftlogistics.middleware.dto;
+
+import java.util.List;
+
+/**
+ * DTO for a live-location subscription: either a set of drivers or a map viewport
+ */
+public class LocationSubscription {
+
+    private List<String> driverIds; // When set, the viewport is ignored
+    private Double minLatitude;
+    private Double maxLatitude;
+    private Double minLongitude;
+    private Double maxLongitude;
+
+    // Constructors
+    public LocationSubscription() {}
+
+    public boolean isDriverSet() {
+        return driverIds != null && !driverIds.isEmpty();
+    }
+
+    public boolean isViewport() {
+        return minLatitude != null && maxLatitude != null && minLongitude != null && maxLongitude != null;
+    }
+
+    // Getters and Setters
+    public List<String> getDriverIds() { return driverIds; }
+    public void setDriverIds(List<String> driverIds) { this.driverIds = driverIds; }
+
+    public Double getMinLatitude() { return minLatitude; }
+    public void setMinLatitude(Double minLatitude) { this.minLatitude = minLatitude; }
+
+    public Double getMaxLatitude() { return maxLatitude; }
+    public void setMaxLatitude(Double maxLatitude) { this.maxLatitude = maxLatitude; }
+
+    public Double getMinLongitude() { return minLongitude; }
+    public void setMinLongitude(Double minLongitude) { this.minLongitude = minLongitude; }
+
+    public Double getMaxLongitude() { return maxLongitude; }
+    public void setMaxLongitude(Double maxLongitude) { this.maxLongitude = maxLongitude; }
+}
@@ -10,6 +10,7 @@ public class OptimizedRoute {
     private String routeId;
     private List<RoutePoint> routePoints;
     private double totalDistanceKm;
+    private Double constructedDistanceKm; // Before the improvement stage
     private int estimatedTimeMinutes;
     private Date createdAt;
     private Date lastUpdated;
@@ -60,6 +61,14 @@ public class OptimizedRoute {
         this.totalDistanceKm = totalDistanceKm;
     }
 
+    public Double getConstructedDistanceKm() {
+        return constructedDistanceKm;
+    }
+
+    public void setConstructedDistanceKm(Double constructedDistanceKm) {
+        this.constructedDistanceKm = constructedDistanceKm;
+    }
+
     public int getEstimatedTimeMinutes() {
         return estimatedTimeMinutes;
     }
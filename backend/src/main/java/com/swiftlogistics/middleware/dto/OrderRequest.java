@@ -1,8 +1,12 @@
 package com.swiftlogistics.middleware.dto;
 
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import java.time.LocalTime;
+
 public class OrderRequest {
     
     @NotNull
@@ -19,6 +23,13 @@ public class OrderRequest {
     private Double packageWeight;
     private String packageDimensions;
     
+    // Optional delivery window ("HH:mm") and time spent at the door
+    private LocalTime deliveryWindowStart;
+    private LocalTime deliveryWindowEnd;
+    
+    @Min(0)
+    private Integer serviceMinutes;
+    
     // Constructors
     public OrderRequest() {}
     
@@ -49,4 +60,18 @@ public class OrderRequest {
     
     public String getPackageDimensions() { return packageDimensions; }
     public void setPackageDimensions(String packageDimensions) { this.packageDimensions = packageDimensions; }
+    
+    public LocalTime getDeliveryWindowStart() { return deliveryWindowStart; }
+    public void setDeliveryWindowStart(LocalTime deliveryWindowStart) { this.deliveryWindowStart = deliveryWindowStart; }
+    
+    public LocalTime getDeliveryWindowEnd() { return deliveryWindowEnd; }
+    public void setDeliveryWindowEnd(LocalTime deliveryWindowEnd) { this.deliveryWindowEnd = deliveryWindowEnd; }
+    
+    public Integer getServiceMinutes() { return serviceMinutes; }
+    public void setServiceMinutes(Integer serviceMinutes) { this.serviceMinutes = serviceMinutes; }
+    
+    @AssertTrue(message = "deliveryWindowEnd must be after deliveryWindowStart")
+    public boolean isDeliveryWindowValid() {
+        return deliveryWindowStart == null || deliveryWindowEnd == null || deliveryWindowEnd.isAfter(deliveryWindowStart);
+    }
 }
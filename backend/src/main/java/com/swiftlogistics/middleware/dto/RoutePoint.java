@@ -1,5 +1,7 @@
 package com.swiftlogistics.middleware.dto;
 
+import java.time.LocalTime;
+
 /**
  * Represents a point in a delivery route with coordinates and metadata
  */
@@ -11,6 +13,9 @@ public class RoutePoint {
     private String orderReference;
     private String pointType; // START, DELIVERY, WAREHOUSE
     private Integer estimatedArrivalMinutes;
+    private LocalTime deliveryWindowStart;
+    private LocalTime deliveryWindowEnd;
+    private Integer serviceMinutes;
     private String status; // PENDING, COMPLETED, SKIPPED
 
     // Constructors
@@ -31,6 +36,20 @@ public class RoutePoint {
         this.pointType = pointType;
     }
 
+    public RoutePoint(RoutePoint other) {
+        this.address = other.address;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.pointId = other.pointId;
+        this.orderReference = other.orderReference;
+        this.pointType = other.pointType;
+        this.estimatedArrivalMinutes = other.estimatedArrivalMinutes;
+        this.deliveryWindowStart = other.deliveryWindowStart;
+        this.deliveryWindowEnd = other.deliveryWindowEnd;
+        this.serviceMinutes = other.serviceMinutes;
+        this.status = other.status;
+    }
+
     // Getters and Setters
     public String getAddress() {
         return address;
@@ -88,6 +107,30 @@ public class RoutePoint {
         this.estimatedArrivalMinutes = estimatedArrivalMinutes;
     }
 
+    public LocalTime getDeliveryWindowStart() {
+        return deliveryWindowStart;
+    }
+
+    public void setDeliveryWindowStart(LocalTime deliveryWindowStart) {
+        this.deliveryWindowStart = deliveryWindowStart;
+    }
+
+    public LocalTime getDeliveryWindowEnd() {
+        return deliveryWindowEnd;
+    }
+
+    public void setDeliveryWindowEnd(LocalTime deliveryWindowEnd) {
+        this.deliveryWindowEnd = deliveryWindowEnd;
+    }
+
+    public Integer getServiceMinutes() {
+        return serviceMinutes;
+    }
+
+    public void setServiceMinutes(Integer serviceMinutes) {
+        this.serviceMinutes = serviceMinutes;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -0,0 +1,25 @@
+package com.swiftlogistics.middleware.geo;
+
+/**
+ * Distances in kilometres from one point to a batch of points
+ */
+public interface DistanceKernel {
+
+    enum Formula {
+        /** Great-circle distance, exact on the sphere */
+        HAVERSINE,
+        /**
+         * Flat projection scaled by the cosine of the origin's latitude; within
+         * a fraction of a percent for hops of a few kilometres, but not across
+         * the antimeridian
+         */
+        EQUIRECTANGULAR
+    }
+
+    /**
+     * Fill out[i] with the distance from the origin to point i; out must hold
+     * at least as many entries as there are points
+     */
+    void distances(double fromLatitude, double fromLongitude, double[] latitudes, double[] longitudes,
+                   double[] out);
+}
@@ -0,0 +1,332 @@
+package com.swiftlogistics.middleware.geo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline index of localities and streets for address matching.
+ * Names and aliases are normalized into one {@link NameTrie}. An address is
+ * normalized the same way and every run of up to four words is looked up,
+ * exactly first and within one or two edits otherwise; the longest street
+ * match wins, resolved to its stretch in the matched locality, and a
+ * locality alone is the coarser answer.
+ *
+ * Source lines are {@code kind,name,locality,latitude,longitude,aliases}
+ * where kind is locality or street, a street names its locality and aliases
+ * are separated by '|'. Blank lines and lines starting with '#' are skipped.
+ */
+public final class Gazetteer {
+
+    private static final int MAX_SPAN_TOKENS = 4;
+    private static final int MIN_FUZZY_LENGTH = 5;
+    private static final int TWO_EDIT_LENGTH = 9;
+
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+        Map.entry("rd", "road"),
+        Map.entry("st", "street"),
+        Map.entry("mw", "mawatha"),
+        Map.entry("mwt", "mawatha"),
+        Map.entry("mawata", "mawatha"),
+        Map.entry("ave", "avenue"),
+        Map.entry("av", "avenue"),
+        Map.entry("pl", "place"),
+        Map.entry("dr", "drive"),
+        Map.entry("mt", "mount"),
+        Map.entry("col", "colombo"),
+        Map.entry("cmb", "colombo"));
+
+    private final NameTrie trie;
+    private final boolean[] street;
+    private final String[] names;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final int[] localityOf; // Locality entry of a street, -1 for localities
+
+    private Gazetteer(NameTrie trie, boolean[] street, String[] names, double[] latitudes, double[] longitudes,
+                      int[] localityOf) {
+        this.trie = trie;
+        this.street = street;
+        this.names = names;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.localityOf = localityOf;
+    }
+
+    public static Gazetteer empty() {
+        return new Gazetteer(new NameTrie.Builder().build(), new boolean[0], new String[0],
+            new double[0], new double[0], new int[0]);
+    }
+
+    public static Gazetteer load(InputStream input) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length < 5 || !(fields[0].equals("locality") || fields[0].equals("street"))) {
+                    throw new IOException("Malformed gazetteer line " + lineNumber + ": " + line);
+                }
+                rows.add(fields);
+                lineNumbers.add(lineNumber);
+            }
+        }
+
+        int count = rows.size();
+        boolean[] street = new boolean[count];
+        String[] names = new String[count];
+        double[] latitudes = new double[count];
+        double[] longitudes = new double[count];
+        int[] localityOf = new int[count];
+        Map<String, Integer> localities = new HashMap<>();
+        NameTrie.Builder builder = new NameTrie.Builder();
+        for (int i = 0; i < count; i++) {
+            String[] fields = rows.get(i);
+            street[i] = fields[0].equals("street");
+            names[i] = fields[1].trim();
+            try {
+                latitudes[i] = Double.parseDouble(fields[3].trim());
+                longitudes[i] = Double.parseDouble(fields[4].trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad coordinates on gazetteer line " + lineNumbers.get(i));
+            }
+            builder.add(normalizedName(names[i]), i);
+            if (fields.length > 5 && !fields[5].isBlank()) {
+                for (String alias : fields[5].split("\\|")) {
+                    builder.add(normalizedName(alias), i);
+                }
+            }
+            if (!street[i]) {
+                localities.put(normalizedName(names[i]), i);
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            localityOf[i] = -1;
+            if (street[i]) {
+                Integer locality = localities.get(normalizedName(rows.get(i)[2]));
+                if (locality == null) {
+                    throw new IOException("Unknown locality '" + rows.get(i)[2] + "' on gazetteer line "
+                        + lineNumbers.get(i));
+                }
+                localityOf[i] = locality;
+            }
+        }
+        return new Gazetteer(builder.build(), street, names, latitudes, longitudes, localityOf);
+    }
+
+    /**
+     * Best street or locality for the address, or null when nothing matches
+     */
+    public GeocodeResult match(String address) {
+        List<String> tokens = normalize(address);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        Span streetSpan = findExact(tokens, true, null);
+        if (streetSpan == null) {
+            streetSpan = findFuzzy(tokens, true, null);
+        }
+        Span localitySpan = findExact(tokens, false, streetSpan);
+        if (localitySpan == null) {
+            localitySpan = findFuzzy(tokens, false, streetSpan);
+        }
+
+        int locality = localitySpan != null ? firstOfKind(localitySpan.node, false) : -1;
+        if (streetSpan != null) {
+            int entry = resolveStreet(streetSpan.node, locality);
+            String matched = names[entry] + ", " + names[localityOf[entry]];
+            return new GeocodeResult(latitudes[entry], longitudes[entry], GeocodeResult.Precision.STREET,
+                streetSpan.fuzzy || (localitySpan != null && localitySpan.fuzzy), matched);
+        }
+        if (locality >= 0) {
+            return new GeocodeResult(latitudes[locality], longitudes[locality], GeocodeResult.Precision.LOCALITY,
+                localitySpan.fuzzy, names[locality]);
+        }
+        return null;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Longest run of tokens naming an entry of the kind; ties go to the
+     * first street or the last locality, as addresses end with the locality
+     */
+    private Span findExact(List<String> tokens, boolean streets, Span exclude) {
+        Span best = null;
+        for (int first = 0; first < tokens.size(); first++) {
+            int node = trie.root();
+            for (int last = first; last < tokens.size() && last < first + MAX_SPAN_TOKENS; last++) {
+                if (last > first) {
+                    node = trie.step(node, ' ');
+                }
+                String token = tokens.get(last);
+                for (int c = 0; c < token.length() && node >= 0; c++) {
+                    node = trie.step(node, token.charAt(c));
+                }
+                if (node < 0) {
+                    break;
+                }
+                if (firstOfKind(node, streets) >= 0 && (exclude == null || !exclude.overlaps(first, last))) {
+                    int length = last - first;
+                    if (best == null || length > best.last - best.first || (!streets && length == best.last - best.first)) {
+                        best = new Span(first, last, node, false, 0);
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Closest run of tokens within the edit limit for its length; fewer
+     * edits first, then more tokens
+     */
+    private Span findFuzzy(List<String> tokens, boolean streets, Span exclude) {
+        Span best = null;
+        StringBuilder key = new StringBuilder();
+        for (int first = 0; first < tokens.size(); first++) {
+            key.setLength(0);
+            for (int last = first; last < tokens.size() && last < first + MAX_SPAN_TOKENS; last++) {
+                if (last > first) {
+                    key.append(' ');
+                }
+                key.append(tokens.get(last));
+                if (key.length() < MIN_FUZZY_LENGTH || (exclude != null && exclude.overlaps(first, last))) {
+                    continue;
+                }
+                int maxEdits = key.length() >= TWO_EDIT_LENGTH ? 2 : 1;
+                NameTrie.FuzzyMatch match = trie.findFuzzy(key, maxEdits);
+                if (match == null || firstOfKind(match.getNode(), streets) < 0) {
+                    continue;
+                }
+                int length = last - first;
+                if (best == null || match.getDistance() < best.distance
+                        || (match.getDistance() == best.distance && length > best.last - best.first)) {
+                    best = new Span(first, last, match.getNode(), true, match.getDistance());
+                }
+            }
+        }
+        return best;
+    }
+
+    private int firstOfKind(int node, boolean streets) {
+        for (int k = 0; k < trie.valueCount(node); k++) {
+            int entry = trie.value(node, k);
+            if (street[entry] == streets) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The street's stretch in the locality, else the stretch nearest to it,
+     * else the first one listed
+     */
+    private int resolveStreet(int node, int locality) {
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int k = 0; k < trie.valueCount(node); k++) {
+            int entry = trie.value(node, k);
+            if (!street[entry]) {
+                continue;
+            }
+            if (locality < 0) {
+                return entry;
+            }
+            if (localityOf[entry] == locality) {
+                return entry;
+            }
+            double distance = GeoMath.haversineKm(latitudes[entry], longitudes[entry],
+                latitudes[locality], longitudes[locality]);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = entry;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lower-case words with punctuation removed and common abbreviations
+     * expanded. House numbers are dropped; a number right after "colombo"
+     * is kept as the postal district without leading zeros.
+     */
+    static List<String> normalize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? Character.toLowerCase(text.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+                continue;
+            }
+            if (word.length() > 0) {
+                addToken(tokens, word.toString());
+                word.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, String word) {
+        if (Character.isDigit(word.charAt(0))) {
+            boolean district = !tokens.isEmpty() && tokens.get(tokens.size() - 1).equals("colombo");
+            if (district && word.length() <= 3 && word.chars().allMatch(Character::isDigit)) {
+                tokens.add(Integer.toString(Integer.parseInt(word)));
+            } else if (word.endsWith("st") || word.endsWith("nd") || word.endsWith("rd") || word.endsWith("th")) {
+                tokens.add(word); // Ordinal, as in "1st lane"
+            }
+            return; // House number
+        }
+        if (word.equals("no")) {
+            return;
+        }
+        tokens.add(ABBREVIATIONS.getOrDefault(word, word));
+    }
+
+    private static String normalizedName(String name) {
+        return String.join(" ", normalize(name));
+    }
+
+    /**
+     * Tokens first..last of the address matched to a trie node
+     */
+    private static final class Span {
+        private final int first;
+        private final int last;
+        private final int node;
+        private final boolean fuzzy;
+        private final int distance;
+
+        Span(int first, int last, int node, boolean fuzzy, int distance) {
+            this.first = first;
+            this.last = last;
+            this.node = node;
+            this.fuzzy = fuzzy;
+            this.distance = distance;
+        }
+
+        boolean overlaps(int otherFirst, int otherLast) {
+            return otherFirst <= last && otherLast >= first;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.swiftlogistics.middleware.geo;
+
+/**
+ * Shared great-circle helpers for tracking and routing code. Batch
+ * distances run on the Vector API when the JVM was started with
+ * --add-modules jdk.incubator.vector, and on a scalar loop otherwise.
+ */
+public final class GeoMath {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+
+    // Length of one degree of latitude in kilometres
+    public static final double KM_PER_DEGREE = Math.toRadians(1.0) * EARTH_RADIUS_KM;
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "com.swiftlogistics.middleware.geo.VectorDistanceKernel";
+
+    private static final DistanceKernel HAVERSINE = bestKernel(DistanceKernel.Formula.HAVERSINE);
+    private static final DistanceKernel EQUIRECTANGULAR = bestKernel(DistanceKernel.Formula.EQUIRECTANGULAR);
+
+    private GeoMath() {}
+
+    /**
+     * Haversine distance between two points in kilometres
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double latDistance = Math.toRadians(lat2 - lat1);
+        double lonDistance = Math.toRadians(lon2 - lon1);
+
+        double sinLat = Math.sin(latDistance / 2);
+        double sinLon = Math.sin(lonDistance / 2);
+        double a = sinLat * sinLat
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * sinLon * sinLon;
+
+        return 2 * EARTH_RADIUS_KM * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+
+    /**
+     * Degrees of longitude spanned by a distance at the given latitude
+     */
+    public static double kmToLongitudeDegrees(double km, double latitude) {
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 1e-6);
+        return km / (KM_PER_DEGREE * cosLat);
+    }
+
+    /**
+     * Degrees of latitude spanned by a distance
+     */
+    public static double kmToLatitudeDegrees(double km) {
+        return km / KM_PER_DEGREE;
+    }
+
+    /**
+     * Equirectangular approximation of the distance in kilometres, matching
+     * {@link DistanceKernel.Formula#EQUIRECTANGULAR}; meant for short hops
+     */
+    public static double equirectangularKm(double lat1, double lon1, double lat2, double lon2) {
+        double x = (lon2 - lon1) * Math.cos(Math.toRadians(lat1));
+        double y = lat2 - lat1;
+        return KM_PER_DEGREE * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Haversine distances in kilometres from one point to each of the points
+     */
+    public static void distances(double fromLat, double fromLon, double[] lats, double[] lons, double[] out) {
+        HAVERSINE.distances(fromLat, fromLon, lats, lons, out);
+    }
+
+    /**
+     * Equirectangular distances in kilometres from one point to each of the
+     * points, for batches of short hops
+     */
+    public static void equirectangularDistances(double fromLat, double fromLon, double[] lats, double[] lons,
+                                                double[] out) {
+        EQUIRECTANGULAR.distances(fromLat, fromLon, lats, lons, out);
+    }
+
+    /**
+     * Fastest kernel available in this JVM for the formula
+     */
+    public static DistanceKernel kernel(DistanceKernel.Formula formula) {
+        return formula == DistanceKernel.Formula.HAVERSINE ? HAVERSINE : EQUIRECTANGULAR;
+    }
+
+    /**
+     * SIMD kernel for the formula, or null when the Vector API module is not
+     * part of this JVM
+     */
+    public static DistanceKernel vectorKernel(DistanceKernel.Formula formula) {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            // Loaded reflectively so nothing links against the module when it is absent
+            return (DistanceKernel) Class.forName(VECTOR_KERNEL)
+                .getDeclaredConstructor(DistanceKernel.Formula.class)
+                .newInstance(formula);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    public static boolean isVectorized() {
+        return !(HAVERSINE instanceof ScalarDistanceKernel);
+    }
+
+    private static DistanceKernel bestKernel(DistanceKernel.Formula formula) {
+        DistanceKernel vector = vectorKernel(formula);
+        return vector != null ? vector : new ScalarDistanceKernel(formula);
+    }
+}
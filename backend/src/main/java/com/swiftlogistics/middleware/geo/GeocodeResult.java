@@ -0,0 +1,34 @@
+package com.swiftlogistics.middleware.geo;
+
+/**
+ * Coordinates found for an address and how precisely they were matched
+ */
+public class GeocodeResult {
+
+    public enum Precision {
+        STREET,
+        LOCALITY,
+        APPROXIMATE // Nothing matched; derived from the address text alone
+    }
+
+    private final double latitude;
+    private final double longitude;
+    private final Precision precision;
+    private final boolean fuzzy;
+    private final String matchedName;
+
+    public GeocodeResult(double latitude, double longitude, Precision precision, boolean fuzzy, String matchedName) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.precision = precision;
+        this.fuzzy = fuzzy;
+        this.matchedName = matchedName;
+    }
+
+    // Getters
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public Precision getPrecision() { return precision; }
+    public boolean isFuzzy() { return fuzzy; }
+    public String getMatchedName() { return matchedName; }
+}
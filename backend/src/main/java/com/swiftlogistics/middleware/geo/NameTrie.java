@@ -0,0 +1,210 @@
+package com.swiftlogistics.middleware.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable character trie from normalized names to integer values, flattened
+ * into parallel arrays. A node's children occupy one sorted range of the edge
+ * arrays and its values one range of the value array, so a lookup is a binary
+ * search per character with no objects touched. Fuzzy lookups walk the trie
+ * with one Levenshtein row per node and prune branches that cannot come back
+ * within the edit limit.
+ */
+public final class NameTrie {
+
+    private static final int ROOT = 0;
+
+    // Edges of node n are edgeLabel/edgeTarget[childStart[n] .. childStart[n + 1])
+    private final int[] childStart;
+    private final char[] edgeLabel;
+    private final int[] edgeTarget;
+
+    // Values of node n are values[valueStart[n] .. valueStart[n + 1])
+    private final int[] valueStart;
+    private final int[] values;
+
+    private NameTrie(int[] childStart, char[] edgeLabel, int[] edgeTarget, int[] valueStart, int[] values) {
+        this.childStart = childStart;
+        this.edgeLabel = edgeLabel;
+        this.edgeTarget = edgeTarget;
+        this.valueStart = valueStart;
+        this.values = values;
+    }
+
+    /**
+     * Walk from node along one character; -1 when there is no such edge
+     */
+    public int step(int node, char c) {
+        int low = childStart[node];
+        int high = childStart[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = edgeLabel[mid];
+            if (label < c) {
+                low = mid + 1;
+            } else if (label > c) {
+                high = mid - 1;
+            } else {
+                return edgeTarget[mid];
+            }
+        }
+        return -1;
+    }
+
+    public int root() {
+        return ROOT;
+    }
+
+    public boolean hasValues(int node) {
+        return valueStart[node + 1] > valueStart[node];
+    }
+
+    public int valueCount(int node) {
+        return valueStart[node + 1] - valueStart[node];
+    }
+
+    /**
+     * The k-th value stored under the node, in insertion order
+     */
+    public int value(int node, int k) {
+        return values[valueStart[node] + k];
+    }
+
+    /**
+     * Node reached by the whole key, or -1
+     */
+    public int find(CharSequence key) {
+        int node = ROOT;
+        for (int i = 0; i < key.length() && node >= 0; i++) {
+            node = step(node, key.charAt(i));
+        }
+        return node;
+    }
+
+    public int nodeCount() {
+        return valueStart.length - 1;
+    }
+
+    /**
+     * Stored key closest to the given one within maxEdits insertions,
+     * deletions or substitutions; ties go to the key met first in
+     * character order. Returns null when none is close enough.
+     */
+    public FuzzyMatch findFuzzy(CharSequence key, int maxEdits) {
+        int[] firstRow = new int[key.length() + 1];
+        for (int i = 0; i < firstRow.length; i++) {
+            firstRow[i] = i;
+        }
+        FuzzyMatch best = new FuzzyMatch(-1, maxEdits + 1);
+        if (hasValues(ROOT) && firstRow[key.length()] <= maxEdits) {
+            best = new FuzzyMatch(ROOT, firstRow[key.length()]);
+        }
+        for (int e = childStart[ROOT]; e < childStart[ROOT + 1]; e++) {
+            best = search(edgeTarget[e], edgeLabel[e], key, firstRow, maxEdits, best);
+        }
+        return best.node >= 0 ? best : null;
+    }
+
+    private FuzzyMatch search(int node, char c, CharSequence key, int[] previous, int maxEdits, FuzzyMatch best) {
+        int columns = previous.length;
+        int[] row = new int[columns];
+        row[0] = previous[0] + 1;
+        int rowMin = row[0];
+        for (int i = 1; i < columns; i++) {
+            int substitute = previous[i - 1] + (key.charAt(i - 1) == c ? 0 : 1);
+            row[i] = Math.min(Math.min(row[i - 1] + 1, previous[i] + 1), substitute);
+            rowMin = Math.min(rowMin, row[i]);
+        }
+        int distance = row[columns - 1];
+        if (distance < best.distance && hasValues(node)) {
+            best = new FuzzyMatch(node, distance);
+        }
+        // Every key below this node is at least rowMin edits away
+        if (rowMin < best.distance) {
+            for (int e = childStart[node]; e < childStart[node + 1]; e++) {
+                best = search(edgeTarget[e], edgeLabel[e], key, row, maxEdits, best);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Node and edit distance of a fuzzy lookup
+     */
+    public static final class FuzzyMatch {
+        private final int node;
+        private final int distance;
+
+        FuzzyMatch(int node, int distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+
+        public int getNode() { return node; }
+        public int getDistance() { return distance; }
+    }
+
+    /**
+     * Collects keys, then flattens them breadth-first
+     */
+    public static final class Builder {
+        private final BuildNode root = new BuildNode();
+        private int nodes = 1;
+        private int valueCount;
+
+        public Builder add(String key, int value) {
+            BuildNode node = root;
+            for (int i = 0; i < key.length(); i++) {
+                BuildNode child = node.children.get(key.charAt(i));
+                if (child == null) {
+                    child = new BuildNode();
+                    node.children.put(key.charAt(i), child);
+                    nodes++;
+                }
+                node = child;
+            }
+            node.values.add(value);
+            valueCount++;
+            return this;
+        }
+
+        public NameTrie build() {
+            int[] childStart = new int[nodes + 1];
+            char[] edgeLabel = new char[nodes - 1];
+            int[] edgeTarget = new int[nodes - 1];
+            int[] valueStart = new int[nodes + 1];
+            int[] values = new int[valueCount];
+
+            // Breadth-first numbering keeps each node's children contiguous
+            List<BuildNode> order = new ArrayList<>(nodes);
+            order.add(root);
+            int edges = 0;
+            int valueCursor = 0;
+            for (int n = 0; n < order.size(); n++) {
+                BuildNode node = order.get(n);
+                childStart[n] = edges;
+                for (Map.Entry<Character, BuildNode> child : node.children.entrySet()) {
+                    edgeLabel[edges] = child.getKey();
+                    edgeTarget[edges] = order.size();
+                    order.add(child.getValue());
+                    edges++;
+                }
+                valueStart[n] = valueCursor;
+                for (int value : node.values) {
+                    values[valueCursor++] = value;
+                }
+            }
+            childStart[nodes] = edges;
+            valueStart[nodes] = valueCursor;
+            return new NameTrie(childStart, edgeLabel, edgeTarget, valueStart, values);
+        }
+
+        private static final class BuildNode {
+            private final TreeMap<Character, BuildNode> children = new TreeMap<>();
+            private final List<Integer> values = new ArrayList<>(1);
+        }
+    }
+}
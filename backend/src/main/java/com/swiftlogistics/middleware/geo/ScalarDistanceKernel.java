@@ -0,0 +1,61 @@
+package com.swiftlogistics.middleware.geo;
+
+/**
+ * Plain loop over the points; the fallback when the Vector API is not
+ * available
+ */
+public final class ScalarDistanceKernel implements DistanceKernel {
+
+    private static final double DIAMETER_KM = 2 * GeoMath.EARTH_RADIUS_KM;
+
+    private final Formula formula;
+
+    public ScalarDistanceKernel(Formula formula) {
+        this.formula = formula;
+    }
+
+    @Override
+    public void distances(double fromLatitude, double fromLongitude, double[] latitudes, double[] longitudes,
+                          double[] out) {
+        distances(fromLatitude, fromLongitude, latitudes, longitudes, out, 0,
+            checkLengths(latitudes, longitudes, out));
+    }
+
+    /**
+     * Distances to points start (inclusive) to end (exclusive) only
+     */
+    void distances(double fromLatitude, double fromLongitude, double[] latitudes, double[] longitudes,
+                   double[] out, int start, int end) {
+        double cosFrom = Math.cos(Math.toRadians(fromLatitude));
+        if (formula == Formula.EQUIRECTANGULAR) {
+            for (int i = start; i < end; i++) {
+                double x = (longitudes[i] - fromLongitude) * cosFrom;
+                double y = latitudes[i] - fromLatitude;
+                out[i] = GeoMath.KM_PER_DEGREE * Math.sqrt(x * x + y * y);
+            }
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            double sinLat = Math.sin(Math.toRadians(latitudes[i] - fromLatitude) / 2);
+            double sinLon = Math.sin(Math.toRadians(longitudes[i] - fromLongitude) / 2);
+            double a = sinLat * sinLat + cosFrom * Math.cos(Math.toRadians(latitudes[i])) * sinLon * sinLon;
+            out[i] = DIAMETER_KM * Math.asin(Math.sqrt(Math.min(a, 1.0)));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "scalar " + formula.name().toLowerCase();
+    }
+
+    static int checkLengths(double[] latitudes, double[] longitudes, double[] out) {
+        int n = latitudes.length;
+        if (longitudes.length != n) {
+            throw new IllegalArgumentException("Latitude and longitude counts differ");
+        }
+        if (out.length < n) {
+            throw new IllegalArgumentException("Output holds " + out.length + " of " + n + " distances");
+        }
+        return n;
+    }
+}
@@ -0,0 +1,70 @@
+package com.swiftlogistics.middleware.geo;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD kernel on the incubating Vector API, processing as many points per
+ * step as the widest vector the CPU supports and finishing the tail with
+ * the scalar loop. Only loaded through {@link GeoMath} once the
+ * jdk.incubator.vector module is known to be present, so the JVM must be
+ * started with --add-modules jdk.incubator.vector to use it.
+ */
+final class VectorDistanceKernel implements DistanceKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double DIAMETER_KM = 2 * GeoMath.EARTH_RADIUS_KM;
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180;
+
+    private final Formula formula;
+    private final ScalarDistanceKernel tail;
+
+    VectorDistanceKernel(Formula formula) {
+        this.formula = formula;
+        this.tail = new ScalarDistanceKernel(formula);
+    }
+
+    @Override
+    public void distances(double fromLatitude, double fromLongitude, double[] latitudes, double[] longitudes,
+                          double[] out) {
+        int n = ScalarDistanceKernel.checkLengths(latitudes, longitudes, out);
+        int bound = SPECIES.loopBound(n);
+        if (formula == Formula.EQUIRECTANGULAR) {
+            equirectangular(fromLatitude, fromLongitude, latitudes, longitudes, out, bound);
+        } else {
+            haversine(fromLatitude, fromLongitude, latitudes, longitudes, out, bound);
+        }
+        tail.distances(fromLatitude, fromLongitude, latitudes, longitudes, out, bound, n);
+    }
+
+    private static void haversine(double fromLatitude, double fromLongitude, double[] latitudes,
+                                  double[] longitudes, double[] out, int bound) {
+        double cosFrom = Math.cos(Math.toRadians(fromLatitude));
+        double halfRadians = RADIANS_PER_DEGREE / 2;
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector lat = DoubleVector.fromArray(SPECIES, latitudes, i);
+            DoubleVector lon = DoubleVector.fromArray(SPECIES, longitudes, i);
+            DoubleVector sinLat = lat.sub(fromLatitude).mul(halfRadians).lanewise(VectorOperators.SIN);
+            DoubleVector sinLon = lon.sub(fromLongitude).mul(halfRadians).lanewise(VectorOperators.SIN);
+            DoubleVector cosLat = lat.mul(RADIANS_PER_DEGREE).lanewise(VectorOperators.COS);
+            DoubleVector a = sinLon.mul(sinLon).mul(cosLat).mul(cosFrom).add(sinLat.mul(sinLat));
+            a.min(1.0).sqrt().lanewise(VectorOperators.ASIN).mul(DIAMETER_KM).intoArray(out, i);
+        }
+    }
+
+    private static void equirectangular(double fromLatitude, double fromLongitude, double[] latitudes,
+                                        double[] longitudes, double[] out, int bound) {
+        double cosFrom = Math.cos(Math.toRadians(fromLatitude));
+        for (int i = 0; i < bound; i += SPECIES.length()) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, longitudes, i).sub(fromLongitude).mul(cosFrom);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, latitudes, i).sub(fromLatitude);
+            x.fma(x, y.mul(y)).sqrt().mul(GeoMath.KM_PER_DEGREE).intoArray(out, i);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "vector " + formula.name().toLowerCase() + " x" + SPECIES.length();
+    }
+}
@@ -1,6 +1,9 @@
 package com.swiftlogistics.middleware.integration;
 
 import com.swiftlogistics.middleware.model.Order;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.ws.client.core.WebServiceTemplate;
@@ -12,8 +15,13 @@ import org.springframework.ws.client.core.WebServiceTemplate;
 @Service
 public class CMSIntegrationService {
 
+    private static final Logger log = LoggerFactory.getLogger(CMSIntegrationService.class);
+
     private final WebServiceTemplate webServiceTemplate;
 
+    @Autowired
+    private PayloadLogger payloadLogger;
+
     @Value("${external.cms.url}")
     private String cmsUrl;
 
@@ -30,16 +38,19 @@ public class CMSIntegrationService {
             // Create SOAP request XML
             String soapRequest = createSoapOrderRequest(order);
             
-            // Log the request (for debugging)
-            System.out.println("Sending SOAP request to CMS: " + soapRequest);
+            // Dump a sample of the requests (for debugging)
+            log.debug("Sending SOAP request to CMS for order {}", order.getOrderNumber());
+            if (payloadLogger.sample()) {
+                payloadLogger.log("CMS", "request", soapRequest);
+            }
             
             // For prototype, we'll simulate the SOAP call
             simulateCMSCall(order);
             
-            System.out.println("Order " + order.getOrderNumber() + " submitted to CMS successfully");
+            log.info("Order {} submitted to CMS successfully", order.getOrderNumber());
             
         } catch (Exception e) {
-            System.err.println("Failed to submit order to CMS: " + e.getMessage());
+            log.error("Failed to submit order to CMS: {}", e.getMessage());
             throw new RuntimeException("CMS integration failed", e);
         }
     }
@@ -68,7 +79,7 @@ public class CMSIntegrationService {
         }
         
         // Simulate successful response
-        System.out.println("CMS Response: Order " + order.getOrderNumber() + " accepted");
+        log.debug("CMS Response: Order {} accepted", order.getOrderNumber());
     }
 
     /**
@@ -77,10 +88,10 @@ public class CMSIntegrationService {
     public String getOrderStatus(String orderNumber) {
         try {
             // Simulate CMS status check
-            System.out.println("Checking order status in CMS for: " + orderNumber);
+            log.debug("Checking order status in CMS for: {}", orderNumber);
             return "ACCEPTED";
         } catch (Exception e) {
-            System.err.println("Failed to get order status from CMS: " + e.getMessage());
+            log.error("Failed to get order status from CMS: {}", e.getMessage());
             throw new RuntimeException("CMS status check failed", e);
         }
     }
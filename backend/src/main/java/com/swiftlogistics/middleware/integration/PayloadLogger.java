@@ -0,0 +1,39 @@
+package com.swiftlogistics.middleware.integration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sampled debug channel for full messages exchanged with the external systems
+ * Payload dumps are large, so only a fraction of exchanges is logged and only
+ * when the payload logger is enabled at DEBUG. Callers check {@link #sample()}
+ * before building the payload text.
+ */
+@Component
+public class PayloadLogger {
+
+    public static final String LOGGER_NAME = "com.swiftlogistics.middleware.payload";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    @Value("${app.logging.payload.sample-rate:0.01}")
+    private double sampleRate;
+
+    /**
+     * Whether the current exchange should be dumped
+     */
+    public boolean sample() {
+        if (!log.isDebugEnabled() || sampleRate <= 0) {
+            return false;
+        }
+        return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public void log(String system, String direction, Object payload) {
+        log.debug("{} {}:\n{}", system, direction, payload);
+    }
+}
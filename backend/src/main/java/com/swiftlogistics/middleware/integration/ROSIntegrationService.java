@@ -2,6 +2,9 @@ package com.swiftlogistics.middleware.integration;
 
 import com.swiftlogistics.middleware.model.Order;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -18,9 +21,14 @@ import java.util.Arrays;
 @Service
 public class ROSIntegrationService {
 
+    private static final Logger log = LoggerFactory.getLogger(ROSIntegrationService.class);
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
 
+    @Autowired
+    private PayloadLogger payloadLogger;
+
     @Value("${external.ros.url}")
     private String rosUrl;
 
@@ -43,16 +51,19 @@ public class ROSIntegrationService {
             
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(routeRequest, headers);
             
-            // Log the request
-            System.out.println("Sending REST request to ROS: " + objectMapper.writeValueAsString(routeRequest));
+            // Dump a sample of the requests; serialization is skipped otherwise
+            log.debug("Sending REST request to ROS for order {}", order.getOrderNumber());
+            if (payloadLogger.sample()) {
+                payloadLogger.log("ROS", "request", objectMapper.writeValueAsString(routeRequest));
+            }
             
             // For prototype, simulate the REST call
             simulateROSCall(order);
             
-            System.out.println("Route planned for order " + order.getOrderNumber() + " via ROS");
+            log.info("Route planned for order {} via ROS", order.getOrderNumber());
             
         } catch (Exception e) {
-            System.err.println("Failed to plan route with ROS: " + e.getMessage());
+            log.error("Failed to plan route with ROS: {}", e.getMessage());
             throw new RuntimeException("ROS integration failed", e);
         }
     }
@@ -66,8 +77,10 @@ public class ROSIntegrationService {
         
         // Add delivery time window
         Map<String, String> timeWindow = new HashMap<>();
-        timeWindow.put("start", "09:00");
-        timeWindow.put("end", "17:00");
+        timeWindow.put("start", order.getDeliveryWindowStart() != null
+            ? order.getDeliveryWindowStart().toString() : "09:00");
+        timeWindow.put("end", order.getDeliveryWindowEnd() != null
+            ? order.getDeliveryWindowEnd().toString() : "17:00");
         request.put("deliveryWindow", timeWindow);
         
         return request;
@@ -82,9 +95,8 @@ public class ROSIntegrationService {
         }
         
         // Simulate route optimization response
-        System.out.println("ROS Response: Route optimized for delivery to " + order.getDeliveryAddress());
-        System.out.println("Estimated delivery time: 2-4 hours");
-        System.out.println("Assigned vehicle: VAN-001");
+        log.debug("ROS Response: Route optimized for delivery to {}, estimated delivery time: 2-4 hours, "
+            + "assigned vehicle: VAN-001", order.getDeliveryAddress());
     }
 
     /**
@@ -103,12 +115,12 @@ public class ROSIntegrationService {
             response.put("estimatedTime", "4.5 hours");
             response.put("deliverySequence", Arrays.asList(1, 3, 2, 4));
             
-            System.out.println("Batch route optimized for " + orders.size() + " deliveries");
+            log.info("Batch route optimized for {} deliveries", orders.size());
             
             return response;
             
         } catch (Exception e) {
-            System.err.println("Failed to get optimized route from ROS: " + e.getMessage());
+            log.error("Failed to get optimized route from ROS: {}", e.getMessage());
             throw new RuntimeException("ROS batch optimization failed", e);
         }
     }
@@ -123,14 +135,14 @@ public class ROSIntegrationService {
             statusUpdate.put("status", status);
             statusUpdate.put("timestamp", System.currentTimeMillis());
             
-            System.out.println("Updating delivery status in ROS: " + order.getOrderNumber() + " -> " + status);
+            log.debug("Updating delivery status in ROS: {} -> {}", order.getOrderNumber(), status);
             
             // Simulate status update
             Thread.sleep(500);
-            System.out.println("ROS: Status updated successfully");
+            log.debug("ROS: Status updated successfully");
             
         } catch (Exception e) {
-            System.err.println("Failed to update status in ROS: " + e.getMessage());
+            log.error("Failed to update status in ROS: {}", e.getMessage());
             throw new RuntimeException("ROS status update failed", e);
         }
     }
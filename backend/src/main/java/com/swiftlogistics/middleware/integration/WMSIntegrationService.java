@@ -2,6 +2,9 @@ package com.swiftlogistics.middleware.integration;
 
 import com.swiftlogistics.middleware.model.Order;
 import com.swiftlogistics.middleware.model.Package;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.io.*;
@@ -15,6 +18,11 @@ import java.nio.charset.StandardCharsets;
 @Service
 public class WMSIntegrationService {
 
+    private static final Logger log = LoggerFactory.getLogger(WMSIntegrationService.class);
+
+    @Autowired
+    private PayloadLogger payloadLogger;
+
     @Value("${external.wms.host}")
     private String wmsHost;
 
@@ -32,10 +40,10 @@ public class WMSIntegrationService {
             // Send via TCP/IP
             sendTCPMessage(wmsMessage);
             
-            System.out.println("Package added to WMS for order: " + order.getOrderNumber());
+            log.info("Package added to WMS for order: {}", order.getOrderNumber());
             
         } catch (Exception e) {
-            System.err.println("Failed to add package to WMS: " + e.getMessage());
+            log.error("Failed to add package to WMS: {}", e.getMessage());
             throw new RuntimeException("WMS integration failed", e);
         }
     }
@@ -60,25 +68,28 @@ public class WMSIntegrationService {
         try {
             simulateTCPConnection(message);
         } catch (Exception e) {
-            System.err.println("TCP connection simulation failed: " + e.getMessage());
+            log.error("TCP connection simulation failed: {}", e.getMessage());
             // In real implementation, this would be actual TCP socket connection
         }
     }
 
     private void simulateTCPConnection(String message) throws InterruptedException {
         // Simulate TCP connection establishment
-        System.out.println("Establishing TCP connection to WMS at " + wmsHost + ":" + wmsPort);
+        log.debug("Establishing TCP connection to WMS at {}:{}", wmsHost, wmsPort);
         Thread.sleep(500);
         
         // Simulate sending message
-        System.out.println("Sending WMS message:");
-        System.out.println(message);
+        boolean dump = payloadLogger.sample();
+        if (dump) {
+            payloadLogger.log("WMS", "message", message);
+        }
         Thread.sleep(300);
         
         // Simulate response
         String response = "WMS_RESPONSE:SUCCESS\nPACKAGE_ID:PKG-" + System.currentTimeMillis() + "\nLOCATION:A1-B2-C3\nSTATUS:RECEIVED\n";
-        System.out.println("WMS Response:");
-        System.out.println(response);
+        if (dump) {
+            payloadLogger.log("WMS", "response", response);
+        }
     }
 
     /**
@@ -89,10 +100,10 @@ public class WMSIntegrationService {
             String message = createStatusUpdateMessage(pkg, status);
             sendTCPMessage(message);
             
-            System.out.println("Package status updated in WMS: " + pkg.getPackageId() + " -> " + status);
+            log.info("Package status updated in WMS: {} -> {}", pkg.getPackageId(), status);
             
         } catch (Exception e) {
-            System.err.println("Failed to update package status in WMS: " + e.getMessage());
+            log.error("Failed to update package status in WMS: {}", e.getMessage());
             throw new RuntimeException("WMS status update failed", e);
         }
     }
@@ -118,12 +129,12 @@ public class WMSIntegrationService {
             
             // Simulate location response
             String location = "A" + (int)(Math.random() * 10) + "-B" + (int)(Math.random() * 20) + "-C" + (int)(Math.random() * 15);
-            System.out.println("Package " + packageId + " location: " + location);
+            log.debug("Package {} location: {}", packageId, location);
             
             return location;
             
         } catch (Exception e) {
-            System.err.println("Failed to get package location from WMS: " + e.getMessage());
+            log.error("Failed to get package location from WMS: {}", e.getMessage());
             throw new RuntimeException("WMS location query failed", e);
         }
     }
@@ -142,10 +153,10 @@ public class WMSIntegrationService {
             
             sendTCPMessage(message.toString());
             
-            System.out.println("Package " + packageId + " marked as picked by driver " + driverId);
+            log.info("Package {} marked as picked by driver {}", packageId, driverId);
             
         } catch (Exception e) {
-            System.err.println("Failed to mark package as picked in WMS: " + e.getMessage());
+            log.error("Failed to mark package as picked in WMS: {}", e.getMessage());
             throw new RuntimeException("WMS pick operation failed", e);
         }
     }
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @Entity
@@ -33,6 +34,16 @@ public class Order {
     
     @Column(name = "recipient_phone")
     private String recipientPhone;
+
+    // Delivery window; null falls back to the configured default window
+    @Column(name = "delivery_window_start")
+    private LocalTime deliveryWindowStart;
+
+    @Column(name = "delivery_window_end")
+    private LocalTime deliveryWindowEnd;
+
+    @Column(name = "service_minutes")
+    private Integer serviceMinutes;
     
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -96,6 +107,15 @@ public class Order {
     public String getRecipientPhone() { return recipientPhone; }
     public void setRecipientPhone(String recipientPhone) { this.recipientPhone = recipientPhone; }
     
+    public LocalTime getDeliveryWindowStart() { return deliveryWindowStart; }
+    public void setDeliveryWindowStart(LocalTime deliveryWindowStart) { this.deliveryWindowStart = deliveryWindowStart; }
+    
+    public LocalTime getDeliveryWindowEnd() { return deliveryWindowEnd; }
+    public void setDeliveryWindowEnd(LocalTime deliveryWindowEnd) { this.deliveryWindowEnd = deliveryWindowEnd; }
+    
+    public Integer getServiceMinutes() { return serviceMinutes; }
+    public void setServiceMinutes(Integer serviceMinutes) { this.serviceMinutes = serviceMinutes; }
+    
     public OrderStatus getStatus() { return status; }
     public void setStatus(OrderStatus status) { this.status = status; }
     
@@ -27,6 +27,9 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
     @Query("SELECT d FROM Delivery d WHERE d.route.driverId = :driverId ORDER BY d.sequenceNumber")
     List<Delivery> findByDriverIdOrderBySequence(@Param("driverId") String driverId);
     
+    @Query("SELECT d FROM Delivery d WHERE d.order.orderNumber = :orderNumber")
+    List<Delivery> findByOrderNumber(@Param("orderNumber") String orderNumber);
+    
     @Query("SELECT COUNT(d) FROM Delivery d WHERE d.route = :route AND d.status = :status")
     Long countByRouteAndStatus(@Param("route") Route route, @Param("status") Delivery.DeliveryStatus status);
 }
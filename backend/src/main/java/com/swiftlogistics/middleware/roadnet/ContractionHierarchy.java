@@ -0,0 +1,405 @@
+package com.swiftlogistics.middleware.roadnet;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Preprocessed road graph answering shortest travel-time queries. Each node
+ * keeps only its edges towards nodes contracted after it: forward edges in
+ * driving direction and backward edges against it, both in CSR form. A
+ * query searches upward from the source on forward edges and from the
+ * target on backward edges; the fastest meeting node gives the answer, so
+ * each side settles a few hundred nodes even on a city-sized graph. A node
+ * reached faster from above than by the search itself is stalled: it
+ * cannot lie on the upward part of a fastest route, so it is not expanded.
+ *
+ * Arrays are held as int buffers so a hierarchy saved with {@link #save}
+ * can be memory-mapped by {@link #map} and queried without being read in.
+ * Searches keep per-thread scratch state, so one instance serves
+ * concurrent queries.
+ */
+public final class ContractionHierarchy {
+
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final int MAGIC = 0x534c4348; // "SLCH"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private final int nodeCount;
+    private final long sourceStamp;
+    private final IntBuffer latitudeE7;
+    private final IntBuffer longitudeE7;
+    private final Direction forward;
+    private final Direction backward;
+
+    private final ThreadLocal<Search[]> searches;
+
+    private ContractionHierarchy(int nodeCount, long sourceStamp, IntBuffer latitudeE7, IntBuffer longitudeE7,
+                                 Direction forward, Direction backward) {
+        this.nodeCount = nodeCount;
+        this.sourceStamp = sourceStamp;
+        this.latitudeE7 = latitudeE7;
+        this.longitudeE7 = longitudeE7;
+        this.forward = forward;
+        this.backward = backward;
+        this.searches = ThreadLocal.withInitial(() -> new Search[] {new Search(nodeCount), new Search(nodeCount)});
+    }
+
+    /**
+     * Contract the graph; sourceStamp identifies the source it was built from
+     */
+    public static ContractionHierarchy build(RoadGraph graph, long sourceStamp) {
+        return new HierarchyBuilder(graph).build(sourceStamp);
+    }
+
+    static ContractionHierarchy fromArrays(int[] latitudeE7, int[] longitudeE7, int[][] forward, int[][] backward,
+                                           long sourceStamp) {
+        return new ContractionHierarchy(latitudeE7.length, sourceStamp,
+            IntBuffer.wrap(latitudeE7), IntBuffer.wrap(longitudeE7),
+            new Direction(IntBuffer.wrap(forward[0]), IntBuffer.wrap(forward[1]),
+                IntBuffer.wrap(forward[2]), IntBuffer.wrap(forward[3])),
+            new Direction(IntBuffer.wrap(backward[0]), IntBuffer.wrap(backward[1]),
+                IntBuffer.wrap(backward[2]), IntBuffer.wrap(backward[3])));
+    }
+
+    /**
+     * Map a hierarchy written by {@link #save}; nothing is copied onto the heap
+     */
+    public static ContractionHierarchy map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() < HEADER_SIZE || mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not a road network index: " + path);
+            }
+            if (mapped.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Unsupported road network index version " + mapped.getInt(4) + ": " + path);
+            }
+            int nodes = mapped.getInt(8);
+            int forwardEdges = mapped.getInt(12);
+            int backwardEdges = mapped.getInt(16);
+            long stamp = mapped.getLong(24);
+            long expected = HEADER_SIZE + 4L * (2L * nodes + 2L * (nodes + 1) + 3L * forwardEdges + 3L * backwardEdges);
+            if (channel.size() != expected) {
+                throw new IOException("Truncated road network index: " + path);
+            }
+
+            int[] offset = {HEADER_SIZE};
+            IntBuffer latitudes = section(mapped, offset, nodes);
+            IntBuffer longitudes = section(mapped, offset, nodes);
+            Direction forward = new Direction(section(mapped, offset, nodes + 1), section(mapped, offset, forwardEdges),
+                section(mapped, offset, forwardEdges), section(mapped, offset, forwardEdges));
+            Direction backward = new Direction(section(mapped, offset, nodes + 1),
+                section(mapped, offset, backwardEdges), section(mapped, offset, backwardEdges),
+                section(mapped, offset, backwardEdges));
+            return new ContractionHierarchy(nodes, stamp, latitudes, longitudes, forward, backward);
+        }
+    }
+
+    private static IntBuffer section(ByteBuffer buffer, int[] offset, int ints) {
+        IntBuffer section = buffer.slice(offset[0], ints * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        offset[0] += ints * 4;
+        return section;
+    }
+
+    /**
+     * Write the hierarchy in the format {@link #map} reads, replacing the file atomically
+     */
+    public void save(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(nodeCount)
+                .putInt(forward.head.limit()).putInt(backward.head.limit()).putInt(0).putLong(sourceStamp);
+            header.flip();
+            writeFully(channel, header);
+
+            ByteBuffer chunk = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (IntBuffer section : new IntBuffer[] {latitudeE7, longitudeE7,
+                    forward.first, forward.head, forward.time, forward.length,
+                    backward.first, backward.head, backward.time, backward.length}) {
+                for (int i = 0; i < section.limit(); i++) {
+                    if (!chunk.hasRemaining()) {
+                        chunk.flip();
+                        writeFully(channel, chunk);
+                        chunk.clear();
+                    }
+                    chunk.putInt(section.get(i));
+                }
+            }
+            chunk.flip();
+            writeFully(channel, chunk);
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Fastest route between two nodes as a one-by-one table. Both sides
+     * search in turns and stop once their next node cannot beat the best
+     * meeting point found.
+     */
+    public TravelTable route(int source, int target) {
+        Search[] pair = searches.get();
+        Search up = pair[0];
+        Search down = pair[1];
+        up.start(source);
+        down.start(target);
+
+        int best = UNREACHABLE;
+        int bestLength = 0;
+        if (source == target) {
+            best = 0;
+        }
+        while (true) {
+            boolean upOpen = !up.heap.isEmpty() && up.heap.peekKey() < best;
+            boolean downOpen = !down.heap.isEmpty() && down.heap.peekKey() < best;
+            if (!upOpen && !downOpen) {
+                break;
+            }
+            boolean useUp = upOpen && (!downOpen || up.heap.peekKey() <= down.heap.peekKey());
+            Search side = useUp ? up : down;
+            Search other = useUp ? down : up;
+            int node = side.heap.poll();
+            if (other.reached(node)) {
+                int total = side.distance[node] + other.distance[node];
+                if (total < best) {
+                    best = total;
+                    bestLength = side.length[node] + other.length[node];
+                }
+            }
+            if (!side.stalled(node, useUp ? backward : forward)) {
+                side.relax(node, useUp ? forward : backward);
+            }
+        }
+        int[] time = {best};
+        int[] length = {best == UNREACHABLE ? 0 : bestLength};
+        return new TravelTable(1, 1, time, length);
+    }
+
+    /**
+     * Fastest travel between every source and every target. Each target's
+     * upward backward search leaves its distance in a bucket at every node
+     * it settles; each source's upward forward search then reads the
+     * buckets of the nodes it settles.
+     */
+    public TravelTable table(int[] sources, int[] targets) {
+        Search search = searches.get()[0];
+
+        // Bucket entries of all targets, sorted by node for lookup
+        int entries = 0;
+        int[] entryNode = new int[Math.max(16, targets.length * 64)];
+        int[] entryTarget = new int[entryNode.length];
+        int[] entryTime = new int[entryNode.length];
+        int[] entryLength = new int[entryNode.length];
+        for (int j = 0; j < targets.length; j++) {
+            search.exhaust(targets[j], backward, forward);
+            int settled = search.settledCount;
+            if (entries + settled > entryNode.length) {
+                int capacity = Math.max(entryNode.length * 2, entries + settled);
+                entryNode = Arrays.copyOf(entryNode, capacity);
+                entryTarget = Arrays.copyOf(entryTarget, capacity);
+                entryTime = Arrays.copyOf(entryTime, capacity);
+                entryLength = Arrays.copyOf(entryLength, capacity);
+            }
+            for (int k = 0; k < settled; k++) {
+                int node = search.settled[k];
+                entryNode[entries] = node;
+                entryTarget[entries] = j;
+                entryTime[entries] = search.distance[node];
+                entryLength[entries] = search.length[node];
+                entries++;
+            }
+        }
+        long[] order = new long[entries];
+        for (int e = 0; e < entries; e++) {
+            order[e] = ((long) entryNode[e] << 32) | e;
+        }
+        Arrays.sort(order);
+        int[] bucketNode = new int[entries];
+        for (int e = 0; e < entries; e++) {
+            bucketNode[e] = (int) (order[e] >>> 32);
+        }
+
+        int[] time = new int[sources.length * targets.length];
+        int[] length = new int[time.length];
+        Arrays.fill(time, UNREACHABLE);
+        for (int i = 0; i < sources.length; i++) {
+            search.exhaust(sources[i], forward, backward);
+            int row = i * targets.length;
+            for (int k = 0; k < search.settledCount; k++) {
+                int node = search.settled[k];
+                int up = search.distance[node];
+                for (int b = lowerBound(bucketNode, node); b < entries && bucketNode[b] == node; b++) {
+                    int e = (int) order[b];
+                    int total = up + entryTime[e];
+                    int cell = row + entryTarget[e];
+                    if (total < time[cell]) {
+                        time[cell] = total;
+                        length[cell] = search.length[node] + entryLength[e];
+                    }
+                }
+            }
+        }
+        return new TravelTable(sources.length, targets.length, time, length);
+    }
+
+    private static int lowerBound(int[] sorted, int key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int edgeCount() {
+        return forward.head.limit() + backward.head.limit();
+    }
+
+    public long getSourceStamp() {
+        return sourceStamp;
+    }
+
+    public int latitudeE7(int node) {
+        return latitudeE7.get(node);
+    }
+
+    public int longitudeE7(int node) {
+        return longitudeE7.get(node);
+    }
+
+    public double latitude(int node) {
+        return latitudeE7.get(node) / 1e7;
+    }
+
+    public double longitude(int node) {
+        return longitudeE7.get(node) / 1e7;
+    }
+
+    /**
+     * Upward edges of one search direction
+     */
+    private static final class Direction {
+        final IntBuffer first;
+        final IntBuffer head;
+        final IntBuffer time;
+        final IntBuffer length;
+
+        Direction(IntBuffer first, IntBuffer head, IntBuffer time, IntBuffer length) {
+            this.first = first;
+            this.head = head;
+            this.time = time;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Dijkstra state for one side of a query, reset by bumping the stamp
+     */
+    private static final class Search {
+        final int[] distance;
+        final int[] length;
+        final int[] stamp;
+        final NodeHeap heap;
+        int current;
+        int[] settled = new int[256];
+        int settledCount;
+
+        Search(int nodes) {
+            distance = new int[nodes];
+            length = new int[nodes];
+            stamp = new int[nodes];
+            heap = new NodeHeap(nodes);
+        }
+
+        void start(int source) {
+            current++;
+            heap.clear();
+            settledCount = 0;
+            stamp[source] = current;
+            distance[source] = 0;
+            length[source] = 0;
+            heap.update(source, 0);
+        }
+
+        boolean reached(int node) {
+            return stamp[node] == current;
+        }
+
+        void relax(int node, Direction direction) {
+            int base = distance[node];
+            int baseLength = length[node];
+            int end = direction.first.get(node + 1);
+            for (int e = direction.first.get(node); e < end; e++) {
+                int next = direction.head.get(e);
+                int candidate = base + direction.time.get(e);
+                if (stamp[next] != current || candidate < distance[next]) {
+                    stamp[next] = current;
+                    distance[next] = candidate;
+                    length[next] = baseLength + direction.length.get(e);
+                    heap.update(next, candidate);
+                }
+            }
+        }
+
+        /**
+         * Whether a higher node already reached gives a faster way here
+         */
+        boolean stalled(int node, Direction opposite) {
+            int here = distance[node];
+            int end = opposite.first.get(node + 1);
+            for (int e = opposite.first.get(node); e < end; e++) {
+                int above = opposite.head.get(e);
+                if (stamp[above] == current && distance[above] + opposite.time.get(e) < here) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Complete upward search, recording the settled nodes that are not stalled
+         */
+        void exhaust(int source, Direction direction, Direction opposite) {
+            start(source);
+            while (!heap.isEmpty()) {
+                int node = heap.poll();
+                if (stalled(node, opposite)) {
+                    continue;
+                }
+                if (settledCount == settled.length) {
+                    settled = Arrays.copyOf(settled, settledCount * 2);
+                }
+                settled[settledCount++] = node;
+                relax(node, direction);
+            }
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.swiftlogistics.middleware.roadnet;
+
+import java.util.Arrays;
+
+/**
+ * Contracts a {@link RoadGraph} node by node in order of edge difference.
+ * Contracting a node adds a shortcut between each pair of its remaining
+ * neighbours unless a bounded witness search finds a path at least as fast
+ * around it. Every edge a node still has when it is contracted leads to a
+ * node contracted later, so recording them at that moment yields the upward
+ * graphs the queries search.
+ */
+final class HierarchyBuilder {
+
+    private static final int DEFAULT_SETTLE_LIMIT = 500;
+    // Priorities only estimate shortcut counts, so their witness searches stop early
+    private static final int SIMULATION_SETTLE_LIMIT = 50;
+
+    private final RoadGraph graph;
+    private final int nodeCount;
+    private final int settleLimit;
+
+    private final Adjacency out;
+    private final Adjacency in;
+    private final boolean[] contracted;
+    private final int[] deletedNeighbours;
+    private final int[] depth;
+
+    // Witness search state, reset by bumping the stamp
+    private final int[] witnessDistance;
+    private final int[] witnessStamp;
+    private final NodeHeap witnessHeap;
+    private int stamp;
+
+    private final EdgeBuffer forward = new EdgeBuffer();
+    private final EdgeBuffer backward = new EdgeBuffer();
+    private int shortcuts;
+
+    HierarchyBuilder(RoadGraph graph) {
+        this(graph, DEFAULT_SETTLE_LIMIT);
+    }
+
+    HierarchyBuilder(RoadGraph graph, int settleLimit) {
+        this.graph = graph;
+        this.nodeCount = graph.nodeCount();
+        this.settleLimit = settleLimit;
+        this.out = new Adjacency(nodeCount);
+        this.in = new Adjacency(nodeCount);
+        this.contracted = new boolean[nodeCount];
+        this.deletedNeighbours = new int[nodeCount];
+        this.depth = new int[nodeCount];
+        this.witnessDistance = new int[nodeCount];
+        this.witnessStamp = new int[nodeCount];
+        this.witnessHeap = new NodeHeap(nodeCount);
+    }
+
+    ContractionHierarchy build(long sourceStamp) {
+        for (int node = 0; node < nodeCount; node++) {
+            for (int e = graph.firstEdge(node); e < graph.endEdge(node); e++) {
+                addEdge(node, graph.head(e), graph.travelTime(e), graph.length(e));
+            }
+        }
+
+        NodeHeap queue = new NodeHeap(nodeCount);
+        for (int node = 0; node < nodeCount; node++) {
+            queue.update(node, priority(node));
+        }
+        int[] neighbours = new int[16];
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            // Lazy update: priorities of untouched nodes drift as the graph shrinks
+            int priority = priority(node);
+            if (!queue.isEmpty() && priority > queue.peekKey()) {
+                queue.update(node, priority);
+                continue;
+            }
+
+            int count = 0;
+            for (int i = 0; i < out.size[node]; i++) {
+                neighbours = append(neighbours, count++, out.target[node][i]);
+            }
+            for (int i = 0; i < in.size[node]; i++) {
+                neighbours = append(neighbours, count++, in.target[node][i]);
+            }
+            contract(node);
+            for (int i = 0; i < count; i++) {
+                int neighbour = neighbours[i];
+                if (!contracted[neighbour]) {
+                    deletedNeighbours[neighbour]++;
+                    depth[neighbour] = Math.max(depth[neighbour], depth[node] + 1);
+                    queue.update(neighbour, priority(neighbour));
+                }
+            }
+        }
+
+        int[] latitudes = new int[nodeCount];
+        int[] longitudes = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            latitudes[node] = graph.latitudeE7(node);
+            longitudes[node] = graph.longitudeE7(node);
+        }
+        return ContractionHierarchy.fromArrays(latitudes, longitudes,
+            forward.toCsr(nodeCount), backward.toCsr(nodeCount), sourceStamp);
+    }
+
+    int getShortcutCount() {
+        return shortcuts;
+    }
+
+    private void contract(int node) {
+        for (int i = 0; i < out.size[node]; i++) {
+            forward.add(node, out.target[node][i], out.time[node][i], out.length[node][i]);
+        }
+        for (int i = 0; i < in.size[node]; i++) {
+            backward.add(node, in.target[node][i], in.time[node][i], in.length[node][i]);
+        }
+        shortcuts += process(node, true);
+
+        contracted[node] = true;
+        for (int i = 0; i < out.size[node]; i++) {
+            in.remove(out.target[node][i], node);
+        }
+        for (int i = 0; i < in.size[node]; i++) {
+            out.remove(in.target[node][i], node);
+        }
+        out.release(node);
+        in.release(node);
+    }
+
+    /**
+     * Edge difference, weighted up, plus terms that spread contraction
+     * evenly: contracted neighbours and depth in the hierarchy so far
+     */
+    private int priority(int node) {
+        int degree = out.size[node] + in.size[node];
+        return 2 * (process(node, false) - degree) + deletedNeighbours[node] + depth[node];
+    }
+
+    /**
+     * Count, or add when apply is set, the shortcuts contracting the node needs
+     */
+    private int process(int node, boolean apply) {
+        int maxOut = 0;
+        for (int i = 0; i < out.size[node]; i++) {
+            maxOut = Math.max(maxOut, out.time[node][i]);
+        }
+        int needed = 0;
+        for (int i = 0; i < in.size[node]; i++) {
+            int source = in.target[node][i];
+            int toNode = in.time[node][i];
+            witnessSearch(source, node, toNode + maxOut, apply ? settleLimit : SIMULATION_SETTLE_LIMIT);
+            for (int j = 0; j < out.size[node]; j++) {
+                int target = out.target[node][j];
+                if (target == source) {
+                    continue;
+                }
+                int via = toNode + out.time[node][j];
+                if (witnessStamp[target] == stamp && witnessDistance[target] <= via) {
+                    continue;
+                }
+                needed++;
+                if (apply) {
+                    addEdge(source, target, via, in.length[node][i] + out.length[node][j]);
+                }
+            }
+        }
+        return needed;
+    }
+
+    /**
+     * Bounded Dijkstra from source over uncontracted nodes, avoiding one node
+     */
+    private void witnessSearch(int source, int avoid, int limit, int maxSettled) {
+        stamp++;
+        witnessHeap.clear();
+        witnessStamp[source] = stamp;
+        witnessDistance[source] = 0;
+        witnessHeap.update(source, 0);
+        int settled = 0;
+        while (!witnessHeap.isEmpty() && settled < maxSettled) {
+            if (witnessHeap.peekKey() > limit) {
+                break;
+            }
+            int node = witnessHeap.poll();
+            settled++;
+            int distance = witnessDistance[node];
+            for (int i = 0; i < out.size[node]; i++) {
+                int next = out.target[node][i];
+                if (next == avoid) {
+                    continue;
+                }
+                int candidate = distance + out.time[node][i];
+                if (witnessStamp[next] != stamp || candidate < witnessDistance[next]) {
+                    witnessStamp[next] = stamp;
+                    witnessDistance[next] = candidate;
+                    witnessHeap.update(next, candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a directed edge, keeping only the faster of parallel edges
+     */
+    private void addEdge(int from, int to, int time, int length) {
+        if (from == to) {
+            return;
+        }
+        int existing = out.indexOf(from, to);
+        if (existing >= 0) {
+            if (time < out.time[from][existing]) {
+                out.set(from, existing, time, length);
+                in.set(to, in.indexOf(to, from), time, length);
+            }
+            return;
+        }
+        out.add(from, to, time, length);
+        in.add(to, from, time, length);
+    }
+
+    private static int[] append(int[] values, int index, int value) {
+        if (index == values.length) {
+            values = Arrays.copyOf(values, index * 2);
+        }
+        values[index] = value;
+        return values;
+    }
+
+    /**
+     * Growable per-node edge lists of the shrinking graph
+     */
+    private static final class Adjacency {
+        private static final int[] EMPTY = new int[0];
+
+        final int[][] target;
+        final int[][] time;
+        final int[][] length;
+        final int[] size;
+
+        Adjacency(int nodes) {
+            target = new int[nodes][];
+            time = new int[nodes][];
+            length = new int[nodes][];
+            size = new int[nodes];
+            Arrays.fill(target, EMPTY);
+            Arrays.fill(time, EMPTY);
+            Arrays.fill(length, EMPTY);
+        }
+
+        int indexOf(int node, int other) {
+            int[] targets = target[node];
+            for (int i = 0; i < size[node]; i++) {
+                if (targets[i] == other) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        void add(int node, int other, int edgeTime, int edgeLength) {
+            int i = size[node];
+            if (i == target[node].length) {
+                int capacity = Math.max(4, i * 2);
+                target[node] = Arrays.copyOf(target[node], capacity);
+                time[node] = Arrays.copyOf(time[node], capacity);
+                length[node] = Arrays.copyOf(length[node], capacity);
+            }
+            target[node][i] = other;
+            time[node][i] = edgeTime;
+            length[node][i] = edgeLength;
+            size[node] = i + 1;
+        }
+
+        void set(int node, int i, int edgeTime, int edgeLength) {
+            time[node][i] = edgeTime;
+            length[node][i] = edgeLength;
+        }
+
+        void remove(int node, int other) {
+            int i = indexOf(node, other);
+            if (i < 0) {
+                return;
+            }
+            int last = --size[node];
+            target[node][i] = target[node][last];
+            time[node][i] = time[node][last];
+            length[node][i] = length[node][last];
+        }
+
+        void release(int node) {
+            target[node] = EMPTY;
+            time[node] = EMPTY;
+            length[node] = EMPTY;
+            size[node] = 0;
+        }
+    }
+
+    /**
+     * Upward edges as recorded, regrouped by owning node on completion
+     */
+    private static final class EdgeBuffer {
+        private int[] owner = new int[1024];
+        private int[] head = new int[1024];
+        private int[] time = new int[1024];
+        private int[] length = new int[1024];
+        private int size;
+
+        void add(int node, int to, int edgeTime, int edgeLength) {
+            if (size == owner.length) {
+                int capacity = size * 2;
+                owner = Arrays.copyOf(owner, capacity);
+                head = Arrays.copyOf(head, capacity);
+                time = Arrays.copyOf(time, capacity);
+                length = Arrays.copyOf(length, capacity);
+            }
+            owner[size] = node;
+            head[size] = to;
+            time[size] = edgeTime;
+            length[size] = edgeLength;
+            size++;
+        }
+
+        /**
+         * First-edge offsets, heads, times and lengths
+         */
+        int[][] toCsr(int nodes) {
+            int[] first = new int[nodes + 1];
+            for (int e = 0; e < size; e++) {
+                first[owner[e] + 1]++;
+            }
+            for (int n = 0; n < nodes; n++) {
+                first[n + 1] += first[n];
+            }
+            int[] cursor = Arrays.copyOf(first, nodes);
+            int[] sortedHead = new int[size];
+            int[] sortedTime = new int[size];
+            int[] sortedLength = new int[size];
+            for (int e = 0; e < size; e++) {
+                int slot = cursor[owner[e]]++;
+                sortedHead[slot] = head[e];
+                sortedTime[slot] = time[e];
+                sortedLength[slot] = length[e];
+            }
+            return new int[][] {first, sortedHead, sortedTime, sortedLength};
+        }
+    }
+}
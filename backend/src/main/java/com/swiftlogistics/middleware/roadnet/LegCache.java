@@ -0,0 +1,166 @@
+package com.swiftlogistics.middleware.roadnet;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Directed road legs between coordinates, shared by every table and route
+ * query. Legs are keyed by a 64-bit hash of both endpoints at E7
+ * precision and held in flat 4-way set-associative arrays; a full set
+ * replaces its entries round-robin. Sets are guarded by striped locks.
+ * Travel times here are free-running: traffic is applied by the caller.
+ */
+public final class LegCache {
+
+    private static final int WAYS = 4;
+    private static final int STRIPES = 64;
+
+    private final int setMask;
+    private final long[] keys; // 0 marks an empty slot
+    private final int[] time;
+    private final int[] length;
+    private final byte[] nextWay;
+    private final Object[] locks = new Object[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LegCache(int capacity) {
+        if (capacity < WAYS) {
+            throw new IllegalArgumentException("capacity must be at least " + WAYS);
+        }
+        int sets = Integer.highestOneBit(capacity / WAYS);
+        this.setMask = sets - 1;
+        this.keys = new long[sets * WAYS];
+        this.time = new int[sets * WAYS];
+        this.length = new int[sets * WAYS];
+        this.nextWay = new byte[sets];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Table between all pairs of the points when every leg is cached,
+     * otherwise null
+     */
+    public TravelTable table(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        int[] tableTime = new int[n * n];
+        int[] tableLength = new int[n * n];
+        int[] pair = new int[2];
+        int found = 0;
+        int missing = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i == j) {
+                    continue;
+                }
+                if (lookup(key(latitudes[i], longitudes[i], latitudes[j], longitudes[j]), pair)) {
+                    tableTime[i * n + j] = pair[0];
+                    tableLength[i * n + j] = pair[1];
+                    found++;
+                } else {
+                    missing++;
+                }
+            }
+        }
+        hits.add(found);
+        misses.add(missing);
+        return missing == 0 ? new TravelTable(n, n, tableTime, tableLength) : null;
+    }
+
+    /**
+     * Single cached leg as a one-by-one table, or null
+     */
+    public TravelTable leg(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        int[] pair = new int[2];
+        if (!lookup(key(fromLatitude, fromLongitude, toLatitude, toLongitude), pair)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new TravelTable(1, 1, new int[] {pair[0]}, new int[] {pair[1]});
+    }
+
+    /**
+     * Remember every leg of a table computed between the points
+     */
+    public void store(double[] latitudes, double[] longitudes, TravelTable table) {
+        int n = latitudes.length;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i != j) {
+                    put(key(latitudes[i], longitudes[i], latitudes[j], longitudes[j]),
+                        table.time(i, j), table.length(i, j));
+                }
+            }
+        }
+    }
+
+    public void store(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude,
+                      TravelTable leg) {
+        put(key(fromLatitude, fromLongitude, toLatitude, toLongitude), leg.time(0, 0), leg.length(0, 0));
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    private boolean lookup(long key, int[] pair) {
+        int set = (int) key & setMask;
+        int base = set * WAYS;
+        synchronized (locks[set & (STRIPES - 1)]) {
+            for (int w = 0; w < WAYS; w++) {
+                if (keys[base + w] == key) {
+                    pair[0] = time[base + w];
+                    pair[1] = length[base + w];
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void put(long key, int legTime, int legLength) {
+        int set = (int) key & setMask;
+        int base = set * WAYS;
+        synchronized (locks[set & (STRIPES - 1)]) {
+            int slot = -1;
+            for (int w = 0; w < WAYS; w++) {
+                if (keys[base + w] == key || keys[base + w] == 0) {
+                    slot = base + w;
+                    break;
+                }
+            }
+            if (slot < 0) {
+                slot = base + nextWay[set];
+                nextWay[set] = (byte) ((nextWay[set] + 1) % WAYS);
+            }
+            keys[slot] = key;
+            time[slot] = legTime;
+            length[slot] = legLength;
+        }
+    }
+
+    private static long key(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        long from = ((long) RoadGraph.toE7(fromLatitude) << 32) | (RoadGraph.toE7(fromLongitude) & 0xffffffffL);
+        long to = ((long) RoadGraph.toE7(toLatitude) << 32) | (RoadGraph.toE7(toLongitude) & 0xffffffffL);
+        long key = mix(mix(from) ^ to);
+        return key != 0 ? key : 1;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,121 @@
+package com.swiftlogistics.middleware.roadnet;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of node ids keyed by int, with a position index so a
+ * node's key can be changed in place. Sized for the whole graph once and
+ * reused across searches.
+ */
+final class NodeHeap {
+
+    private final int[] nodes;
+    private final int[] keys;
+    private final int[] position; // Heap slot of each node, -1 when absent
+    private int size;
+
+    NodeHeap(int capacity) {
+        this.nodes = new int[capacity];
+        this.keys = new int[capacity];
+        this.position = new int[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean contains(int node) {
+        return position[node] >= 0;
+    }
+
+    int peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Insert the node, or move it to the new key when already queued
+     */
+    void update(int node, int key) {
+        int slot = position[node];
+        if (slot < 0) {
+            slot = size++;
+            nodes[slot] = node;
+            keys[slot] = key;
+            position[node] = slot;
+            siftUp(slot);
+        } else if (key < keys[slot]) {
+            keys[slot] = key;
+            siftUp(slot);
+        } else if (key > keys[slot]) {
+            keys[slot] = key;
+            siftDown(slot);
+        }
+    }
+
+    int poll() {
+        int top = nodes[0];
+        position[top] = -1;
+        size--;
+        if (size > 0) {
+            nodes[0] = nodes[size];
+            keys[0] = keys[size];
+            position[nodes[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            position[nodes[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int slot) {
+        int node = nodes[slot];
+        int key = keys[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, slot);
+            slot = parent;
+        }
+        place(node, key, slot);
+    }
+
+    private void siftDown(int slot) {
+        int node = nodes[slot];
+        int key = keys[slot];
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (keys[child] >= key) {
+                break;
+            }
+            move(child, slot);
+            slot = child;
+        }
+        place(node, key, slot);
+    }
+
+    private void move(int from, int to) {
+        nodes[to] = nodes[from];
+        keys[to] = keys[from];
+        position[nodes[to]] = to;
+    }
+
+    private void place(int node, int key, int slot) {
+        nodes[slot] = node;
+        keys[slot] = key;
+        position[node] = slot;
+    }
+}
@@ -0,0 +1,117 @@
+package com.swiftlogistics.middleware.roadnet;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+
+import java.util.Arrays;
+
+/**
+ * Nearest road node to a coordinate. Nodes are bucketed once into a uniform
+ * lat/lon grid stored as one sorted array with per-cell offsets; a lookup
+ * scans rings of cells outward from the query point until the next ring
+ * cannot hold anything closer. Within the few hundred metres searched an
+ * equirectangular distance ranks nodes the same as great-circle distance.
+ */
+public final class NodeLocator {
+
+    private static final double CELL_DEGREES = 0.002; // About 220 m
+
+    private final ContractionHierarchy hierarchy;
+    private final double minLatitude;
+    private final double minLongitude;
+    private final int rows;
+    private final int columns;
+    private final int[] cellStart;
+    private final int[] nodes;
+
+    public NodeLocator(ContractionHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+        int count = hierarchy.nodeCount();
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int node = 0; node < count; node++) {
+            minLat = Math.min(minLat, hierarchy.latitude(node));
+            maxLat = Math.max(maxLat, hierarchy.latitude(node));
+            minLon = Math.min(minLon, hierarchy.longitude(node));
+            maxLon = Math.max(maxLon, hierarchy.longitude(node));
+        }
+        if (count == 0) {
+            minLat = maxLat = minLon = maxLon = 0;
+        }
+        this.minLatitude = minLat;
+        this.minLongitude = minLon;
+        this.rows = (int) ((maxLat - minLat) / CELL_DEGREES) + 1;
+        this.columns = (int) ((maxLon - minLon) / CELL_DEGREES) + 1;
+
+        int[] cellOf = new int[count];
+        this.cellStart = new int[rows * columns + 1];
+        for (int node = 0; node < count; node++) {
+            cellOf[node] = row(hierarchy.latitude(node)) * columns + column(hierarchy.longitude(node));
+            cellStart[cellOf[node] + 1]++;
+        }
+        for (int cell = 0; cell < rows * columns; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        int[] cursor = Arrays.copyOf(cellStart, rows * columns);
+        this.nodes = new int[count];
+        for (int node = 0; node < count; node++) {
+            nodes[cursor[cellOf[node]]++] = node;
+        }
+    }
+
+    /**
+     * Nearest node within maxKm, or -1
+     */
+    public int nearest(double latitude, double longitude, double maxKm) {
+        int row = row(latitude);
+        int column = column(longitude);
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        double cellKm = CELL_DEGREES * GeoMath.KM_PER_DEGREE * cosLatitude;
+        int maxRing = (int) Math.ceil(maxKm / cellKm) + 1;
+        int latitudeE7 = RoadGraph.toE7(latitude);
+        int longitudeE7 = RoadGraph.toE7(longitude);
+        double kmPerE7 = GeoMath.KM_PER_DEGREE / 1e7;
+        int best = -1;
+        double bestKm = maxKm;
+        double bestSquared = maxKm * maxKm;
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Anything in this ring or beyond is at least (ring - 1) cells away
+            if (best >= 0 && (ring - 1) * cellKm > bestKm) {
+                break;
+            }
+            for (int r = row - ring; r <= row + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (int c = column - ring; c <= column + ring; c += edgeRow ? 1 : 2 * ring) {
+                    if (c >= 0 && c < columns) {
+                        int cell = r * columns + c;
+                        for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                            int node = nodes[i];
+                            double north = (hierarchy.latitudeE7(node) - latitudeE7) * kmPerE7;
+                            double east = (hierarchy.longitudeE7(node) - longitudeE7) * kmPerE7 * cosLatitude;
+                            double squared = north * north + east * east;
+                            if (squared <= bestSquared) {
+                                bestSquared = squared;
+                                bestKm = Math.sqrt(squared);
+                                best = node;
+                            }
+                        }
+                    }
+                    if (ring == 0) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private int row(double latitude) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((latitude - minLatitude) / CELL_DEGREES)));
+    }
+
+    private int column(double longitude) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((longitude - minLongitude) / CELL_DEGREES)));
+    }
+}
@@ -0,0 +1,237 @@
+package com.swiftlogistics.middleware.roadnet;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Directed road graph in compressed sparse row form: the out-edges of node
+ * n are {@code head/travelTime/length[firstEdge[n] .. firstEdge[n + 1])}.
+ * Travel times are in tenths of a second and lengths in metres, both as
+ * ints; coordinates are degrees scaled by 1e7.
+ *
+ * The text source is an extract of OSM drivable ways, one record per line:
+ * {@code node,<osm id>,<latitude>,<longitude>} and
+ * {@code edge,<from osm id>,<to osm id>,<length m>,<speed km/h>,<oneway 0|1>}.
+ * Nodes may be listed in any order relative to edges; nodes no edge
+ * touches are dropped. Blank lines and lines starting with '#' are skipped.
+ */
+public final class RoadGraph {
+
+    private final int[] latitudeE7;
+    private final int[] longitudeE7;
+    private final int[] firstEdge;
+    private final int[] head;
+    private final int[] travelTime;
+    private final int[] length;
+
+    private RoadGraph(int[] latitudeE7, int[] longitudeE7, int[] firstEdge, int[] head, int[] travelTime,
+                      int[] length) {
+        this.latitudeE7 = latitudeE7;
+        this.longitudeE7 = longitudeE7;
+        this.firstEdge = firstEdge;
+        this.head = head;
+        this.travelTime = travelTime;
+        this.length = length;
+    }
+
+    /**
+     * Graph over the given nodes from parallel edge arrays in any order
+     */
+    public static RoadGraph of(int[] latitudeE7, int[] longitudeE7, int[] from, int[] to, int[] travelTime,
+                               int[] length) {
+        int nodes = latitudeE7.length;
+        int edges = from.length;
+        int[] firstEdge = new int[nodes + 1];
+        for (int e = 0; e < edges; e++) {
+            firstEdge[from[e] + 1]++;
+        }
+        for (int n = 0; n < nodes; n++) {
+            firstEdge[n + 1] += firstEdge[n];
+        }
+        int[] cursor = Arrays.copyOf(firstEdge, nodes);
+        int[] sortedHead = new int[edges];
+        int[] sortedTime = new int[edges];
+        int[] sortedLength = new int[edges];
+        for (int e = 0; e < edges; e++) {
+            int slot = cursor[from[e]]++;
+            sortedHead[slot] = to[e];
+            sortedTime[slot] = travelTime[e];
+            sortedLength[slot] = length[e];
+        }
+        return new RoadGraph(latitudeE7, longitudeE7, firstEdge, sortedHead, sortedTime, sortedLength);
+    }
+
+    public static RoadGraph load(Path path) throws IOException {
+        Map<Long, Integer> index = new HashMap<>();
+        IntList latitudes = new IntList();
+        IntList longitudes = new IntList();
+        LongList edgeRecords = new LongList(); // from id, to id pairs
+        IntList edgeTimes = new IntList();
+        IntList edgeLengths = new IntList();
+        IntList edgeOneWay = new IntList();
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                try {
+                    if (fields[0].equals("node") && fields.length == 4) {
+                        index.put(Long.parseLong(fields[1]), latitudes.size());
+                        latitudes.add(toE7(Double.parseDouble(fields[2])));
+                        longitudes.add(toE7(Double.parseDouble(fields[3])));
+                    } else if (fields[0].equals("edge") && fields.length == 6) {
+                        int meters = (int) Math.max(1, Math.round(Double.parseDouble(fields[3])));
+                        double speedKmh = Double.parseDouble(fields[4]);
+                        if (speedKmh <= 0) {
+                            throw new IOException("Non-positive speed on road graph line " + lineNumber);
+                        }
+                        edgeRecords.add(Long.parseLong(fields[1]));
+                        edgeRecords.add(Long.parseLong(fields[2]));
+                        edgeLengths.add(meters);
+                        edgeTimes.add((int) Math.max(1, Math.round(meters / (speedKmh / 3.6) * 10)));
+                        edgeOneWay.add(fields[5].equals("1") ? 1 : 0);
+                    } else {
+                        throw new IOException("Malformed road graph line " + lineNumber + ": " + line);
+                    }
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed number on road graph line " + lineNumber + ": " + line);
+                }
+            }
+        }
+
+        // Keep only nodes some edge touches, numbered in first-seen order
+        int[] remap = new int[latitudes.size()];
+        Arrays.fill(remap, -1);
+        int nodes = 0;
+        int edgeCount = edgeTimes.size();
+        int directed = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            for (int end = 0; end < 2; end++) {
+                Integer node = index.get(edgeRecords.get(2 * e + end));
+                if (node == null) {
+                    throw new IOException("Edge refers to unknown node " + edgeRecords.get(2 * e + end));
+                }
+                if (remap[node] < 0) {
+                    remap[node] = nodes++;
+                }
+            }
+            directed += edgeOneWay.get(e) == 1 ? 1 : 2;
+        }
+        int[] latitudeE7 = new int[nodes];
+        int[] longitudeE7 = new int[nodes];
+        for (int old = 0; old < remap.length; old++) {
+            if (remap[old] >= 0) {
+                latitudeE7[remap[old]] = latitudes.get(old);
+                longitudeE7[remap[old]] = longitudes.get(old);
+            }
+        }
+        int[] from = new int[directed];
+        int[] to = new int[directed];
+        int[] times = new int[directed];
+        int[] lengths = new int[directed];
+        int d = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            int a = remap[index.get(edgeRecords.get(2 * e))];
+            int b = remap[index.get(edgeRecords.get(2 * e + 1))];
+            from[d] = a;
+            to[d] = b;
+            times[d] = edgeTimes.get(e);
+            lengths[d++] = edgeLengths.get(e);
+            if (edgeOneWay.get(e) == 0) {
+                from[d] = b;
+                to[d] = a;
+                times[d] = edgeTimes.get(e);
+                lengths[d++] = edgeLengths.get(e);
+            }
+        }
+        return of(latitudeE7, longitudeE7, from, to, times, lengths);
+    }
+
+    public int nodeCount() {
+        return latitudeE7.length;
+    }
+
+    public int edgeCount() {
+        return head.length;
+    }
+
+    public int firstEdge(int node) {
+        return firstEdge[node];
+    }
+
+    public int endEdge(int node) {
+        return firstEdge[node + 1];
+    }
+
+    public int head(int edge) {
+        return head[edge];
+    }
+
+    public int travelTime(int edge) {
+        return travelTime[edge];
+    }
+
+    public int length(int edge) {
+        return length[edge];
+    }
+
+    public int latitudeE7(int node) {
+        return latitudeE7[node];
+    }
+
+    public int longitudeE7(int node) {
+        return longitudeE7[node];
+    }
+
+    static int toE7(double degrees) {
+        return (int) Math.round(degrees * 1e7);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[1024];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int i) {
+            return values[i];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long get(int i) {
+            return values[i];
+        }
+    }
+}
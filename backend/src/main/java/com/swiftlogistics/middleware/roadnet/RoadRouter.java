@@ -0,0 +1,112 @@
+package com.swiftlogistics.middleware.roadnet;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+
+import java.util.Arrays;
+
+/**
+ * Travel between coordinates over a {@link ContractionHierarchy}. Each
+ * point is snapped to its nearest road node and the straight hop between
+ * point and node is added at access speed. Pairs with a point too far from
+ * any road, or with no road route between them, fall back to great-circle
+ * distance at the fallback speed.
+ */
+public final class RoadRouter {
+
+    private final ContractionHierarchy hierarchy;
+    private final NodeLocator locator;
+    private final double maxSnapKm;
+    private final double accessSpeedKmh;
+    private final double fallbackSpeedKmh;
+
+    public RoadRouter(ContractionHierarchy hierarchy, double maxSnapKm, double accessSpeedKmh,
+                      double fallbackSpeedKmh) {
+        this.hierarchy = hierarchy;
+        this.locator = new NodeLocator(hierarchy);
+        this.maxSnapKm = maxSnapKm;
+        this.accessSpeedKmh = accessSpeedKmh;
+        this.fallbackSpeedKmh = fallbackSpeedKmh;
+    }
+
+    /**
+     * Directed travel between every pair of the points, one many-to-many
+     * query over their distinct road nodes
+     */
+    public TravelTable table(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        int[] node = new int[n];
+        int[] accessTime = new int[n];
+        int[] accessLength = new int[n];
+        for (int i = 0; i < n; i++) {
+            node[i] = snap(latitudes[i], longitudes[i], i, accessTime, accessLength);
+        }
+
+        int[] distinct = Arrays.stream(node).filter(v -> v >= 0).sorted().distinct().toArray();
+        TravelTable roads = hierarchy.table(distinct, distinct);
+
+        int[] time = new int[n * n];
+        int[] length = new int[n * n];
+        int fallbacks = 0;
+        for (int i = 0; i < n; i++) {
+            int from = node[i] >= 0 ? Arrays.binarySearch(distinct, node[i]) : -1;
+            for (int j = 0; j < n; j++) {
+                if (i == j) {
+                    continue;
+                }
+                int to = node[j] >= 0 ? Arrays.binarySearch(distinct, node[j]) : -1;
+                int cell = i * n + j;
+                if (from >= 0 && to >= 0 && roads.isReachable(from, to)) {
+                    time[cell] = (int) Math.round(roads.minutes(from, to) * 600) + accessTime[i] + accessTime[j];
+                    length[cell] = (int) Math.round(roads.km(from, to) * 1000) + accessLength[i] + accessLength[j];
+                } else {
+                    fallbacks++;
+                    fallback(latitudes[i], longitudes[i], latitudes[j], longitudes[j], cell, time, length);
+                }
+            }
+        }
+        return new TravelTable(n, n, time, length, fallbacks);
+    }
+
+    /**
+     * Fastest road travel from one point to another as a one-by-one table
+     */
+    public TravelTable route(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        int[] accessTime = new int[2];
+        int[] accessLength = new int[2];
+        int from = snap(fromLatitude, fromLongitude, 0, accessTime, accessLength);
+        int to = snap(toLatitude, toLongitude, 1, accessTime, accessLength);
+        int[] time = new int[1];
+        int[] length = new int[1];
+        if (from >= 0 && to >= 0) {
+            TravelTable road = hierarchy.route(from, to);
+            if (road.isReachable(0, 0)) {
+                time[0] = (int) Math.round(road.minutes(0, 0) * 600) + accessTime[0] + accessTime[1];
+                length[0] = (int) Math.round(road.km(0, 0) * 1000) + accessLength[0] + accessLength[1];
+                return new TravelTable(1, 1, time, length);
+            }
+        }
+        fallback(fromLatitude, fromLongitude, toLatitude, toLongitude, 0, time, length);
+        return new TravelTable(1, 1, time, length, 1);
+    }
+
+    public ContractionHierarchy getHierarchy() {
+        return hierarchy;
+    }
+
+    private int snap(double latitude, double longitude, int slot, int[] accessTime, int[] accessLength) {
+        int node = locator.nearest(latitude, longitude, maxSnapKm);
+        if (node >= 0) {
+            double km = GeoMath.haversineKm(latitude, longitude, hierarchy.latitude(node), hierarchy.longitude(node));
+            accessLength[slot] = (int) Math.round(km * 1000);
+            accessTime[slot] = (int) Math.round(km / accessSpeedKmh * 36000);
+        }
+        return node;
+    }
+
+    private void fallback(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude,
+                          int cell, int[] time, int[] length) {
+        double km = GeoMath.haversineKm(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        length[cell] = (int) Math.round(km * 1000);
+        time[cell] = (int) Math.round(km / fallbackSpeedKmh * 36000);
+    }
+}
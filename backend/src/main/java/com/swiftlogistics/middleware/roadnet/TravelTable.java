@@ -0,0 +1,61 @@
+package com.swiftlogistics.middleware.roadnet;
+
+/**
+ * Travel times and lengths of the fastest routes from each source to each
+ * target, row-major by source
+ */
+public final class TravelTable {
+
+    private final int sources;
+    private final int targets;
+    private final int[] travelTime; // Tenths of a second, UNREACHABLE when no route
+    private final int[] length;     // Metres
+    private final int fallbackPairs;
+
+    TravelTable(int sources, int targets, int[] travelTime, int[] length) {
+        this(sources, targets, travelTime, length, 0);
+    }
+
+    TravelTable(int sources, int targets, int[] travelTime, int[] length, int fallbackPairs) {
+        this.sources = sources;
+        this.targets = targets;
+        this.travelTime = travelTime;
+        this.length = length;
+        this.fallbackPairs = fallbackPairs;
+    }
+
+    public boolean isReachable(int source, int target) {
+        return travelTime[source * targets + target] != ContractionHierarchy.UNREACHABLE;
+    }
+
+    public double minutes(int source, int target) {
+        return travelTime[source * targets + target] / 600.0;
+    }
+
+    public double km(int source, int target) {
+        return length[source * targets + target] / 1000.0;
+    }
+
+    /**
+     * Pairs estimated from great-circle distance for want of a road route
+     */
+    public int getFallbackPairs() {
+        return fallbackPairs;
+    }
+
+    int time(int source, int target) {
+        return travelTime[source * targets + target];
+    }
+
+    int length(int source, int target) {
+        return length[source * targets + target];
+    }
+
+    public int sourceCount() {
+        return sources;
+    }
+
+    public int targetCount() {
+        return targets;
+    }
+}
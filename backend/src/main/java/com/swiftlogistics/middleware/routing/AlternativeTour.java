@@ -0,0 +1,28 @@
+package com.swiftlogistics.middleware.routing;
+
+/**
+ * One alternative to a main tour, measured on the unpenalized matrix
+ */
+public class AlternativeTour {
+
+    private final int[] tour;
+    private final double distance;
+    private final double lateness;
+    private final double sharedFraction;
+    private final double penalty;
+
+    public AlternativeTour(int[] tour, double distance, double lateness, double sharedFraction, double penalty) {
+        this.tour = tour;
+        this.distance = distance;
+        this.lateness = lateness;
+        this.sharedFraction = sharedFraction;
+        this.penalty = penalty;
+    }
+
+    // Getters
+    public int[] getTour() { return tour; }
+    public double getDistance() { return distance; }
+    public double getLateness() { return lateness; }
+    public double getSharedFraction() { return sharedFraction; }
+    public double getPenalty() { return penalty; }
+}
@@ -0,0 +1,197 @@
+package com.swiftlogistics.middleware.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Penalty-based alternatives to a main tour. Each candidate re-solves the
+ * route on a copy of the matrix where the main tour's edges cost 1 + penalty
+ * times as much, so stronger penalties push it further away from the main
+ * tour. Candidates are independent and run in parallel on a fork/join pool
+ * under one wall-clock budget; candidates not begun by the deadline are
+ * skipped. A candidate is kept when it is no later than the main tour,
+ * shares at most maxShared of its edges with the main tour and with every
+ * alternative kept before it, and is at most maxStretch times as long. The
+ * improver must be thread-safe.
+ */
+public class AlternativeTours {
+
+    private static final double EPSILON = 1e-9;
+
+    private final TourImprover improver;
+    private final ForkJoinPool pool;
+    private final int candidates;
+    private final double maxShared;
+    private final double maxStretch;
+
+    public AlternativeTours(TourImprover improver, ForkJoinPool pool, int candidates, double maxShared,
+                            double maxStretch) {
+        if (candidates < 1) {
+            throw new IllegalArgumentException("candidates must be positive");
+        }
+        this.improver = improver;
+        this.pool = pool;
+        this.candidates = candidates;
+        this.maxShared = maxShared;
+        this.maxStretch = maxStretch;
+    }
+
+    /**
+     * @param main      tour to find alternatives to; its first point is the fixed start
+     * @param windows   time windows indexed like the matrix, or null
+     * @param penalties one candidate per penalty
+     * @param count     most alternatives returned, fewer late first and shorter second
+     * @param seed      base seed of the randomized constructions
+     */
+    public List<AlternativeTour> generate(int[] main, DistanceMatrix matrix, TimeWindows windows,
+                                          double[] penalties, int count, long budgetNanos, long seed) {
+        if (main.length < 3 || penalties.length == 0 || count < 1) {
+            return new ArrayList<>(); // One stop or none leaves nothing to reorder
+        }
+        Run run = new Run(main, matrix, windows, penalties, System.nanoTime() + budgetNanos, seed);
+        pool.invoke(new Candidates(run, 0, penalties.length));
+
+        double mainDistance = matrix.pathDistance(main);
+        double mainLateness = lateness(main, matrix, windows);
+        List<AlternativeTour> found = new ArrayList<>();
+        for (AlternativeTour candidate : run.results) {
+            if (candidate != null && candidate.getSharedFraction() <= maxShared + EPSILON
+                && candidate.getDistance() <= mainDistance * maxStretch + EPSILON
+                && candidate.getLateness() <= mainLateness + EPSILON) {
+                found.add(candidate);
+            }
+        }
+        found.sort(Comparator.comparingDouble(AlternativeTour::getLateness)
+            .thenComparingDouble(AlternativeTour::getDistance));
+
+        List<AlternativeTour> kept = new ArrayList<>(count);
+        for (AlternativeTour candidate : found) {
+            boolean distinct = true;
+            for (AlternativeTour other : kept) {
+                if (sharedFraction(candidate.getTour(), other.getTour(), matrix.size()) > maxShared + EPSILON) {
+                    distinct = false;
+                    break;
+                }
+            }
+            if (distinct) {
+                kept.add(candidate);
+                if (kept.size() == count) {
+                    break;
+                }
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Shared state of one generate call
+     */
+    private final class Run {
+        private final int[] main;
+        private final DistanceMatrix matrix;
+        private final TimeWindows windows;
+        private final double[] penalties;
+        private final long deadline;
+        private final long seed;
+        private final AlternativeTour[] results;
+
+        Run(int[] main, DistanceMatrix matrix, TimeWindows windows, double[] penalties, long deadline, long seed) {
+            this.main = main;
+            this.matrix = matrix;
+            this.windows = windows;
+            this.penalties = penalties;
+            this.deadline = deadline;
+            this.seed = seed;
+            this.results = new AlternativeTour[penalties.length];
+        }
+
+        void candidate(int index) {
+            // Candidate 0 always runs so there is something to offer, even past the deadline
+            if (index > 0 && System.nanoTime() >= deadline) {
+                return;
+            }
+            DistanceMatrix penalized = penalize(main, matrix, 1 + penalties[index]);
+            int[] tour = index == 0 ? TourConstruction.nearestNeighbour(penalized, main[0])
+                : TourConstruction.randomizedNearestNeighbour(penalized, main[0], candidates,
+                    new SplittableRandom(seed + index));
+            if (improver != null && tour.length > 3) {
+                improver.improve(tour, penalized, windows, Math.max(deadline - System.nanoTime(), 0));
+            }
+            results[index] = new AlternativeTour(tour, matrix.pathDistance(tour), lateness(tour, matrix, windows),
+                sharedFraction(tour, main, matrix.size()), penalties[index]);
+        }
+    }
+
+    /**
+     * Range of candidates, split in halves down to single candidates
+     */
+    private static final class Candidates extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        Candidates(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                run.candidate(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Candidates(run, from, middle), new Candidates(run, middle, to));
+        }
+    }
+
+    /**
+     * Copy of the matrix with the tour's edges, both directions, scaled by the factor
+     */
+    private static DistanceMatrix penalize(int[] tour, DistanceMatrix matrix, double factor) {
+        int n = matrix.size();
+        double[] distances = matrix.values().clone();
+        for (int i = 0; i < tour.length - 1; i++) {
+            distances[tour[i] * n + tour[i + 1]] *= factor;
+            distances[tour[i + 1] * n + tour[i]] *= factor;
+        }
+        return DistanceMatrix.of(n, distances);
+    }
+
+    /**
+     * Fraction of the tour's edges the other tour also uses, in either direction
+     */
+    private static double sharedFraction(int[] tour, int[] other, int size) {
+        boolean[] used = new boolean[size * size];
+        for (int i = 0; i < other.length - 1; i++) {
+            used[other[i] * size + other[i + 1]] = true;
+            used[other[i + 1] * size + other[i]] = true;
+        }
+        int shared = 0;
+        for (int i = 0; i < tour.length - 1; i++) {
+            if (used[tour[i] * size + tour[i + 1]]) {
+                shared++;
+            }
+        }
+        return tour.length > 1 ? (double) shared / (tour.length - 1) : 1.0;
+    }
+
+    private static double lateness(int[] tour, DistanceMatrix matrix, TimeWindows windows) {
+        if (windows == null || tour.length < 2) {
+            return 0;
+        }
+        RouteSchedule schedule = new RouteSchedule(windows, matrix);
+        schedule.compute(tour[0], windows.earliest(tour[0]), Arrays.copyOfRange(tour, 1, tour.length),
+            tour.length - 1);
+        return schedule.getLateness();
+    }
+}
@@ -0,0 +1,9 @@
+package com.swiftlogistics.middleware.routing;
+
+/**
+ * Travel distance in kilometres between two indexed points
+ */
+public interface DistanceFunction {
+
+    double distance(int from, int to);
+}
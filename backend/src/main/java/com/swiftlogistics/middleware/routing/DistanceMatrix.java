@@ -0,0 +1,80 @@
+package com.swiftlogistics.middleware.routing;
+
+/**
+ * Distances in kilometres between all pairs of a point set, stored as a
+ * flat row-major array and built once per optimization. Great-circle
+ * matrices compute each pair once from the cached trigonometry of
+ * {@link GeoPoints} and mirror it; road distances come precomputed.
+ */
+public final class DistanceMatrix implements DistanceFunction {
+
+    private final int size;
+    private final double[] distances;
+
+    private DistanceMatrix(int size, double[] distances) {
+        this.size = size;
+        this.distances = distances;
+    }
+
+    /**
+     * Haversine distances between the given coordinates, in degrees
+     */
+    public static DistanceMatrix haversine(double[] latitudes, double[] longitudes) {
+        return of(new GeoPoints(latitudes, longitudes));
+    }
+
+    public static DistanceMatrix of(GeoPoints points) {
+        int n = points.size();
+        double[] distances = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            int row = i * n;
+            for (int j = i + 1; j < n; j++) {
+                double d = points.distance(i, j);
+                distances[row + j] = d;
+                distances[j * n + i] = d;
+            }
+        }
+        return new DistanceMatrix(n, distances);
+    }
+
+    /**
+     * Matrix over precomputed row-major distances, in kilometres
+     */
+    public static DistanceMatrix of(int size, double[] distances) {
+        if (distances.length != size * size) {
+            throw new IllegalArgumentException("Distance array does not match the size");
+        }
+        return new DistanceMatrix(size, distances);
+    }
+
+    public double get(int from, int to) {
+        return distances[from * size + to];
+    }
+
+    @Override
+    public double distance(int from, int to) {
+        return distances[from * size + to];
+    }
+
+    /**
+     * Length of an open path visiting the points in the given order
+     */
+    public double pathDistance(int[] order) {
+        double total = 0;
+        for (int i = 0; i < order.length - 1; i++) {
+            total += distances[order[i] * size + order[i + 1]];
+        }
+        return total;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Backing row-major array; read-only by convention
+     */
+    public double[] values() {
+        return distances;
+    }
+}
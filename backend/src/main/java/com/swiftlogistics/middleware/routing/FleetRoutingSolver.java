@@ -0,0 +1,626 @@
+package com.swiftlogistics.middleware.routing;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+
+import java.util.Arrays;
+
+/**
+ * Capacitated routing of a whole fleet leaving one depot, honouring
+ * delivery time windows.
+ * Orders are taken in a sweep around the depot and each is inserted at the
+ * cheapest position of the current vehicle that keeps every stop inside its
+ * window, filling the largest vehicles first; orders that do not fit there
+ * are retried across the whole fleet afterwards. Each route is then
+ * resequenced by the single-route improver. Relocate, swap and 2-opt* moves
+ * between routes, evaluated against each order's nearest neighbours with
+ * don't-look bits and checked in constant time against per-route schedules,
+ * then shorten the fleet distance until no move gains or the time budget is
+ * spent. Routes are open and every order takes one unit of capacity. When
+ * the fleet cannot carry every order, orders are served in input order.
+ */
+public class FleetRoutingSolver {
+
+    private static final double EPSILON = 1e-9;
+    private static final int END = -1;
+    private static final int DEPOT = 0;
+    private static final double DEFAULT_SPEED_KMH = 40.0;
+
+    private final int neighbourCount;
+    private final TourImprover routeImprover;
+
+    public FleetRoutingSolver(int neighbourCount, TourImprover routeImprover) {
+        if (neighbourCount < 1) {
+            throw new IllegalArgumentException("neighbourCount must be positive");
+        }
+        this.neighbourCount = neighbourCount;
+        this.routeImprover = routeImprover;
+    }
+
+    public FleetSolution solve(double depotLatitude, double depotLongitude,
+                               double[] latitudes, double[] longitudes, int[] capacities, long budgetNanos) {
+        return solve(depotLatitude, depotLongitude, latitudes, longitudes, capacities, null, budgetNanos);
+    }
+
+    /**
+     * @param windows time windows by node, where node 0 is the depot (its
+     *                earliest time is the departure) and node k + 1 is order
+     *                k; null when unconstrained
+     */
+    public FleetSolution solve(double depotLatitude, double depotLongitude, double[] latitudes,
+                               double[] longitudes, int[] capacities, TimeWindows windows, long budgetNanos) {
+        long started = System.nanoTime();
+        int orders = latitudes.length;
+        if (longitudes.length != orders) {
+            throw new IllegalArgumentException("Latitude and longitude counts differ");
+        }
+        if (windows != null && windows.size() != orders + 1) {
+            throw new IllegalArgumentException("Time windows must cover the depot and every order");
+        }
+        int totalCapacity = 0;
+        for (int capacity : capacities) {
+            if (capacity < 0) {
+                throw new IllegalArgumentException("Vehicle capacity must not be negative");
+            }
+            totalCapacity += capacity;
+        }
+
+        // Node 0 is the depot, node k + 1 is order k
+        double[] nodeLatitudes = new double[orders + 1];
+        double[] nodeLongitudes = new double[orders + 1];
+        nodeLatitudes[DEPOT] = depotLatitude;
+        nodeLongitudes[DEPOT] = depotLongitude;
+        System.arraycopy(latitudes, 0, nodeLatitudes, 1, orders);
+        System.arraycopy(longitudes, 0, nodeLongitudes, 1, orders);
+        TimeWindows nodeWindows = windows != null ? windows
+            : TimeWindows.unconstrained(orders + 1, 0, DEFAULT_SPEED_KMH);
+
+        long deadline = started + budgetNanos;
+        Search search = new Search(new GeoPoints(nodeLatitudes, nodeLongitudes), nodeWindows, capacities,
+            Math.min(orders, totalCapacity));
+        search.construct();
+        for (int r = 0; r < capacities.length; r++) {
+            search.improveRoute(r, deadline);
+        }
+        double constructed = search.totalDistance();
+
+        boolean exhausted = false;
+        int assigned = search.assignedCount();
+        if (assigned > 1 && capacities.length > 1) {
+            search.buildNeighbours(Math.min(neighbourCount, assigned - 1));
+            exhausted = search.run(deadline);
+            for (int r = 0; r < capacities.length; r++) {
+                if (search.touched[r]) {
+                    search.improveRoute(r, deadline);
+                }
+            }
+        }
+
+        return new FleetSolution(search.routesAsOrders(), search.unassignedOrders(), constructed,
+            search.totalDistance(), search.relocateMoves, search.swapMoves, search.twoOptStarMoves,
+            System.nanoTime() - started, exhausted);
+    }
+
+    /**
+     * Working state of one solve; routes hold node numbers without the depot
+     */
+    private final class Search {
+        private final GeoPoints points;
+        private final TimeWindows windows;
+        private final int[] capacities;
+        private final int served;
+        private final int nodeCount;
+        private final int[][] routes;
+        private final int[] lengths;
+        private final RouteSchedule[] schedules;
+        private final boolean[] touched;
+        private final int[] routeOf;
+        private final int[] positionOf;
+        private int[] assigned;
+        private int[][] neighbours;
+
+        // Nodes whose don't-look bit is off, in a circular queue
+        private final boolean[] queued;
+        private final int[] queue;
+        private int head;
+        private int queuedCount;
+
+        private int relocateMoves;
+        private int swapMoves;
+        private int twoOptStarMoves;
+
+        Search(GeoPoints points, TimeWindows windows, int[] capacities, int served) {
+            this.points = points;
+            this.windows = windows;
+            this.capacities = capacities;
+            this.served = served;
+            this.nodeCount = points.size();
+            this.routes = new int[capacities.length][];
+            this.schedules = new RouteSchedule[capacities.length];
+            for (int r = 0; r < routes.length; r++) {
+                routes[r] = new int[capacities[r]];
+                schedules[r] = new RouteSchedule(windows, points);
+                schedules[r].compute(DEPOT, windows.earliest(DEPOT), routes[r], 0);
+            }
+            this.lengths = new int[capacities.length];
+            this.touched = new boolean[capacities.length];
+            this.routeOf = new int[nodeCount];
+            Arrays.fill(routeOf, -1);
+            this.positionOf = new int[nodeCount];
+            this.queued = new boolean[nodeCount];
+            this.queue = new int[nodeCount];
+        }
+
+        /**
+         * Insert the first served orders by polar angle around the depot,
+         * starting after the widest angular gap, then place what did not fit
+         * and finally orders beyond the served ones while capacity remains
+         */
+        void construct() {
+            int[] vehicles = vehiclesByCapacity();
+            int vehicle = 0;
+            int[] deferred = new int[served];
+            int deferredCount = 0;
+            for (int node : sweepOrder()) {
+                while (vehicle < vehicles.length && lengths[vehicles[vehicle]] == capacities[vehicles[vehicle]]) {
+                    vehicle++;
+                }
+                if (vehicle == vehicles.length || !insertCheapest(node, vehicles[vehicle], vehicles[vehicle] + 1)) {
+                    deferred[deferredCount++] = node;
+                }
+            }
+
+            int spare = 0;
+            for (int r = 0; r < routes.length; r++) {
+                spare += capacities[r] - lengths[r];
+            }
+            for (int i = 0; i < deferredCount && spare > 0; i++) {
+                if (insertCheapest(deferred[i], 0, routes.length)) {
+                    spare--;
+                }
+            }
+            for (int node = served + 1; node < nodeCount && spare > 0; node++) {
+                if (insertCheapest(node, 0, routes.length)) {
+                    spare--;
+                }
+            }
+
+            int count = 0;
+            int[] nodes = new int[nodeCount];
+            for (int node = 1; node < nodeCount; node++) {
+                if (routeOf[node] >= 0) {
+                    nodes[count++] = node;
+                }
+            }
+            assigned = Arrays.copyOf(nodes, count);
+        }
+
+        private int[] sweepOrder() {
+            if (served == 0) {
+                return new int[0];
+            }
+            double cosDepot = Math.cos(Math.toRadians(points.latitude(DEPOT)));
+            long[] keys = new long[served];
+            for (int node = 1; node <= served; node++) {
+                double angle = Math.atan2(points.latitude(node) - points.latitude(DEPOT),
+                    (points.longitude(node) - points.longitude(DEPOT)) * cosDepot);
+                long bucket = (long) ((angle + Math.PI) / (2 * Math.PI) * Integer.MAX_VALUE);
+                keys[node - 1] = bucket << 32 | node;
+            }
+            Arrays.sort(keys);
+
+            int start = 0;
+            long widestGap = -1;
+            for (int i = 0; i < served; i++) {
+                long current = keys[i] >>> 32;
+                long previous = i == 0 ? (keys[served - 1] >>> 32) - Integer.MAX_VALUE : keys[i - 1] >>> 32;
+                if (current - previous > widestGap) {
+                    widestGap = current - previous;
+                    start = i;
+                }
+            }
+            int[] order = new int[served];
+            for (int i = 0; i < served; i++) {
+                order[i] = (int) keys[(start + i) % served];
+            }
+            return order;
+        }
+
+        /**
+         * Insert node at its cheapest time-feasible position over routes
+         * [fromRoute, toRoute) that have spare capacity
+         */
+        private boolean insertCheapest(int node, int fromRoute, int toRoute) {
+            int bestRoute = -1;
+            int bestIndex = -1;
+            double bestDelta = Double.MAX_VALUE;
+            for (int r = fromRoute; r < toRoute; r++) {
+                if (lengths[r] == capacities[r]) {
+                    continue;
+                }
+                RouteSchedule schedule = schedules[r];
+                int previous = DEPOT;
+                for (int index = 0; index <= lengths[r]; index++) {
+                    int next = index < lengths[r] ? routes[r][index] : END;
+                    double delta = cost(previous, node) + cost(node, next) - cost(previous, next);
+                    if (delta < bestDelta && schedule.canInsert(node, index)) {
+                        bestDelta = delta;
+                        bestRoute = r;
+                        bestIndex = index;
+                    }
+                    previous = next;
+                }
+            }
+            if (bestRoute < 0) {
+                return false;
+            }
+            int[] route = routes[bestRoute];
+            System.arraycopy(route, bestIndex, route, bestIndex + 1, lengths[bestRoute] - bestIndex);
+            lengths[bestRoute]++;
+            for (int i = bestIndex; i < lengths[bestRoute]; i++) {
+                place(bestRoute, i, i == bestIndex ? node : route[i]);
+            }
+            reschedule(bestRoute);
+            return true;
+        }
+
+        private int[] vehiclesByCapacity() {
+            long[] keys = new long[capacities.length];
+            for (int r = 0; r < capacities.length; r++) {
+                // Largest first; ties keep input order
+                keys[r] = (long) (Integer.MAX_VALUE - capacities[r]) << 32 | r;
+            }
+            Arrays.sort(keys);
+            int[] vehicles = new int[capacities.length];
+            for (int r = 0; r < capacities.length; r++) {
+                vehicles[r] = (int) keys[r];
+            }
+            return vehicles;
+        }
+
+        /**
+         * Resequence one route with the single-route improver
+         */
+        void improveRoute(int r, long deadline) {
+            int length = lengths[r];
+            if (length < 2 || routeImprover == null) {
+                return;
+            }
+            double[] lat = new double[length + 1];
+            double[] lon = new double[length + 1];
+            int[] nodes = new int[length + 1];
+            nodes[0] = DEPOT;
+            System.arraycopy(routes[r], 0, nodes, 1, length);
+            for (int i = 0; i <= length; i++) {
+                lat[i] = points.latitude(nodes[i]);
+                lon[i] = points.longitude(nodes[i]);
+            }
+            DistanceMatrix matrix = DistanceMatrix.haversine(lat, lon);
+            int[] tour = new int[length + 1];
+            for (int i = 0; i <= length; i++) {
+                tour[i] = i;
+            }
+            routeImprover.improve(tour, matrix, windows.subset(nodes), Math.max(deadline - System.nanoTime(), 0));
+            for (int i = 1; i <= length; i++) {
+                place(r, i - 1, nodes[tour[i]]);
+            }
+            reschedule(r);
+        }
+
+        private void reschedule(int r) {
+            schedules[r].compute(DEPOT, windows.earliest(DEPOT), routes[r], lengths[r]);
+        }
+
+        int assignedCount() {
+            return assigned.length;
+        }
+
+        int[] unassignedOrders() {
+            int[] result = new int[nodeCount - 1 - assigned.length];
+            int count = 0;
+            for (int node = 1; node < nodeCount; node++) {
+                if (routeOf[node] < 0) {
+                    result[count++] = node - 1;
+                }
+            }
+            return result;
+        }
+
+        double totalDistance() {
+            double total = 0;
+            for (int r = 0; r < routes.length; r++) {
+                int previous = DEPOT;
+                for (int i = 0; i < lengths[r]; i++) {
+                    total += points.distance(previous, routes[r][i]);
+                    previous = routes[r][i];
+                }
+            }
+            return total;
+        }
+
+        int[][] routesAsOrders() {
+            int[][] result = new int[routes.length][];
+            for (int r = 0; r < routes.length; r++) {
+                result[r] = new int[lengths[r]];
+                for (int i = 0; i < lengths[r]; i++) {
+                    result[r][i] = routes[r][i] - 1;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns true when the deadline stopped the search before a local optimum
+         */
+        boolean run(long deadline) {
+            for (int node : assigned) {
+                activate(node);
+            }
+            int iterations = 0;
+            while (queuedCount > 0) {
+                if ((++iterations & 63) == 0 && System.nanoTime() > deadline) {
+                    return true;
+                }
+                int node = queue[head];
+                head = head + 1 == queue.length ? 0 : head + 1;
+                queuedCount--;
+                queued[node] = false;
+                improveNode(node);
+            }
+            return false;
+        }
+
+        private boolean improveNode(int i) {
+            int r1 = routeOf[i];
+            int p = positionOf[i];
+            int prevI = previous(i);
+            int nextI = next(i);
+            double removeGain = cost(prevI, i) + cost(i, nextI) - cost(prevI, nextI);
+
+            RouteSchedule schedule1 = schedules[r1];
+            for (int j : neighbours[i]) {
+                int r2 = routeOf[j];
+                if (r2 == r1) {
+                    continue; // Intra-route order is left to the route improver
+                }
+                RouteSchedule schedule2 = schedules[r2];
+                int q = positionOf[j];
+                int prevJ = previous(j);
+                int nextJ = next(j);
+                double dij = cost(i, j);
+
+                // Schedule positions count the depot, so stop index q is position q + 1.
+                // Removing a stop never delays the rest of its route.
+                if (lengths[r2] < capacities[r2]) {
+                    // Relocate i right after j
+                    double delta = dij + cost(i, nextJ) - cost(j, nextJ) - removeGain;
+                    if (delta < -EPSILON && schedule2.canInsert(i, q + 1)) {
+                        relocate(i, r2, q + 1);
+                        activate(prevI, nextI, j, nextJ);
+                        activate(i);
+                        relocateMoves++;
+                        return true;
+                    }
+                    // Relocate i right before j
+                    delta = cost(prevJ, i) + dij - cost(prevJ, j) - removeGain;
+                    if (delta < -EPSILON && schedule2.canInsert(i, q)) {
+                        relocate(i, r2, q);
+                        activate(prevI, nextI, prevJ, j);
+                        activate(i);
+                        relocateMoves++;
+                        return true;
+                    }
+                }
+
+                // Swap i and j
+                double delta = cost(prevI, j) + cost(j, nextI) - cost(prevI, i) - cost(i, nextI)
+                    + cost(prevJ, i) + cost(i, nextJ) - cost(prevJ, j) - cost(j, nextJ);
+                if (delta < -EPSILON && schedule1.canReplace(j, p + 1) && schedule2.canReplace(i, q + 1)) {
+                    place(r1, p, j);
+                    place(r2, q, i);
+                    reschedule(r1);
+                    reschedule(r2);
+                    touched[r1] = touched[r2] = true;
+                    activate(prevI, nextI, prevJ, nextJ);
+                    activate(i, j);
+                    swapMoves++;
+                    return true;
+                }
+
+                // 2-opt*: r1 keeps its head up to i and takes r2's tail from j
+                int newLength1 = p + 1 + lengths[r2] - q;
+                int newLength2 = q + lengths[r1] - p - 1;
+                if (newLength1 <= capacities[r1] && newLength2 <= capacities[r2]) {
+                    delta = dij + cost(prevJ, nextI) - cost(i, nextI) - cost(prevJ, j);
+                    if (delta < -EPSILON && schedule1.canConnect(p + 1, schedule2, q + 1)
+                        && schedule2.canConnect(q, schedule1, p + 2)) {
+                        exchangeTails(r1, p + 1, r2, q);
+                        activate(i, nextI, prevJ, j);
+                        twoOptStarMoves++;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void relocate(int node, int target, int index) {
+            int source = routeOf[node];
+            int[] from = routes[source];
+            int p = positionOf[node];
+            System.arraycopy(from, p + 1, from, p, lengths[source] - p - 1);
+            lengths[source]--;
+            for (int i = p; i < lengths[source]; i++) {
+                positionOf[from[i]] = i;
+            }
+
+            int[] to = routes[target];
+            System.arraycopy(to, index, to, index + 1, lengths[target] - index);
+            lengths[target]++;
+            to[index] = node;
+            routeOf[node] = target;
+            for (int i = index; i < lengths[target]; i++) {
+                positionOf[to[i]] = i;
+            }
+            reschedule(source);
+            reschedule(target);
+            touched[source] = touched[target] = true;
+        }
+
+        /**
+         * r1 becomes r1[0, from1) + r2[from2, end) and r2 becomes r2[0, from2) + r1[from1, end)
+         */
+        private void exchangeTails(int r1, int from1, int r2, int from2) {
+            int[] tail1 = Arrays.copyOfRange(routes[r1], from1, lengths[r1]);
+            int[] tail2 = Arrays.copyOfRange(routes[r2], from2, lengths[r2]);
+            for (int i = 0; i < tail2.length; i++) {
+                place(r1, from1 + i, tail2[i]);
+            }
+            for (int i = 0; i < tail1.length; i++) {
+                place(r2, from2 + i, tail1[i]);
+            }
+            lengths[r1] = from1 + tail2.length;
+            lengths[r2] = from2 + tail1.length;
+            reschedule(r1);
+            reschedule(r2);
+            touched[r1] = touched[r2] = true;
+        }
+
+        private void place(int r, int index, int node) {
+            routes[r][index] = node;
+            routeOf[node] = r;
+            positionOf[node] = index;
+        }
+
+        private int previous(int node) {
+            int p = positionOf[node];
+            return p == 0 ? DEPOT : routes[routeOf[node]][p - 1];
+        }
+
+        private int next(int node) {
+            int r = routeOf[node];
+            int p = positionOf[node];
+            return p + 1 < lengths[r] ? routes[r][p + 1] : END;
+        }
+
+        private double cost(int from, int to) {
+            // Leaving the last stop is free on an open route
+            return from == END || to == END ? 0 : points.distance(from, to);
+        }
+
+        private void activate(int a, int b, int c, int d) {
+            activate(a);
+            activate(b);
+            activate(c);
+            activate(d);
+        }
+
+        private void activate(int a, int b) {
+            activate(a);
+            activate(b);
+        }
+
+        private void activate(int a, int b, int c) {
+            activate(a);
+            activate(b);
+            activate(c);
+        }
+
+        private void activate(int node) {
+            if (node == END || node == DEPOT || queued[node]) {
+                return;
+            }
+            queued[node] = true;
+            int tail = head + queuedCount;
+            queue[tail >= queue.length ? tail - queue.length : tail] = node;
+            queuedCount++;
+        }
+
+        /**
+         * k nearest assigned orders of every assigned order, closest first.
+         * Candidates come from a uniform grid over an equirectangular
+         * projection around the depot, searched in growing rings.
+         */
+        void buildNeighbours(int k) {
+            double cosDepot = Math.cos(Math.toRadians(points.latitude(DEPOT)));
+            double[] x = new double[nodeCount];
+            double[] y = new double[nodeCount];
+            double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+            for (int node : assigned) {
+                x[node] = points.longitude(node) * cosDepot * GeoMath.KM_PER_DEGREE;
+                y[node] = points.latitude(node) * GeoMath.KM_PER_DEGREE;
+                minX = Math.min(minX, x[node]);
+                maxX = Math.max(maxX, x[node]);
+                minY = Math.min(minY, y[node]);
+                maxY = Math.max(maxY, y[node]);
+            }
+
+            // About two orders per cell
+            double width = Math.max(maxX - minX, 1e-6);
+            double height = Math.max(maxY - minY, 1e-6);
+            double cellSize = Math.max(Math.sqrt(width * height / Math.max(assigned.length / 2.0, 1.0)), 1e-6);
+            int columns = Math.min((int) (width / cellSize) + 1, 4096);
+            int rows = Math.min((int) (height / cellSize) + 1, 4096);
+            cellSize = Math.max(width / columns, height / rows);
+            columns = (int) (width / cellSize) + 1;
+            rows = (int) (height / cellSize) + 1;
+
+            // Counting sort of nodes by cell
+            int[] cellOf = new int[nodeCount];
+            int[] cellStart = new int[columns * rows + 1];
+            for (int node : assigned) {
+                int column = (int) ((x[node] - minX) / cellSize);
+                int row = (int) ((y[node] - minY) / cellSize);
+                cellOf[node] = row * columns + column;
+                cellStart[cellOf[node] + 1]++;
+            }
+            for (int c = 0; c < columns * rows; c++) {
+                cellStart[c + 1] += cellStart[c];
+            }
+            int[] cellNodes = new int[assigned.length];
+            int[] fill = Arrays.copyOf(cellStart, cellStart.length);
+            for (int node : assigned) {
+                cellNodes[fill[cellOf[node]]++] = node;
+            }
+
+            neighbours = new int[nodeCount][];
+            int[] best = new int[k];
+            double[] bestDistance = new double[k];
+            for (int node : assigned) {
+                int column = cellOf[node] % columns;
+                int row = cellOf[node] / columns;
+                int count = 0;
+                int maxRing = Math.max(columns, rows);
+                for (int ring = 0; ring <= maxRing; ring++) {
+                    if (count == k && bestDistance[k - 1] <= (ring - 1) * cellSize) {
+                        break; // Unvisited cells are all farther than the k-th candidate
+                    }
+                    for (int r = row - ring; r <= row + ring; r++) {
+                        if (r < 0 || r >= rows) continue;
+                        boolean edgeRow = r == row - ring || r == row + ring;
+                        int step = edgeRow ? 1 : 2 * ring;
+                        for (int c = column - ring; c <= column + ring; c += Math.max(step, 1)) {
+                            if (c < 0 || c >= columns) continue;
+                            int cell = r * columns + c;
+                            for (int s = cellStart[cell]; s < cellStart[cell + 1]; s++) {
+                                int other = cellNodes[s];
+                                if (other == node) continue;
+                                double d = Math.hypot(x[other] - x[node], y[other] - y[node]);
+                                if (count == k && d >= bestDistance[k - 1]) continue;
+                                int slot = count < k ? count++ : k - 1;
+                                while (slot > 0 && bestDistance[slot - 1] > d) {
+                                    bestDistance[slot] = bestDistance[slot - 1];
+                                    best[slot] = best[slot - 1];
+                                    slot--;
+                                }
+                                bestDistance[slot] = d;
+                                best[slot] = other;
+                            }
+                        }
+                    }
+                }
+                neighbours[node] = Arrays.copyOf(best, count);
+            }
+        }
+    }
+}
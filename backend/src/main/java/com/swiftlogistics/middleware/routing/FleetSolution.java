@@ -0,0 +1,60 @@
+package com.swiftlogistics.middleware.routing;
+
+/**
+ * Routes produced by {@link FleetRoutingSolver}, one per vehicle in input order
+ */
+public class FleetSolution {
+
+    private final int[][] routes;
+    private final int[] unassigned;
+    private final double constructedDistance;
+    private final double finalDistance;
+    private final int relocateMoves;
+    private final int swapMoves;
+    private final int twoOptStarMoves;
+    private final long elapsedNanos;
+    private final boolean budgetExhausted;
+
+    public FleetSolution(int[][] routes, int[] unassigned, double constructedDistance, double finalDistance,
+                         int relocateMoves, int swapMoves, int twoOptStarMoves,
+                         long elapsedNanos, boolean budgetExhausted) {
+        this.routes = routes;
+        this.unassigned = unassigned;
+        this.constructedDistance = constructedDistance;
+        this.finalDistance = finalDistance;
+        this.relocateMoves = relocateMoves;
+        this.swapMoves = swapMoves;
+        this.twoOptStarMoves = twoOptStarMoves;
+        this.elapsedNanos = elapsedNanos;
+        this.budgetExhausted = budgetExhausted;
+    }
+
+    /**
+     * Order indices visited by a vehicle, in visiting order; empty when unused
+     */
+    public int[] getRoute(int vehicle) {
+        return routes[vehicle];
+    }
+
+    public int getVehicleCount() {
+        return routes.length;
+    }
+
+    public int getAssignedCount() {
+        int count = 0;
+        for (int[] route : routes) {
+            count += route.length;
+        }
+        return count;
+    }
+
+    // Getters
+    public int[] getUnassigned() { return unassigned; }
+    public double getConstructedDistance() { return constructedDistance; }
+    public double getFinalDistance() { return finalDistance; }
+    public int getRelocateMoves() { return relocateMoves; }
+    public int getSwapMoves() { return swapMoves; }
+    public int getTwoOptStarMoves() { return twoOptStarMoves; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public boolean isBudgetExhausted() { return budgetExhausted; }
+}
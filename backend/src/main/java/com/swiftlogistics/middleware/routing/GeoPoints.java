@@ -0,0 +1,69 @@
+package com.swiftlogistics.middleware.routing;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+
+/**
+ * A fixed set of coordinates with the trigonometry needed by the haversine
+ * formula precomputed per point. Sines and cosines of each point's
+ * half-angles are cached, so a pair distance costs one square root and one
+ * arcsine. Used where a full matrix would be too large.
+ */
+public final class GeoPoints implements DistanceFunction {
+
+    private static final double DIAMETER_KM = 2 * GeoMath.EARTH_RADIUS_KM;
+
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] cosLat;
+    private final double[] sinHalfLat;
+    private final double[] cosHalfLat;
+    private final double[] sinHalfLon;
+    private final double[] cosHalfLon;
+
+    public GeoPoints(double[] latitudes, double[] longitudes) {
+        int n = latitudes.length;
+        if (longitudes.length != n) {
+            throw new IllegalArgumentException("Latitude and longitude counts differ");
+        }
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.cosLat = new double[n];
+        this.sinHalfLat = new double[n];
+        this.cosHalfLat = new double[n];
+        this.sinHalfLon = new double[n];
+        this.cosHalfLon = new double[n];
+        for (int i = 0; i < n; i++) {
+            double lat = Math.toRadians(latitudes[i]);
+            double lon = Math.toRadians(longitudes[i]);
+            cosLat[i] = Math.cos(lat);
+            sinHalfLat[i] = Math.sin(lat / 2);
+            cosHalfLat[i] = Math.cos(lat / 2);
+            sinHalfLon[i] = Math.sin(lon / 2);
+            cosHalfLon[i] = Math.cos(lon / 2);
+        }
+    }
+
+    /**
+     * Haversine distance in kilometres between two points of the set
+     */
+    @Override
+    public double distance(int i, int j) {
+        // sin((b - a) / 2) from the cached half-angles
+        double sinLat = sinHalfLat[j] * cosHalfLat[i] - cosHalfLat[j] * sinHalfLat[i];
+        double sinLon = sinHalfLon[j] * cosHalfLon[i] - cosHalfLon[j] * sinHalfLon[i];
+        double a = sinLat * sinLat + cosLat[i] * cosLat[j] * sinLon * sinLon;
+        return DIAMETER_KM * Math.asin(Math.sqrt(Math.min(a, 1.0)));
+    }
+
+    public int size() {
+        return latitudes.length;
+    }
+
+    public double latitude(int i) {
+        return latitudes[i];
+    }
+
+    public double longitude(int i) {
+        return longitudes[i];
+    }
+}
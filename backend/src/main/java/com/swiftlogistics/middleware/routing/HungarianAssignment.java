@@ -0,0 +1,280 @@
+package com.swiftlogistics.middleware.routing;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost assignment of rows to distinct columns: the Hungarian
+ * method in the shortest augmenting path form of Jonker and Volgenant.
+ * Column reduction, reduction transfer and two passes of augmenting row
+ * reduction match most rows cheaply. That matters for near rank-one costs
+ * such as every driver's drive to one depot, where tied reduced costs would
+ * otherwise send each augmenting path through every matched column. Rows
+ * left over are matched exactly by Dijkstra searches that settle all
+ * columns at the current minimum at once and stop at the first free one.
+ * Rectangular problems are padded with zero-cost rows. Everything lives in
+ * flat arrays; dense 500 by 500 problems solve in tens of milliseconds.
+ */
+public final class HungarianAssignment {
+
+    // Augmenting row reduction steps allowed per row before the exact phase takes over
+    private static final int ROW_REDUCTION_STEPS = 8;
+
+    private HungarianAssignment() {}
+
+    /**
+     * @param costs   row-major rows by columns costs; pairs that must not be
+     *                matched should cost far more than any feasible assignment
+     *                rather than infinity, which would break the potentials
+     * @param rows    rows to assign, at most columns
+     * @return the column given to each row
+     */
+    public static int[] solve(double[] costs, int rows, int columns) {
+        if (rows > columns) {
+            throw new IllegalArgumentException("More rows (" + rows + ") than columns (" + columns + ")");
+        }
+        if (costs.length != rows * columns) {
+            throw new IllegalArgumentException("Cost array does not match " + rows + " by " + columns);
+        }
+        for (double cost : costs) {
+            if (!Double.isFinite(cost)) {
+                throw new IllegalArgumentException("Costs must be finite");
+            }
+        }
+        if (rows == 0) {
+            return new int[0];
+        }
+        if (columns == 1) {
+            return new int[] {0};
+        }
+        double[] square = rows == columns ? costs : Arrays.copyOf(costs, columns * columns);
+        int[] columnOfRow = new Solver(square, columns).solve();
+        return rows == columns ? columnOfRow : Arrays.copyOf(columnOfRow, rows);
+    }
+
+    /**
+     * One square problem, keeping column potentials only; row potentials
+     * are implied by them
+     */
+    private static final class Solver {
+        private final double[] cost;
+        private final int n;
+        private final double[] potential;
+        private final int[] columnOfRow;
+        private final int[] rowOfColumn;
+        private final int[] free;
+        private int freeCount;
+
+        Solver(double[] cost, int n) {
+            this.cost = cost;
+            this.n = n;
+            this.potential = new double[n];
+            this.columnOfRow = new int[n];
+            this.rowOfColumn = new int[n];
+            this.free = new int[n];
+            Arrays.fill(columnOfRow, -1);
+        }
+
+        int[] solve() {
+            reduceColumns();
+            int steps = ROW_REDUCTION_STEPS * n;
+            for (int pass = 0; pass < 2 && freeCount > 0; pass++) {
+                steps = reduceRows(steps);
+            }
+            double[] distance = new double[n];
+            int[] previousRow = new int[n];
+            int[] columns = new int[n];
+            for (int f = 0; f < freeCount; f++) {
+                augment(free[f], distance, previousRow, columns);
+            }
+            return columnOfRow;
+        }
+
+        /**
+         * Column reduction then reduction transfer: each column is priced at
+         * its cheapest row and given to it if that row has none cheaper, and
+         * rows holding a single column pass their slack on to it
+         */
+        private void reduceColumns() {
+            int[] matches = new int[n];
+            for (int j = n - 1; j >= 0; j--) {
+                int best = 0;
+                double least = cost[j];
+                for (int i = 1; i < n; i++) {
+                    double c = cost[i * n + j];
+                    if (c < least) {
+                        least = c;
+                        best = i;
+                    }
+                }
+                potential[j] = least;
+                if (++matches[best] == 1) {
+                    columnOfRow[best] = j;
+                    rowOfColumn[j] = best;
+                } else if (least < potential[columnOfRow[best]]) {
+                    rowOfColumn[columnOfRow[best]] = -1;
+                    columnOfRow[best] = j;
+                    rowOfColumn[j] = best;
+                } else {
+                    rowOfColumn[j] = -1;
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (matches[i] == 0) {
+                    free[freeCount++] = i;
+                } else if (matches[i] == 1) {
+                    int own = columnOfRow[i];
+                    int base = i * n;
+                    double least = Double.POSITIVE_INFINITY;
+                    for (int j = 0; j < n; j++) {
+                        if (j != own) {
+                            least = Math.min(least, cost[base + j] - potential[j]);
+                        }
+                    }
+                    potential[own] -= least;
+                }
+            }
+        }
+
+        /**
+         * One pass of augmenting row reduction: each free row takes the column
+         * of its smallest reduced cost, dropping that column's price to the
+         * row's second smallest; a row displaced by a price drop is retried
+         * at once. Rows still free stay listed for the exact phase. Returns
+         * the steps left.
+         */
+        private int reduceRows(int steps) {
+            int pending = freeCount;
+            freeCount = 0;
+            int k = 0;
+            while (k < pending) {
+                int row = free[k++];
+                if (steps <= 0) {
+                    free[freeCount++] = row;
+                    continue;
+                }
+                steps--;
+                int base = row * n;
+                double lowest = cost[base] - potential[0];
+                double second = Double.POSITIVE_INFINITY;
+                int lowestColumn = 0;
+                int secondColumn = -1;
+                for (int j = 1; j < n; j++) {
+                    double reduced = cost[base + j] - potential[j];
+                    if (reduced < second) {
+                        if (reduced >= lowest) {
+                            second = reduced;
+                            secondColumn = j;
+                        } else {
+                            second = lowest;
+                            secondColumn = lowestColumn;
+                            lowest = reduced;
+                            lowestColumn = j;
+                        }
+                    }
+                }
+                int column = lowestColumn;
+                int displaced = rowOfColumn[column];
+                boolean lowered = lowest < second;
+                if (lowered) {
+                    potential[column] -= second - lowest;
+                } else if (displaced >= 0) {
+                    column = secondColumn;
+                    displaced = rowOfColumn[column];
+                }
+                columnOfRow[row] = column;
+                rowOfColumn[column] = row;
+                if (displaced >= 0) {
+                    columnOfRow[displaced] = -1;
+                    if (lowered) {
+                        free[--k] = displaced;
+                    } else {
+                        free[freeCount++] = displaced;
+                    }
+                }
+            }
+            return steps;
+        }
+
+        /**
+         * Match a free row along a shortest alternating path in reduced
+         * costs. columns[0, settled) are done, [settled, frontier) sit at the
+         * current minimum and the rest are still being relaxed.
+         */
+        private void augment(int start, double[] distance, int[] previousRow, int[] columns) {
+            int base = start * n;
+            for (int j = 0; j < n; j++) {
+                distance[j] = cost[base + j] - potential[j];
+                previousRow[j] = start;
+                columns[j] = j;
+            }
+            int settled = 0;
+            int frontier = 0;
+            int priced = 0;
+            double minimum = 0;
+            int end = -1;
+            while (end < 0) {
+                if (frontier == settled) {
+                    // Columns settled so far are priced; gather all at the next minimum
+                    priced = settled;
+                    minimum = distance[columns[frontier++]];
+                    for (int k = frontier; k < n; k++) {
+                        int j = columns[k];
+                        double d = distance[j];
+                        if (d <= minimum) {
+                            if (d < minimum) {
+                                frontier = settled;
+                                minimum = d;
+                            }
+                            columns[k] = columns[frontier];
+                            columns[frontier++] = j;
+                        }
+                    }
+                    for (int k = settled; k < frontier && end < 0; k++) {
+                        if (rowOfColumn[columns[k]] < 0) {
+                            end = columns[k];
+                        }
+                    }
+                    if (end >= 0) {
+                        break;
+                    }
+                }
+                int reached = columns[settled++];
+                int row = rowOfColumn[reached];
+                int rowBase = row * n;
+                double offset = cost[rowBase + reached] - potential[reached] - minimum;
+                for (int k = frontier; k < n; k++) {
+                    int j = columns[k];
+                    double d = cost[rowBase + j] - potential[j] - offset;
+                    if (d < distance[j]) {
+                        previousRow[j] = row;
+                        distance[j] = d;
+                        if (d == minimum) {
+                            if (rowOfColumn[j] < 0) {
+                                end = j;
+                                break;
+                            }
+                            columns[k] = columns[frontier];
+                            columns[frontier++] = j;
+                        }
+                    }
+                }
+            }
+
+            for (int k = 0; k < priced; k++) {
+                int j = columns[k];
+                potential[j] += distance[j] - minimum;
+            }
+            int column = end;
+            while (true) {
+                int row = previousRow[column];
+                rowOfColumn[column] = row;
+                int next = columnOfRow[row];
+                columnOfRow[row] = column;
+                if (row == start) {
+                    break;
+                }
+                column = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.swiftlogistics.middleware.routing;
+
+/**
+ * Outcome of one improvement stage run
+ */
+public class ImprovementResult {
+
+    private final double initialDistance;
+    private final double finalDistance;
+    private final int twoOptMoves;
+    private final int orOptMoves;
+    private final int relocateMoves;
+    private final long elapsedNanos;
+    private final boolean budgetExhausted;
+
+    public ImprovementResult(double initialDistance, double finalDistance, int twoOptMoves, int orOptMoves,
+                             int relocateMoves, long elapsedNanos, boolean budgetExhausted) {
+        this.initialDistance = initialDistance;
+        this.finalDistance = finalDistance;
+        this.twoOptMoves = twoOptMoves;
+        this.orOptMoves = orOptMoves;
+        this.relocateMoves = relocateMoves;
+        this.elapsedNanos = elapsedNanos;
+        this.budgetExhausted = budgetExhausted;
+    }
+
+    public static ImprovementResult unchanged(double distance) {
+        return new ImprovementResult(distance, distance, 0, 0, 0, 0, false);
+    }
+
+    public int getMoves() {
+        return twoOptMoves + orOptMoves + relocateMoves;
+    }
+
+    public double getImprovementPercentage() {
+        if (initialDistance <= 0) return 0.0;
+        return (initialDistance - finalDistance) / initialDistance * 100.0;
+    }
+
+    // Getters
+    public double getInitialDistance() { return initialDistance; }
+    public double getFinalDistance() { return finalDistance; }
+    public int getTwoOptMoves() { return twoOptMoves; }
+    public int getOrOptMoves() { return orOptMoves; }
+    public int getRelocateMoves() { return relocateMoves; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public boolean isBudgetExhausted() { return budgetExhausted; }
+}
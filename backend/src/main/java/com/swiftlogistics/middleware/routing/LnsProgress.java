@@ -0,0 +1,52 @@
+package com.swiftlogistics.middleware.routing;
+
+/**
+ * Live view of an {@link LnsSolver} run, written by the solving thread and
+ * read by anyone polling it. Cancelling asks the run to stop and return the
+ * best solution found so far.
+ */
+public final class LnsProgress {
+
+    private volatile boolean cancelled;
+    private volatile long iterations;
+    private volatile long improvements;
+    private volatile double initialDistance = Double.NaN;
+    private volatile double bestDistance = Double.NaN;
+    private volatile int bestUnassigned;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void start(double distance, int unassigned) {
+        initialDistance = distance;
+        bestDistance = distance;
+        bestUnassigned = unassigned;
+    }
+
+    void improved(double distance, int unassigned) {
+        bestDistance = distance;
+        bestUnassigned = unassigned;
+        improvements++;
+    }
+
+    void settled(double distance, int unassigned) {
+        bestDistance = distance;
+        bestUnassigned = unassigned;
+    }
+
+    void iterated(long count) {
+        iterations = count;
+    }
+
+    // Getters
+    public long getIterations() { return iterations; }
+    public long getImprovements() { return improvements; }
+    public double getInitialDistance() { return initialDistance; }
+    public double getBestDistance() { return bestDistance; }
+    public int getBestUnassigned() { return bestUnassigned; }
+}
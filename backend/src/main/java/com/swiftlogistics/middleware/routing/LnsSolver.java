@@ -0,0 +1,476 @@
+package com.swiftlogistics.middleware.routing;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Anytime improvement of a fleet plan by large neighbourhood search under
+ * simulated annealing, for offline planning where a minute of CPU is
+ * affordable. Each iteration ruins the current plan by removing a few
+ * orders, either at random, related to a random seed order by distance, or
+ * as a string of consecutive stops of one route, then recreates it by
+ * inserting them, together with any unassigned orders, at their cheapest
+ * position that keeps every stop inside its window. The result is accepted
+ * when shorter, or when longer with a probability that shrinks as the
+ * temperature cools from START_WORSENING of the starting distance over
+ * the budget. Serving an order outweighs any distance, and earlier orders
+ * outweigh later ones, as in {@link FleetRoutingSolver}. The last part of
+ * the budget resequences each route of the best plan with the route
+ * improver.
+ */
+public class LnsSolver {
+
+    private static final double EPSILON = 1e-9;
+    private static final int DEPOT = 0;
+    private static final int END = -1;
+    private static final double DEFAULT_SPEED_KMH = 40.0;
+
+    // Penalty of leaving order k of n unserved is UNASSIGNED_PENALTY_KM * (2 - k / n)
+    private static final double UNASSIGNED_PENALTY_KM = 1000.0;
+
+    private static final double MIN_REMOVAL_FRACTION = 0.05;
+    private static final double MAX_REMOVAL_FRACTION = 0.25;
+    private static final int MIN_REMOVED = 2;
+    private static final int MAX_REMOVED = 60;
+    private static final double RELATEDNESS_EXPONENT = 4.0;
+
+    // Starting temperature accepts a move START_WORSENING of the starting distance worse half the time
+    private static final double START_WORSENING = 0.02;
+    private static final double FINAL_TEMPERATURE_RATIO = 1e-3;
+    private static final double POLISH_BUDGET_FRACTION = 0.02;
+
+    private final TourImprover routeImprover;
+
+    public LnsSolver(TourImprover routeImprover) {
+        this.routeImprover = routeImprover;
+    }
+
+    /**
+     * @param initial  plan to improve, whose routes must keep their windows
+     * @param windows  time windows by node, node 0 the depot and node k + 1
+     *                 order k; null when unconstrained
+     * @param progress updated as the search runs; cancelling it ends the search early
+     */
+    public FleetSolution improve(FleetSolution initial, double depotLatitude, double depotLongitude,
+                                 double[] latitudes, double[] longitudes, int[] capacities, TimeWindows windows,
+                                 long budgetNanos, long seed, LnsProgress progress) {
+        long started = System.nanoTime();
+        int orders = latitudes.length;
+        if (longitudes.length != orders || initial.getVehicleCount() != capacities.length) {
+            throw new IllegalArgumentException("Plan, coordinates and capacities do not match");
+        }
+        double[] nodeLatitudes = new double[orders + 1];
+        double[] nodeLongitudes = new double[orders + 1];
+        nodeLatitudes[DEPOT] = depotLatitude;
+        nodeLongitudes[DEPOT] = depotLongitude;
+        System.arraycopy(latitudes, 0, nodeLatitudes, 1, orders);
+        System.arraycopy(longitudes, 0, nodeLongitudes, 1, orders);
+        TimeWindows nodeWindows = windows != null ? windows
+            : TimeWindows.unconstrained(orders + 1, 0, DEFAULT_SPEED_KMH);
+
+        Search search = new Search(new GeoPoints(nodeLatitudes, nodeLongitudes), nodeWindows, capacities,
+            new SplittableRandom(seed), progress);
+        search.load(initial);
+        long deadline = started + budgetNanos;
+        if (orders < 2) {
+            return new FleetSolution(search.best.routesAsOrders(), search.best.unassignedOrders(),
+                initial.getFinalDistance(), search.best.distance, 0, 0, 0, System.nanoTime() - started, false);
+        }
+        boolean completed = search.run(deadline - (long) (budgetNanos * POLISH_BUDGET_FRACTION), started);
+        search.polish(deadline);
+
+        State best = search.best;
+        return new FleetSolution(best.routesAsOrders(), best.unassignedOrders(), initial.getFinalDistance(),
+            best.distance, 0, 0, 0, System.nanoTime() - started, completed);
+    }
+
+    /**
+     * One plan: routes of node numbers without the depot and their schedules
+     */
+    private static final class State {
+        final int[][] routes;
+        final int[] lengths;
+        final double[] routeDistance;
+        final RouteSchedule[] schedules;
+        final int[] routeOf; // -1 when unassigned
+        final TimeWindows windows;
+        final GeoPoints points;
+        double distance;
+        double penalty;
+        int unassigned;
+
+        State(GeoPoints points, TimeWindows windows, int[] capacities) {
+            this.points = points;
+            this.windows = windows;
+            int vehicles = capacities.length;
+            this.routes = new int[vehicles][];
+            this.lengths = new int[vehicles];
+            this.routeDistance = new double[vehicles];
+            this.schedules = new RouteSchedule[vehicles];
+            for (int r = 0; r < vehicles; r++) {
+                routes[r] = new int[capacities[r]];
+                schedules[r] = new RouteSchedule(windows, points);
+            }
+            this.routeOf = new int[points.size()];
+        }
+
+        double cost() {
+            return distance + penalty;
+        }
+
+        /**
+         * Take the other plan's routes; only the flagged routes may differ
+         */
+        void copyFrom(State other, boolean[] routesChanged) {
+            for (int r = 0; r < routes.length; r++) {
+                if (routesChanged[r]) {
+                    System.arraycopy(other.routes[r], 0, routes[r], 0, other.lengths[r]);
+                    lengths[r] = other.lengths[r];
+                    routeDistance[r] = other.routeDistance[r];
+                    reschedule(r);
+                }
+            }
+            System.arraycopy(other.routeOf, 0, routeOf, 0, routeOf.length);
+            distance = other.distance;
+            penalty = other.penalty;
+            unassigned = other.unassigned;
+        }
+
+        void reschedule(int r) {
+            schedules[r].compute(DEPOT, windows.earliest(DEPOT), routes[r], lengths[r]);
+        }
+
+        void measure(int r) {
+            double total = 0;
+            int previous = DEPOT;
+            for (int i = 0; i < lengths[r]; i++) {
+                total += points.distance(previous, routes[r][i]);
+                previous = routes[r][i];
+            }
+            distance += total - routeDistance[r];
+            routeDistance[r] = total;
+        }
+
+        int[][] routesAsOrders() {
+            int[][] result = new int[routes.length][];
+            for (int r = 0; r < routes.length; r++) {
+                result[r] = new int[lengths[r]];
+                for (int i = 0; i < lengths[r]; i++) {
+                    result[r][i] = routes[r][i] - 1;
+                }
+            }
+            return result;
+        }
+
+        int[] unassignedOrders() {
+            int[] result = new int[unassigned];
+            int count = 0;
+            for (int node = 1; node < routeOf.length; node++) {
+                if (routeOf[node] < 0) {
+                    result[count++] = node - 1;
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Working state of one improve call
+     */
+    private final class Search {
+        private final GeoPoints points;
+        private final TimeWindows windows;
+        private final int[] capacities;
+        private final SplittableRandom random;
+        private final LnsProgress progress;
+        private final int nodeCount;
+        private final double[] unassignedPenalty;
+
+        private final State current;
+        private final State candidate;
+        private final State best;
+        private final boolean[] changed;
+        private final boolean[] allRoutes;
+
+        // Scratch for ruin and recreate
+        private final int[] assigned;
+        private final long[] byDistance;
+        private final boolean[] removed;
+        private final int[] pool;
+
+        Search(GeoPoints points, TimeWindows windows, int[] capacities, SplittableRandom random,
+               LnsProgress progress) {
+            this.points = points;
+            this.windows = windows;
+            this.capacities = capacities;
+            this.random = random;
+            this.progress = progress;
+            this.nodeCount = points.size();
+            this.unassignedPenalty = new double[nodeCount];
+            for (int node = 1; node < nodeCount; node++) {
+                unassignedPenalty[node] = UNASSIGNED_PENALTY_KM * (2.0 - (node - 1) / (double) (nodeCount - 1));
+            }
+            this.current = new State(points, windows, capacities);
+            this.candidate = new State(points, windows, capacities);
+            this.best = new State(points, windows, capacities);
+            this.changed = new boolean[capacities.length];
+            this.allRoutes = new boolean[capacities.length];
+            Arrays.fill(allRoutes, true);
+            this.assigned = new int[nodeCount];
+            this.byDistance = new long[nodeCount];
+            this.removed = new boolean[nodeCount];
+            this.pool = new int[nodeCount];
+        }
+
+        void load(FleetSolution initial) {
+            Arrays.fill(current.routeOf, -1);
+            current.penalty = 0;
+            current.unassigned = 0;
+            for (int r = 0; r < capacities.length; r++) {
+                int[] orders = initial.getRoute(r);
+                for (int i = 0; i < orders.length; i++) {
+                    current.routes[r][i] = orders[i] + 1;
+                    current.routeOf[orders[i] + 1] = r;
+                }
+                current.lengths[r] = orders.length;
+                current.reschedule(r);
+                current.measure(r);
+            }
+            for (int node = 1; node < nodeCount; node++) {
+                if (current.routeOf[node] < 0) {
+                    current.penalty += unassignedPenalty[node];
+                    current.unassigned++;
+                }
+            }
+            candidate.copyFrom(current, allRoutes);
+            best.copyFrom(current, allRoutes);
+            progress.start(best.distance, best.unassigned);
+        }
+
+        /**
+         * Returns true when the deadline, not cancellation, ended the search
+         */
+        boolean run(long deadline, long started) {
+            double startTemperature = Math.max(START_WORSENING * current.distance, EPSILON) / Math.log(2);
+            double span = Math.max(deadline - started, 1);
+            long iterations = 0;
+            while (true) {
+                long now = System.nanoTime();
+                if (now >= deadline) {
+                    progress.iterated(iterations);
+                    return true;
+                }
+                if (progress.isCancelled()) {
+                    progress.iterated(iterations);
+                    return false;
+                }
+                double temperature = startTemperature * Math.pow(FINAL_TEMPERATURE_RATIO, (now - started) / span);
+
+                Arrays.fill(changed, false);
+                int poolSize = ruin(candidate);
+                recreate(candidate, poolSize);
+                double delta = candidate.cost() - current.cost();
+                if (delta < EPSILON || random.nextDouble() < Math.exp(-delta / temperature)) {
+                    current.copyFrom(candidate, changed);
+                    if (current.cost() < best.cost() - EPSILON) {
+                        best.copyFrom(current, allRoutes);
+                        progress.improved(best.distance, best.unassigned);
+                    }
+                } else {
+                    candidate.copyFrom(current, changed);
+                }
+                if ((++iterations & 63) == 0) {
+                    progress.iterated(iterations);
+                }
+            }
+        }
+
+        /**
+         * Remove orders from the plan; returns how many orders, removed or
+         * already unassigned, wait in the pool for reinsertion
+         */
+        private int ruin(State state) {
+            int assignedCount = 0;
+            int poolSize = 0;
+            for (int node = 1; node < nodeCount; node++) {
+                removed[node] = false;
+                if (state.routeOf[node] >= 0) {
+                    assigned[assignedCount++] = node;
+                } else {
+                    pool[poolSize++] = node;
+                }
+            }
+            if (assignedCount > 0) {
+                int low = Math.max(MIN_REMOVED, (int) (assignedCount * MIN_REMOVAL_FRACTION));
+                int high = Math.max(low, Math.min(MAX_REMOVED, (int) (assignedCount * MAX_REMOVAL_FRACTION)));
+                int count = Math.min(assignedCount, low + random.nextInt(high - low + 1));
+                switch (random.nextInt(3)) {
+                    case 0 -> removeRandom(assignedCount, count);
+                    case 1 -> removeRelated(assignedCount, count);
+                    default -> removeString(state, count);
+                }
+            }
+
+            for (int r = 0; r < state.routes.length; r++) {
+                int kept = 0;
+                for (int i = 0; i < state.lengths[r]; i++) {
+                    int node = state.routes[r][i];
+                    if (removed[node]) {
+                        pool[poolSize++] = node;
+                        state.routeOf[node] = -1;
+                        state.penalty += unassignedPenalty[node];
+                        state.unassigned++;
+                    } else {
+                        state.routes[r][kept++] = node;
+                    }
+                }
+                if (kept != state.lengths[r]) {
+                    state.lengths[r] = kept;
+                    changed[r] = true;
+                    state.reschedule(r);
+                    state.measure(r);
+                }
+            }
+            return poolSize;
+        }
+
+        private void removeRandom(int assignedCount, int count) {
+            for (int i = 0; i < count; i++) {
+                int pick = i + random.nextInt(assignedCount - i);
+                int node = assigned[pick];
+                assigned[pick] = assigned[i];
+                assigned[i] = node;
+                removed[node] = true;
+            }
+        }
+
+        /**
+         * Orders close to a random seed order, drawn with a bias towards the
+         * closest so repeated ruins differ
+         */
+        private void removeRelated(int assignedCount, int count) {
+            int seed = assigned[random.nextInt(assignedCount)];
+            for (int i = 0; i < assignedCount; i++) {
+                int node = assigned[i];
+                // Non-negative float bits order like the distances they encode
+                byDistance[i] = (long) Float.floatToIntBits((float) points.distance(seed, node)) << 32 | node;
+            }
+            Arrays.sort(byDistance, 0, assignedCount);
+            int left = assignedCount;
+            for (int i = 0; i < count; i++) {
+                int pick = (int) (Math.pow(random.nextDouble(), RELATEDNESS_EXPONENT) * left);
+                removed[(int) byDistance[pick]] = true;
+                System.arraycopy(byDistance, pick + 1, byDistance, pick, left - pick - 1);
+                left--;
+            }
+        }
+
+        /**
+         * Consecutive stops of one route, at most count of them
+         */
+        private void removeString(State state, int count) {
+            int r;
+            do {
+                r = random.nextInt(state.routes.length);
+            } while (state.lengths[r] == 0);
+            int length = 1 + random.nextInt(Math.min(count, state.lengths[r]));
+            int from = random.nextInt(state.lengths[r] - length + 1);
+            for (int i = from; i < from + length; i++) {
+                removed[state.routes[r][i]] = true;
+            }
+        }
+
+        /**
+         * Insert the pooled orders in random order, each at its cheapest
+         * feasible position
+         */
+        private void recreate(State state, int poolSize) {
+            for (int i = poolSize - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int node = pool[i];
+                pool[i] = pool[j];
+                pool[j] = node;
+            }
+            for (int i = 0; i < poolSize; i++) {
+                insertCheapest(state, pool[i]);
+            }
+        }
+
+        private boolean insertCheapest(State state, int node) {
+            int bestRoute = -1;
+            int bestIndex = -1;
+            double bestDelta = Double.MAX_VALUE;
+            for (int r = 0; r < state.routes.length; r++) {
+                if (state.lengths[r] == capacities[r]) {
+                    continue;
+                }
+                RouteSchedule schedule = state.schedules[r];
+                int[] route = state.routes[r];
+                int previous = DEPOT;
+                for (int index = 0; index <= state.lengths[r]; index++) {
+                    int next = index < state.lengths[r] ? route[index] : END;
+                    double delta = cost(previous, node) + cost(node, next) - cost(previous, next);
+                    if (delta < bestDelta && schedule.canInsert(node, index)) {
+                        bestDelta = delta;
+                        bestRoute = r;
+                        bestIndex = index;
+                    }
+                    previous = next;
+                }
+            }
+            if (bestRoute < 0) {
+                return false;
+            }
+            int[] route = state.routes[bestRoute];
+            System.arraycopy(route, bestIndex, route, bestIndex + 1, state.lengths[bestRoute] - bestIndex);
+            route[bestIndex] = node;
+            state.lengths[bestRoute]++;
+            state.routeOf[node] = bestRoute;
+            state.penalty -= unassignedPenalty[node];
+            state.unassigned--;
+            changed[bestRoute] = true;
+            state.reschedule(bestRoute);
+            state.measure(bestRoute);
+            return true;
+        }
+
+        private double cost(int from, int to) {
+            // Leaving the last stop is free on an open route
+            return from == END || to == END ? 0 : points.distance(from, to);
+        }
+
+        /**
+         * Resequence each route of the best plan with the route improver
+         */
+        void polish(long deadline) {
+            if (routeImprover == null) {
+                return;
+            }
+            for (int r = 0; r < best.routes.length; r++) {
+                int length = best.lengths[r];
+                if (length < 3) {
+                    continue;
+                }
+                int[] nodes = new int[length + 1];
+                double[] lat = new double[length + 1];
+                double[] lon = new double[length + 1];
+                nodes[0] = DEPOT;
+                System.arraycopy(best.routes[r], 0, nodes, 1, length);
+                for (int i = 0; i <= length; i++) {
+                    lat[i] = points.latitude(nodes[i]);
+                    lon[i] = points.longitude(nodes[i]);
+                }
+                int[] tour = new int[length + 1];
+                Arrays.setAll(tour, i -> i);
+                routeImprover.improve(tour, DistanceMatrix.haversine(lat, lon), windows.subset(nodes),
+                    Math.max(deadline - System.nanoTime(), 0));
+                for (int i = 1; i <= length; i++) {
+                    best.routes[r][i - 1] = nodes[tour[i]];
+                }
+                best.reschedule(r);
+                best.measure(r);
+            }
+            progress.settled(best.distance, best.unassigned);
+        }
+    }
+}
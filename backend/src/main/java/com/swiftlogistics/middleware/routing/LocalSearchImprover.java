@@ -0,0 +1,390 @@
+package com.swiftlogistics.middleware.routing;
+
+/**
+ * First-improvement local search over 2-opt, Or-opt and relocate moves.
+ * Candidate moves are limited to the nearest neighbours of each point, and
+ * a don't-look bit per point skips points whose surroundings did not change
+ * since they last failed to improve. Tours are open: the start is fixed and
+ * the last stop has no return leg. Under time windows an improving move is
+ * applied, the schedule re-simulated, and the move undone if total lateness
+ * grew, so only the few moves that shorten the route pay for the check.
+ */
+public class LocalSearchImprover implements TourImprover {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_SEGMENT_LENGTH = 3;
+    private static final int END = -1;
+
+    private final int neighbourCount;
+
+    public LocalSearchImprover(int neighbourCount) {
+        if (neighbourCount < 1) {
+            throw new IllegalArgumentException("neighbourCount must be positive");
+        }
+        this.neighbourCount = neighbourCount;
+    }
+
+    @Override
+    public ImprovementResult improve(int[] tour, DistanceMatrix matrix, TimeWindows windows, long budgetNanos) {
+        int size = matrix.size();
+        if (tour.length != size) {
+            throw new IllegalArgumentException("Tour and distance matrix sizes do not match");
+        }
+        if (windows != null && windows.size() != size) {
+            throw new IllegalArgumentException("Time windows and distance matrix sizes do not match");
+        }
+        if (size < 3) {
+            return ImprovementResult.unchanged(matrix.pathDistance(tour));
+        }
+        long started = System.nanoTime();
+        Search search = new Search(tour, matrix.values(), windows, size, Math.min(neighbourCount, size - 1));
+        double initial = search.tourDistance();
+        boolean exhausted = search.run(started + budgetNanos);
+        return new ImprovementResult(initial, search.tourDistance(), search.twoOptMoves, search.orOptMoves,
+            search.relocateMoves, System.nanoTime() - started, exhausted);
+    }
+
+    /**
+     * State of one improvement run
+     */
+    private static final class Search {
+        private final int[] tour;
+        private final int[] pos;
+        private final int[] scratch;
+        private final double[] dist;
+        private final int n;
+        private final int[][] neighbours;
+
+        // Time-window check; null when unconstrained
+        private final TimeWindows windows;
+        private final int[] saved;
+        private double lateness;
+
+        // Points whose don't-look bit is off, in a circular queue
+        private final boolean[] queued;
+        private final int[] queue;
+        private int head;
+        private int queuedCount;
+
+        private int twoOptMoves;
+        private int orOptMoves;
+        private int relocateMoves;
+
+        Search(int[] tour, double[] dist, TimeWindows windows, int n, int k) {
+            this.tour = tour;
+            this.dist = dist;
+            this.windows = windows;
+            this.saved = windows != null ? new int[n] : null;
+            this.n = n;
+            this.pos = new int[n];
+            this.scratch = new int[n];
+            this.queued = new boolean[n];
+            this.queue = new int[n];
+            for (int i = 0; i < n; i++) {
+                pos[tour[i]] = i;
+            }
+            this.neighbours = buildNeighbours(k);
+            for (int i = 0; i < n; i++) {
+                activate(tour[i]);
+            }
+            if (windows != null) {
+                lateness = lateness();
+            }
+        }
+
+        /**
+         * Returns true when the deadline stopped the search before a local optimum
+         */
+        boolean run(long deadline) {
+            int iterations = 0;
+            while (queuedCount > 0) {
+                if ((++iterations & 15) == 0 && System.nanoTime() > deadline) {
+                    return true;
+                }
+                int point = queue[head];
+                head = head + 1 == n ? 0 : head + 1;
+                queuedCount--;
+                queued[point] = false;
+
+                if (!tryTwoOpt(point)) {
+                    tryMoveSegment(point);
+                }
+            }
+            return false;
+        }
+
+        double tourDistance() {
+            double total = 0;
+            for (int i = 0; i < n - 1; i++) {
+                total += dist[tour[i] * n + tour[i + 1]];
+            }
+            return total;
+        }
+
+        private boolean tryTwoOpt(int a) {
+            int p = pos[a];
+            int succA = successor(p);
+            int predA = p > 0 ? tour[p - 1] : END;
+            double succEdge = cost(a, succA);
+            double predEdge = predA == END ? 0 : cost(predA, a);
+
+            for (int c : neighbours[a]) {
+                double dac = cost(a, c);
+                if (dac >= succEdge && dac >= predEdge) {
+                    break; // Sorted neighbours: no closer candidate can gain
+                }
+                int q = pos[c];
+
+                // Replace (a, succ a) and (c, succ c) by (a, c) and (succ a, succ c)
+                if (dac < succEdge) {
+                    int succC = successor(q);
+                    double gain = succEdge + cost(c, succC) - dac - cost(succA, succC);
+                    if (gain > EPSILON && checkpoint()) {
+                        reverse(Math.min(p, q) + 1, Math.max(p, q));
+                        if (!keepsSchedule()) continue;
+                        activate(a, succA, c, succC);
+                        twoOptMoves++;
+                        return true;
+                    }
+                }
+
+                // Replace (pred a, a) and (pred c, c) by (a, c) and (pred a, pred c)
+                if (dac < predEdge && q > 0) {
+                    int predC = tour[q - 1];
+                    double gain = predEdge + cost(predC, c) - dac - cost(predA, predC);
+                    if (gain > EPSILON && checkpoint()) {
+                        reverse(Math.min(p, q), Math.max(p, q) - 1);
+                        if (!keepsSchedule()) continue;
+                        activate(a, predA, c, predC);
+                        twoOptMoves++;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Relocate (one point) and Or-opt (two or three points) with the
+         * point at either end of the moved segment
+         */
+        private boolean tryMoveSegment(int a) {
+            int p = pos[a];
+            if (p == 0) {
+                return false; // The start never moves
+            }
+            for (int length = 1; length <= MAX_SEGMENT_LENGTH; length++) {
+                if (tryMoveSegment(a, p, p + length - 1)) {
+                    return true;
+                }
+                if (length > 1 && tryMoveSegment(a, p - length + 1, p)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean tryMoveSegment(int a, int s, int e) {
+            if (s < 1 || e >= n) {
+                return false;
+            }
+            int first = tour[s];
+            int last = tour[e];
+            int prev = tour[s - 1];
+            int next = successor(e);
+            double removeGain = cost(prev, first) + cost(last, next) - cost(prev, next);
+            if (removeGain <= EPSILON) {
+                return false;
+            }
+
+            for (int c : neighbours[a]) {
+                double dac = cost(a, c);
+                if (dac >= removeGain) {
+                    break;
+                }
+                int q = pos[c];
+                if (q >= s && q <= e) {
+                    continue;
+                }
+
+                // Between c and its successor, entering the segment at a
+                if (q != s - 1) {
+                    int y = successor(q);
+                    int far = a == first ? last : first;
+                    double delta = dac + cost(far, y) - cost(c, y);
+                    if (removeGain - delta > EPSILON && checkpoint()) {
+                        moveSegment(s, e, c, a != first);
+                        if (!keepsSchedule()) continue;
+                        activate(prev, next, c, y);
+                        activate(first, last);
+                        countSegmentMove(s, e);
+                        return true;
+                    }
+                }
+
+                // Between c's predecessor and c, leaving the segment at a
+                if (q > 0 && q != e + 1) {
+                    int x = tour[q - 1];
+                    int far = a == last ? first : last;
+                    double delta = cost(x, far) + dac - cost(x, c);
+                    if (removeGain - delta > EPSILON && checkpoint()) {
+                        moveSegment(s, e, x, a != last);
+                        if (!keepsSchedule()) continue;
+                        activate(prev, next, x, c);
+                        activate(first, last);
+                        countSegmentMove(s, e);
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Remember the tour before a move; always true so it can guard the move
+         */
+        private boolean checkpoint() {
+            if (windows != null) {
+                System.arraycopy(tour, 0, saved, 0, n);
+            }
+            return true;
+        }
+
+        /**
+         * Keep the move just applied unless it made the schedule later;
+         * otherwise restore the checkpoint
+         */
+        private boolean keepsSchedule() {
+            if (windows == null) {
+                return true;
+            }
+            double moved = lateness();
+            if (moved <= lateness + EPSILON) {
+                lateness = Math.min(moved, lateness);
+                return true;
+            }
+            System.arraycopy(saved, 0, tour, 0, n);
+            for (int i = 0; i < n; i++) {
+                pos[tour[i]] = i;
+            }
+            return false;
+        }
+
+        /**
+         * Minutes by which stops start after their window closes, summed
+         */
+        private double lateness() {
+            double time = windows.earliest(tour[0]);
+            double total = 0;
+            for (int i = 1; i < n; i++) {
+                int from = tour[i - 1];
+                int to = tour[i];
+                if (i > 1) {
+                    time += windows.service(from);
+                }
+                time = Math.max(time + windows.travelMinutes(from, to, dist[from * n + to], time), windows.earliest(to));
+                total += Math.max(0, time - windows.latest(to));
+            }
+            return total;
+        }
+
+        private void countSegmentMove(int s, int e) {
+            if (s == e) {
+                relocateMoves++;
+            } else {
+                orOptMoves++;
+            }
+        }
+
+        /**
+         * Cut tour[s..e] and reinsert it right after point, optionally reversed
+         */
+        private void moveSegment(int s, int e, int after, boolean reversed) {
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                if (i >= s && i <= e) {
+                    continue;
+                }
+                scratch[k++] = tour[i];
+                if (tour[i] == after) {
+                    for (int j = 0; j <= e - s; j++) {
+                        scratch[k++] = tour[reversed ? e - j : s + j];
+                    }
+                }
+            }
+            System.arraycopy(scratch, 0, tour, 0, n);
+            for (int i = Math.min(s, pos[after]); i < n; i++) {
+                pos[tour[i]] = i;
+            }
+        }
+
+        private void reverse(int from, int to) {
+            while (from < to) {
+                int t = tour[from];
+                tour[from] = tour[to];
+                tour[to] = t;
+                pos[tour[from]] = from;
+                pos[tour[to]] = to;
+                from++;
+                to--;
+            }
+        }
+
+        private int successor(int position) {
+            return position + 1 < n ? tour[position + 1] : END;
+        }
+
+        private double cost(int from, int to) {
+            // Leaving the last stop is free on an open route
+            return to == END || from == END ? 0 : dist[from * n + to];
+        }
+
+        private void activate(int a, int b, int c, int d) {
+            activate(a);
+            activate(b);
+            activate(c);
+            activate(d);
+        }
+
+        private void activate(int a, int b) {
+            activate(a);
+            activate(b);
+        }
+
+        private void activate(int point) {
+            if (point == END || queued[point]) {
+                return;
+            }
+            queued[point] = true;
+            int tail = head + queuedCount;
+            queue[tail >= n ? tail - n : tail] = point;
+            queuedCount++;
+        }
+
+        /**
+         * The k nearest other points of every point, closest first
+         */
+        private int[][] buildNeighbours(int k) {
+            int[][] result = new int[n][k];
+            double[] best = new double[k];
+            for (int i = 0; i < n; i++) {
+                int[] row = result[i];
+                int count = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j == i) continue;
+                    double d = dist[i * n + j];
+                    if (count == k && d >= best[k - 1]) continue;
+                    int slot = count < k ? count++ : k - 1;
+                    while (slot > 0 && best[slot - 1] > d) {
+                        best[slot] = best[slot - 1];
+                        row[slot] = row[slot - 1];
+                        slot--;
+                    }
+                    best[slot] = d;
+                    row[slot] = j;
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.swiftlogistics.middleware.routing;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Anytime single-route optimization: independent starts, each a
+ * construction followed by the improver, run in parallel on a fork/join
+ * pool under one wall-clock budget. Start 0 improves the given tour; the
+ * others begin from randomized nearest-neighbour tours. The best tour so far
+ * is shared, fewer minutes late first and shorter second, and starts not
+ * begun by the deadline are skipped. The improver must be thread-safe.
+ */
+public class MultiStartOptimizer {
+
+    private static final double EPSILON = 1e-9;
+
+    private final TourImprover improver;
+    private final ForkJoinPool pool;
+    private final int candidates;
+
+    public MultiStartOptimizer(TourImprover improver, ForkJoinPool pool, int candidates) {
+        if (candidates < 1) {
+            throw new IllegalArgumentException("candidates must be positive");
+        }
+        this.improver = improver;
+        this.pool = pool;
+        this.candidates = candidates;
+    }
+
+    /**
+     * @param initial tour to improve in start 0; its first point is the fixed start
+     * @param windows time windows indexed like the matrix, or null
+     * @param seed    base seed of the randomized starts
+     */
+    public MultiStartResult optimize(int[] initial, DistanceMatrix matrix, TimeWindows windows,
+                                     int starts, long budgetNanos, long seed) {
+        if (starts < 1) {
+            throw new IllegalArgumentException("starts must be positive");
+        }
+        long started = System.nanoTime();
+        Run run = new Run(initial, matrix, windows, started + budgetNanos, seed);
+        pool.invoke(new Starts(run, 0, starts));
+        Candidate best = run.best.get();
+        return new MultiStartResult(best.tour, best.distance, best.lateness, best.start,
+            run.completed.get(), starts, System.nanoTime() - started);
+    }
+
+    /**
+     * Shared state of one optimize call
+     */
+    private final class Run {
+        private final int[] initial;
+        private final DistanceMatrix matrix;
+        private final TimeWindows windows;
+        private final long deadline;
+        private final long seed;
+        private final AtomicReference<Candidate> best = new AtomicReference<>();
+        private final AtomicInteger completed = new AtomicInteger();
+
+        Run(int[] initial, DistanceMatrix matrix, TimeWindows windows, long deadline, long seed) {
+            this.initial = initial;
+            this.matrix = matrix;
+            this.windows = windows;
+            this.deadline = deadline;
+            this.seed = seed;
+        }
+
+        void start(int index) {
+            // Start 0 always runs so there is a result, even past the deadline
+            if (index > 0 && System.nanoTime() >= deadline) {
+                return;
+            }
+            int[] tour = index == 0 ? Arrays.copyOf(initial, initial.length)
+                : TourConstruction.randomizedNearestNeighbour(matrix, initial[0], candidates,
+                    new SplittableRandom(seed + index));
+            if (improver != null && tour.length > 3) {
+                improver.improve(tour, matrix, windows, Math.max(deadline - System.nanoTime(), 0));
+            }
+            offer(new Candidate(index, tour, matrix.pathDistance(tour), lateness(tour)));
+            completed.incrementAndGet();
+        }
+
+        private void offer(Candidate candidate) {
+            Candidate current;
+            do {
+                current = best.get();
+                if (current != null && !candidate.betterThan(current)) {
+                    return;
+                }
+            } while (!best.compareAndSet(current, candidate));
+        }
+
+        private double lateness(int[] tour) {
+            if (windows == null || tour.length < 2) {
+                return 0;
+            }
+            RouteSchedule schedule = new RouteSchedule(windows, matrix);
+            schedule.compute(tour[0], windows.earliest(tour[0]), Arrays.copyOfRange(tour, 1, tour.length),
+                tour.length - 1);
+            return schedule.getLateness();
+        }
+    }
+
+    /**
+     * Range of starts, split in halves down to single starts
+     */
+    private static final class Starts extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Run run;
+        private final int from;
+        private final int to;
+
+        Starts(Run run, int from, int to) {
+            this.run = run;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                run.start(from);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Starts(run, from, middle), new Starts(run, middle, to));
+        }
+    }
+
+    private static final class Candidate {
+        private final int start;
+        private final int[] tour;
+        private final double distance;
+        private final double lateness;
+
+        Candidate(int start, int[] tour, double distance, double lateness) {
+            this.start = start;
+            this.tour = tour;
+            this.distance = distance;
+            this.lateness = lateness;
+        }
+
+        boolean betterThan(Candidate other) {
+            if (Math.abs(lateness - other.lateness) > EPSILON) {
+                return lateness < other.lateness;
+            }
+            if (Math.abs(distance - other.distance) > EPSILON) {
+                return distance < other.distance;
+            }
+            return start < other.start; // Deterministic among equal tours
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.swiftlogistics.middleware.routing;
+
+/**
+ * Best tour found by a multi-start run
+ */
+public class MultiStartResult {
+
+    private final int[] tour;
+    private final double distance;
+    private final double lateness;
+    private final int bestStart;
+    private final int startsCompleted;
+    private final int startsRequested;
+    private final long elapsedNanos;
+
+    public MultiStartResult(int[] tour, double distance, double lateness, int bestStart,
+                            int startsCompleted, int startsRequested, long elapsedNanos) {
+        this.tour = tour;
+        this.distance = distance;
+        this.lateness = lateness;
+        this.bestStart = bestStart;
+        this.startsCompleted = startsCompleted;
+        this.startsRequested = startsRequested;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public boolean isBudgetExhausted() {
+        return startsCompleted < startsRequested;
+    }
+
+    // Getters
+    public int[] getTour() { return tour; }
+    public double getDistance() { return distance; }
+    public double getLateness() { return lateness; }
+    public int getBestStart() { return bestStart; }
+    public int getStartsCompleted() { return startsCompleted; }
+    public int getStartsRequested() { return startsRequested; }
+    public long getElapsedNanos() { return elapsedNanos; }
+}
@@ -0,0 +1,153 @@
+package com.swiftlogistics.middleware.routing;
+
+import java.util.Arrays;
+
+/**
+ * Timing of one route under {@link TimeWindows}. A forward pass gives the
+ * arrival and service start at every stop; a backward pass gives the latest
+ * service start at each stop that still keeps every later stop inside its
+ * window. Together they answer whether a point can be inserted, or can
+ * replace a stop, in constant time. Position 0 is the route origin and
+ * positions 1..stopCount() the stops in visiting order. Under traffic the
+ * backward pass times each leg at its planned departure, which keeps the
+ * slack a close estimate as speed factors change only every 15 minutes.
+ */
+public final class RouteSchedule {
+
+    private final TimeWindows windows;
+    private final DistanceFunction distances;
+
+    private int[] nodes = new int[8];
+    private double[] arrival = new double[8];
+    private double[] start = new double[8];
+    private double[] latestStart = new double[8];
+    private int count;
+    private double lateness;
+
+    public RouteSchedule(TimeWindows windows, DistanceFunction distances) {
+        this.windows = windows;
+        this.distances = distances;
+    }
+
+    /**
+     * Recompute for a route leaving origin at departure and visiting stops[0..stopCount)
+     */
+    public void compute(int origin, double departure, int[] stops, int stopCount) {
+        count = stopCount + 1;
+        if (nodes.length < count) {
+            int size = Math.max(count, nodes.length * 2);
+            nodes = Arrays.copyOf(nodes, size);
+            arrival = Arrays.copyOf(arrival, size);
+            start = Arrays.copyOf(start, size);
+            latestStart = Arrays.copyOf(latestStart, size);
+        }
+        nodes[0] = origin;
+        arrival[0] = departure;
+        start[0] = departure;
+        lateness = 0;
+        for (int k = 1; k < count; k++) {
+            int node = stops[k - 1];
+            nodes[k] = node;
+            double leave = departureFrom(k - 1);
+            arrival[k] = leave + travel(nodes[k - 1], node, leave);
+            start[k] = Math.max(arrival[k], windows.earliest(node));
+            lateness += Math.max(0, start[k] - windows.latest(node));
+        }
+
+        latestStart[count - 1] = count == 1 ? Double.POSITIVE_INFINITY : windows.latest(nodes[count - 1]);
+        for (int k = count - 2; k >= 0; k--) {
+            double serviceTime = k == 0 ? 0 : windows.service(nodes[k]);
+            double bound = latestStart[k + 1] - travel(nodes[k], nodes[k + 1], departureFrom(k)) - serviceTime;
+            latestStart[k] = k == 0 ? bound : Math.min(windows.latest(nodes[k]), bound);
+        }
+    }
+
+    /**
+     * Whether point can be served between positions after and after + 1
+     */
+    public boolean canInsert(int point, int after) {
+        return fits(point, after, after + 1);
+    }
+
+    /**
+     * Whether point can take the place of the stop at position
+     */
+    public boolean canReplace(int point, int position) {
+        return fits(point, position - 1, position + 1);
+    }
+
+    /**
+     * Whether, leaving this route after position, the stops of other from
+     * otherPosition on are still reached inside their windows
+     */
+    public boolean canConnect(int position, RouteSchedule other, int otherPosition) {
+        if (otherPosition >= other.count) {
+            return true;
+        }
+        int next = other.nodes[otherPosition];
+        double leave = departureFrom(position);
+        double arrive = leave + travel(nodes[position], next, leave);
+        return Math.max(arrive, windows.earliest(next)) <= other.latestStart[otherPosition];
+    }
+
+    private boolean fits(int point, int previous, int next) {
+        double leave = departureFrom(previous);
+        double arrive = leave + travel(nodes[previous], point, leave);
+        double begin = Math.max(arrive, windows.earliest(point));
+        if (begin > windows.latest(point)) {
+            return false;
+        }
+        if (next >= count) {
+            return true;
+        }
+        double leavePoint = begin + windows.service(point);
+        double arriveNext = leavePoint + travel(point, nodes[next], leavePoint);
+        return Math.max(arriveNext, windows.earliest(nodes[next])) <= latestStart[next];
+    }
+
+    private double departureFrom(int position) {
+        return position == 0 ? start[0] : start[position] + windows.service(nodes[position]);
+    }
+
+    private double travel(int from, int to, double departure) {
+        return windows.travelMinutes(from, to, distances.distance(from, to), departure);
+    }
+
+    public double getArrival(int position) {
+        return arrival[position];
+    }
+
+    public double getServiceStart(int position) {
+        return start[position];
+    }
+
+    /**
+     * Time service at the last stop ends
+     */
+    public double getCompletion() {
+        return departureFrom(count - 1);
+    }
+
+    /**
+     * Latest departure from the origin that keeps every stop inside its
+     * window; meaningful only while the route is feasible
+     */
+    public double getLatestDeparture() {
+        return latestStart[0];
+    }
+
+    /**
+     * Total minutes by which stops start service after their window closes
+     */
+    public double getLateness() {
+        return lateness;
+    }
+
+    public boolean isFeasible() {
+        return lateness == 0;
+    }
+
+    public int stopCount() {
+        return count - 1;
+    }
+}
@@ -0,0 +1,146 @@
+package com.swiftlogistics.middleware.routing;
+
+import java.util.Arrays;
+
+/**
+ * Delivery windows and service durations per point, in minutes on one
+ * clock, plus the driving speed that turns distances into travel times.
+ * Point 0 is the route origin; its earliest time is the departure time.
+ * Road travel times between the points, when known, replace the speed.
+ * With traffic attached, each leg is slowed by the speed factor of the
+ * zone it leaves at the time it leaves, read from {@link TrafficModel}
+ * day factors through a precomputed zone per point.
+ */
+public final class TimeWindows {
+
+    private final double[] earliest;
+    private final double[] latest;
+    private final double[] service;
+    private final double minutesPerKm;
+    private final double[] travelTimes; // Row-major minutes between points, or null
+    private final int[] zones;          // Traffic zone per point, or null without traffic
+    private final double[] speedFactors;
+
+    public TimeWindows(double[] earliest, double[] latest, double[] service, double speedKmh) {
+        this(earliest, latest, service, speedKmh, null, null, null);
+    }
+
+    private TimeWindows(double[] earliest, double[] latest, double[] service, double speedKmh,
+                        double[] travelTimes, int[] zones, double[] speedFactors) {
+        if (latest.length != earliest.length || service.length != earliest.length) {
+            throw new IllegalArgumentException("Time window arrays differ in length");
+        }
+        if (speedKmh <= 0) {
+            throw new IllegalArgumentException("Speed must be positive");
+        }
+        this.earliest = earliest;
+        this.latest = latest;
+        this.service = service;
+        this.minutesPerKm = 60.0 / speedKmh;
+        if (travelTimes != null && travelTimes.length != earliest.length * earliest.length) {
+            throw new IllegalArgumentException("Travel time matrix does not match the points");
+        }
+        if (zones != null && zones.length != earliest.length) {
+            throw new IllegalArgumentException("Traffic zones do not match the points");
+        }
+        this.travelTimes = travelTimes;
+        this.zones = zones;
+        this.speedFactors = speedFactors;
+    }
+
+    /**
+     * Same windows with directed travel minutes between the points, row-major
+     */
+    public TimeWindows withTravelTimes(double[] minutes) {
+        return new TimeWindows(earliest, latest, service, speedKmh(), minutes, zones, speedFactors);
+    }
+
+    /**
+     * Same windows with travel slowed by the model's factors for one day
+     * type, given each point's zone
+     */
+    public TimeWindows withTraffic(TrafficModel traffic, int[] pointZones, boolean weekend) {
+        return new TimeWindows(earliest, latest, service, speedKmh(), travelTimes, pointZones,
+            traffic.dayFactors(weekend));
+    }
+
+    /**
+     * Windows that never bind: every point open from the departure time on
+     */
+    public static TimeWindows unconstrained(int size, double departure, double speedKmh) {
+        double[] earliest = new double[size];
+        double[] latest = new double[size];
+        earliest[0] = departure;
+        Arrays.fill(latest, Double.POSITIVE_INFINITY);
+        return new TimeWindows(earliest, latest, new double[size], speedKmh);
+    }
+
+    /**
+     * Windows of the given points, renumbered in the given order
+     */
+    public TimeWindows subset(int[] points) {
+        double[] e = new double[points.length];
+        double[] l = new double[points.length];
+        double[] s = new double[points.length];
+        for (int i = 0; i < points.length; i++) {
+            e[i] = earliest[points[i]];
+            l[i] = latest[points[i]];
+            s[i] = service[points[i]];
+        }
+        double[] t = null;
+        if (travelTimes != null) {
+            int n = earliest.length;
+            t = new double[points.length * points.length];
+            for (int i = 0; i < points.length; i++) {
+                for (int j = 0; j < points.length; j++) {
+                    t[i * points.length + j] = travelTimes[points[i] * n + points[j]];
+                }
+            }
+        }
+        int[] z = null;
+        if (zones != null) {
+            z = new int[points.length];
+            for (int i = 0; i < points.length; i++) {
+                z[i] = zones[points[i]];
+            }
+        }
+        return new TimeWindows(e, l, s, speedKmh(), t, z, speedFactors);
+    }
+
+    public double travelMinutes(double km) {
+        return km * minutesPerKm;
+    }
+
+    /**
+     * Minutes from one point to another leaving at the given time: the road
+     * time when known, otherwise the distance at the driving speed, slowed
+     * by traffic when attached
+     */
+    public double travelMinutes(int from, int to, double km, double departure) {
+        double minutes = travelTimes != null ? travelTimes[from * earliest.length + to] : km * minutesPerKm;
+        if (zones == null) {
+            return minutes;
+        }
+        return minutes / speedFactors[zones[from] * TrafficModel.BUCKETS_PER_DAY + TrafficModel.bucket(departure)];
+    }
+
+    public double earliest(int point) {
+        return earliest[point];
+    }
+
+    public double latest(int point) {
+        return latest[point];
+    }
+
+    public double service(int point) {
+        return service[point];
+    }
+
+    public int size() {
+        return earliest.length;
+    }
+
+    private double speedKmh() {
+        return 60.0 / minutesPerKm;
+    }
+}
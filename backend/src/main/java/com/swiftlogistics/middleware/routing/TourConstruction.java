@@ -0,0 +1,171 @@
+package com.swiftlogistics.middleware.routing;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Construction heuristics producing an initial open tour from a fixed start
+ */
+public final class TourConstruction {
+
+    private TourConstruction() {}
+
+    /**
+     * Greedy nearest neighbour; ties go to the lower index
+     */
+    public static int[] nearestNeighbour(DistanceMatrix matrix, int start) {
+        int n = matrix.size();
+        double[] distances = matrix.values();
+        int[] tour = new int[n];
+        if (n == 0) {
+            return tour;
+        }
+
+        // Unvisited points are kept compact in remaining[0..left)
+        int[] remaining = new int[n - 1];
+        int left = 0;
+        for (int i = 0; i < n; i++) {
+            if (i != start) remaining[left++] = i;
+        }
+
+        int current = start;
+        tour[0] = start;
+        for (int step = 1; step < n; step++) {
+            int row = current * n;
+            int bestIndex = 0;
+            double best = distances[row + remaining[0]];
+            for (int k = 1; k < left; k++) {
+                double d = distances[row + remaining[k]];
+                if (d < best || (d == best && remaining[k] < remaining[bestIndex])) {
+                    best = d;
+                    bestIndex = k;
+                }
+            }
+            current = remaining[bestIndex];
+            remaining[bestIndex] = remaining[--left];
+            tour[step] = current;
+        }
+        return tour;
+    }
+
+    /**
+     * Nearest neighbour that steps to a random one of the candidates nearest
+     * unvisited points instead of always the nearest, for diverse starts
+     */
+    public static int[] randomizedNearestNeighbour(DistanceMatrix matrix, int start, int candidates,
+                                                   SplittableRandom random) {
+        int n = matrix.size();
+        double[] distances = matrix.values();
+        int[] tour = new int[n];
+        if (n == 0) {
+            return tour;
+        }
+        int[] remaining = new int[n - 1];
+        int left = 0;
+        for (int i = 0; i < n; i++) {
+            if (i != start) remaining[left++] = i;
+        }
+
+        // Slots into remaining of the nearest candidates, closest first
+        int[] nearest = new int[Math.max(candidates, 1)];
+        double[] nearestDistance = new double[nearest.length];
+        int current = start;
+        tour[0] = start;
+        for (int step = 1; step < n; step++) {
+            int row = current * n;
+            int found = 0;
+            for (int k = 0; k < left; k++) {
+                double d = distances[row + remaining[k]];
+                if (found == nearest.length && d >= nearestDistance[found - 1]) continue;
+                int slot = found < nearest.length ? found++ : found - 1;
+                while (slot > 0 && nearestDistance[slot - 1] > d) {
+                    nearestDistance[slot] = nearestDistance[slot - 1];
+                    nearest[slot] = nearest[slot - 1];
+                    slot--;
+                }
+                nearestDistance[slot] = d;
+                nearest[slot] = k;
+            }
+            int chosen = nearest[random.nextInt(found)];
+            current = remaining[chosen];
+            remaining[chosen] = remaining[--left];
+            tour[step] = current;
+        }
+        return tour;
+    }
+
+    /**
+     * Insertion in order of closing window: each point goes to its cheapest
+     * position that keeps every stop on time, or where it adds the least
+     * lateness when no such position exists
+     */
+    public static int[] deadlineInsertion(DistanceMatrix matrix, TimeWindows windows, int start) {
+        int n = matrix.size();
+        int[] tour = new int[n];
+        if (n == 0) {
+            return tour;
+        }
+
+        // Sort by window end, ties by index
+        Integer[] order = new Integer[n - 1];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if (i != start) order[count++] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byLatest = Double.compare(windows.latest(a), windows.latest(b));
+            return byLatest != 0 ? byLatest : Integer.compare(a, b);
+        });
+
+        int[] route = new int[n - 1];
+        int length = 0;
+        double departure = windows.earliest(start);
+        RouteSchedule schedule = new RouteSchedule(windows, matrix);
+        schedule.compute(start, departure, route, 0);
+        for (int point : order) {
+            int bestIndex = -1;
+            double bestDelta = Double.MAX_VALUE;
+            int previous = start;
+            for (int index = 0; index <= length; index++) {
+                double delta = matrix.get(previous, point);
+                if (index < length) {
+                    delta += matrix.get(point, route[index]) - matrix.get(previous, route[index]);
+                    previous = route[index];
+                }
+                if (delta < bestDelta && schedule.canInsert(point, index)) {
+                    bestDelta = delta;
+                    bestIndex = index;
+                }
+            }
+            if (bestIndex < 0) {
+                bestIndex = leastLateInsertion(schedule, start, departure, route, length, point);
+            }
+            System.arraycopy(route, bestIndex, route, bestIndex + 1, length - bestIndex);
+            route[bestIndex] = point;
+            length++;
+            schedule.compute(start, departure, route, length);
+        }
+
+        tour[0] = start;
+        System.arraycopy(route, 0, tour, 1, length);
+        return tour;
+    }
+
+    private static int leastLateInsertion(RouteSchedule schedule, int start, double departure,
+                                          int[] route, int length, int point) {
+        int[] trial = new int[length + 1];
+        int bestIndex = 0;
+        double bestLateness = Double.MAX_VALUE;
+        for (int index = 0; index <= length; index++) {
+            System.arraycopy(route, 0, trial, 0, index);
+            trial[index] = point;
+            System.arraycopy(route, index, trial, index + 1, length - index);
+            schedule.compute(start, departure, trial, length + 1);
+            if (schedule.getLateness() < bestLateness) {
+                bestLateness = schedule.getLateness();
+                bestIndex = index;
+            }
+        }
+        return bestIndex;
+    }
+}
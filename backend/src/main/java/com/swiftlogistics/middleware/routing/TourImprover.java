@@ -0,0 +1,18 @@
+package com.swiftlogistics.middleware.routing;
+
+/**
+ * Improvement stage run on a constructed route
+ * A tour is an array of point indices into a {@link DistanceMatrix};
+ * tour[0] is the fixed starting point and the route ends at its last stop.
+ * When time windows are given, indexed like the matrix, a move may shorten
+ * the route only if it does not make any stop later overall.
+ */
+public interface TourImprover {
+
+    /**
+     * Improve the tour in place, stopping once the time budget is spent
+     *
+     * @param windows delivery windows per point, or null when unconstrained
+     */
+    ImprovementResult improve(int[] tour, DistanceMatrix matrix, TimeWindows windows, long budgetNanos);
+}
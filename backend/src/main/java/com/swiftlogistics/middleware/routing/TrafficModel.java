@@ -0,0 +1,227 @@
+package com.swiftlogistics.middleware.routing;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Speed factors by zone and time of day in 15-minute buckets, separately
+ * for weekdays and weekends. A factor multiplies the free-running speed:
+ * 0.5 means travel takes twice as long. Zones are lat/lon boxes rasterized
+ * once onto a grid, so finding a point's zone and a factor are two array
+ * reads; zone 0 is the default covering everything outside the boxes.
+ *
+ * Source lines are {@code zone,name,minLatitude,minLongitude,maxLatitude,maxLongitude}
+ * and {@code profile,zone,weekday|weekend|all,HH:MM,HH:MM,factor}, the
+ * second setting the factor from the first time up to the second (24:00
+ * allowed). Buckets no profile line covers keep factor 1. Where boxes
+ * overlap the zone listed first wins. Blank lines and lines starting with
+ * '#' are skipped.
+ */
+public final class TrafficModel {
+
+    public static final int BUCKET_MINUTES = 15;
+    public static final int BUCKETS_PER_DAY = 24 * 60 / BUCKET_MINUTES;
+    public static final String DEFAULT_ZONE = "default";
+
+    private static final double CELL_DEGREES = 0.01; // About 1.1 km
+
+    private final String[] zoneNames;
+    private final double[] weekday; // Factor of zone z in bucket b at z * BUCKETS_PER_DAY + b
+    private final double[] weekend;
+
+    private final double minLatitude;
+    private final double minLongitude;
+    private final int rows;
+    private final int columns;
+    private final int[] cellZone;
+
+    private TrafficModel(String[] zoneNames, double[] weekday, double[] weekend, double minLatitude,
+                         double minLongitude, int rows, int columns, int[] cellZone) {
+        this.zoneNames = zoneNames;
+        this.weekday = weekday;
+        this.weekend = weekend;
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.rows = rows;
+        this.columns = columns;
+        this.cellZone = cellZone;
+    }
+
+    /**
+     * One default zone running at factor 1 all day
+     */
+    public static TrafficModel freeFlow() {
+        double[] ones = new double[BUCKETS_PER_DAY];
+        Arrays.fill(ones, 1.0);
+        return new TrafficModel(new String[] {DEFAULT_ZONE}, ones, ones.clone(), 0, 0, 0, 0, new int[0]);
+    }
+
+    public static TrafficModel load(InputStream input) throws IOException {
+        List<String> names = new ArrayList<>();
+        List<double[]> boxes = new ArrayList<>();
+        names.add(DEFAULT_ZONE);
+        boxes.add(null);
+        List<String[]> profiles = new ArrayList<>();
+        List<Integer> profileLines = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].trim();
+                }
+                if (fields[0].equals("zone") && fields.length == 6) {
+                    if (names.contains(fields[1])) {
+                        throw new IOException("Duplicate zone '" + fields[1] + "' on traffic line " + lineNumber);
+                    }
+                    try {
+                        boxes.add(new double[] {Double.parseDouble(fields[2]), Double.parseDouble(fields[3]),
+                            Double.parseDouble(fields[4]), Double.parseDouble(fields[5])});
+                    } catch (NumberFormatException e) {
+                        throw new IOException("Bad zone bounds on traffic line " + lineNumber);
+                    }
+                    names.add(fields[1]);
+                } else if (fields[0].equals("profile") && fields.length == 6) {
+                    profiles.add(fields);
+                    profileLines.add(lineNumber);
+                } else {
+                    throw new IOException("Malformed traffic line " + lineNumber + ": " + line);
+                }
+            }
+        }
+
+        int zones = names.size();
+        double[] weekday = new double[zones * BUCKETS_PER_DAY];
+        double[] weekend = new double[zones * BUCKETS_PER_DAY];
+        Arrays.fill(weekday, 1.0);
+        Arrays.fill(weekend, 1.0);
+        for (int p = 0; p < profiles.size(); p++) {
+            String[] fields = profiles.get(p);
+            int lineNumber = profileLines.get(p);
+            int zone = names.indexOf(fields[1]);
+            if (zone < 0) {
+                throw new IOException("Unknown zone '" + fields[1] + "' on traffic line " + lineNumber);
+            }
+            boolean weekdays = fields[2].equals("weekday") || fields[2].equals("all");
+            boolean weekends = fields[2].equals("weekend") || fields[2].equals("all");
+            if (!weekdays && !weekends) {
+                throw new IOException("Unknown day type '" + fields[2] + "' on traffic line " + lineNumber);
+            }
+            int from = bucketOfClock(fields[3], lineNumber);
+            int to = bucketOfClock(fields[4], lineNumber);
+            double factor;
+            try {
+                factor = Double.parseDouble(fields[5]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad speed factor on traffic line " + lineNumber);
+            }
+            if (factor <= 0 || to <= from) {
+                throw new IOException("Empty band or non-positive factor on traffic line " + lineNumber);
+            }
+            for (int b = from; b < to; b++) {
+                if (weekdays) {
+                    weekday[zone * BUCKETS_PER_DAY + b] = factor;
+                }
+                if (weekends) {
+                    weekend[zone * BUCKETS_PER_DAY + b] = factor;
+                }
+            }
+        }
+
+        if (zones == 1) {
+            return new TrafficModel(names.toArray(new String[0]), weekday, weekend, 0, 0, 0, 0, new int[0]);
+        }
+        double minLat = Double.MAX_VALUE, minLon = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int z = 1; z < zones; z++) {
+            double[] box = boxes.get(z);
+            minLat = Math.min(minLat, box[0]);
+            minLon = Math.min(minLon, box[1]);
+            maxLat = Math.max(maxLat, box[2]);
+            maxLon = Math.max(maxLon, box[3]);
+        }
+        int rows = (int) Math.ceil((maxLat - minLat) / CELL_DEGREES) + 1;
+        int columns = (int) Math.ceil((maxLon - minLon) / CELL_DEGREES) + 1;
+        int[] cellZone = new int[rows * columns];
+        for (int r = 0; r < rows; r++) {
+            double latitude = minLat + (r + 0.5) * CELL_DEGREES;
+            for (int c = 0; c < columns; c++) {
+                double longitude = minLon + (c + 0.5) * CELL_DEGREES;
+                for (int z = 1; z < zones; z++) {
+                    double[] box = boxes.get(z);
+                    if (latitude >= box[0] && longitude >= box[1] && latitude <= box[2] && longitude <= box[3]) {
+                        cellZone[r * columns + c] = z;
+                        break;
+                    }
+                }
+            }
+        }
+        return new TrafficModel(names.toArray(new String[0]), weekday, weekend, minLat, minLon, rows, columns,
+            cellZone);
+    }
+
+    private static int bucketOfClock(String clock, int lineNumber) throws IOException {
+        String[] parts = clock.split(":");
+        try {
+            int minutes = Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+            if (parts.length != 2 || minutes < 0 || minutes > 24 * 60 || minutes % BUCKET_MINUTES != 0) {
+                throw new IOException("Time '" + clock + "' is not on a 15-minute boundary, traffic line "
+                    + lineNumber);
+            }
+            return minutes / BUCKET_MINUTES;
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Bad time '" + clock + "' on traffic line " + lineNumber);
+        }
+    }
+
+    /**
+     * Bucket holding a time in minutes on the planning clock; times past
+     * midnight wrap into the next day's buckets
+     */
+    public static int bucket(double minutes) {
+        int bucket = (int) (minutes / BUCKET_MINUTES) % BUCKETS_PER_DAY;
+        return bucket < 0 ? bucket + BUCKETS_PER_DAY : bucket;
+    }
+
+    public int zoneOf(double latitude, double longitude) {
+        int row = (int) Math.floor((latitude - minLatitude) / CELL_DEGREES);
+        int column = (int) Math.floor((longitude - minLongitude) / CELL_DEGREES);
+        if (row < 0 || row >= rows || column < 0 || column >= columns) {
+            return 0;
+        }
+        return cellZone[row * columns + column];
+    }
+
+    public double speedFactor(int zone, boolean weekendDay, double minutes) {
+        return (weekendDay ? weekend : weekday)[zone * BUCKETS_PER_DAY + bucket(minutes)];
+    }
+
+    /**
+     * Factors of one day type, indexed zone * BUCKETS_PER_DAY + bucket;
+     * read-only by convention
+     */
+    public double[] dayFactors(boolean weekendDay) {
+        return weekendDay ? weekend : weekday;
+    }
+
+    public String zoneName(int zone) {
+        return zoneNames[zone];
+    }
+
+    public int zoneCount() {
+        return zoneNames.length;
+    }
+}
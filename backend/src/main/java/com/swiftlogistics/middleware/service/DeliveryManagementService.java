@@ -2,15 +2,27 @@ package com.swiftlogistics.middleware.service;
 
 import com.swiftlogistics.middleware.model.Order;
 import com.swiftlogistics.middleware.model.Driver;
+import com.swiftlogistics.middleware.model.Delivery;
 import com.swiftlogistics.middleware.repository.OrderRepository;
 import com.swiftlogistics.middleware.repository.DriverRepository;
+import com.swiftlogistics.middleware.repository.DeliveryRepository;
+import com.swiftlogistics.middleware.dto.LiveInsertion;
 import com.swiftlogistics.middleware.dto.OptimizedRoute;
 import com.swiftlogistics.middleware.dto.RoutePoint;
+import com.swiftlogistics.middleware.tracking.GeofenceIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +32,8 @@ import java.util.stream.Collectors;
 @Service
 public class DeliveryManagementService {
 
+    private static final Logger log = LoggerFactory.getLogger(DeliveryManagementService.class);
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -32,16 +46,84 @@ public class DeliveryManagementService {
     @Autowired
     private GPSTrackingService gpsTrackingService;
 
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Value("${app.routing.driver-matching.max-fix-age-minutes:30}")
+    private long maxFixAgeMinutes;
+
+    // Held while orders are put on routes so no two paths plan the same order or route
+    private final Lock assignmentLock = new ReentrantLock();
+
+    @PostConstruct
+    public void subscribeToGeofenceEvents() {
+        gpsTrackingService.addGeofenceListener(this::handleGeofenceEvent);
+    }
+
     /**
-     * Assign deliveries to available drivers based on location and capacity
+     * Apply automatic arrival/departure detection to persisted state.
+     * Arriving at a stop marks the delivery ARRIVED; leaving the warehouse
+     * puts the driver's planned orders out for delivery.
+     */
+    public void handleGeofenceEvent(GeofenceIndex.GeofenceEvent event) {
+        try {
+            if (event.getFenceType() == GeofenceIndex.FenceType.DELIVERY
+                    && event.getEventType() == GeofenceIndex.EventType.ARRIVED) {
+                LocalDateTime arrivedAt = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(event.getTimestamp()), ZoneId.systemDefault());
+                for (Delivery delivery : findDeliveriesForFence(event)) {
+                    if (delivery.getStatus() != Delivery.DeliveryStatus.PENDING
+                            && delivery.getStatus() != Delivery.DeliveryStatus.IN_TRANSIT) {
+                        continue;
+                    }
+                    if (delivery.getActualArrival() == null) {
+                        delivery.setActualArrival(arrivedAt);
+                    }
+                    delivery.setStatus(Delivery.DeliveryStatus.ARRIVED);
+                    deliveryRepository.save(delivery);
+                }
+            } else if (event.getFenceType() == GeofenceIndex.FenceType.WAREHOUSE
+                    && event.getEventType() == GeofenceIndex.EventType.DEPARTED) {
+                GPSTrackingService.RouteProgress progress =
+                    gpsTrackingService.getRouteProgress(event.getDriverId());
+                if (progress == null) {
+                    return;
+                }
+                for (int i = 0; i < progress.getTotalStops(); i++) {
+                    Order order = orderRepository.findByOrderNumber(progress.getStop(i).getOrderReference());
+                    if (order != null && order.getStatus() == Order.OrderStatus.ROUTE_PLANNED) {
+                        order.setStatus(Order.OrderStatus.OUT_FOR_DELIVERY);
+                        orderRepository.save(order);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error handling geofence event {}: {}", event, e.getMessage());
+        }
+    }
+
+    /**
+     * Assign deliveries to available drivers based on location and capacity.
+     * Drivers still working a live route keep it; only idle drivers get new routes.
      */
     public Map<String, Object> assignDeliveriesToDrivers() {
+        assignmentLock.lock();
+        try {
+            return assignToIdleDrivers();
+        } finally {
+            assignmentLock.unlock();
+        }
+    }
+
+    private Map<String, Object> assignToIdleDrivers() {
         try {
             // Get all pending orders
             List<Order> pendingOrders = orderRepository.findByStatus(Order.OrderStatus.IN_WAREHOUSE);
             
-            // Get all active drivers
-            List<Driver> availableDrivers = driverRepository.findByStatus(Driver.DriverStatus.ACTIVE);
+            // Get active drivers without pending stops
+            List<Driver> availableDrivers = driverRepository.findByStatus(Driver.DriverStatus.ACTIVE).stream()
+                .filter(driver -> !hasLiveRoute(driver))
+                .collect(Collectors.toList());
 
             Map<String, Object> assignmentResult = new HashMap<>();
             List<Map<String, Object>> assignments = new ArrayList<>();
@@ -54,72 +136,81 @@ public class DeliveryManagementService {
 
             if (availableDrivers.isEmpty()) {
                 assignmentResult.put("status", "NO_AVAILABLE_DRIVERS");
-                assignmentResult.put("message", "No active drivers available");
+                assignmentResult.put("message", "No active drivers without a live route");
                 return assignmentResult;
             }
 
-            // Group orders by geographical area for efficient routing
-            Map<String, List<Order>> ordersByArea = groupOrdersByArea(pendingOrders);
+            // Serve the longest-waiting orders first when the fleet is short of capacity
+            pendingOrders.sort(Comparator.comparing(Order::getCreatedAt,
+                Comparator.nullsLast(Comparator.naturalOrder())));
 
-            // Assign orders to drivers
-            for (Driver driver : availableDrivers) {
-                if (pendingOrders.isEmpty()) break;
-
-                // Determine how many orders this driver can handle
-                int maxOrdersPerDriver = calculateDriverCapacity(driver);
-                
-                // Get best orders for this driver based on location
-                List<Order> assignedOrders = selectOptimalOrdersForDriver(
-                    driver, pendingOrders, maxOrdersPerDriver);
-
-                if (!assignedOrders.isEmpty()) {
-                    // Create optimized route
-                    OptimizedRoute route = routeOptimizationService.calculateOptimizedRoute(
-                        driver, assignedOrders);
+            // Determine how many orders each driver can handle
+            int[] capacities = new int[availableDrivers.size()];
+            for (int i = 0; i < capacities.length; i++) {
+                capacities[i] = calculateDriverCapacity(availableDrivers.get(i));
+            }
 
-                    // Update order statuses
-                    assignedOrders.forEach(order -> {
-                        order.setStatus(Order.OrderStatus.ROUTE_PLANNED);
-                        orderRepository.save(order);
-                    });
-
-                    // Start route tracking
-                    gpsTrackingService.startRouteTracking(driver.getDriverId(), route);
-
-                    // Record assignment
-                    Map<String, Object> assignment = new HashMap<>();
-                    assignment.put("driverId", driver.getDriverId());
-                    assignment.put("driverName", driver.getName());
-                    assignment.put("vehicleNumber", driver.getVehicleNumber());
-                    assignment.put("orderCount", assignedOrders.size());
-                    assignment.put("orderNumbers", assignedOrders.stream()
-                        .map(Order::getOrderNumber)
-                        .collect(Collectors.toList()));
-                    assignment.put("routeId", route.getRouteId());
-                    assignment.put("estimatedDistance", route.getTotalDistanceKm());
-                    assignment.put("estimatedTime", route.getEstimatedTimeMinutes());
-
-                    assignments.add(assignment);
-
-                    // Remove assigned orders from pending list
-                    pendingOrders.removeAll(assignedOrders);
-
-                    System.out.println("Assigned " + assignedOrders.size() + 
-                                      " orders to driver " + driver.getDriverId());
-                }
+            // Live positions decide which driver starts which route
+            double[] driverLatitudes = new double[availableDrivers.size()];
+            double[] driverLongitudes = new double[availableDrivers.size()];
+            fillDriverPositions(availableDrivers, driverLatitudes, driverLongitudes);
+
+            // Plan all routes together so each order goes to the vehicle passing closest
+            List<OptimizedRoute> routes = routeOptimizationService.calculateFleetRoutes(
+                availableDrivers, capacities, pendingOrders, driverLatitudes, driverLongitudes);
+            Map<String, Order> ordersById = new HashMap<>();
+            pendingOrders.forEach(order -> ordersById.put(order.getId().toString(), order));
+
+            int totalAssigned = 0;
+            double totalDistance = 0.0;
+            for (int i = 0; i < availableDrivers.size(); i++) {
+                Driver driver = availableDrivers.get(i);
+                OptimizedRoute route = routes.get(i);
+                if (route == null) continue;
+
+                List<Order> assignedOrders = route.getRoutePoints().stream()
+                    .map(point -> ordersById.get(point.getPointId()))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+
+                // Update order statuses
+                assignedOrders.forEach(order -> order.setStatus(Order.OrderStatus.ROUTE_PLANNED));
+                orderRepository.saveAll(assignedOrders);
+
+                // Start route tracking
+                gpsTrackingService.startRouteTracking(driver.getDriverId(), route);
+
+                // Record assignment
+                Map<String, Object> assignment = new HashMap<>();
+                assignment.put("driverId", driver.getDriverId());
+                assignment.put("driverName", driver.getName());
+                assignment.put("vehicleNumber", driver.getVehicleNumber());
+                assignment.put("orderCount", assignedOrders.size());
+                assignment.put("orderNumbers", assignedOrders.stream()
+                    .map(Order::getOrderNumber)
+                    .collect(Collectors.toList()));
+                assignment.put("routeId", route.getRouteId());
+                assignment.put("estimatedDistance", route.getTotalDistanceKm());
+                assignment.put("estimatedTime", route.getEstimatedTimeMinutes());
+
+                assignments.add(assignment);
+                totalAssigned += assignedOrders.size();
+                totalDistance += route.getTotalDistanceKm();
+
+                log.debug("Assigned {} orders to driver {}", assignedOrders.size(), driver.getDriverId());
             }
 
             assignmentResult.put("status", "SUCCESS");
             assignmentResult.put("assignedDrivers", assignments.size());
-            assignmentResult.put("totalOrdersAssigned", 
-                assignments.stream().mapToInt(a -> (Integer) a.get("orderCount")).sum());
-            assignmentResult.put("remainingOrders", pendingOrders.size());
+            assignmentResult.put("totalOrdersAssigned", totalAssigned);
+            assignmentResult.put("remainingOrders", pendingOrders.size() - totalAssigned);
+            assignmentResult.put("totalDistance", totalDistance);
             assignmentResult.put("assignments", assignments);
 
             return assignmentResult;
 
         } catch (Exception e) {
-            System.err.println("Error in delivery assignment: " + e.getMessage());
+            log.error("Error in delivery assignment: {}", e.getMessage());
             
             Map<String, Object> errorResult = new HashMap<>();
             errorResult.put("status", "ERROR");
@@ -128,6 +219,80 @@ public class DeliveryManagementService {
         }
     }
 
+    /**
+     * Add an urgent order to the live route that reaches it most cheaply,
+     * without replanning the fleet. Only active drivers with spare capacity
+     * are considered.
+     */
+    public Map<String, Object> insertUrgentOrder(Long orderId) {
+        assignmentLock.lock();
+        try {
+            return insertIntoLiveRoute(orderId);
+        } finally {
+            assignmentLock.unlock();
+        }
+    }
+
+    private Map<String, Object> insertIntoLiveRoute(Long orderId) {
+        Map<String, Object> result = new HashMap<>();
+        try {
+            Order order = orderRepository.findById(orderId).orElse(null);
+            if (order == null) {
+                result.put("status", "ORDER_NOT_FOUND");
+                result.put("message", "Order " + orderId + " not found");
+                return result;
+            }
+            if (order.getStatus() != Order.OrderStatus.SUBMITTED && order.getStatus() != Order.OrderStatus.PROCESSING
+                    && order.getStatus() != Order.OrderStatus.IN_WAREHOUSE) {
+                result.put("status", "ORDER_NOT_ROUTABLE");
+                result.put("message", "Order " + order.getOrderNumber() + " is " + order.getStatus());
+                return result;
+            }
+
+            Map<String, Driver> activeDrivers = new HashMap<>();
+            driverRepository.findByStatus(Driver.DriverStatus.ACTIVE)
+                .forEach(driver -> activeDrivers.put(driver.getDriverId(), driver));
+            List<GPSTrackingService.RouteProgress> candidates = new ArrayList<>();
+            for (GPSTrackingService.RouteProgress progress : gpsTrackingService.getActiveRoutes()) {
+                Driver driver = activeDrivers.get(progress.getDriverId());
+                if (driver != null && progress.getRemainingStops() < calculateDriverCapacity(driver)) {
+                    candidates.add(progress);
+                }
+            }
+
+            LiveInsertion insertion = routeOptimizationService.findBestInsertion(order, candidates);
+            if (insertion == null) {
+                result.put("status", "NO_FEASIBLE_ROUTE");
+                result.put("message", "No live route can reach the order within its delivery window");
+                result.put("routesEvaluated", candidates.size());
+                return result;
+            }
+
+            GPSTrackingService.RouteProgress progress = gpsTrackingService.getRouteProgress(insertion.getDriverId());
+            if (progress == null || !progress.getRoute().getRouteId().equals(insertion.getRouteId())) {
+                result.put("status", "ROUTE_CHANGED");
+                result.put("message", "Route of driver " + insertion.getDriverId() + " changed; retry");
+                return result;
+            }
+            OptimizedRoute route = routeOptimizationService.insertIntoRoute(progress.getRoute(), insertion, order);
+            gpsTrackingService.startRouteTracking(insertion.getDriverId(), route);
+            order.setStatus(Order.OrderStatus.ROUTE_PLANNED);
+            orderRepository.save(order);
+
+            log.info("Inserted order {} into route {} of driver {} (+{} km)", order.getOrderNumber(),
+                insertion.getRouteId(), insertion.getDriverId(), String.format("%.2f", insertion.getAddedDistanceKm()));
+            result.put("status", "SUCCESS");
+            result.put("insertion", insertion);
+            return result;
+
+        } catch (Exception e) {
+            log.error("Error inserting order {}: {}", orderId, e.getMessage());
+            result.put("status", "ERROR");
+            result.put("message", e.getMessage());
+            return result;
+        }
+    }
+
     /**
      * Get real-time delivery status for all active deliveries
      */
@@ -150,9 +315,9 @@ public class DeliveryManagementService {
                     
                     OptimizedRoute route = progress.getRoute();
                     deliveryStatus.put("routeId", route.getRouteId());
-                    deliveryStatus.put("totalDeliveries", route.getTotalDeliveryPoints());
-                    deliveryStatus.put("completedDeliveries", progress.getCompletedDeliveries().size());
-                    deliveryStatus.put("progressPercentage", route.getProgressPercentage());
+                    deliveryStatus.put("totalDeliveries", progress.getTotalStops());
+                    deliveryStatus.put("completedDeliveries", progress.getCompletedCount());
+                    deliveryStatus.put("progressPercentage", progress.getProgressPercentage());
                     
                     // Get current location
                     GPSTrackingService.DriverLocation location = 
@@ -168,7 +333,7 @@ public class DeliveryManagementService {
                     }
 
                     // Get next delivery
-                    RoutePoint nextDelivery = getNextDeliveryPoint(route);
+                    RoutePoint nextDelivery = progress.getNextStop();
                     if (nextDelivery != null) {
                         deliveryStatus.put("nextDelivery", Map.of(
                             "address", nextDelivery.getAddress(),
@@ -186,7 +351,7 @@ public class DeliveryManagementService {
             }
 
         } catch (Exception e) {
-            System.err.println("Error getting delivery status: " + e.getMessage());
+            log.error("Error getting delivery status: {}", e.getMessage());
         }
 
         return activeDeliveries;
@@ -249,10 +414,10 @@ public class DeliveryManagementService {
                 "totalCompleted", driver.getCompletedDeliveriesToday()
             ));
 
-            System.out.println("Delivery completed: " + orderNumber + " by driver " + driverId);
+            log.info("Delivery completed: {} by driver {}", orderNumber, driverId);
 
         } catch (Exception e) {
-            System.err.println("Error completing delivery: " + e.getMessage());
+            log.error("Error completing delivery: {}", e.getMessage());
             result.put("status", "ERROR");
             result.put("message", e.getMessage());
         }
@@ -300,7 +465,7 @@ public class DeliveryManagementService {
             analytics.put("successRatePercentage", Math.round(successRate * 100.0) / 100.0);
 
         } catch (Exception e) {
-            System.err.println("Error generating analytics: " + e.getMessage());
+            log.error("Error generating analytics: {}", e.getMessage());
             analytics.put("error", e.getMessage());
         }
 
@@ -309,19 +474,34 @@ public class DeliveryManagementService {
 
     // Private helper methods
 
-    private Map<String, List<Order>> groupOrdersByArea(List<Order> orders) {
-        // Simple grouping by first part of address
-        return orders.stream()
-            .collect(Collectors.groupingBy(order -> {
-                String address = order.getDeliveryAddress();
-                if (address != null && address.contains(",")) {
-                    return address.split(",")[0].trim();
-                }
-                return "OTHER";
-            }));
+    private List<Delivery> findDeliveriesForFence(GeofenceIndex.GeofenceEvent event) {
+        if (event.getFenceId().startsWith("DELIVERY:")) {
+            Delivery delivery = deliveryRepository.findByDeliveryId(event.getReference());
+            return delivery != null ? List.of(delivery) : List.of();
+        }
+        return deliveryRepository.findByOrderNumber(event.getReference());
+    }
+
+    /**
+     * Lock shared with the streaming dispatcher; hold it while planning
+     * orders onto routes
+     */
+    Lock assignmentLock() {
+        return assignmentLock;
+    }
+
+    /**
+     * Whether the driver still has stops to serve on a tracked route
+     */
+    boolean hasLiveRoute(Driver driver) {
+        GPSTrackingService.RouteProgress progress = gpsTrackingService.getRouteProgress(driver.getDriverId());
+        return progress != null && progress.getRemainingStops() > 0;
     }
 
-    private int calculateDriverCapacity(Driver driver) {
+    /**
+     * Orders a driver's vehicle carries on one route
+     */
+    public int calculateDriverCapacity(Driver driver) {
         // Base capacity on vehicle type and driver experience
         String vehicleNumber = driver.getVehicleNumber();
         if (vehicleNumber != null) {
@@ -332,20 +512,19 @@ public class DeliveryManagementService {
         return 4; // Default capacity
     }
 
-    private List<Order> selectOptimalOrdersForDriver(Driver driver, List<Order> availableOrders, 
-                                                    int maxOrders) {
-        // Simple selection - in production, use more sophisticated algorithms
-        return availableOrders.stream()
-            .limit(maxOrders)
-            .collect(Collectors.toList());
-    }
-
-    private RoutePoint getNextDeliveryPoint(OptimizedRoute route) {
-        return route.getRoutePoints().stream()
-            .filter(point -> "DELIVERY".equals(point.getPointType()) && 
-                           "PENDING".equals(point.getStatus()))
-            .findFirst()
-            .orElse(null);
+    /**
+     * Each driver's last reported position, or NaN when there is no fix
+     * recent enough to match routes on
+     */
+    void fillDriverPositions(List<Driver> drivers, double[] latitudes, double[] longitudes) {
+        long oldestFix = System.currentTimeMillis() - maxFixAgeMinutes * 60_000L;
+        for (int i = 0; i < drivers.size(); i++) {
+            GPSTrackingService.DriverLocation location =
+                gpsTrackingService.getCurrentLocation(drivers.get(i).getDriverId());
+            boolean recent = location != null && location.getTimestamp().getTime() >= oldestFix;
+            latitudes[i] = recent ? location.getLatitude() : Double.NaN;
+            longitudes[i] = recent ? location.getLongitude() : Double.NaN;
+        }
     }
 
     private LocalDateTime getStartDateForPeriod(String period) {
@@ -5,6 +5,8 @@ import com.swiftlogistics.middleware.model.Order;
 import com.swiftlogistics.middleware.repository.DriverRepository;
 import com.swiftlogistics.middleware.repository.OrderRepository;
 import com.swiftlogistics.middleware.dto.DriverDashboardResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +21,8 @@ import java.util.Random;
 @Service
 @Transactional
 public class DriverService {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverService.class);
     
     @Autowired
     private DriverRepository driverRepository;
@@ -157,7 +161,7 @@ public class DriverService {
         createDriver("DRV004", "Sarah Brown", "sarah.brown@swiftlogistics.lk", "VAN-125");
         createDriver("DRV005", "Michael Davis", "michael.davis@swiftlogistics.lk", "BIKE-001");
         
-        System.out.println("Default drivers initialized successfully!");
+        log.info("Default drivers initialized successfully!");
     }
     
     /**
@@ -1,13 +1,41 @@
 package com.swiftlogistics.middleware.service;
 
-import com.swiftlogistics.middleware.model.Driver;
+import com.swiftlogistics.middleware.dto.LocationFix;
 import com.swiftlogistics.middleware.dto.OptimizedRoute;
 import com.swiftlogistics.middleware.dto.RoutePoint;
+import com.swiftlogistics.middleware.geo.GeoMath;
+import com.swiftlogistics.middleware.geo.GeocodeResult;
+import com.swiftlogistics.middleware.roadnet.TravelTable;
+import com.swiftlogistics.middleware.tracking.DirtySlotSet;
+import com.swiftlogistics.middleware.tracking.DriverLocationStore;
+import com.swiftlogistics.middleware.tracking.GeofenceIndex;
+import com.swiftlogistics.middleware.tracking.LocationHistory;
+import com.swiftlogistics.middleware.tracking.LocationRingBuffer;
+import com.swiftlogistics.middleware.tracking.SpatialGridIndex;
+import com.swiftlogistics.middleware.tracking.TrackJournal;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 /**
  * Real-time GPS tracking and location management service
@@ -16,45 +44,398 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 public class GPSTrackingService {
 
+    private static final Logger log = LoggerFactory.getLogger(GPSTrackingService.class);
+
     // Store real-time driver locations
-    private final Map<String, DriverLocation> driverLocationCache = new ConcurrentHashMap<>();
+    private DriverLocationStore locationStore;
+
+    // Recent fixes per driver for replay and distance driven
+    private LocationHistory locationHistory;
+
+    // Durable append-only log of applied fixes; null when disabled or unavailable
+    private TrackJournal trackJournal;
+
+    // Slots with a new fix since the live-location broadcaster last looked
+    private DirtySlotSet changedSlots;
+
+    // Grid over current positions for nearest-driver and radius queries
+    private SpatialGridIndex spatialIndex;
+
+    // Delivery and warehouse fences for automatic arrival/departure detection
+    private GeofenceIndex geofenceIndex;
+    private final GeofenceIndex.EventSink geofenceSink = this::publishGeofenceEvent;
+    private final List<Consumer<GeofenceIndex.GeofenceEvent>> geofenceListeners = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    @Qualifier("geofenceEventExecutor")
+    private Executor geofenceEventExecutor;
     
     // Store route progress for each driver
     private final Map<String, RouteProgress> routeProgressCache = new ConcurrentHashMap<>();
 
     @Autowired
-    private RouteOptimizationService routeOptimizationService;
+    private GeocodingService geocodingService;
+
+    @Autowired
+    private RoadNetworkService roadNetworkService;
+
+    @Autowired
+    private TrafficService trafficService;
+
+    @Value("${app.gps.max-drivers:16384}")
+    private int maxDrivers;
+
+    @Value("${app.gps.history.capacity:512}")
+    private int historyCapacity;
+
+    @Value("${app.gps.grid.cell-size-deg:0.01}")
+    private double gridCellSizeDegrees;
+
+    @Value("${app.gps.active-window-seconds:600}")
+    private long activeWindowSeconds;
+
+    @Value("${app.gps.nearest.max-search-km:50}")
+    private double nearestMaxSearchKm;
+
+    @Value("${app.gps.geofence.delivery-radius-m:500}")
+    private double deliveryFenceRadiusMeters;
+
+    @Value("${app.gps.geofence.warehouse-radius-m:200}")
+    private double warehouseFenceRadiusMeters;
+
+    @Value("${app.gps.geofence.exit-factor:1.2}")
+    private double fenceExitFactor;
+
+    @Value("${app.warehouse.latitude:6.9271}")
+    private double warehouseLatitude;
+
+    @Value("${app.warehouse.longitude:79.8612}")
+    private double warehouseLongitude;
+
+    @Value("${app.gps.journal.enabled:true}")
+    private boolean journalEnabled;
+
+    @Value("${app.gps.journal.dir:data/gps-journal}")
+    private String journalDirectory;
+
+    @Value("${app.gps.journal.segment-size-mb:64}")
+    private int journalSegmentSizeMb;
+
+    @Value("${app.gps.journal.roll-minutes:60}")
+    private long journalRollMinutes;
+
+    @Value("${app.gps.journal.retention-hours:72}")
+    private long journalRetentionHours;
+
+    @Value("${app.gps.journal.replay-minutes:60}")
+    private long journalReplayMinutes;
+
+    @Value("${app.gps.journal.compacted-retention-days:180}")
+    private long compactedRetentionDays;
+
+    @Value("${app.gps.compaction.enabled:true}")
+    private boolean compactionEnabled;
+
+    @Value("${app.gps.compaction.tolerance-meters:5}")
+    private double compactionToleranceMeters;
+
+    @Value("${app.gps.ingest.ring-size:65536}")
+    private int ingestRingSize;
+
+    @Value("${app.gps.ingest.drain-batch:4096}")
+    private int ingestDrainBatch;
+
+    // Batch ingest pipeline: HTTP threads publish, a single writer thread applies
+    private LocationRingBuffer ingestBuffer;
+    private Thread ingestWriter;
+    private volatile boolean ingestRunning;
+
+    private final LongAdder fixesAccepted = new LongAdder();
+    private final LongAdder fixesRejected = new LongAdder();
+    private final LongAdder fixesDropped = new LongAdder();
+    private final LongAdder fixesApplied = new LongAdder();
+    private final LongAdder fixesStale = new LongAdder();
+    private final LongAdder fixesOverCapacity = new LongAdder();
+    private final LongAdder journalErrors = new LongAdder();
+    private final LongAdder fixesFailed = new LongAdder();
+
+    private static final String WAREHOUSE_FENCE_ID = "WAREHOUSE:MAIN";
+
+    private static final double MAX_SPEED_KMH = 250.0;
+    private static final long MAX_CLOCK_SKEW_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    @PostConstruct
+    public void startIngestPipeline() {
+        locationStore = new DriverLocationStore(maxDrivers);
+        locationHistory = new LocationHistory(maxDrivers, historyCapacity);
+        spatialIndex = new SpatialGridIndex(locationStore, gridCellSizeDegrees);
+        changedSlots = new DirtySlotSet(maxDrivers);
+        geofenceIndex = new GeofenceIndex(maxDrivers, gridCellSizeDegrees, fenceExitFactor);
+        geofenceIndex.register(WAREHOUSE_FENCE_ID, GeofenceIndex.FenceType.WAREHOUSE, "MAIN", -1,
+            warehouseLatitude, warehouseLongitude, warehouseFenceRadiusMeters / 1000.0);
+        if (journalEnabled) {
+            openTrackJournal();
+        }
+        ingestBuffer = new LocationRingBuffer(ingestRingSize);
+        ingestRunning = true;
+        ingestWriter = new Thread(this::runIngestWriter, "gps-ingest-writer");
+        ingestWriter.setDaemon(true);
+        ingestWriter.start();
+    }
+
+    @PreDestroy
+    public void stopIngestPipeline() throws InterruptedException {
+        ingestRunning = false;
+        if (ingestWriter != null) {
+            LockSupport.unpark(ingestWriter);
+            ingestWriter.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (trackJournal != null) {
+            try {
+                trackJournal.close();
+            } catch (IOException e) {
+                log.error("Error closing GPS track journal: {}", e.getMessage());
+            }
+        }
+    }
 
     /**
-     * Update driver's real-time location
+     * Update driver's real-time location.
+     * The fix goes through the ingest ring like a batch of one, so the writer
+     * thread stays the only one changing tracking state.
      */
-    public void updateDriverLocation(String driverId, double latitude, double longitude, 
-                                   double speed, double heading, Date timestamp) {
-        DriverLocation location = new DriverLocation(
-            driverId, latitude, longitude, speed, heading, timestamp
-        );
-        
-        driverLocationCache.put(driverId, location);
-        
-        // Update route progress if driver is on a route
-        updateRouteProgress(driverId, latitude, longitude);
-        
-        System.out.println("Updated location for driver " + driverId + 
-                          ": (" + latitude + ", " + longitude + ") at " + speed + " km/h");
+    public Map<String, Object> updateDriverLocation(String driverId, double latitude, double longitude,
+                                                    double speed, double heading, Date timestamp) {
+        LocationFix fix = new LocationFix(driverId, latitude, longitude);
+        fix.setSpeed(speed);
+        fix.setHeading(heading);
+        fix.setTimestamp(timestamp.getTime());
+        return ingestLocationBatch(List.of(fix));
+    }
+
+    /**
+     * Ingest a batch of fixes from many drivers.
+     * Fixes are validated on the calling thread and published to the ingest ring;
+     * the single writer thread applies them to the location store and route progress.
+     */
+    public Map<String, Object> ingestLocationBatch(List<LocationFix> fixes) {
+        long receivedAt = System.currentTimeMillis();
+        int accepted = 0;
+        int rejected = 0;
+        int dropped = 0;
+
+        for (LocationFix fix : fixes) {
+            if (!isValidFix(fix, receivedAt)) {
+                rejected++;
+                continue;
+            }
+
+            double speed = fix.getSpeed() != null ? fix.getSpeed() : 0.0;
+            double heading = fix.getHeading() != null ? normalizeHeading(fix.getHeading()) : 0.0;
+            long timestamp = fix.getTimestamp() != null ? fix.getTimestamp() : receivedAt;
+
+            if (ingestBuffer.offer(fix.getDriverId(), fix.getLatitude(), fix.getLongitude(),
+                                   speed, heading, timestamp)) {
+                accepted++;
+            } else {
+                dropped++; // Ring full: shed load instead of blocking the request thread
+            }
+        }
+
+        fixesAccepted.add(accepted);
+        fixesRejected.add(rejected);
+        fixesDropped.add(dropped);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("received", fixes.size());
+        result.put("accepted", accepted);
+        result.put("rejected", rejected);
+        result.put("dropped", dropped);
+        return result;
+    }
+
+    /**
+     * Counters for the batch ingest pipeline
+     */
+    public Map<String, Object> getIngestStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("accepted", fixesAccepted.sum());
+        stats.put("rejected", fixesRejected.sum());
+        stats.put("dropped", fixesDropped.sum());
+        stats.put("applied", fixesApplied.sum());
+        stats.put("stale", fixesStale.sum());
+        stats.put("overCapacity", fixesOverCapacity.sum());
+        stats.put("failed", fixesFailed.sum());
+        stats.put("trackedDrivers", locationStore.size());
+        stats.put("geofences", geofenceIndex.fenceCount());
+        stats.put("journalEnabled", trackJournal != null);
+        stats.put("journalErrors", journalErrors.sum());
+        if (trackJournal != null) {
+            stats.put("journalSegments", trackJournal.segmentCount());
+            stats.put("journalRecords", trackJournal.recordCount());
+        }
+        stats.put("queued", ingestBuffer.size());
+        stats.put("capacity", ingestBuffer.capacity());
+        return stats;
+    }
+
+    /**
+     * Simplify and delta-encode sealed journal segments so months of tracks stay small
+     */
+    @Scheduled(fixedDelayString = "${app.gps.compaction.interval-ms:600000}",
+               initialDelayString = "${app.gps.compaction.interval-ms:600000}")
+    public void compactTrackJournal() {
+        if (!compactionEnabled || trackJournal == null) {
+            return;
+        }
+        try {
+            TrackJournal.CompactionResult result = trackJournal.compactSealedSegments(compactionToleranceMeters);
+            if (result.getSegments() > 0) {
+                log.info("Compacted {} GPS journal segments: {} -> {} fixes, {} -> {} bytes", result.getSegments(),
+                    result.getRecordsBefore(), result.getRecordsAfter(), result.getBytesBefore(), result.getBytesAfter());
+            }
+        } catch (IOException e) {
+            log.error("Error compacting GPS track journal: {}", e.getMessage());
+        }
     }
 
     /**
      * Get current location of a driver
      */
     public DriverLocation getCurrentLocation(String driverId) {
-        return driverLocationCache.get(driverId);
+        int slot = locationStore.indexOf(driverId);
+        if (slot < 0) {
+            return null;
+        }
+        DriverLocationStore.LocationReading reading = new DriverLocationStore.LocationReading();
+        if (!locationStore.read(slot, reading)) {
+            return null;
+        }
+        return new DriverLocation(driverId, reading.getLatitude(), reading.getLongitude(),
+            reading.getSpeed(), reading.getHeading(), new Date(reading.getTimestamp()));
     }
 
     /**
      * Get all driver locations for fleet management
      */
     public Map<String, DriverLocation> getAllDriverLocations() {
-        return new HashMap<>(driverLocationCache);
+        DriverLocationStore.LocationSnapshot snapshot = locationStore.snapshot();
+        Map<String, DriverLocation> locations = new HashMap<>();
+        for (int slot = 0; slot < snapshot.size(); slot++) {
+            if (snapshot.hasFix(slot)) {
+                locations.put(snapshot.getDriverId(slot), new DriverLocation(
+                    snapshot.getDriverId(slot), snapshot.getLatitude(slot), snapshot.getLongitude(slot),
+                    snapshot.getSpeed(slot), snapshot.getHeading(slot), new Date(snapshot.getTimestamp(slot))
+                ));
+            }
+        }
+        return locations;
+    }
+
+    /**
+     * Point-in-time copy of all driver positions as primitive arrays
+     */
+    public DriverLocationStore.LocationSnapshot getFleetSnapshot() {
+        return locationStore.snapshot();
+    }
+
+    /**
+     * Move the slots of drivers with a new fix since the last call into target
+     */
+    public int drainChangedSlots(int[] target) {
+        return changedSlots.drainTo(target);
+    }
+
+    /**
+     * Consistent read of one driver slot without allocating
+     */
+    public boolean readLocation(int slot, DriverLocationStore.LocationReading target) {
+        return locationStore.read(slot, target);
+    }
+
+    public int getDriverSlot(String driverId) {
+        return locationStore.indexOf(driverId);
+    }
+
+    public int getTrackedDriverCount() {
+        return locationStore.size();
+    }
+
+    public int getMaxDrivers() {
+        return maxDrivers;
+    }
+
+    /**
+     * Find the k active drivers closest to a point
+     */
+    public List<NearbyDriver> findNearestDrivers(double latitude, double longitude, int k) {
+        SpatialGridIndex.Result result = spatialIndex.findNearest(
+            latitude, longitude, k, nearestMaxSearchKm, activeSince());
+        return toNearbyDrivers(result);
+    }
+
+    /**
+     * Find all active drivers within a radius of a point, closest first
+     */
+    public List<NearbyDriver> findDriversInRadius(double latitude, double longitude, double radiusKm) {
+        SpatialGridIndex.Result result = spatialIndex.findInRadius(
+            latitude, longitude, radiusKm, activeSince());
+        return toNearbyDrivers(result);
+    }
+
+    /**
+     * Get recorded fixes of a driver between two instants (epoch millis), oldest first.
+     * Served from the in-memory ring when it covers the range, otherwise from the journal.
+     */
+    public LocationHistory.Track getTrack(String driverId, long from, long to) {
+        int slot = locationStore.indexOf(driverId);
+        long oldestInMemory = locationHistory.oldestTimestamp(slot);
+        if (trackJournal != null && (oldestInMemory < 0 || from < oldestInMemory)) {
+            try {
+                return trackJournal.readTrack(driverId, from, to);
+            } catch (IOException e) {
+                log.error("Error reading GPS track journal: {}", e.getMessage());
+            }
+        }
+        return locationHistory.getTrack(slot, from, to);
+    }
+
+    /**
+     * Get location history with distance driven for replay and delivery disputes
+     */
+    public Map<String, Object> getLocationHistory(String driverId, long from, long to) {
+        LocationHistory.Track track = getTrack(driverId, from, to);
+
+        List<Map<String, Object>> points = new ArrayList<>(track.size());
+        double distanceKm = 0.0;
+        for (int i = 0; i < track.size(); i++) {
+            points.add(Map.of(
+                "latitude", track.getLatitude(i),
+                "longitude", track.getLongitude(i),
+                "speed", track.getSpeed(i),
+                "heading", track.getHeading(i),
+                "timestamp", new Date(track.getTimestamp(i))
+            ));
+            if (i > 0) {
+                distanceKm += GeoMath.haversineKm(
+                    track.getLatitude(i - 1), track.getLongitude(i - 1),
+                    track.getLatitude(i), track.getLongitude(i)
+                );
+            }
+        }
+
+        long oldest = locationHistory.oldestTimestamp(locationStore.indexOf(driverId));
+        if (trackJournal != null && trackJournal.oldestTimestamp() > 0) {
+            oldest = oldest > 0 ? Math.min(oldest, trackJournal.oldestTimestamp()) : trackJournal.oldestTimestamp();
+        }
+
+        Map<String, Object> history = new HashMap<>();
+        history.put("driverId", driverId);
+        history.put("pointCount", track.size());
+        history.put("distanceKm", Math.round(distanceKm * 1000.0) / 1000.0);
+        history.put("oldestAvailable", oldest > 0 ? new Date(oldest) : null);
+        history.put("points", points);
+        return history;
     }
 
     /**
@@ -72,27 +453,41 @@ public class GPSTrackingService {
 
         try {
             // Calculate distance to destination
-            double destLat = routeOptimizationService.generateLatitudeFromAddress(destinationAddress);
-            double destLon = routeOptimizationService.generateLongitudeFromAddress(destinationAddress);
+            GeocodeResult destination = geocodingService.geocode(destinationAddress);
+            double destLat = destination.getLatitude();
+            double destLon = destination.getLongitude();
             
-            double distance = calculateDistance(
-                currentLocation.getLatitude(), currentLocation.getLongitude(),
-                destLat, destLon
-            );
+            double distance;
+            int estimatedMinutes;
+            double speedFactor = trafficService.speedFactor(
+                currentLocation.getLatitude(), currentLocation.getLongitude(), LocalDateTime.now());
+            TravelTable road = roadNetworkService.route(
+                currentLocation.getLatitude(), currentLocation.getLongitude(), destLat, destLon);
+            if (road != null) {
+                // Road route over the local network, slowed by current traffic
+                distance = road.km(0, 0);
+                estimatedMinutes = (int) Math.ceil(road.minutes(0, 0) / speedFactor);
+            } else {
+                distance = GeoMath.haversineKm(
+                    currentLocation.getLatitude(), currentLocation.getLongitude(),
+                    destLat, destLon
+                );
 
-            // Calculate ETA based on current speed and traffic
-            double averageSpeed = Math.max(currentLocation.getSpeed(), 25.0); // min 25 km/h
-            double estimatedHours = distance / averageSpeed;
-            int estimatedMinutes = (int) Math.ceil(estimatedHours * 60);
+                // Calculate ETA based on current speed and traffic
+                double averageSpeed = Math.max(currentLocation.getSpeed(), 25.0 * speedFactor); // min 25 km/h in free flow
+                double estimatedHours = distance / averageSpeed;
+                estimatedMinutes = (int) Math.ceil(estimatedHours * 60);
+            }
 
             eta.put("status", "CALCULATED");
             eta.put("estimatedMinutes", estimatedMinutes);
             eta.put("distanceKm", Math.round(distance * 100.0) / 100.0);
             eta.put("currentSpeed", currentLocation.getSpeed());
+            eta.put("speedFactor", speedFactor);
             eta.put("lastUpdated", currentLocation.getTimestamp());
 
         } catch (Exception e) {
-            System.err.println("Error calculating ETA: " + e.getMessage());
+            log.error("Error calculating ETA: {}", e.getMessage());
             eta.put("status", "CALCULATION_ERROR");
             eta.put("estimatedMinutes", null);
         }
@@ -105,10 +500,29 @@ public class GPSTrackingService {
      */
     public void startRouteTracking(String driverId, OptimizedRoute route) {
         RouteProgress progress = new RouteProgress(driverId, route);
-        routeProgressCache.put(driverId, progress);
+        RouteProgress previous = routeProgressCache.put(driverId, progress);
+        if (previous != null && previous.hasPosition()) {
+            // A replanned route keeps the driver's last known position
+            progress.updateCurrentPosition(previous.getCurrentLatitude(), previous.getCurrentLongitude());
+        }
+
+        // Fence every stop so arrivals are detected from the location stream;
+        // stops kept from the previous route keep their fence and inside state
+        Set<String> fenceIds = new HashSet<>();
+        for (int i = 0; i < progress.getTotalStops(); i++) {
+            RoutePoint point = progress.getStop(i);
+            if (!progress.isCompleted(i)) {
+                String fenceId = orderFenceId(point.getOrderReference());
+                registerDeliveryGeofence(fenceId,
+                    point.getOrderReference(), driverId, point.getLatitude(), point.getLongitude());
+                fenceIds.add(fenceId);
+            }
+        }
+        if (previous != null) {
+            removeRouteGeofences(previous, fenceIds);
+        }
         
-        System.out.println("Started route tracking for driver " + driverId + 
-                          " with " + route.getTotalDeliveryPoints() + " deliveries");
+        log.info("Started route tracking for driver {} with {} deliveries", driverId, progress.getTotalStops());
     }
 
     /**
@@ -118,6 +532,13 @@ public class GPSTrackingService {
         return routeProgressCache.get(driverId);
     }
 
+    /**
+     * Routes currently tracked, one per driver
+     */
+    public Collection<RouteProgress> getActiveRoutes() {
+        return Collections.unmodifiableCollection(routeProgressCache.values());
+    }
+
     /**
      * Mark delivery as completed at current location
      */
@@ -130,32 +551,74 @@ public class GPSTrackingService {
         }
 
         // Find the delivery point in the route
-        for (RoutePoint point : progress.getRoute().getRoutePoints()) {
-            if (point.getOrderReference().equals(orderReference) && 
-                "DELIVERY".equals(point.getPointType())) {
-                
-                // Verify driver is near the delivery location
-                double distance = calculateDistance(
-                    currentLocation.getLatitude(), currentLocation.getLongitude(),
-                    point.getLatitude(), point.getLongitude()
-                );
+        int stop = progress.getStopIndex(orderReference);
+        if (stop < 0) {
+            return false;
+        }
+        RoutePoint point = progress.getStop(stop);
 
-                if (distance <= 0.5) { // Within 500 meters
-                    point.setStatus("COMPLETED");
-                    progress.addCompletedDelivery(orderReference, new Date());
-                    
-                    System.out.println("Delivery completed: " + orderReference + 
-                                      " by driver " + driverId);
-                    return true;
-                } else {
-                    System.out.println("Driver too far from delivery location: " + 
-                                      distance + "km away");
-                    return false;
-                }
+        // Verify driver is at the stop: geofence state first, distance if not yet evaluated
+        String fenceId = orderFenceId(orderReference);
+        double distance = GeoMath.haversineKm(
+            currentLocation.getLatitude(), currentLocation.getLongitude(),
+            point.getLatitude(), point.getLongitude()
+        );
+
+        if (geofenceIndex.isInside(locationStore.indexOf(driverId), fenceId)
+                || distance <= deliveryFenceRadiusMeters / 1000.0) {
+            if (!progress.markCompleted(stop, System.currentTimeMillis())) {
+                log.info("Delivery already completed: {}", orderReference);
+                return false;
+            }
+            geofenceIndex.unregister(fenceId);
+            
+            log.info("Delivery completed: {} by driver {}", orderReference, driverId);
+            return true;
+        } else {
+            log.info("Driver too far from delivery location: {}km away", distance);
+            return false;
+        }
+    }
+
+    /**
+     * Register a fence around a delivery stop, only triggered by the assigned driver.
+     * A fence without a driver is triggered by every driver.
+     */
+    public void registerDeliveryGeofence(String fenceId, String reference, String driverId,
+                                         double latitude, double longitude) {
+        int driverSlot = -1;
+        if (driverId != null) {
+            driverSlot = locationStore.intern(driverId);
+            if (driverSlot < 0) {
+                // Completion falls back to the distance check for this stop
+                log.warn("Location store full, no geofence for {} of driver {}", reference, driverId);
+                return;
             }
         }
+        geofenceIndex.register(fenceId, GeofenceIndex.FenceType.DELIVERY, reference, driverSlot,
+            latitude, longitude, deliveryFenceRadiusMeters / 1000.0);
+    }
 
-        return false;
+    /**
+     * Remove a previously registered fence
+     */
+    public void removeGeofence(String fenceId) {
+        geofenceIndex.unregister(fenceId);
+    }
+
+    /**
+     * Subscribe to geofence arrival/departure events; listeners run off the ingest thread
+     */
+    public void addGeofenceListener(Consumer<GeofenceIndex.GeofenceEvent> listener) {
+        geofenceListeners.add(listener);
+    }
+
+    public static String orderFenceId(String orderReference) {
+        return "ORDER:" + orderReference;
+    }
+
+    public static String deliveryFenceId(String deliveryId) {
+        return "DELIVERY:" + deliveryId;
     }
 
     /**
@@ -179,9 +642,9 @@ public class GPSTrackingService {
 
         if (progress != null) {
             trackingData.put("routeProgress", Map.of(
-                "totalDeliveries", progress.getRoute().getTotalDeliveryPoints(),
-                "completedDeliveries", progress.getCompletedDeliveries().size(),
-                "nextDelivery", getNextDeliveryPoint(progress),
+                "totalDeliveries", progress.getTotalStops(),
+                "completedDeliveries", progress.getCompletedCount(),
+                "nextDelivery", progress.getNextStop(),
                 "estimatedCompletion", calculateRouteCompletionETA(progress)
             ));
         }
@@ -194,42 +657,181 @@ public class GPSTrackingService {
 
     // Private helper methods
 
-    private void updateRouteProgress(String driverId, double latitude, double longitude) {
-        RouteProgress progress = routeProgressCache.get(driverId);
-        if (progress != null) {
-            progress.updateCurrentPosition(latitude, longitude);
+    private long activeSince() {
+        return System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(activeWindowSeconds);
+    }
+
+    private void publishGeofenceEvent(GeofenceIndex.GeofenceEvent event) {
+        if (geofenceListeners.isEmpty()) {
+            return;
+        }
+        try {
+            geofenceEventExecutor.execute(() -> {
+                for (Consumer<GeofenceIndex.GeofenceEvent> listener : geofenceListeners) {
+                    listener.accept(event);
+                }
+            });
+        } catch (Exception e) {
+            log.error("Dropped geofence event {}: {}", event, e.getMessage());
         }
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int R = 6371; // Earth's radius in kilometers
-        
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return R * c;
+    private void removeRouteGeofences(RouteProgress progress, Set<String> keep) {
+        for (int i = 0; i < progress.getTotalStops(); i++) {
+            String fenceId = orderFenceId(progress.getStop(i).getOrderReference());
+            if (!keep.contains(fenceId)) {
+                geofenceIndex.unregister(fenceId);
+            }
+        }
     }
 
-    private RoutePoint getNextDeliveryPoint(RouteProgress progress) {
-        for (RoutePoint point : progress.getRoute().getRoutePoints()) {
-            if ("DELIVERY".equals(point.getPointType()) && 
-                "PENDING".equals(point.getStatus())) {
-                return point;
+    private List<NearbyDriver> toNearbyDrivers(SpatialGridIndex.Result result) {
+        List<NearbyDriver> drivers = new ArrayList<>(result.size());
+        DriverLocationStore.LocationReading reading = new DriverLocationStore.LocationReading();
+        for (int i = 0; i < result.size(); i++) {
+            if (locationStore.read(result.slotAt(i), reading)) {
+                drivers.add(new NearbyDriver(reading.getDriverId(), result.distanceAt(i),
+                    reading.getLatitude(), reading.getLongitude(), new Date(reading.getTimestamp())));
             }
         }
-        return null;
+        return drivers;
+    }
+
+    private void runIngestWriter() {
+        LocationRingBuffer.FixHandler handler = this::applyFixSafely;
+        while (ingestRunning) {
+            int drained = ingestBuffer.drain(handler, ingestDrainBatch);
+            if (drained == 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(200));
+            }
+        }
+        // Flush whatever was published before shutdown
+        while (ingestBuffer.drain(handler, ingestDrainBatch) > 0) {
+            // keep draining
+        }
+    }
+
+    /**
+     * Apply a fix without letting one bad fix stop the writer thread.
+     * The ring slot is released either way, so a failing fix is not retried.
+     */
+    private void applyFixSafely(String driverId, double latitude, double longitude,
+                                double speed, double heading, long timestampMillis) {
+        try {
+            applyFix(driverId, latitude, longitude, speed, heading, timestampMillis);
+        } catch (RuntimeException e) {
+            fixesFailed.increment();
+            log.error("Failed to apply location fix for driver {}", driverId, e);
+        }
+    }
+
+    /**
+     * Apply one fix to the location store and route progress.
+     * Fixes older than the driver's current position are ignored.
+     */
+    private void applyFix(String driverId, double latitude, double longitude,
+                          double speed, double heading, long timestampMillis) {
+        int slot = locationStore.intern(driverId);
+        if (slot < 0) {
+            fixesOverCapacity.increment();
+            return;
+        }
+        if (!locationStore.update(slot, latitude, longitude, speed, heading, timestampMillis)) {
+            fixesStale.increment();
+            return;
+        }
+        locationHistory.append(slot, latitude, longitude, speed, heading, timestampMillis);
+        spatialIndex.update(slot, latitude, longitude);
+        changedSlots.mark(slot);
+        if (trackJournal != null) {
+            try {
+                trackJournal.append(slot, driverId, latitude, longitude, speed, heading, timestampMillis);
+            } catch (IOException e) {
+                journalErrors.increment();
+            }
+        }
+        geofenceIndex.check(slot, driverId, latitude, longitude, timestampMillis, geofenceSink);
+
+        // Update route progress if driver is on a route
+        updateRouteProgress(driverId, latitude, longitude);
+        fixesApplied.increment();
+    }
+
+    private void openTrackJournal() {
+        try {
+            trackJournal = new TrackJournal(Paths.get(journalDirectory),
+                journalSegmentSizeMb * 1024L * 1024L,
+                TimeUnit.MINUTES.toMillis(journalRollMinutes),
+                TimeUnit.HOURS.toMillis(journalRetentionHours),
+                TimeUnit.DAYS.toMillis(compactedRetentionDays),
+                maxDrivers);
+
+            // Warm current positions and recent history so a restart does not lose them
+            long now = System.currentTimeMillis();
+            trackJournal.replay(now - TimeUnit.MINUTES.toMillis(journalReplayMinutes), Long.MAX_VALUE,
+                this::restoreFix);
+            log.info("GPS track journal opened at {} with {} records, restored {} drivers",
+                journalDirectory, trackJournal.recordCount(), locationStore.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("GPS track journal unavailable, fixes will not be persisted: {}", e.getMessage());
+            trackJournal = null;
+        }
+    }
+
+    // Replayed fixes rebuild in-memory state only; no events, no re-journaling
+    private void restoreFix(String driverId, double latitude, double longitude,
+                            double speed, double heading, long timestampMillis) {
+        int slot = locationStore.intern(driverId);
+        if (slot < 0 || !locationStore.update(slot, latitude, longitude, speed, heading, timestampMillis)) {
+            return;
+        }
+        locationHistory.append(slot, latitude, longitude, speed, heading, timestampMillis);
+        spatialIndex.update(slot, latitude, longitude);
+    }
+
+    private boolean isValidFix(LocationFix fix, long receivedAt) {
+        if (fix == null || fix.getDriverId() == null || fix.getDriverId().isBlank()) {
+            return false;
+        }
+
+        double latitude = fix.getLatitude();
+        double longitude = fix.getLongitude();
+        if (!(latitude >= -90.0 && latitude <= 90.0) || !(longitude >= -180.0 && longitude <= 180.0)) {
+            return false; // Also rejects NaN
+        }
+        if (latitude == 0.0 && longitude == 0.0) {
+            return false; // Typical "no fix" value from devices
+        }
+
+        Double speed = fix.getSpeed();
+        if (speed != null && !(speed >= 0.0 && speed <= MAX_SPEED_KMH)) {
+            return false;
+        }
+
+        Double heading = fix.getHeading();
+        if (heading != null && !Double.isFinite(heading)) {
+            return false;
+        }
+
+        Long timestamp = fix.getTimestamp();
+        return timestamp == null || (timestamp > 0 && timestamp <= receivedAt + MAX_CLOCK_SKEW_MILLIS);
+    }
+
+    private double normalizeHeading(double heading) {
+        double normalized = heading % 360.0;
+        return normalized < 0 ? normalized + 360.0 : normalized;
+    }
+
+    private void updateRouteProgress(String driverId, double latitude, double longitude) {
+        RouteProgress progress = routeProgressCache.get(driverId);
+        if (progress != null) {
+            progress.updateCurrentPosition(latitude, longitude);
+        }
     }
 
     private Date calculateRouteCompletionETA(RouteProgress progress) {
         // Calculate based on remaining deliveries and average time per delivery
-        int remaining = progress.getRoute().getTotalDeliveryPoints() - 
-                       progress.getCompletedDeliveries().size();
+        int remaining = progress.getRemainingStops();
         
         if (remaining == 0) {
             return new Date(); // Already completed
@@ -272,36 +874,139 @@ public class GPSTrackingService {
         public Date getTimestamp() { return timestamp; }
     }
 
-    public static class RouteProgress {
+    public static class NearbyDriver {
         private String driverId;
-        private OptimizedRoute route;
-        private double currentLatitude;
-        private double currentLongitude;
-        private Map<String, Date> completedDeliveries;
-        private Date startTime;
+        private double distanceKm;
+        private double latitude;
+        private double longitude;
+        private Date lastUpdated;
+
+        public NearbyDriver(String driverId, double distanceKm, double latitude,
+                            double longitude, Date lastUpdated) {
+            this.driverId = driverId;
+            this.distanceKm = distanceKm;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.lastUpdated = lastUpdated;
+        }
+
+        // Getters
+        public String getDriverId() { return driverId; }
+        public double getDistanceKm() { return distanceKm; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public Date getLastUpdated() { return lastUpdated; }
+    }
+
+    /**
+     * Progress of a driver along an assigned route
+     * Delivery stops are indexed once at route start. Completion is a CAS on a
+     * per-stop timestamp, the next pending stop is a forward-only cursor and the
+     * driver position is packed into one volatile long, so the location update
+     * path and dashboard readers never lock or allocate.
+     */
+    public static class RouteProgress {
+        private final String driverId;
+        private final OptimizedRoute route;
+        private final RoutePoint[] stops; // Delivery points in route order
+        private final Map<String, Integer> stopByOrderReference; // Read-only after construction
+        private final AtomicLongArray completedAt; // Epoch millis per stop, 0 while pending
+        private final AtomicInteger completedCount = new AtomicInteger();
+        private final AtomicInteger nextStop = new AtomicInteger(); // No pending stop before this index
+        private volatile long packedPosition; // Latitude and longitude E7, 0 until the first fix
+        private final Date startTime;
 
         public RouteProgress(String driverId, OptimizedRoute route) {
             this.driverId = driverId;
             this.route = route;
-            this.completedDeliveries = new HashMap<>();
             this.startTime = new Date();
+
+            List<RoutePoint> deliveries = new ArrayList<>();
+            if (route.getRoutePoints() != null) {
+                for (RoutePoint point : route.getRoutePoints()) {
+                    if ("DELIVERY".equals(point.getPointType())) {
+                        deliveries.add(point);
+                    }
+                }
+            }
+            this.stops = deliveries.toArray(new RoutePoint[0]);
+            this.completedAt = new AtomicLongArray(stops.length);
+
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < stops.length; i++) {
+                index.putIfAbsent(stops[i].getOrderReference(), i);
+                if ("COMPLETED".equals(stops[i].getStatus())) {
+                    completedAt.set(i, startTime.getTime());
+                    completedCount.incrementAndGet();
+                }
+            }
+            this.stopByOrderReference = index;
         }
 
         public void updateCurrentPosition(double latitude, double longitude) {
-            this.currentLatitude = latitude;
-            this.currentLongitude = longitude;
+            long latitudeE7 = Math.round(latitude * 1e7);
+            long longitudeE7 = Math.round(longitude * 1e7);
+            packedPosition = (latitudeE7 << 32) | (longitudeE7 & 0xffffffffL);
+        }
+
+        /**
+         * Mark a stop completed. Returns false if it already was.
+         */
+        public boolean markCompleted(int stop, long completedAtMillis) {
+            if (!completedAt.compareAndSet(stop, 0, completedAtMillis)) {
+                return false;
+            }
+            stops[stop].setStatus("COMPLETED");
+            completedCount.incrementAndGet();
+            return true;
+        }
+
+        /**
+         * First pending stop in route order, or null when all are completed
+         */
+        public RoutePoint getNextStop() {
+            int current = nextStop.get();
+            int next = current;
+            while (next < stops.length && completedAt.get(next) != 0) {
+                next++;
+            }
+            if (next != current) {
+                nextStop.compareAndSet(current, next); // Losing the race only delays the skip
+            }
+            return next < stops.length ? stops[next] : null;
+        }
+
+        public int getStopIndex(String orderReference) {
+            Integer stop = stopByOrderReference.get(orderReference);
+            return stop != null ? stop : -1;
+        }
+
+        public boolean isCompleted(int stop) {
+            return completedAt.get(stop) != 0;
+        }
+
+        public Date getCompletionTime(int stop) {
+            long millis = completedAt.get(stop);
+            return millis != 0 ? new Date(millis) : null;
+        }
+
+        public double getProgressPercentage() {
+            return stops.length == 0 ? 0.0 : (double) completedCount.get() / stops.length * 100.0;
         }
 
-        public void addCompletedDelivery(String orderReference, Date completionTime) {
-            completedDeliveries.put(orderReference, completionTime);
+        public boolean hasPosition() {
+            return packedPosition != 0;
         }
 
         // Getters
         public String getDriverId() { return driverId; }
         public OptimizedRoute getRoute() { return route; }
-        public double getCurrentLatitude() { return currentLatitude; }
-        public double getCurrentLongitude() { return currentLongitude; }
-        public Map<String, Date> getCompletedDeliveries() { return completedDeliveries; }
+        public RoutePoint getStop(int stop) { return stops[stop]; }
+        public int getTotalStops() { return stops.length; }
+        public int getCompletedCount() { return completedCount.get(); }
+        public int getRemainingStops() { return stops.length - completedCount.get(); }
+        public double getCurrentLatitude() { return (int) (packedPosition >> 32) / 1e7; }
+        public double getCurrentLongitude() { return (int) packedPosition / 1e7; }
         public Date getStartTime() { return startTime; }
     }
 }
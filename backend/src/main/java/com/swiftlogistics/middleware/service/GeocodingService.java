@@ -0,0 +1,102 @@
+package com.swiftlogistics.middleware.service;
+
+import com.swiftlogistics.middleware.geo.Gazetteer;
+import com.swiftlogistics.middleware.geo.GeocodeResult;
+import com.swiftlogistics.middleware.geo.LruCache;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline geocoding against a bundled gazetteer of Sri Lankan streets and
+ * localities. Results are cached by address text; addresses the gazetteer
+ * cannot place get the former hash-derived coordinates around Colombo,
+ * marked approximate, so existing routes keep their shape.
+ */
+@Service
+public class GeocodingService {
+
+    private static final Logger log = LoggerFactory.getLogger(GeocodingService.class);
+
+    private static final double DEFAULT_LATITUDE = 6.9271;
+    private static final double DEFAULT_LONGITUDE = 79.8612;
+
+    @Value("${app.geocoding.gazetteer:classpath:geo/gazetteer-lk.csv}")
+    private Resource gazetteerResource;
+
+    @Value("${app.geocoding.cache-size:10000}")
+    private int cacheSize;
+
+    private Gazetteer gazetteer = Gazetteer.empty();
+
+    private LruCache<String, GeocodeResult> cache;
+
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder approximateResults = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        cache = new LruCache<>(Math.max(1, cacheSize), 16);
+        try (InputStream input = gazetteerResource.getInputStream()) {
+            gazetteer = Gazetteer.load(input);
+            log.info("Loaded gazetteer with {} entries from {}", gazetteer.size(), gazetteerResource.getDescription());
+        } catch (IOException e) {
+            log.error("Failed to load gazetteer from {}, all addresses will be approximate: {}",
+                gazetteerResource.getDescription(), e.getMessage());
+        }
+    }
+
+    /**
+     * Coordinates for a delivery address; never null
+     */
+    public GeocodeResult geocode(String address) {
+        if (address == null) {
+            return new GeocodeResult(DEFAULT_LATITUDE, DEFAULT_LONGITUDE, GeocodeResult.Precision.APPROXIMATE,
+                false, null);
+        }
+        GeocodeResult result = cache.get(address);
+        if (result != null) {
+            cacheHits.increment();
+            return result;
+        }
+        cacheMisses.increment();
+        result = gazetteer.match(address);
+        if (result == null) {
+            approximateResults.increment();
+            result = approximate(address);
+        }
+        cache.put(address, result);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("gazetteerEntries", gazetteer.size());
+        stats.put("cacheSize", cache.size());
+        stats.put("cacheCapacity", cacheSize);
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("cacheMisses", cacheMisses.sum());
+        stats.put("approximateResults", approximateResults.sum());
+        return stats;
+    }
+
+    /**
+     * Stable point within about 5 km of central Colombo derived from the text
+     */
+    private GeocodeResult approximate(String address) {
+        int hash = Math.abs(address.hashCode());
+        double latitude = DEFAULT_LATITUDE + ((hash % 1000) / 10000.0 - 0.05);
+        double longitude = DEFAULT_LONGITUDE + ((hash % 1500) / 15000.0 - 0.05);
+        return new GeocodeResult(latitude, longitude, GeocodeResult.Precision.APPROXIMATE, false, null);
+    }
+}
@@ -0,0 +1,284 @@
+package com.swiftlogistics.middleware.service;
+
+import com.swiftlogistics.middleware.config.OutboundDeliveryTracker;
+import com.swiftlogistics.middleware.config.WebSocketConfig;
+import com.swiftlogistics.middleware.dto.LocationDelta;
+import com.swiftlogistics.middleware.dto.LocationSubscription;
+import com.swiftlogistics.middleware.tracking.DriverLocationStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pushes live driver positions to WebSocket sessions
+ * Each session subscribes to a viewport or a driver set; at every tick it
+ * receives the latest position of the drivers that moved since its last
+ * push, so any number of fixes per driver collapse into one update. A
+ * session whose previous push has not been written yet is skipped and its
+ * changed drivers are carried to the next tick instead of queueing messages.
+ */
+@Service
+public class LiveLocationBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveLocationBroadcaster.class);
+
+    @Autowired
+    private GPSTrackingService gpsTrackingService;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    @Qualifier("liveLocationDeliveryTracker")
+    private OutboundDeliveryTracker deliveryTracker;
+
+    @Value("${app.gps.live.tick-ms:1000}")
+    private long tickMillis;
+
+    @Value("${app.gps.live.max-updates-per-push:2000}")
+    private int maxUpdatesPerPush;
+
+    private final Map<String, Subscriber> subscribers = new ConcurrentHashMap<>();
+
+    // Tick thread state
+    private int[] changedSlots;
+    private final DriverLocationStore.LocationReading reading = new DriverLocationStore.LocationReading();
+    private long sequence;
+
+    private final LongAdder pushesSent = new LongAdder();
+    private final LongAdder pushesSkipped = new LongAdder();
+    private final LongAdder updatesSent = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        changedSlots = new int[gpsTrackingService.getMaxDrivers()];
+    }
+
+    /**
+     * Subscribe a session, replacing any previous subscription.
+     * The first push after subscribing carries the full matching state.
+     */
+    public void subscribe(String sessionId, LocationSubscription subscription) {
+        if (sessionId == null || subscription == null) {
+            throw new IllegalArgumentException("Session and subscription are required");
+        }
+        if (subscription.isDriverSet()) {
+            if (subscription.getDriverIds().size() > maxUpdatesPerPush) {
+                throw new IllegalArgumentException("At most " + maxUpdatesPerPush + " drivers per subscription");
+            }
+        } else if (!subscription.isViewport()) {
+            throw new IllegalArgumentException("Subscription needs driverIds or a complete viewport");
+        } else if (subscription.getMinLatitude() > subscription.getMaxLatitude()) {
+            throw new IllegalArgumentException("minLatitude must not exceed maxLatitude");
+        }
+        subscribers.put(sessionId, new Subscriber(sessionId, subscription, gpsTrackingService.getMaxDrivers()));
+    }
+
+    public void unsubscribe(String sessionId) {
+        subscribers.remove(sessionId);
+        deliveryTracker.forget(sessionId);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        unsubscribe(event.getSessionId());
+    }
+
+    /**
+     * Conflate changes since the last tick and fan them out to subscribers
+     */
+    @Scheduled(fixedRateString = "${app.gps.live.tick-ms:1000}")
+    public void tick() {
+        int count = gpsTrackingService.drainChangedSlots(changedSlots);
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        sequence++;
+        long inFlightTimeout = tickMillis * 5;
+
+        for (Subscriber subscriber : subscribers.values()) {
+            long[] pending = subscriber.pending;
+            for (int i = 0; i < count; i++) {
+                int slot = changedSlots[i];
+                pending[slot >>> 6] |= 1L << slot;
+            }
+
+            if (deliveryTracker.isInFlight(subscriber.sessionId, inFlightTimeout)) {
+                pushesSkipped.increment(); // Slow client: keep only the dirty bits
+                continue;
+            }
+            try {
+                push(subscriber);
+            } catch (Exception e) {
+                deliveryTracker.forget(subscriber.sessionId);
+                log.error("Failed to push live locations to session {}: {}", subscriber.sessionId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Counters for the live-location push channel
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("pushesSent", pushesSent.sum());
+        stats.put("pushesSkipped", pushesSkipped.sum());
+        stats.put("updatesSent", updatesSent.sum());
+        stats.put("tickMillis", tickMillis);
+        return stats;
+    }
+
+    private void push(Subscriber subscriber) {
+        List<LocationDelta> updates = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        if (subscriber.driverIds != null) {
+            collectDriverSet(subscriber, updates);
+        } else {
+            collectViewport(subscriber, updates, removed);
+        }
+        subscriber.resync = false;
+
+        if (updates.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("sequence", sequence);
+        payload.put("updates", updates);
+        payload.put("removed", removed);
+
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setSessionId(subscriber.sessionId);
+        headers.setLeaveMutable(true);
+
+        // Mark before sending: the outbound channel may finish before convertAndSend returns
+        deliveryTracker.markSent(subscriber.sessionId);
+        messagingTemplate.convertAndSendToUser(subscriber.sessionId, WebSocketConfig.LIVE_LOCATION_QUEUE,
+            payload, headers.getMessageHeaders());
+
+        pushesSent.increment();
+        updatesSent.add(updates.size());
+    }
+
+    private void collectDriverSet(Subscriber subscriber, List<LocationDelta> updates) {
+        long[] pending = subscriber.pending;
+        for (int i = 0; i < subscriber.driverIds.length; i++) {
+            int slot = subscriber.driverSlots[i];
+            boolean resolvedNow = false;
+            if (slot < 0) {
+                slot = gpsTrackingService.getDriverSlot(subscriber.driverIds[i]);
+                if (slot < 0) continue; // No fix from this driver yet
+                subscriber.driverSlots[i] = slot;
+                resolvedNow = true;
+            }
+            boolean changed = (pending[slot >>> 6] & (1L << slot)) != 0;
+            if ((subscriber.resync || resolvedNow || changed) && gpsTrackingService.readLocation(slot, reading)) {
+                updates.add(toDelta(reading));
+            }
+        }
+        // Changes of drivers outside the set are irrelevant to this session
+        Arrays.fill(pending, 0L);
+    }
+
+    private void collectViewport(Subscriber subscriber, List<LocationDelta> updates, List<String> removed) {
+        long[] pending = subscriber.pending;
+        long[] visible = subscriber.visible;
+        if (subscriber.resync) {
+            int tracked = gpsTrackingService.getTrackedDriverCount();
+            for (int slot = 0; slot < tracked; slot++) {
+                pending[slot >>> 6] |= 1L << slot;
+            }
+        }
+
+        for (int index = 0; index < pending.length; index++) {
+            long word = pending[index];
+            while (word != 0) {
+                if (updates.size() >= maxUpdatesPerPush) {
+                    return; // Bounded payload; the rest stays pending for the next tick
+                }
+                long bit = word & -word;
+                int slot = (index << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                pending[index] &= ~bit;
+
+                if (!gpsTrackingService.readLocation(slot, reading)) continue;
+                if (subscriber.contains(reading.getLatitude(), reading.getLongitude())) {
+                    visible[index] |= bit;
+                    updates.add(toDelta(reading));
+                } else if ((visible[index] & bit) != 0) {
+                    visible[index] &= ~bit;
+                    removed.add(reading.getDriverId());
+                }
+            }
+        }
+    }
+
+    private static LocationDelta toDelta(DriverLocationStore.LocationReading reading) {
+        return new LocationDelta(reading.getDriverId(), reading.getLatitude(), reading.getLongitude(),
+            reading.getSpeed(), reading.getHeading(), reading.getTimestamp());
+    }
+
+    /**
+     * One subscribed session; pending and visible are only touched by the tick thread
+     */
+    private static class Subscriber {
+        private final String sessionId;
+        private final String[] driverIds; // null for viewport subscriptions
+        private final int[] driverSlots;
+        private final double minLatitude;
+        private final double maxLatitude;
+        private final double minLongitude;
+        private final double maxLongitude;
+        private final long[] pending;
+        private final long[] visible;
+        private boolean resync = true;
+
+        Subscriber(String sessionId, LocationSubscription subscription, int maxDrivers) {
+            this.sessionId = sessionId;
+            int words = (maxDrivers + 63) >>> 6;
+            this.pending = new long[words];
+
+            if (subscription.isDriverSet()) {
+                this.driverIds = new LinkedHashSet<>(subscription.getDriverIds()).toArray(new String[0]);
+                this.driverSlots = new int[driverIds.length];
+                Arrays.fill(driverSlots, -1);
+                this.visible = null;
+                this.minLatitude = this.maxLatitude = this.minLongitude = this.maxLongitude = 0;
+            } else {
+                this.driverIds = null;
+                this.driverSlots = null;
+                this.visible = new long[words];
+                this.minLatitude = subscription.getMinLatitude();
+                this.maxLatitude = subscription.getMaxLatitude();
+                this.minLongitude = subscription.getMinLongitude();
+                this.maxLongitude = subscription.getMaxLongitude();
+            }
+        }
+
+        boolean contains(double latitude, double longitude) {
+            if (latitude < minLatitude || latitude > maxLatitude) {
+                return false;
+            }
+            // A viewport crossing the antimeridian has minLongitude > maxLongitude
+            return minLongitude <= maxLongitude
+                ? longitude >= minLongitude && longitude <= maxLongitude
+                : longitude >= minLongitude || longitude <= maxLongitude;
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.swiftlogistics.middleware.config.RabbitMQConfig;
 import com.swiftlogistics.middleware.model.Order;
 import com.swiftlogistics.middleware.dto.OrderStatusUpdate;
 import com.swiftlogistics.middleware.dto.NotificationMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +24,8 @@ import java.util.Map;
  */
 @Service
 public class MessageService {
+
+    private static final Logger log = LoggerFactory.getLogger(MessageService.class);
     
     @Autowired
     private RabbitTemplate rabbitTemplate;
@@ -50,9 +54,9 @@ public class MessageService {
                 orderMessage
             );
             
-            System.out.println("Order sent for processing: " + order.getOrderNumber());
+            log.debug("Order sent for processing: {}", order.getOrderNumber());
         } catch (Exception e) {
-            System.err.println("Failed to send order for processing: " + e.getMessage());
+            log.error("Failed to send order for processing: {}", e.getMessage());
             // Fallback to synchronous processing
             orderProcessingService.processOrderSync(order);
         }
@@ -90,9 +94,9 @@ public class MessageService {
                 statusUpdate
             );
             
-            System.out.println("Status update sent: " + order.getOrderNumber() + " -> " + order.getStatus());
+            log.debug("Status update sent: {} -> {}", order.getOrderNumber(), order.getStatus());
         } catch (Exception e) {
-            System.err.println("Failed to send status update: " + e.getMessage());
+            log.error("Failed to send status update: {}", e.getMessage());
         }
     }
     
@@ -114,9 +118,9 @@ public class MessageService {
                 notification
             );
             
-            System.out.println("Notification sent to client " + clientId + ": " + title);
+            log.debug("Notification sent to client {}: {}", clientId, title);
         } catch (Exception e) {
-            System.err.println("Failed to send notification: " + e.getMessage());
+            log.error("Failed to send notification: {}", e.getMessage());
         }
     }
     
@@ -130,14 +134,14 @@ public class MessageService {
             Long orderId = Long.valueOf(orderMessage.get("orderId").toString());
             String orderNumber = orderMessage.get("orderNumber").toString();
             
-            System.out.println("Processing order from queue: " + orderNumber);
+            log.debug("Processing order from queue: {}", orderNumber);
             
             // Process the order through integration services
             orderProcessingService.processOrderIntegration(orderId);
             
-            System.out.println("Order processed successfully: " + orderNumber);
+            log.debug("Order processed successfully: {}", orderNumber);
         } catch (Exception e) {
-            System.err.println("Failed to process order message: " + e.getMessage());
+            log.error("Failed to process order message: {}", e.getMessage());
             throw e; // Re-throw to trigger retry or DLQ
         }
     }
@@ -148,7 +152,7 @@ public class MessageService {
     @RabbitListener(queues = RabbitMQConfig.STATUS_UPDATE_QUEUE)
     public void processStatusUpdate(OrderStatusUpdate statusUpdate) {
         try {
-            System.out.println("Processing status update: " + statusUpdate.getOrderNumber() + " -> " + statusUpdate.getStatus());
+            log.debug("Processing status update: {} -> {}", statusUpdate.getOrderNumber(), statusUpdate.getStatus());
             
             // Send real-time notification via WebSocket
             websocketTemplate.convertAndSend(
@@ -159,7 +163,7 @@ public class MessageService {
             // Additional status update processing can be added here
             
         } catch (Exception e) {
-            System.err.println("Failed to process status update: " + e.getMessage());
+            log.error("Failed to process status update: {}", e.getMessage());
         }
     }
     
@@ -169,7 +173,7 @@ public class MessageService {
     @RabbitListener(queues = RabbitMQConfig.NOTIFICATION_QUEUE)
     public void processNotification(NotificationMessage notification) {
         try {
-            System.out.println("Processing notification for client " + notification.getClientId() + ": " + notification.getTitle());
+            log.debug("Processing notification for client {}: {}", notification.getClientId(), notification.getTitle());
             
             // Send real-time notification via WebSocket
             websocketTemplate.convertAndSendToUser(
@@ -181,7 +185,7 @@ public class MessageService {
             // Additional notification processing (email, SMS, etc.) can be added here
             
         } catch (Exception e) {
-            System.err.println("Failed to process notification: " + e.getMessage());
+            log.error("Failed to process notification: {}", e.getMessage());
         }
     }
     
@@ -190,7 +194,7 @@ public class MessageService {
      */
     @RabbitListener(queues = RabbitMQConfig.ORDER_PROCESSING_QUEUE + RabbitMQConfig.DLQ_SUFFIX)
     public void handleFailedOrderProcessing(Map<String, Object> failedMessage) {
-        System.err.println("Order processing failed after retries: " + failedMessage);
+        log.error("Order processing failed after retries: {}", failedMessage);
         // Implement manual intervention workflow
         // Could send alert to administrators, log to special table, etc.
     }
@@ -211,9 +215,9 @@ public class MessageService {
             
             websocketTemplate.convertAndSend("/topic/drivers/" + driverChannel, alert);
             
-            System.out.println("Priority delivery alert sent for order: " + order.getOrderNumber());
+            log.info("Priority delivery alert sent for order: {}", order.getOrderNumber());
         } catch (Exception e) {
-            System.err.println("Failed to send priority delivery alert: " + e.getMessage());
+            log.error("Failed to send priority delivery alert: {}", e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import com.swiftlogistics.middleware.model.Order;
 import com.swiftlogistics.middleware.dto.OrderStatusUpdate;
 import com.swiftlogistics.middleware.dto.NotificationMessage;
 import com.swiftlogistics.middleware.config.MockRabbitMQConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
@@ -20,6 +22,8 @@ import java.util.Map;
 @Service
 @Profile("demo")
 public class MockMessageService {
+
+    private static final Logger log = LoggerFactory.getLogger(MockMessageService.class);
     
     @Autowired
     private SimpMessagingTemplate websocketTemplate;
@@ -47,9 +51,9 @@ public class MockMessageService {
             // Process asynchronously
             processOrderAsync(orderMessage);
             
-            System.out.println("Order sent for processing (mock): " + order.getOrderNumber());
+            log.debug("Order sent for processing (mock): {}", order.getOrderNumber());
         } catch (Exception e) {
-            System.err.println("Failed to send order for processing: " + e.getMessage());
+            log.error("Failed to send order for processing: {}", e.getMessage());
             // Fallback to synchronous processing
             orderProcessingService.processOrderSync(order);
         }
@@ -80,9 +84,9 @@ public class MockMessageService {
                 statusUpdate
             );
             
-            System.out.println("Status update sent (mock): " + order.getOrderNumber() + " -> " + order.getStatus());
+            log.debug("Status update sent (mock): {} -> {}", order.getOrderNumber(), order.getStatus());
         } catch (Exception e) {
-            System.err.println("Failed to send status update: " + e.getMessage());
+            log.error("Failed to send status update: {}", e.getMessage());
         }
     }
     
@@ -105,9 +109,9 @@ public class MockMessageService {
                 notification
             );
             
-            System.out.println("Notification sent (mock) to client " + clientId + ": " + title);
+            log.debug("Notification sent (mock) to client {}: {}", clientId, title);
         } catch (Exception e) {
-            System.err.println("Failed to send notification: " + e.getMessage());
+            log.error("Failed to send notification: {}", e.getMessage());
         }
     }
     
@@ -123,14 +127,14 @@ public class MockMessageService {
             Long orderId = Long.valueOf(orderMessage.get("orderId").toString());
             String orderNumber = orderMessage.get("orderNumber").toString();
             
-            System.out.println("Processing order asynchronously (mock): " + orderNumber);
+            log.debug("Processing order asynchronously (mock): {}", orderNumber);
             
             // Process the order through integration services
             orderProcessingService.processOrderIntegration(orderId);
             
-            System.out.println("Order processed successfully (mock): " + orderNumber);
+            log.debug("Order processed successfully (mock): {}", orderNumber);
         } catch (Exception e) {
-            System.err.println("Failed to process order message: " + e.getMessage());
+            log.error("Failed to process order message: {}", e.getMessage());
         }
     }
     
@@ -150,9 +154,9 @@ public class MockMessageService {
             
             websocketTemplate.convertAndSend("/topic/drivers/" + driverChannel, alert);
             
-            System.out.println("Priority delivery alert sent (mock) for order: " + order.getOrderNumber());
+            log.info("Priority delivery alert sent (mock) for order: {}", order.getOrderNumber());
         } catch (Exception e) {
-            System.err.println("Failed to send priority delivery alert: " + e.getMessage());
+            log.error("Failed to send priority delivery alert: {}", e.getMessage());
         }
     }
 }
@@ -5,7 +5,10 @@ import com.swiftlogistics.middleware.repository.OrderRepository;
 import com.swiftlogistics.middleware.integration.CMSIntegrationService;
 import com.swiftlogistics.middleware.integration.ROSIntegrationService;
 import com.swiftlogistics.middleware.integration.WMSIntegrationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,6 +23,8 @@ import java.util.Map;
 @Service
 public class OrderProcessingService {
 
+    private static final Logger log = LoggerFactory.getLogger(OrderProcessingService.class);
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -36,6 +41,10 @@ public class OrderProcessingService {
     @Lazy
     private MessageService messageService;
 
+    // The streaming dispatcher plans routes for orders left in the warehouse
+    @Value("${app.dispatch.streaming.enabled:true}")
+    private boolean streamingDispatchEnabled;
+
     /**
      * Process order integration using Saga pattern
      * This method implements distributed transaction management
@@ -44,7 +53,7 @@ public class OrderProcessingService {
     public void processOrderIntegration(Long orderId) {
         Order order = orderRepository.findById(orderId).orElse(null);
         if (order == null) {
-            System.err.println("Order not found: " + orderId);
+            log.error("Order not found: {}", orderId);
             return;
         }
 
@@ -68,13 +77,16 @@ public class OrderProcessingService {
             // Step 3: Plan route with ROS (Route Optimization System)
             saga.executeStep("ROS_PLAN", () -> {
                 rosIntegrationService.planRoute(order);
+                if (streamingDispatchEnabled) {
+                    return "Route planning handed to dispatch";
+                }
                 updateOrderStatus(order, Order.OrderStatus.ROUTE_PLANNED);
                 return "Route planned successfully";
             });
 
             // If all steps successful, mark as completed
             saga.markCompleted();
-            System.out.println("Order processing completed successfully: " + order.getOrderNumber());
+            log.info("Order processing completed successfully: {}", order.getOrderNumber());
 
         } catch (Exception e) {
             // Execute compensation (rollback) actions
@@ -87,10 +99,10 @@ public class OrderProcessingService {
      */
     public void processOrderSync(Order order) {
         try {
-            System.out.println("Processing order synchronously: " + order.getOrderNumber());
+            log.info("Processing order synchronously: {}", order.getOrderNumber());
             processOrderIntegration(order.getId());
         } catch (Exception e) {
-            System.err.println("Synchronous order processing failed: " + e.getMessage());
+            log.error("Synchronous order processing failed: {}", e.getMessage());
         }
     }
 
@@ -98,7 +110,7 @@ public class OrderProcessingService {
      * Handle order processing failure using compensation pattern
      */
     private void handleOrderProcessingFailure(SagaTransaction saga, Exception error) {
-        System.err.println("Order processing failed, executing compensation actions: " + error.getMessage());
+        log.error("Order processing failed, executing compensation actions: {}", error.getMessage());
         
         Order order = saga.getOrder();
         
@@ -130,7 +142,7 @@ public class OrderProcessingService {
             );
             
         } catch (Exception compensationError) {
-            System.err.println("Compensation failed: " + compensationError.getMessage());
+            log.error("Compensation failed: {}", compensationError.getMessage());
             // Log to manual intervention queue
             logManualIntervention(order, error, compensationError);
         }
@@ -142,30 +154,30 @@ public class OrderProcessingService {
     private void compensateROSPlanning(Order order) {
         try {
             // Cancel route planning
-            System.out.println("Compensating ROS planning for order: " + order.getOrderNumber());
+            log.info("Compensating ROS planning for order: {}", order.getOrderNumber());
             // In real implementation, call ROS API to cancel route
         } catch (Exception e) {
-            System.err.println("ROS compensation failed: " + e.getMessage());
+            log.error("ROS compensation failed: {}", e.getMessage());
         }
     }
 
     private void compensateWMSAddition(Order order) {
         try {
             // Remove package from warehouse
-            System.out.println("Compensating WMS addition for order: " + order.getOrderNumber());
+            log.info("Compensating WMS addition for order: {}", order.getOrderNumber());
             // In real implementation, call WMS API to remove package
         } catch (Exception e) {
-            System.err.println("WMS compensation failed: " + e.getMessage());
+            log.error("WMS compensation failed: {}", e.getMessage());
         }
     }
 
     private void compensateCMSSubmission(Order order) {
         try {
             // Cancel order in CMS
-            System.out.println("Compensating CMS submission for order: " + order.getOrderNumber());
+            log.info("Compensating CMS submission for order: {}", order.getOrderNumber());
             // In real implementation, call CMS API to cancel order
         } catch (Exception e) {
-            System.err.println("CMS compensation failed: " + e.getMessage());
+            log.error("CMS compensation failed: {}", e.getMessage());
         }
     }
 
@@ -185,11 +197,9 @@ public class OrderProcessingService {
      * Log orders that require manual intervention
      */
     private void logManualIntervention(Order order, Exception originalError, Exception compensationError) {
-        System.err.println("=== MANUAL INTERVENTION REQUIRED ===");
-        System.err.println("Order: " + order.getOrderNumber());
-        System.err.println("Original Error: " + originalError.getMessage());
-        System.err.println("Compensation Error: " + compensationError.getMessage());
-        System.err.println("Status: Requires manual review and correction");
+        log.error("MANUAL INTERVENTION REQUIRED - order: {}, original error: {}, compensation error: {}, "
+            + "status: requires manual review and correction",
+            order.getOrderNumber(), originalError.getMessage(), compensationError.getMessage());
         
         // In production, this would log to a special database table or alert system
         // Could also send urgent notifications to administrators
@@ -204,7 +214,7 @@ public class OrderProcessingService {
             Thread.sleep(100); // Simulate some processing time
             processOrderIntegration(order.getId());
         } catch (Exception e) {
-            System.err.println("Async order processing failed: " + e.getMessage());
+            log.error("Async order processing failed: {}", e.getMessage());
         }
     }
 
@@ -226,9 +236,9 @@ public class OrderProcessingService {
             try {
                 String result = step.execute();
                 completedSteps.put(stepName, result);
-                System.out.println("Saga step completed: " + stepName + " - " + result);
+                log.debug("Saga step completed: {} - {}", stepName, result);
             } catch (Exception e) {
-                System.err.println("Saga step failed: " + stepName + " - " + e.getMessage());
+                log.error("Saga step failed: {} - {}", stepName, e.getMessage());
                 throw e;
             }
         }
@@ -50,6 +50,9 @@ public class OrderService {
         String orderNumber = generateOrderNumber();
         Order order = new Order(orderNumber, client, orderRequest.getDeliveryAddress(), orderRequest.getRecipientName());
         order.setRecipientPhone(orderRequest.getRecipientPhone());
+        order.setDeliveryWindowStart(orderRequest.getDeliveryWindowStart());
+        order.setDeliveryWindowEnd(orderRequest.getDeliveryWindowEnd());
+        order.setServiceMinutes(orderRequest.getServiceMinutes());
         order.setTrackingNumber(generateTrackingNumber());
 
         // Save order first
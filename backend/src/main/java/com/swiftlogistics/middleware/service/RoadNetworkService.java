@@ -0,0 +1,186 @@
+package com.swiftlogistics.middleware.service;
+
+import com.swiftlogistics.middleware.roadnet.ContractionHierarchy;
+import com.swiftlogistics.middleware.roadnet.LegCache;
+import com.swiftlogistics.middleware.roadnet.RoadGraph;
+import com.swiftlogistics.middleware.roadnet.RoadRouter;
+import com.swiftlogistics.middleware.roadnet.TravelTable;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Offline road routing over a local OSM-derived graph. On startup the
+ * preprocessed index next to the graph is memory-mapped; when it is missing
+ * or older than the graph, the graph is contracted once and the index
+ * rewritten. Computed legs are kept in a shared leg cache, so repeated
+ * tables over the same points skip the hierarchy. Without a configured
+ * graph every caller keeps great-circle distances.
+ */
+@Service
+public class RoadNetworkService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoadNetworkService.class);
+
+    @Value("${app.road-network.graph-file:}")
+    private String graphFile;
+
+    @Value("${app.road-network.index-file:}")
+    private String indexFile;
+
+    @Value("${app.road-network.max-snap-distance-m:500}")
+    private double maxSnapMeters;
+
+    @Value("${app.road-network.access-speed-kmh:15}")
+    private double accessSpeedKmh;
+
+    @Value("${app.road-network.leg-cache-size:200000}")
+    private int legCacheSize;
+
+    @Value("${app.routing.average-speed-kmh:40}")
+    private double averageSpeedKmh;
+
+    private volatile RoadRouter router;
+
+    private LegCache legCache;
+
+    private final LongAdder tables = new LongAdder();
+    private final LongAdder tableMicros = new LongAdder();
+    private final LongAdder routes = new LongAdder();
+    private final LongAdder fallbackPairs = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        if (graphFile == null || graphFile.isBlank()) {
+            log.info("No road graph configured, routing on great-circle distances");
+            return;
+        }
+        Path graph = Paths.get(graphFile);
+        Path index = indexFile == null || indexFile.isBlank()
+            ? graph.resolveSibling(graph.getFileName() + ".ch") : Paths.get(indexFile);
+        try {
+            legCache = new LegCache(legCacheSize);
+            router = new RoadRouter(openHierarchy(graph, index), maxSnapMeters / 1000.0, accessSpeedKmh,
+                averageSpeedKmh);
+        } catch (IOException e) {
+            log.error("Failed to load road network from {}, routing on great-circle distances: {}",
+                graph, e.getMessage());
+        }
+    }
+
+    private ContractionHierarchy openHierarchy(Path graph, Path index) throws IOException {
+        long stamp = Files.getLastModifiedTime(graph).toMillis() ^ Files.size(graph);
+        if (Files.exists(index)) {
+            long started = System.nanoTime();
+            ContractionHierarchy mapped = ContractionHierarchy.map(index);
+            if (mapped.getSourceStamp() == stamp) {
+                log.info("Mapped road network index {} ({} nodes, {} edges) in {} ms", index,
+                    mapped.nodeCount(), mapped.edgeCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                return mapped;
+            }
+            log.info("Road network index {} is older than {}, rebuilding", index, graph);
+        }
+
+        long started = System.nanoTime();
+        RoadGraph roads = RoadGraph.load(graph);
+        long loaded = System.nanoTime();
+        ContractionHierarchy built = ContractionHierarchy.build(roads, stamp);
+        log.info("Contracted road graph {} ({} nodes, {} edges) in {} ms after {} ms loading", graph,
+            roads.nodeCount(), roads.edgeCount(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loaded),
+            TimeUnit.NANOSECONDS.toMillis(loaded - started));
+        built.save(index);
+        return ContractionHierarchy.map(index);
+    }
+
+    public boolean isAvailable() {
+        return router != null;
+    }
+
+    /**
+     * Directed road travel between all pairs of the points, or null when no
+     * road network is loaded
+     */
+    public TravelTable travelTable(double[] latitudes, double[] longitudes) {
+        RoadRouter current = router;
+        if (current == null) {
+            return null;
+        }
+        long started = System.nanoTime();
+        TravelTable table = legCache.table(latitudes, longitudes);
+        if (table == null) {
+            table = current.table(latitudes, longitudes);
+            legCache.store(latitudes, longitudes, table);
+            fallbackPairs.add(table.getFallbackPairs());
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+        tables.increment();
+        tableMicros.add(micros);
+        log.debug("Road travel table for {} points in {} us, {} pairs by great-circle fallback",
+            latitudes.length, micros, table.getFallbackPairs());
+        return table;
+    }
+
+    /**
+     * Fastest road travel from one point to another, or null when no road
+     * network is loaded
+     */
+    public TravelTable route(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        RoadRouter current = router;
+        if (current == null) {
+            return null;
+        }
+        routes.increment();
+        TravelTable leg = legCache.leg(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        if (leg == null) {
+            leg = current.route(fromLatitude, fromLongitude, toLatitude, toLongitude);
+            legCache.store(fromLatitude, fromLongitude, toLatitude, toLongitude, leg);
+            fallbackPairs.add(leg.getFallbackPairs());
+        }
+        return leg;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        RoadRouter current = router;
+        stats.put("available", current != null);
+        if (current != null) {
+            stats.put("nodes", current.getHierarchy().nodeCount());
+            stats.put("edges", current.getHierarchy().edgeCount());
+        }
+        long tableCount = tables.sum();
+        stats.put("tables", tableCount);
+        stats.put("averageTableMicros", tableCount > 0 ? tableMicros.sum() / tableCount : 0);
+        stats.put("routes", routes.sum());
+        stats.put("fallbackPairs", fallbackPairs.sum());
+        stats.putAll(getLegCacheStats());
+        return stats;
+    }
+
+    /**
+     * Hit and miss counts of the shared leg cache, per directed leg; the
+     * cache only exists while a road graph is loaded
+     */
+    public Map<String, Object> getLegCacheStats() {
+        Map<String, Object> stats = new HashMap<>();
+        LegCache cache = legCache;
+        long hits = cache != null ? cache.getHits() : 0;
+        long misses = cache != null ? cache.getMisses() : 0;
+        stats.put("legCacheEnabled", cache != null);
+        stats.put("legCacheHits", hits);
+        stats.put("legCacheMisses", misses);
+        stats.put("legCacheHitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        stats.put("legCacheCapacity", cache != null ? cache.capacity() : 0);
+        return stats;
+    }
+}
@@ -4,11 +4,46 @@ import com.swiftlogistics.middleware.model.Order;
 import com.swiftlogistics.middleware.model.Driver;
 import com.swiftlogistics.middleware.dto.RoutePoint;
 import com.swiftlogistics.middleware.dto.OptimizedRoute;
+import com.swiftlogistics.middleware.dto.LiveInsertion;
+import com.swiftlogistics.middleware.geo.GeoMath;
+import com.swiftlogistics.middleware.geo.GeocodeResult;
+import com.swiftlogistics.middleware.geo.LruCache;
+import com.swiftlogistics.middleware.roadnet.TravelTable;
+import com.swiftlogistics.middleware.routing.AlternativeTour;
+import com.swiftlogistics.middleware.routing.AlternativeTours;
+import com.swiftlogistics.middleware.routing.DistanceMatrix;
+import com.swiftlogistics.middleware.routing.FleetRoutingSolver;
+import com.swiftlogistics.middleware.routing.FleetSolution;
+import com.swiftlogistics.middleware.routing.GeoPoints;
+import com.swiftlogistics.middleware.routing.HungarianAssignment;
+import com.swiftlogistics.middleware.routing.ImprovementResult;
+import com.swiftlogistics.middleware.routing.LnsProgress;
+import com.swiftlogistics.middleware.routing.LnsSolver;
+import com.swiftlogistics.middleware.routing.LocalSearchImprover;
+import com.swiftlogistics.middleware.routing.MultiStartOptimizer;
+import com.swiftlogistics.middleware.routing.MultiStartResult;
+import com.swiftlogistics.middleware.routing.RouteSchedule;
+import com.swiftlogistics.middleware.routing.TimeWindows;
+import com.swiftlogistics.middleware.routing.TourConstruction;
+import com.swiftlogistics.middleware.routing.TourImprover;
+import com.swiftlogistics.middleware.routing.TrafficModel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
@@ -18,14 +53,168 @@ import java.util.stream.Collectors;
 @Service
 public class RouteOptimizationService {
 
+    private static final Logger log = LoggerFactory.getLogger(RouteOptimizationService.class);
+
+    // Mean speed factors below which a route counts as congested
+    private static final double HIGH_CONGESTION_FACTOR = 0.6;
+    private static final double MEDIUM_CONGESTION_FACTOR = 0.85;
+
+    private static final int ALTERNATIVES_CACHE_SIZE = 1024;
+
+    // Driver-route pairs over capacity; far above any feasible matching yet finite
+    private static final double UNMATCHABLE_COST = 1e9;
+
     @Value("${app.maps.api.key:demo}")
     private String mapsApiKey;
 
     @Value("${app.maps.provider:openstreetmap}")
     private String mapsProvider;
 
+    @Value("${app.routing.improvement.enabled:true}")
+    private boolean improvementEnabled;
+
+    @Value("${app.routing.improvement.time-budget-ms:20}")
+    private long improvementBudgetMillis;
+
+    @Value("${app.routing.improvement.neighbours:8}")
+    private int improvementNeighbours;
+
+    @Value("${app.routing.multi-start.enabled:true}")
+    private boolean multiStartEnabled;
+
+    @Value("${app.routing.multi-start.starts:32}")
+    private int multiStartStarts;
+
+    @Value("${app.routing.multi-start.time-budget-ms:200}")
+    private long multiStartBudgetMillis;
+
+    @Value("${app.routing.multi-start.candidates:3}")
+    private int multiStartCandidates;
+
+    @Value("${app.routing.multi-start.min-stops:10}")
+    private int multiStartMinStops;
+
+    @Value("${app.routing.fleet.time-budget-ms:3000}")
+    private long fleetBudgetMillis;
+
+    @Value("${app.routing.fleet.neighbours:12}")
+    private int fleetNeighbours;
+
+    @Value("${app.routing.driver-matching.enabled:true}")
+    private boolean driverMatchingEnabled;
+
+    @Value("${app.routing.driver-matching.lateness-weight:10}")
+    private double matchingLatenessWeight;
+
+    @Value("${app.routing.alternatives.count:3}")
+    private int alternativeCount;
+
+    @Value("${app.routing.alternatives.candidates:8}")
+    private int alternativeCandidates;
+
+    @Value("${app.routing.alternatives.penalty-step:0.25}")
+    private double alternativePenaltyStep;
+
+    @Value("${app.routing.alternatives.max-shared:0.7}")
+    private double alternativeMaxShared;
+
+    @Value("${app.routing.alternatives.max-stretch:1.4}")
+    private double alternativeMaxStretch;
+
+    @Value("${app.routing.alternatives.time-budget-ms:150}")
+    private long alternativeBudgetMillis;
+
+    @Value("${app.routing.alternatives.cache-ttl-seconds:60}")
+    private long alternativeCacheTtlSeconds;
+
+    @Value("${app.routing.route-cache.size:512}")
+    private int routeCacheSize;
+
+    @Value("${app.routing.route-cache.ttl-seconds:300}")
+    private long routeCacheTtlSeconds;
+
+    @Value("${app.routing.average-speed-kmh:40}")
+    private double averageSpeedKmh;
+
+    @Value("${app.routing.default-window-start:09:00}")
+    private LocalTime defaultWindowStart;
+
+    @Value("${app.routing.default-window-end:17:00}")
+    private LocalTime defaultWindowEnd;
+
+    @Value("${app.routing.default-service-minutes:5}")
+    private int defaultServiceMinutes;
+
+    @Value("${app.routing.shift-start:08:00}")
+    private LocalTime shiftStart;
+
+    @Value("${app.routing.shift-end:18:00}")
+    private LocalTime shiftEnd;
+
+    @Value("${app.warehouse.latitude:6.9271}")
+    private double warehouseLatitude;
+
+    @Value("${app.warehouse.longitude:79.8612}")
+    private double warehouseLongitude;
+
+    @Autowired
+    private GeocodingService geocodingService;
+
+    @Autowired
+    private RoadNetworkService roadNetworkService;
+
+    @Autowired
+    private TrafficService trafficService;
+
+    // Replaceable by declaring another TourImprover bean
+    @Autowired(required = false)
+    private TourImprover tourImprover;
+
+    @Autowired
+    @Qualifier("routeOptimizationPool")
+    private ForkJoinPool routeOptimizationPool;
+
+    private FleetRoutingSolver fleetSolver;
+
+    private MultiStartOptimizer multiStartOptimizer;
+
+    private LnsSolver lnsSolver;
+
+    private AlternativeTours alternativeTours;
+
+    private double[] alternativePenalties;
+
+    // Alternatives per route and pending stops, reused until they expire
+    private final LruCache<String, CachedAlternatives> alternativesCache =
+        new LruCache<>(ALTERNATIVES_CACHE_SIZE, 16);
+
+    // Optimized routes by stop set and traffic bucket, reused until they expire
+    private LruCache<Long, CachedRoute> routeCache;
+
+    private final LongAdder routeCacheHits = new LongAdder();
+    private final LongAdder routeCacheMisses = new LongAdder();
+
     private final RestTemplate restTemplate = new RestTemplate();
 
+    @PostConstruct
+    public void init() {
+        if (tourImprover == null) {
+            tourImprover = new LocalSearchImprover(improvementNeighbours);
+        }
+        fleetSolver = new FleetRoutingSolver(fleetNeighbours, improvementEnabled ? tourImprover : null);
+        multiStartOptimizer = new MultiStartOptimizer(improvementEnabled ? tourImprover : null,
+            routeOptimizationPool, multiStartCandidates);
+        lnsSolver = new LnsSolver(improvementEnabled ? tourImprover : null);
+        routeCache = new LruCache<>(Math.max(routeCacheSize, 1), 16);
+        alternativeTours = new AlternativeTours(improvementEnabled ? tourImprover : null, routeOptimizationPool,
+            multiStartCandidates, alternativeMaxShared, alternativeMaxStretch);
+        // Candidate i avoids the main route's edges with penalty (i + 1) * step
+        alternativePenalties = new double[Math.max(alternativeCandidates, 0)];
+        for (int i = 0; i < alternativePenalties.length; i++) {
+            alternativePenalties[i] = (i + 1) * alternativePenaltyStep;
+        }
+    }
+
     /**
      * Calculate optimized route for a driver with multiple delivery points
      */
@@ -33,13 +222,7 @@ public class RouteOptimizationService {
         try {
             // Get delivery addresses from orders
             List<RoutePoint> deliveryPoints = orders.stream()
-                .map(order -> new RoutePoint(
-                    order.getDeliveryAddress(),
-                    generateLatitudeFromAddress(order.getDeliveryAddress()),
-                    generateLongitudeFromAddress(order.getDeliveryAddress()),
-                    order.getId().toString(),
-                    order.getOrderNumber()
-                ))
+                .map(this::deliveryPoint)
                 .collect(Collectors.toList());
 
             // Add driver's current location as starting point
@@ -48,18 +231,328 @@ public class RouteOptimizationService {
                 getCurrentDriverLatitude(driver),
                 getCurrentDriverLongitude(driver),
                 "start",
-                "DRIVER_START"
+                "DRIVER_START",
+                "START"
             );
 
             // Calculate optimal route
-            return optimizeRoutePoints(startPoint, deliveryPoints);
+            return optimizeRoutePoints(startPoint, deliveryPoints, buildTimeWindows(orders));
 
         } catch (Exception e) {
-            System.err.println("Error calculating route: " + e.getMessage());
+            log.error("Error calculating route: {}", e.getMessage());
             return createFallbackRoute(driver, orders);
         }
     }
 
+    /**
+     * Plan routes for the whole fleet at once, leaving from the warehouse.
+     * Each driver carries at most its capacity in orders and every stop is
+     * reached inside its delivery window; when capacity runs short, orders
+     * earlier in the list are served first, and orders no driver can reach
+     * in time are left unassigned. Planned routes are then matched to the
+     * drivers best placed to start them, by each driver's last known
+     * position: NaN where unknown, or null arrays to keep the solver's
+     * order. The result is aligned with drivers and holds null for drivers
+     * given no orders.
+     */
+    public List<OptimizedRoute> calculateFleetRoutes(List<Driver> drivers, int[] capacities, List<Order> orders,
+                                                     double[] driverLatitudes, double[] driverLongitudes) {
+        FleetInput input = fleetInput(orders);
+        FleetSolution solution = fleetSolver.solve(warehouseLatitude, warehouseLongitude,
+            input.latitudes, input.longitudes, capacities, input.windows,
+            TimeUnit.MILLISECONDS.toNanos(fleetBudgetMillis));
+        log.info("Planned fleet routes for {} of {} orders on {} drivers: {} km after construction, {} km final, "
+            + "{} ms{}", solution.getAssignedCount(), orders.size(), drivers.size(),
+            String.format("%.1f", solution.getConstructedDistance()), String.format("%.1f", solution.getFinalDistance()),
+            TimeUnit.NANOSECONDS.toMillis(solution.getElapsedNanos()),
+            solution.isBudgetExhausted() ? " (time budget exhausted)" : "");
+        int[] vehicleOf = driverMatchingEnabled && driverLatitudes != null
+            ? matchDrivers(input, solution, capacities, driverLatitudes, driverLongitudes) : null;
+        return fleetRoutes(drivers, orders, input, solution, vehicleOf);
+    }
+
+    /**
+     * Fleet routes as in {@link #calculateFleetRoutes}, then improved by
+     * large neighbourhood search for the rest of the budget, for offline
+     * planning. The progress is updated as the search runs; cancelling it
+     * returns the best plan found so far.
+     */
+    public List<OptimizedRoute> planFleetRoutes(List<Driver> drivers, int[] capacities, List<Order> orders,
+                                                long budgetNanos, LnsProgress progress) {
+        long started = System.nanoTime();
+        FleetInput input = fleetInput(orders);
+        FleetSolution initial = fleetSolver.solve(warehouseLatitude, warehouseLongitude,
+            input.latitudes, input.longitudes, capacities, input.windows,
+            Math.min(TimeUnit.MILLISECONDS.toNanos(fleetBudgetMillis), budgetNanos / 10));
+        FleetSolution solution = lnsSolver.improve(initial, warehouseLatitude, warehouseLongitude,
+            input.latitudes, input.longitudes, capacities, input.windows,
+            Math.max(budgetNanos - (System.nanoTime() - started), 0), ThreadLocalRandom.current().nextLong(),
+            progress);
+        log.info("Planned fleet routes for {} of {} orders on {} drivers by LNS: {} km from the quick plan's {} km, "
+            + "{} iterations in {} s{}", solution.getAssignedCount(), orders.size(), drivers.size(),
+            String.format("%.1f", solution.getFinalDistance()), String.format("%.1f", initial.getFinalDistance()),
+            progress.getIterations(), TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started),
+            progress.isCancelled() ? " (cancelled)" : "");
+        return fleetRoutes(drivers, orders, input, solution, null);
+    }
+
+    /**
+     * Order coordinates and windows by node: node 0 is the warehouse and
+     * node k + 1 delivers order k
+     */
+    private FleetInput fleetInput(List<Order> orders) {
+        double[] latitudes = new double[orders.size()];
+        double[] longitudes = new double[orders.size()];
+        for (int i = 0; i < orders.size(); i++) {
+            GeocodeResult location = geocodingService.geocode(orders.get(i).getDeliveryAddress());
+            latitudes[i] = location.getLatitude();
+            longitudes[i] = location.getLongitude();
+        }
+
+        double[] nodeLatitudes = new double[orders.size() + 1];
+        double[] nodeLongitudes = new double[orders.size() + 1];
+        nodeLatitudes[0] = warehouseLatitude;
+        nodeLongitudes[0] = warehouseLongitude;
+        System.arraycopy(latitudes, 0, nodeLatitudes, 1, orders.size());
+        System.arraycopy(longitudes, 0, nodeLongitudes, 1, orders.size());
+        TimeWindows windows = withTraffic(buildTimeWindows(orders), nodeLatitudes, nodeLongitudes);
+        return new FleetInput(latitudes, longitudes, windows);
+    }
+
+    /**
+     * Solution vehicle whose route each driver takes, -1 for none. Every
+     * route leaves the warehouse, so a driver's cost for a route is the
+     * drive from their last fix to the warehouse plus weighted lateness
+     * when arriving there late pushes the route past its slack; drivers
+     * without a fix are taken to be at the warehouse. Routes larger than a
+     * driver's capacity are ruled out, so the solver's own assignment is
+     * always available to the matching.
+     */
+    private int[] matchDrivers(FleetInput input, FleetSolution solution, int[] capacities,
+                               double[] driverLatitudes, double[] driverLongitudes) {
+        long started = System.nanoTime();
+        int drivers = capacities.length;
+        int[] vehicles = new int[drivers];
+        int routeCount = 0;
+        for (int v = 0; v < drivers; v++) {
+            if (solution.getRoute(v).length > 0) {
+                vehicles[routeCount++] = v;
+            }
+        }
+
+        double[] reachMinutes = new double[drivers];
+        GeoMath.distances(warehouseLatitude, warehouseLongitude, driverLatitudes, driverLongitudes, reachMinutes);
+        TimeWindows windows = input.windows;
+        double departure = windows.earliest(0);
+        double now = planningDate().equals(LocalDate.now()) ? minutesOfDay(LocalTime.now()) : departure;
+        double[] delay = new double[drivers];
+        for (int d = 0; d < drivers; d++) {
+            reachMinutes[d] = Double.isNaN(reachMinutes[d]) ? 0 : windows.travelMinutes(reachMinutes[d]);
+            delay[d] = Math.max(0, now + reachMinutes[d] - departure);
+        }
+
+        double[] nodeLatitudes = new double[input.latitudes.length + 1];
+        double[] nodeLongitudes = new double[input.longitudes.length + 1];
+        nodeLatitudes[0] = warehouseLatitude;
+        nodeLongitudes[0] = warehouseLongitude;
+        System.arraycopy(input.latitudes, 0, nodeLatitudes, 1, input.latitudes.length);
+        System.arraycopy(input.longitudes, 0, nodeLongitudes, 1, input.longitudes.length);
+        RouteSchedule schedule = new RouteSchedule(windows, new GeoPoints(nodeLatitudes, nodeLongitudes));
+
+        double[] costs = new double[routeCount * drivers];
+        for (int r = 0; r < routeCount; r++) {
+            int[] route = solution.getRoute(vehicles[r]);
+            int[] stops = new int[route.length];
+            for (int i = 0; i < route.length; i++) {
+                stops[i] = route[i] + 1;
+            }
+            schedule.compute(0, departure, stops, stops.length);
+            double baseLateness = schedule.getLateness();
+            double slack = schedule.isFeasible() ? schedule.getLatestDeparture() - departure : 0;
+            for (int d = 0; d < drivers; d++) {
+                int cell = r * drivers + d;
+                if (route.length > capacities[d]) {
+                    costs[cell] = UNMATCHABLE_COST;
+                    continue;
+                }
+                double lateness = baseLateness;
+                if (delay[d] > slack) {
+                    schedule.compute(0, departure + delay[d], stops, stops.length);
+                    lateness = schedule.getLateness();
+                }
+                costs[cell] = reachMinutes[d] + matchingLatenessWeight * lateness;
+            }
+        }
+
+        int[] driverOf = HungarianAssignment.solve(costs, routeCount, drivers);
+        int[] vehicleOf = new int[drivers];
+        Arrays.fill(vehicleOf, -1);
+        int moved = 0;
+        double cost = 0;
+        for (int r = 0; r < routeCount; r++) {
+            vehicleOf[driverOf[r]] = vehicles[r];
+            moved += driverOf[r] != vehicles[r] ? 1 : 0;
+            cost += costs[r * drivers + driverOf[r]];
+        }
+        log.info("Matched {} routes to {} drivers by position: {} reassigned, {} weighted minutes, {} ms",
+            routeCount, drivers, moved, Math.round(cost), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return vehicleOf;
+    }
+
+    /**
+     * Routes of a fleet solution aligned with drivers, null for drivers given
+     * no orders. Driver d takes the route of vehicle vehicleOf[d], or of
+     * vehicle d when vehicleOf is null. Routes of at least the multi-start
+     * minimum of stops are resequenced by parallel restarts, and a stop set
+     * sequenced recently is taken from the route cache.
+     */
+    private List<OptimizedRoute> fleetRoutes(List<Driver> drivers, List<Order> orders, FleetInput input,
+                                             FleetSolution solution, int[] vehicleOf) {
+        double[] latitudes = input.latitudes;
+        double[] longitudes = input.longitudes;
+        List<OptimizedRoute> routes = new ArrayList<>(drivers.size());
+        for (int v = 0; v < drivers.size(); v++) {
+            int vehicle = vehicleOf != null ? vehicleOf[v] : v;
+            int[] stops = vehicle >= 0 ? solution.getRoute(vehicle) : new int[0];
+            if (stops.length == 0) {
+                routes.add(null);
+                continue;
+            }
+            List<RoutePoint> points = new ArrayList<>(stops.length + 1);
+            int[] nodes = new int[stops.length + 1];
+            points.add(new RoutePoint("Warehouse", warehouseLatitude, warehouseLongitude, "start", "WAREHOUSE",
+                "WAREHOUSE"));
+            for (int i = 0; i < stops.length; i++) {
+                points.add(deliveryPoint(orders.get(stops[i]), latitudes[stops[i]], longitudes[stops[i]]));
+                nodes[i + 1] = stops[i] + 1;
+            }
+
+            // The same stops in the same traffic bucket reuse the cached sequence
+            long key = routeCacheKey(points.get(0), points.subList(1, points.size()));
+            long now = System.nanoTime();
+            CachedRoute cached = routeCache.get(key);
+            OptimizedRoute route;
+            if (cached != null && now - cached.expiresAt < 0) {
+                routeCacheHits.increment();
+                route = copyRoute(cached.route);
+            } else {
+                routeCacheMisses.increment();
+                route = sequenceRoute(points, input.windows.subset(nodes));
+                routeCache.put(key, new CachedRoute(copyRoute(route),
+                    now + TimeUnit.SECONDS.toNanos(routeCacheTtlSeconds)));
+            }
+            route.setRouteId(route.getRouteId() + "_" + (v + 1));
+            route.setDriverId(drivers.get(v).getDriverId());
+            route.setVehicleId(drivers.get(v).getVehicleNumber());
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    /**
+     * Order one driver's stops, point 0 first: the fleet solver's order, or
+     * the multi-start tour for routes of at least the multi-start minimum
+     */
+    private OptimizedRoute sequenceRoute(List<RoutePoint> points, TimeWindows pointWindows) {
+        TravelTable roads = roadTable(points);
+        DistanceMatrix matrix = buildDistanceMatrix(points, roads);
+        TimeWindows windows = withRoadTimes(pointWindows, roads);
+        int[] tour = new int[points.size()];
+        Arrays.setAll(tour, i -> i);
+        double constructedDistance = matrix.pathDistance(tour);
+        if (multiStartEnabled && points.size() - 1 >= multiStartMinStops) {
+            tour = resequence(tour, matrix, windows);
+        }
+
+        List<RoutePoint> orderedPoints = new ArrayList<>(tour.length);
+        for (int index : tour) {
+            orderedPoints.add(points.get(index));
+        }
+        OptimizedRoute route = new OptimizedRoute(
+            generateRouteId(),
+            orderedPoints,
+            matrix.pathDistance(tour),
+            scheduleArrivals(orderedPoints, tour, matrix, windows),
+            new Date(),
+            "OPTIMIZED"
+        );
+        route.setConstructedDistanceKm(constructedDistance);
+        return route;
+    }
+
+    /**
+     * Cheapest place for a new order among live routes. Each route starts
+     * from its driver's last reported position, or its start point before
+     * the first fix, and every pending stop must stay inside its window.
+     * One pass over each route's pending stops prices all its positions, so
+     * no route is re-solved. Returns null when no live route can take the
+     * order in time.
+     */
+    public LiveInsertion findBestInsertion(Order order, Collection<GPSTrackingService.RouteProgress> liveRoutes) {
+        long started = System.nanoTime();
+        RoutePoint candidate = deliveryPoint(order);
+        double now = planningDepartureMinutes();
+
+        LiveInsertion best = null;
+        int evaluated = 0;
+        for (GPSTrackingService.RouteProgress progress : liveRoutes) {
+            LiveInsertion option = bestInsertion(progress, candidate, now);
+            evaluated++;
+            if (option != null && (best == null || option.getAddedDistanceKm() < best.getAddedDistanceKm())) {
+                best = option;
+            }
+        }
+        long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - started);
+        if (best != null) {
+            best.setRoutesEvaluated(evaluated);
+            best.setElapsedMicros(elapsedMicros);
+        }
+        log.debug("Live insertion of order {} over {} routes in {} us: {}", order.getOrderNumber(), evaluated,
+            elapsedMicros, best != null ? "driver " + best.getDriverId() : "no feasible route");
+        return best;
+    }
+
+    /**
+     * Copy of a live route with the order inserted where the insertion says
+     */
+    public OptimizedRoute insertIntoRoute(OptimizedRoute route, LiveInsertion insertion, Order order) {
+        List<RoutePoint> points = new ArrayList<>(route.getRoutePoints());
+        RoutePoint point = deliveryPoint(order);
+        points.add(insertion.getRoutePointIndex(), point);
+
+        // Same traffic-aware schedule that accepted the insertion
+        OptimizedRoute updated = new OptimizedRoute(
+            route.getRouteId(),
+            points,
+            route.getTotalDistanceKm() + insertion.getAddedDistanceKm(),
+            route.getEstimatedTimeMinutes() + (int) Math.ceil(insertion.getAddedMinutes()),
+            route.getCreatedAt(),
+            route.getRouteType()
+        );
+        updated.setLastUpdated(new Date());
+        updated.setStatus(route.getStatus());
+        updated.setDriverId(route.getDriverId());
+        updated.setVehicleId(route.getVehicleId());
+        updated.setConstructedDistanceKm(route.getConstructedDistanceKm());
+        return updated;
+    }
+
+    /**
+     * Hit and miss counts of the route result cache and the road leg cache
+     */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long hits = routeCacheHits.sum();
+        long misses = routeCacheMisses.sum();
+        stats.put("routeCacheHits", hits);
+        stats.put("routeCacheMisses", misses);
+        stats.put("routeCacheHitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+        stats.put("routeCacheSize", routeCache.size());
+        stats.put("alternativesCacheSize", alternativesCache.size());
+        stats.putAll(roadNetworkService.getLegCacheStats());
+        return stats;
+    }
+
     /**
      * Get real-time traffic information for route adjustment
      */
@@ -70,12 +563,13 @@ public class RouteOptimizationService {
             // In production, integrate with Google Maps Traffic API, HERE Traffic API, etc.
             // For now, simulate real traffic data
             trafficInfo.put("averageSpeed", calculateAverageSpeed(route));
+            trafficInfo.put("speedFactor", currentSpeedFactor(route));
             trafficInfo.put("congestionLevel", assessCongestionLevel(route));
             trafficInfo.put("alternativeRoutes", findAlternativeRoutes(route));
             trafficInfo.put("estimatedDelay", calculateEstimatedDelay(route));
             
         } catch (Exception e) {
-            System.err.println("Error fetching traffic info: " + e.getMessage());
+            log.error("Error fetching traffic info: {}", e.getMessage());
             trafficInfo.put("status", "unavailable");
         }
         
@@ -93,68 +587,388 @@ public class RouteOptimizationService {
             // Recalculate if there are significant delays
             Double estimatedDelay = (Double) trafficInfo.get("estimatedDelay");
             if (estimatedDelay != null && estimatedDelay > 15.0) { // 15+ minute delay
-                return recalculateRoute(originalRoute);
+                return recalculateRoute(originalRoute, findAlternativeRoutes(originalRoute));
             }
             
             return originalRoute;
             
         } catch (Exception e) {
-            System.err.println("Error updating route: " + e.getMessage());
+            log.error("Error updating route: {}", e.getMessage());
             return originalRoute;
         }
     }
 
     // Private helper methods
 
-    private OptimizedRoute optimizeRoutePoints(RoutePoint start, List<RoutePoint> deliveryPoints) {
+    private OptimizedRoute optimizeRoutePoints(RoutePoint start, List<RoutePoint> deliveryPoints,
+                                               TimeWindows windows) {
         // Implement Traveling Salesman Problem (TSP) solution
-        // Using nearest neighbor algorithm for simplicity
-        
-        List<RoutePoint> optimizedOrder = new ArrayList<>();
-        optimizedOrder.add(start);
-        
-        List<RoutePoint> remaining = new ArrayList<>(deliveryPoints);
-        RoutePoint current = start;
-        
-        while (!remaining.isEmpty()) {
-            RoutePoint nearest = findNearestPoint(current, remaining);
-            optimizedOrder.add(nearest);
-            remaining.remove(nearest);
-            current = nearest;
+        // Nearest neighbour construction followed by local search, both
+        // reading one distance matrix built up front. When nearest neighbour
+        // misses delivery windows, insertion by window end is tried as well.
+
+        List<RoutePoint> points = new ArrayList<>(deliveryPoints.size() + 1);
+        points.add(start);
+        points.addAll(deliveryPoints);
+        TravelTable roads = roadTable(points);
+        DistanceMatrix matrix = buildDistanceMatrix(points, roads);
+        TimeWindows travel = withTraffic(withRoadTimes(windows, roads), latitudes(points), longitudes(points));
+
+        int[] tour = TourConstruction.nearestNeighbour(matrix, 0);
+        double lateness = schedule(tour, matrix, travel).getLateness();
+        if (lateness > 0) {
+            int[] byDeadline = TourConstruction.deadlineInsertion(matrix, travel, 0);
+            if (schedule(byDeadline, matrix, travel).getLateness() < lateness) {
+                tour = byDeadline;
+            }
         }
-        
-        return new OptimizedRoute(
+        double constructedDistance = matrix.pathDistance(tour);
+        if (multiStartEnabled && deliveryPoints.size() >= multiStartMinStops) {
+            tour = multiStart(tour, matrix, travel);
+        } else if (improvementEnabled) {
+            improveTour(tour, matrix, travel);
+        }
+
+        List<RoutePoint> optimizedOrder = new ArrayList<>(tour.length);
+        for (int index : tour) {
+            optimizedOrder.add(points.get(index));
+        }
+        double totalDistance = matrix.pathDistance(tour);
+
+        OptimizedRoute route = new OptimizedRoute(
             generateRouteId(),
             optimizedOrder,
-            calculateTotalDistance(optimizedOrder),
-            calculateEstimatedTime(optimizedOrder),
+            totalDistance,
+            scheduleArrivals(optimizedOrder, tour, matrix, travel),
             new Date(),
             "OPTIMIZED"
         );
+        route.setConstructedDistanceKm(constructedDistance);
+        return route;
     }
 
-    private RoutePoint findNearestPoint(RoutePoint current, List<RoutePoint> candidates) {
-        return candidates.stream()
-            .min(Comparator.comparingDouble(point -> 
-                calculateDistance(current.getLatitude(), current.getLongitude(),
-                               point.getLatitude(), point.getLongitude())))
-            .orElse(candidates.get(0));
+    /**
+     * Road travel between the points, or null when no road network is loaded
+     */
+    private TravelTable roadTable(List<RoutePoint> points) {
+        if (!roadNetworkService.isAvailable()) {
+            return null;
+        }
+        return roadNetworkService.travelTable(latitudes(points), longitudes(points));
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        // Haversine formula for distance calculation
-        final int R = 6371; // Earth's radius in kilometers
-        
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lonDistance = Math.toRadians(lon2 - lon1);
-        
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
-        
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        
-        return R * c;
+    private static double[] latitudes(List<RoutePoint> points) {
+        double[] latitudes = new double[points.size()];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudes[i] = points.get(i).getLatitude();
+        }
+        return latitudes;
+    }
+
+    private static double[] longitudes(List<RoutePoint> points) {
+        double[] longitudes = new double[points.size()];
+        for (int i = 0; i < longitudes.length; i++) {
+            longitudes[i] = points.get(i).getLongitude();
+        }
+        return longitudes;
+    }
+
+    /**
+     * Windows timed by the traffic expected on the planning day in each point's zone
+     */
+    private TimeWindows withTraffic(TimeWindows windows, double[] latitudes, double[] longitudes) {
+        return trafficService.apply(windows, latitudes, longitudes, planningDate());
+    }
+
+    /**
+     * Road kilometres when known, averaged over both directions as the tour
+     * improvers assume symmetric distances; great-circle kilometres otherwise
+     */
+    private DistanceMatrix buildDistanceMatrix(List<RoutePoint> points, TravelTable roads) {
+        int n = points.size();
+        if (roads == null) {
+            return DistanceMatrix.haversine(latitudes(points), longitudes(points));
+        }
+        double[] distances = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double km = (roads.km(i, j) + roads.km(j, i)) / 2;
+                distances[i * n + j] = km;
+                distances[j * n + i] = km;
+            }
+        }
+        return DistanceMatrix.of(n, distances);
+    }
+
+    /**
+     * Windows timed by directed road travel when known
+     */
+    private static TimeWindows withRoadTimes(TimeWindows windows, TravelTable roads) {
+        if (roads == null) {
+            return windows;
+        }
+        int n = roads.sourceCount();
+        double[] minutes = new double[n * n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                minutes[i * n + j] = roads.minutes(i, j);
+            }
+        }
+        return windows.withTravelTimes(minutes);
+    }
+
+    /**
+     * Run the improvement stage on a constructed tour; the first point stays first
+     */
+    private void improveTour(int[] tour, DistanceMatrix matrix, TimeWindows windows) {
+        if (tour.length < 4) {
+            return; // Nothing to reorder beyond the last two stops
+        }
+        ImprovementResult result = tourImprover.improve(tour, matrix, windows,
+            TimeUnit.MILLISECONDS.toNanos(improvementBudgetMillis));
+        log.debug("Route improved from {} km to {} km ({} 2-opt, {} or-opt, {} relocate moves) in {} us{}",
+            String.format("%.2f", result.getInitialDistance()), String.format("%.2f", result.getFinalDistance()),
+            result.getTwoOptMoves(), result.getOrOptMoves(), result.getRelocateMoves(),
+            TimeUnit.NANOSECONDS.toMicros(result.getElapsedNanos()),
+            result.isBudgetExhausted() ? ", time budget exhausted" : "");
+    }
+
+    /**
+     * Windows indexed like the points: point 0 leaves at the departure time,
+     * the others take their own window and service time or the defaults
+     */
+    private TimeWindows pointWindows(List<RoutePoint> points, double departure) {
+        int size = points.size();
+        double[] earliest = new double[size];
+        double[] latest = new double[size];
+        double[] service = new double[size];
+        earliest[0] = departure;
+        latest[0] = Double.POSITIVE_INFINITY;
+        for (int k = 1; k < size; k++) {
+            RoutePoint point = points.get(k);
+            earliest[k] = minutesOfDay(point.getDeliveryWindowStart() != null
+                ? point.getDeliveryWindowStart() : defaultWindowStart);
+            latest[k] = minutesOfDay(point.getDeliveryWindowEnd() != null
+                ? point.getDeliveryWindowEnd() : defaultWindowEnd);
+            service[k] = point.getServiceMinutes() != null ? point.getServiceMinutes() : defaultServiceMinutes;
+        }
+        return new TimeWindows(earliest, latest, service, averageSpeedKmh);
+    }
+
+    /**
+     * The route's first point followed by its pending deliveries in order
+     */
+    private static List<RoutePoint> pendingPoints(OptimizedRoute route) {
+        List<RoutePoint> routePoints = route.getRoutePoints();
+        List<RoutePoint> pending = new ArrayList<>(routePoints.size());
+        pending.add(routePoints.get(0));
+        for (int i = 1; i < routePoints.size(); i++) {
+            RoutePoint point = routePoints.get(i);
+            if ("DELIVERY".equals(point.getPointType()) && "PENDING".equals(point.getStatus())) {
+                pending.add(point);
+            }
+        }
+        return pending;
+    }
+
+    private LiveInsertion bestInsertion(GPSTrackingService.RouteProgress progress, RoutePoint candidate, double now) {
+        List<RoutePoint> routePoints = progress.getRoute().getRoutePoints();
+        if (routePoints == null || routePoints.isEmpty()) {
+            return null;
+        }
+        int[] indices = new int[routePoints.size()];
+        int pending = 0;
+        for (int i = 0; i < routePoints.size(); i++) {
+            RoutePoint point = routePoints.get(i);
+            if ("DELIVERY".equals(point.getPointType()) && "PENDING".equals(point.getStatus())) {
+                indices[pending++] = i;
+            }
+        }
+
+        // Point 0 is the driver, points 1..pending the pending stops in order, then the new order
+        int size = pending + 2;
+        int node = size - 1;
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        double[] earliest = new double[size];
+        double[] latest = new double[size];
+        double[] service = new double[size];
+        latitudes[0] = progress.hasPosition() ? progress.getCurrentLatitude() : routePoints.get(0).getLatitude();
+        longitudes[0] = progress.hasPosition() ? progress.getCurrentLongitude() : routePoints.get(0).getLongitude();
+        earliest[0] = now;
+        latest[0] = Double.POSITIVE_INFINITY;
+        for (int k = 1; k < size; k++) {
+            RoutePoint point = k == node ? candidate : routePoints.get(indices[k - 1]);
+            latitudes[k] = point.getLatitude();
+            longitudes[k] = point.getLongitude();
+            earliest[k] = minutesOfDay(point.getDeliveryWindowStart() != null
+                ? point.getDeliveryWindowStart() : defaultWindowStart);
+            latest[k] = minutesOfDay(point.getDeliveryWindowEnd() != null
+                ? point.getDeliveryWindowEnd() : defaultWindowEnd);
+            service[k] = point.getServiceMinutes() != null ? point.getServiceMinutes() : defaultServiceMinutes;
+        }
+        GeoPoints points = new GeoPoints(latitudes, longitudes);
+        TimeWindows windows = withTraffic(new TimeWindows(earliest, latest, service, averageSpeedKmh),
+            latitudes, longitudes);
+
+        // Stop k sits at schedule position k, so insertion after position k is between points k and k + 1
+        int[] stops = new int[pending + 1];
+        for (int k = 0; k < pending; k++) {
+            stops[k] = k + 1;
+        }
+        RouteSchedule schedule = new RouteSchedule(windows, points);
+        schedule.compute(0, now, stops, pending);
+        double completion = schedule.getCompletion();
+        int bestAfter = -1;
+        double bestDelta = Double.MAX_VALUE;
+        for (int after = 0; after <= pending; after++) {
+            double delta = points.distance(after, node);
+            if (after < pending) {
+                delta += points.distance(node, after + 1) - points.distance(after, after + 1);
+            }
+            if (delta < bestDelta && schedule.canInsert(node, after)) {
+                bestDelta = delta;
+                bestAfter = after;
+            }
+        }
+        if (bestAfter < 0) {
+            return null;
+        }
+
+        System.arraycopy(stops, bestAfter, stops, bestAfter + 1, pending - bestAfter);
+        stops[bestAfter] = node;
+        schedule.compute(0, now, stops, pending + 1);
+        int arrival = (int) Math.round(schedule.getArrival(bestAfter + 1) - now);
+        int routePointIndex = bestAfter > 0 ? indices[bestAfter - 1] + 1
+            : pending > 0 ? indices[0] : routePoints.size();
+        String previousStop = bestAfter > 0 ? routePoints.get(indices[bestAfter - 1]).getOrderReference() : null;
+        LiveInsertion insertion = new LiveInsertion(progress.getDriverId(), progress.getRoute().getRouteId(),
+            candidate.getOrderReference(), routePointIndex, previousStop, Math.max(bestDelta, 0), arrival);
+        insertion.setAddedMinutes(Math.max(schedule.getCompletion() - completion, 0));
+        return insertion;
+    }
+
+    private RoutePoint deliveryPoint(Order order) {
+        GeocodeResult location = geocodingService.geocode(order.getDeliveryAddress());
+        return deliveryPoint(order, location.getLatitude(), location.getLongitude());
+    }
+
+    private RoutePoint deliveryPoint(Order order, double latitude, double longitude) {
+        RoutePoint point = new RoutePoint(order.getDeliveryAddress(), latitude, longitude,
+            order.getId().toString(), order.getOrderNumber());
+        point.setDeliveryWindowStart(windowStart(order));
+        point.setDeliveryWindowEnd(windowEnd(order));
+        point.setServiceMinutes(serviceMinutes(order));
+        return point;
+    }
+
+    private LocalTime windowStart(Order order) {
+        return order.getDeliveryWindowStart() != null ? order.getDeliveryWindowStart() : defaultWindowStart;
+    }
+
+    private LocalTime windowEnd(Order order) {
+        return order.getDeliveryWindowEnd() != null ? order.getDeliveryWindowEnd() : defaultWindowEnd;
+    }
+
+    private int serviceMinutes(Order order) {
+        return order.getServiceMinutes() != null ? order.getServiceMinutes() : defaultServiceMinutes;
+    }
+
+    /**
+     * Windows indexed like the route points: point 0 is the start, leaving
+     * at the planning departure time, and point k + 1 delivers order k
+     */
+    private TimeWindows buildTimeWindows(List<Order> orders) {
+        int size = orders.size() + 1;
+        double[] earliest = new double[size];
+        double[] latest = new double[size];
+        double[] service = new double[size];
+        earliest[0] = planningDepartureMinutes();
+        latest[0] = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < orders.size(); k++) {
+            Order order = orders.get(k);
+            earliest[k + 1] = minutesOfDay(windowStart(order));
+            latest[k + 1] = minutesOfDay(windowEnd(order));
+            service[k + 1] = serviceMinutes(order);
+        }
+        return new TimeWindows(earliest, latest, service, averageSpeedKmh);
+    }
+
+    /**
+     * Now during the shift, otherwise the next shift start
+     */
+    private double planningDepartureMinutes() {
+        LocalTime now = LocalTime.now();
+        if (now.isBefore(shiftStart) || !now.isBefore(shiftEnd)) {
+            return minutesOfDay(shiftStart);
+        }
+        return minutesOfDay(now);
+    }
+
+    /**
+     * Day the planning departure falls on
+     */
+    private LocalDate planningDate() {
+        return LocalTime.now().isBefore(shiftEnd) ? LocalDate.now() : LocalDate.now().plusDays(1);
+    }
+
+    private static double minutesOfDay(LocalTime time) {
+        return time.toSecondOfDay() / 60.0;
+    }
+
+    private RouteSchedule schedule(int[] tour, DistanceMatrix matrix, TimeWindows windows) {
+        RouteSchedule schedule = new RouteSchedule(windows, matrix);
+        schedule.compute(tour[0], windows.earliest(tour[0]), Arrays.copyOfRange(tour, 1, tour.length), tour.length - 1);
+        return schedule;
+    }
+
+    /**
+     * Fill each point's estimated arrival in minutes after departure and
+     * return the minutes until service at the last stop ends
+     */
+    private int scheduleArrivals(List<RoutePoint> orderedPoints, int[] tour, DistanceMatrix matrix,
+                                 TimeWindows windows) {
+        RouteSchedule schedule = schedule(tour, matrix, windows);
+        double departure = windows.earliest(tour[0]);
+        for (int k = 0; k < tour.length; k++) {
+            orderedPoints.get(k).setEstimatedArrivalMinutes((int) Math.round(schedule.getArrival(k) - departure));
+        }
+        if (!schedule.isFeasible()) {
+            log.warn("Route of {} stops misses delivery windows by {} minutes in total",
+                schedule.stopCount(), Math.round(schedule.getLateness()));
+        }
+        return (int) Math.ceil(schedule.getCompletion() - departure);
+    }
+
+    /**
+     * Parallel randomized restarts on the route optimization pool, keeping
+     * the best tour found within the budget
+     */
+    private int[] multiStart(int[] tour, DistanceMatrix matrix, TimeWindows windows) {
+        MultiStartResult result = multiStartOptimizer.optimize(tour, matrix, windows, multiStartStarts,
+            TimeUnit.MILLISECONDS.toNanos(multiStartBudgetMillis), ThreadLocalRandom.current().nextLong());
+        log.debug("Multi-start route: {} of {} starts in {} ms, best start {} at {} km{}",
+            result.getStartsCompleted(), result.getStartsRequested(),
+            TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()), result.getBestStart(),
+            String.format("%.2f", result.getDistance()),
+            result.isBudgetExhausted() ? ", time budget exhausted" : "");
+        return result.getTour();
+    }
+
+    /**
+     * Multi-start over a route the fleet solver already sequenced; its order
+     * is kept unless the new tour is less late or, as late, shorter
+     */
+    private int[] resequence(int[] tour, DistanceMatrix matrix, TimeWindows windows) {
+        int[] candidate = multiStart(tour, matrix, windows);
+        double lateness = schedule(tour, matrix, windows).getLateness();
+        double candidateLateness = schedule(candidate, matrix, windows).getLateness();
+        if (candidateLateness < lateness - 1e-9
+                || (candidateLateness <= lateness + 1e-9
+                    && matrix.pathDistance(candidate) < matrix.pathDistance(tour) - 1e-9)) {
+            return candidate;
+        }
+        return tour;
     }
 
     private double calculateTotalDistance(List<RoutePoint> points) {
@@ -162,7 +976,7 @@ public class RouteOptimizationService {
         for (int i = 0; i < points.size() - 1; i++) {
             RoutePoint current = points.get(i);
             RoutePoint next = points.get(i + 1);
-            totalDistance += calculateDistance(
+            totalDistance += GeoMath.haversineKm(
                 current.getLatitude(), current.getLongitude(),
                 next.getLatitude(), next.getLongitude()
             );
@@ -170,21 +984,19 @@ public class RouteOptimizationService {
         return totalDistance;
     }
 
-    private int calculateEstimatedTime(List<RoutePoint> points) {
-        double distance = calculateTotalDistance(points);
-        double averageSpeed = 40.0; // km/h average speed in city
-        return (int) Math.ceil((distance / averageSpeed) * 60); // minutes
+    private int calculateEstimatedTime(double distance) {
+        return (int) Math.ceil((distance / averageSpeedKmh) * 60); // minutes
     }
 
     private double getCurrentDriverLatitude(Driver driver) {
         // In production, get from GPS tracking service
         // For demo, return warehouse location
-        return 6.9271; // Colombo, Sri Lanka
+        return warehouseLatitude;
     }
 
     private double getCurrentDriverLongitude(Driver driver) {
         // In production, get from GPS tracking service
-        return 79.8612; // Colombo, Sri Lanka
+        return warehouseLongitude;
     }
 
     private OptimizedRoute createFallbackRoute(Driver driver, List<Order> orders) {
@@ -197,48 +1009,80 @@ public class RouteOptimizationService {
             getCurrentDriverLatitude(driver),
             getCurrentDriverLongitude(driver),
             "start",
+            "WAREHOUSE",
             "WAREHOUSE"
         ));
         
         // Add delivery points in order
-        orders.forEach(order -> points.add(new RoutePoint(
-            order.getDeliveryAddress(),
-            generateLatitudeFromAddress(order.getDeliveryAddress()),
-            generateLongitudeFromAddress(order.getDeliveryAddress()),
-            order.getId().toString(),
-            order.getOrderNumber()
-        )));
+        orders.forEach(order -> points.add(deliveryPoint(order)));
         
+        double totalDistance = calculateTotalDistance(points);
         return new OptimizedRoute(
             generateRouteId(),
             points,
-            calculateTotalDistance(points),
-            calculateEstimatedTime(points),
+            totalDistance,
+            calculateEstimatedTime(totalDistance),
             new Date(),
             "FALLBACK"
         );
     }
 
     public double generateLatitudeFromAddress(String address) {
-        // In production, use geocoding service (Google Maps, OpenStreetMap, etc.)
-        // For demo, generate realistic coordinates around Colombo, Sri Lanka
-        if (address == null) return 6.9271;
-        
-        // Simple hash-based coordinate generation for demo
-        int hash = Math.abs(address.hashCode());
-        double offset = (hash % 1000) / 10000.0; // 0-0.1 degree variation
-        return 6.9271 + (offset - 0.05); // Center around Colombo
+        return geocodingService.geocode(address).getLatitude();
     }
 
     public double generateLongitudeFromAddress(String address) {
-        // In production, use geocoding service
-        // For demo, generate realistic coordinates around Colombo, Sri Lanka
-        if (address == null) return 79.8612;
-        
-        // Simple hash-based coordinate generation for demo
-        int hash = Math.abs(address.hashCode());
-        double offset = (hash % 1500) / 15000.0; // 0-0.1 degree variation
-        return 79.8612 + (offset - 0.05); // Center around Colombo
+        return geocodingService.geocode(address).getLongitude();
+    }
+
+    /**
+     * Canonical hash of a route request: the start, the stops in any order
+     * with their windows and service times, and the traffic bucket the
+     * planning departure falls in
+     */
+    private long routeCacheKey(RoutePoint start, List<RoutePoint> stops) {
+        long[] stopHashes = new long[stops.size()];
+        for (int i = 0; i < stopHashes.length; i++) {
+            stopHashes[i] = pointHash(stops.get(i));
+        }
+        Arrays.sort(stopHashes);
+        long hash = pointHash(start);
+        for (long stopHash : stopHashes) {
+            hash = mix(hash * 31 + stopHash);
+        }
+        long trafficBucket = planningDate().toEpochDay() * TrafficModel.BUCKETS_PER_DAY
+            + TrafficModel.bucket(planningDepartureMinutes());
+        return mix(hash ^ trafficBucket);
+    }
+
+    private static long pointHash(RoutePoint point) {
+        long hash = mix(Double.doubleToLongBits(point.getLatitude()));
+        hash = mix(hash ^ Double.doubleToLongBits(point.getLongitude()));
+        hash = mix(hash ^ Objects.hash(point.getPointId(), point.getDeliveryWindowStart(),
+            point.getDeliveryWindowEnd(), point.getServiceMinutes()));
+        return hash;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Copy of a route with its own points, id and creation time, so cached
+     * routes are never shared with callers that update them
+     */
+    private OptimizedRoute copyRoute(OptimizedRoute route) {
+        List<RoutePoint> points = new ArrayList<>(route.getRoutePoints().size());
+        for (RoutePoint point : route.getRoutePoints()) {
+            points.add(new RoutePoint(point));
+        }
+        OptimizedRoute copy = new OptimizedRoute(generateRouteId(), points, route.getTotalDistanceKm(),
+            route.getEstimatedTimeMinutes(), new Date(), route.getRouteType());
+        copy.setConstructedDistanceKm(route.getConstructedDistanceKm());
+        return copy;
     }
 
     private String generateRouteId() {
@@ -254,45 +1098,226 @@ public class RouteOptimizationService {
     }
 
     private String assessCongestionLevel(OptimizedRoute route) {
-        // Simple congestion assessment based on time of day
-        Calendar cal = Calendar.getInstance();
-        int hour = cal.get(Calendar.HOUR_OF_DAY);
-        
-        if ((hour >= 7 && hour <= 9) || (hour >= 17 && hour <= 19)) {
+        // Speed factor from the traffic profiles of the route's zones right now
+        double factor = currentSpeedFactor(route);
+        if (factor < HIGH_CONGESTION_FACTOR) {
             return "HIGH";
-        } else if ((hour >= 10 && hour <= 16) || (hour >= 20 && hour <= 22)) {
+        } else if (factor < MEDIUM_CONGESTION_FACTOR) {
             return "MEDIUM";
         } else {
             return "LOW";
         }
     }
 
+    /**
+     * Mean speed factor over the route's points at the current time
+     */
+    private double currentSpeedFactor(OptimizedRoute route) {
+        List<RoutePoint> points = route.getRoutePoints();
+        if (points == null || points.isEmpty()) {
+            return 1.0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        double total = 0;
+        for (RoutePoint point : points) {
+            total += trafficService.speedFactor(point.getLatitude(), point.getLongitude(), now);
+        }
+        return total / points.size();
+    }
+
+    /**
+     * Minutes to drive the route's remaining legs and serve its pending
+     * stops when leaving now, each leg slowed by the traffic where and when
+     * it starts
+     */
+    private double trafficTimedMinutes(OptimizedRoute route) {
+        if (route.getRoutePoints() == null || route.getRoutePoints().size() < 2) {
+            return 0;
+        }
+        List<RoutePoint> points = pendingPoints(route);
+        TravelTable roads = roadTable(points);
+        LocalDateTime clock = LocalDateTime.now();
+        double minutes = 0;
+        for (int i = 0; i + 1 < points.size(); i++) {
+            RoutePoint from = points.get(i);
+            RoutePoint to = points.get(i + 1);
+            double free = roads != null ? roads.minutes(i, i + 1)
+                : GeoMath.haversineKm(from.getLatitude(), from.getLongitude(), to.getLatitude(), to.getLongitude())
+                    / averageSpeedKmh * 60;
+            double leg = free / trafficService.speedFactor(from.getLatitude(), from.getLongitude(), clock);
+            double service = to.getServiceMinutes() != null ? to.getServiceMinutes() : 0;
+            minutes += leg + service;
+            clock = clock.plusSeconds((long) ((leg + service) * 60));
+        }
+        return minutes;
+    }
+
+    /**
+     * Alternative orders of the route's pending stops, reused from the cache
+     * while the route is unchanged and the entry is fresh. Callers get their
+     * own copies, so the cached routes and points are never handed out.
+     */
     private List<OptimizedRoute> findAlternativeRoutes(OptimizedRoute mainRoute) {
-        // For demo, return empty list
-        // In production, calculate alternative routes
-        return new ArrayList<>();
+        if (mainRoute.getRoutePoints() == null || mainRoute.getRoutePoints().isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<RoutePoint> points = pendingPoints(mainRoute);
+        String key = alternativesKey(mainRoute.getRouteId(), points);
+        long now = System.nanoTime();
+        CachedAlternatives cached = alternativesCache.get(key);
+        if (cached != null && now - cached.expiresAt < 0) {
+            return copyAlternatives(cached.routes);
+        }
+        List<OptimizedRoute> alternatives = computeAlternativeRoutes(mainRoute, points);
+        alternativesCache.put(key, new CachedAlternatives(alternatives,
+            now + TimeUnit.SECONDS.toNanos(alternativeCacheTtlSeconds)));
+        return copyAlternatives(alternatives);
     }
 
-    private double calculateEstimatedDelay(OptimizedRoute route) {
-        // Calculate delay based on traffic conditions
-        String congestion = assessCongestionLevel(route);
-        switch (congestion) {
-            case "HIGH": return route.getEstimatedTimeMinutes() * 0.3;
-            case "MEDIUM": return route.getEstimatedTimeMinutes() * 0.15;
-            default: return 0.0;
+    private static List<OptimizedRoute> copyAlternatives(List<OptimizedRoute> alternatives) {
+        List<OptimizedRoute> copies = new ArrayList<>(alternatives.size());
+        for (OptimizedRoute alternative : alternatives) {
+            List<RoutePoint> points = new ArrayList<>(alternative.getRoutePoints().size());
+            for (RoutePoint point : alternative.getRoutePoints()) {
+                points.add(new RoutePoint(point));
+            }
+            OptimizedRoute copy = new OptimizedRoute(alternative.getRouteId(), points,
+                alternative.getTotalDistanceKm(), alternative.getEstimatedTimeMinutes(),
+                alternative.getCreatedAt(), alternative.getRouteType());
+            copy.setDriverId(alternative.getDriverId());
+            copy.setVehicleId(alternative.getVehicleId());
+            copies.add(copy);
         }
+        return copies;
     }
 
-    private OptimizedRoute recalculateRoute(OptimizedRoute originalRoute) {
+    private List<OptimizedRoute> computeAlternativeRoutes(OptimizedRoute mainRoute, List<RoutePoint> points) {
+        TravelTable roads = roadTable(points);
+        DistanceMatrix matrix = buildDistanceMatrix(points, roads);
+        TimeWindows travel = withTraffic(withRoadTimes(pointWindows(points, planningDepartureMinutes()), roads),
+            latitudes(points), longitudes(points));
+        int[] main = new int[points.size()];
+        Arrays.setAll(main, i -> i);
+
+        long started = System.nanoTime();
+        List<AlternativeTour> tours = alternativeTours.generate(main, matrix, travel, alternativePenalties,
+            alternativeCount, TimeUnit.MILLISECONDS.toNanos(alternativeBudgetMillis),
+            ThreadLocalRandom.current().nextLong());
+        log.debug("{} alternatives to route {} ({} km) from {} candidates in {} ms", tours.size(),
+            mainRoute.getRouteId(), String.format("%.2f", matrix.pathDistance(main)), alternativePenalties.length,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        List<OptimizedRoute> routes = new ArrayList<>(tours.size());
+        for (int a = 0; a < tours.size(); a++) {
+            int[] tour = tours.get(a).getTour();
+            List<RoutePoint> ordered = new ArrayList<>(tour.length);
+            for (int index : tour) {
+                ordered.add(new RoutePoint(points.get(index)));
+            }
+            OptimizedRoute alternative = new OptimizedRoute(
+                mainRoute.getRouteId() + "_ALT" + (a + 1),
+                ordered,
+                tours.get(a).getDistance(),
+                scheduleArrivals(ordered, tour, matrix, travel),
+                new Date(),
+                "ALTERNATIVE"
+            );
+            alternative.setDriverId(mainRoute.getDriverId());
+            alternative.setVehicleId(mainRoute.getVehicleId());
+            routes.add(alternative);
+        }
+        return routes;
+    }
+
+    private static String alternativesKey(String routeId, List<RoutePoint> points) {
+        int hash = 1;
+        for (RoutePoint point : points) {
+            hash = 31 * hash + Objects.hash(point.getPointId(), point.getLatitude(), point.getLongitude());
+        }
+        return routeId + ":" + points.size() + ":" + Integer.toHexString(hash);
+    }
+
+    private double calculateEstimatedDelay(OptimizedRoute route) {
+        // Minutes by which driving the route under current traffic overruns its estimate
+        return Math.max(0.0, trafficTimedMinutes(route) - route.getEstimatedTimeMinutes());
+    }
+
+    private OptimizedRoute recalculateRoute(OptimizedRoute originalRoute, List<OptimizedRoute> alternatives) {
         // Recalculate route with current conditions
-        // For demo, just update estimated time
-        return new OptimizedRoute(
+        // Keep the stop order, or switch to an alternative that finishes sooner under current traffic
+        OptimizedRoute best = null;
+        double bestMinutes = trafficTimedMinutes(originalRoute);
+        for (OptimizedRoute alternative : alternatives) {
+            double minutes = trafficTimedMinutes(alternative);
+            if (minutes < bestMinutes) {
+                best = alternative;
+                bestMinutes = minutes;
+            }
+        }
+
+        List<RoutePoint> points = originalRoute.getRoutePoints();
+        double totalDistance = originalRoute.getTotalDistanceKm();
+        if (best != null) {
+            // Visited points stay ahead of the reordered pending stops
+            Set<RoutePoint> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+            pending.addAll(pendingPoints(originalRoute));
+            List<RoutePoint> original = originalRoute.getRoutePoints();
+            points = new ArrayList<>(original.size());
+            points.add(original.get(0));
+            for (RoutePoint point : original.subList(1, original.size())) {
+                if (!pending.contains(point)) {
+                    points.add(point);
+                }
+            }
+            for (RoutePoint point : best.getRoutePoints().subList(1, best.getRoutePoints().size())) {
+                points.add(new RoutePoint(point));
+            }
+            totalDistance = best.getTotalDistanceKm();
+            log.info("Route {} switched to alternative {} under current traffic ({} min)",
+                originalRoute.getRouteId(), best.getRouteId(), Math.round(bestMinutes));
+        }
+        OptimizedRoute recalculated = new OptimizedRoute(
             originalRoute.getRouteId(),
-            originalRoute.getRoutePoints(),
-            originalRoute.getTotalDistanceKm(),
-            (int) (originalRoute.getEstimatedTimeMinutes() * 1.2), // Add 20% for traffic
+            points,
+            totalDistance,
+            Math.max(originalRoute.getEstimatedTimeMinutes(), (int) Math.ceil(bestMinutes)),
             new Date(),
             "RECALCULATED"
         );
+        recalculated.setDriverId(originalRoute.getDriverId());
+        recalculated.setVehicleId(originalRoute.getVehicleId());
+        return recalculated;
+    }
+
+    private static final class FleetInput {
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final TimeWindows windows;
+
+        FleetInput(double[] latitudes, double[] longitudes, TimeWindows windows) {
+            this.latitudes = latitudes;
+            this.longitudes = longitudes;
+            this.windows = windows;
+        }
+    }
+
+    private static final class CachedRoute {
+        private final OptimizedRoute route;
+        private final long expiresAt;
+
+        CachedRoute(OptimizedRoute route, long expiresAt) {
+            this.route = route;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class CachedAlternatives {
+        private final List<OptimizedRoute> routes;
+        private final long expiresAt;
+
+        CachedAlternatives(List<OptimizedRoute> routes, long expiresAt) {
+            this.routes = routes;
+            this.expiresAt = expiresAt;
+        }
     }
 }
@@ -0,0 +1,237 @@
+package com.swiftlogistics.middleware.service;
+
+import com.swiftlogistics.middleware.dto.OptimizedRoute;
+import com.swiftlogistics.middleware.model.Driver;
+import com.swiftlogistics.middleware.model.Order;
+import com.swiftlogistics.middleware.repository.DriverRepository;
+import com.swiftlogistics.middleware.repository.OrderRepository;
+import com.swiftlogistics.middleware.routing.LnsProgress;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous next-day fleet planning. A job snapshots the warehouse
+ * orders and active drivers when submitted, then runs the fleet solver
+ * followed by large neighbourhood search on the bounded route planning
+ * executor, so a minute-long search never holds a request thread. Jobs can
+ * be polled for progress and best distance, cancelled (keeping the best
+ * plan found so far) and their routes fetched once finished. Only the most
+ * recent finished jobs are retained.
+ */
+@Service
+public class RoutePlanningJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutePlanningJobService.class);
+
+    public enum JobState { QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private DeliveryManagementService deliveryManagementService;
+
+    @Autowired
+    private RouteOptimizationService routeOptimizationService;
+
+    @Autowired
+    @Qualifier("routePlanningExecutor")
+    private Executor routePlanningExecutor;
+
+    @Value("${app.routing.planning.time-budget-seconds:60}")
+    private long defaultBudgetSeconds;
+
+    @Value("${app.routing.planning.max-time-budget-seconds:600}")
+    private long maxBudgetSeconds;
+
+    @Value("${app.routing.planning.retained-jobs:20}")
+    private int retainedJobs;
+
+    private final Map<String, PlanningJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong jobSequence = new AtomicLong();
+
+    /**
+     * Queue a planning job over the current warehouse orders and active
+     * drivers; throws RejectedExecutionException when the queue is full
+     */
+    public Map<String, Object> submit(Long budgetSeconds) {
+        List<Order> orders = orderRepository.findByStatus(Order.OrderStatus.IN_WAREHOUSE);
+        List<Driver> drivers = driverRepository.findByStatus(Driver.DriverStatus.ACTIVE);
+        if (orders.isEmpty() || drivers.isEmpty()) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("status", orders.isEmpty() ? "NO_PENDING_ORDERS" : "NO_AVAILABLE_DRIVERS");
+            return result;
+        }
+        // Serve the longest-waiting orders first when the fleet is short of capacity
+        orders.sort(Comparator.comparing(Order::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())));
+        int[] capacities = new int[drivers.size()];
+        for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = deliveryManagementService.calculateDriverCapacity(drivers.get(i));
+        }
+        long budget = budgetSeconds != null && budgetSeconds > 0
+            ? Math.min(budgetSeconds, maxBudgetSeconds) : defaultBudgetSeconds;
+
+        PlanningJob job = new PlanningJob("PLAN_" + jobSequence.incrementAndGet(), drivers, capacities, orders,
+            budget);
+        evictFinishedJobs();
+        jobs.put(job.jobId, job);
+        try {
+            routePlanningExecutor.execute(() -> run(job));
+        } catch (RuntimeException e) {
+            jobs.remove(job.jobId);
+            throw e;
+        }
+        log.info("Queued planning job {} for {} orders on {} drivers with a {} s budget", job.jobId,
+            orders.size(), drivers.size(), budget);
+        return describe(job);
+    }
+
+    private void run(PlanningJob job) {
+        if (job.progress.isCancelled()) {
+            job.finish(JobState.CANCELLED);
+            return;
+        }
+        job.startedAt = Instant.now();
+        job.state = JobState.RUNNING;
+        try {
+            job.routes = routeOptimizationService.planFleetRoutes(job.drivers, job.capacities, job.orders,
+                TimeUnit.SECONDS.toNanos(job.budgetSeconds), job.progress);
+            job.finish(job.progress.isCancelled() ? JobState.CANCELLED : JobState.COMPLETED);
+        } catch (Exception e) {
+            log.error("Planning job {} failed: {}", job.jobId, e.getMessage(), e);
+            job.error = e.getMessage();
+            job.finish(JobState.FAILED);
+        }
+    }
+
+    /**
+     * Status of a job, or null when unknown
+     */
+    public Map<String, Object> getStatus(String jobId) {
+        PlanningJob job = jobs.get(jobId);
+        return job != null ? describe(job) : null;
+    }
+
+    public List<Map<String, Object>> listJobs() {
+        return jobs.values().stream()
+            .sorted(Comparator.comparing((PlanningJob job) -> job.submittedAt).reversed())
+            .map(this::describe)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Ask a job to stop; a running search returns its best plan so far.
+     * Returns the job's status, or null when unknown.
+     */
+    public Map<String, Object> cancel(String jobId) {
+        PlanningJob job = jobs.get(jobId);
+        if (job == null) {
+            return null;
+        }
+        job.progress.cancel();
+        log.info("Cancellation requested for planning job {}", jobId);
+        return describe(job);
+    }
+
+    /**
+     * Planned routes aligned with the job's drivers, null for drivers given
+     * no orders; null while the job has no result
+     */
+    public List<OptimizedRoute> getResult(String jobId) {
+        PlanningJob job = jobs.get(jobId);
+        return job != null ? job.routes : null;
+    }
+
+    @PreDestroy
+    public void cancelAll() {
+        jobs.values().forEach(job -> job.progress.cancel());
+    }
+
+    private void evictFinishedJobs() {
+        List<PlanningJob> finished = jobs.values().stream()
+            .filter(job -> job.finishedAt != null)
+            .sorted(Comparator.comparing(job -> job.finishedAt))
+            .collect(Collectors.toList());
+        for (int i = 0; i < finished.size() - retainedJobs + 1; i++) {
+            jobs.remove(finished.get(i).jobId);
+        }
+    }
+
+    private Map<String, Object> describe(PlanningJob job) {
+        Map<String, Object> status = new HashMap<>();
+        LnsProgress progress = job.progress;
+        status.put("jobId", job.jobId);
+        status.put("state", job.state);
+        status.put("submittedAt", job.submittedAt);
+        status.put("startedAt", job.startedAt);
+        status.put("finishedAt", job.finishedAt);
+        status.put("budgetSeconds", job.budgetSeconds);
+        status.put("orders", job.orders.size());
+        status.put("drivers", job.drivers.size());
+        status.put("iterations", progress.getIterations());
+        status.put("improvements", progress.getImprovements());
+        status.put("cancelRequested", progress.isCancelled());
+        if (!Double.isNaN(progress.getBestDistance())) {
+            status.put("initialDistanceKm", progress.getInitialDistance());
+            status.put("bestDistanceKm", progress.getBestDistance());
+            status.put("bestUnassignedOrders", progress.getBestUnassigned());
+        }
+        if (job.startedAt != null) {
+            Instant end = job.finishedAt != null ? job.finishedAt : Instant.now();
+            double elapsed = Duration.between(job.startedAt, end).toMillis() / 1000.0;
+            status.put("elapsedSeconds", elapsed);
+            status.put("progressPercent", job.finishedAt != null ? 100.0
+                : Math.min(99.0, elapsed * 100.0 / job.budgetSeconds));
+        }
+        if (job.error != null) {
+            status.put("error", job.error);
+        }
+        status.put("resultAvailable", job.routes != null);
+        return status;
+    }
+
+    private static final class PlanningJob {
+        private final String jobId;
+        private final List<Driver> drivers;
+        private final int[] capacities;
+        private final List<Order> orders;
+        private final long budgetSeconds;
+        private final Instant submittedAt = Instant.now();
+        private final LnsProgress progress = new LnsProgress();
+        private volatile JobState state = JobState.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile List<OptimizedRoute> routes;
+        private volatile String error;
+
+        PlanningJob(String jobId, List<Driver> drivers, int[] capacities, List<Order> orders, long budgetSeconds) {
+            this.jobId = jobId;
+            this.drivers = drivers;
+            this.capacities = capacities;
+            this.orders = orders;
+            this.budgetSeconds = budgetSeconds;
+        }
+
+        void finish(JobState finalState) {
+            finishedAt = Instant.now();
+            state = finalState;
+        }
+    }
+}
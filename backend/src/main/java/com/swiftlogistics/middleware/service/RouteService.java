@@ -2,6 +2,7 @@ package com.swiftlogistics.middleware.service;
 
 import com.swiftlogistics.middleware.model.Route;
 import com.swiftlogistics.middleware.model.Delivery;
+import com.swiftlogistics.middleware.geo.GeocodeResult;
 import com.swiftlogistics.middleware.repository.RouteRepository;
 import com.swiftlogistics.middleware.repository.DeliveryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,7 +23,10 @@ public class RouteService {
     private DeliveryRepository deliveryRepository;
 
     @Autowired
-    private RouteOptimizationService routeOptimizationService;
+    private GeocodingService geocodingService;
+
+    @Autowired
+    private GPSTrackingService gpsTrackingService;
 
     /**
      * Create a new route with deliveries
@@ -59,8 +63,9 @@ public class RouteService {
             newDelivery.setSequenceNumber(i + 1);
             
             // Generate coordinates from address
-            newDelivery.setDeliveryLatitude(routeOptimizationService.generateLatitudeFromAddress(address));
-            newDelivery.setDeliveryLongitude(routeOptimizationService.generateLongitudeFromAddress(address));
+            GeocodeResult location = geocodingService.geocode(address);
+            newDelivery.setDeliveryLatitude(location.getLatitude());
+            newDelivery.setDeliveryLongitude(location.getLongitude());
             
             deliveryRepository.save(newDelivery);
         }
@@ -114,6 +119,13 @@ public class RouteService {
                     delivery.setStatus(Delivery.DeliveryStatus.IN_TRANSIT);
                     deliveryRepository.save(delivery);
                 }
+                // Fence the stop so arrival is detected from the driver's location stream
+                if (delivery.getDeliveryLatitude() != null && delivery.getDeliveryLongitude() != null) {
+                    gpsTrackingService.registerDeliveryGeofence(
+                        GPSTrackingService.deliveryFenceId(delivery.getDeliveryId()),
+                        delivery.getDeliveryId(), route.getDriverId(),
+                        delivery.getDeliveryLatitude(), delivery.getDeliveryLongitude());
+                }
             });
             
             result.put("success", true);
@@ -147,6 +159,7 @@ public class RouteService {
             delivery.setDeliveryNotes(notes);
             delivery.setSignatureUrl(signatureUrl);
             deliveryRepository.save(delivery);
+            gpsTrackingService.removeGeofence(GPSTrackingService.deliveryFenceId(deliveryId));
             
             // Update route progress
             Route route = delivery.getRoute();
@@ -0,0 +1,334 @@
+package com.swiftlogistics.middleware.service;
+
+import com.swiftlogistics.middleware.config.RabbitMQConfig;
+import com.swiftlogistics.middleware.dto.LiveInsertion;
+import com.swiftlogistics.middleware.dto.OptimizedRoute;
+import com.swiftlogistics.middleware.dto.OrderStatusUpdate;
+import com.swiftlogistics.middleware.model.Driver;
+import com.swiftlogistics.middleware.model.Order;
+import com.swiftlogistics.middleware.repository.DriverRepository;
+import com.swiftlogistics.middleware.repository.OrderRepository;
+import com.swiftlogistics.middleware.tracking.GeofenceIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns orders to drivers as they reach the warehouse instead of waiting
+ * for a batch assignment. Order status events are collected over a short
+ * window; each micro-batch is first inserted into routes still loading at
+ * the warehouse with room left, and the rest are planned as new routes for
+ * idle drivers. Only the batch's orders are loaded, so a batch costs in
+ * proportion to its size rather than to the backlog. Orders no driver can
+ * take are parked and retried when a driver returns to the warehouse or
+ * after the retry interval.
+ */
+@Service
+public class StreamingDispatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingDispatchService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DriverRepository driverRepository;
+
+    @Autowired
+    private DeliveryManagementService deliveryManagementService;
+
+    @Autowired
+    private RouteOptimizationService routeOptimizationService;
+
+    @Autowired
+    private GPSTrackingService gpsTrackingService;
+
+    @Autowired
+    @Lazy
+    private MessageService messageService;
+
+    @Value("${app.dispatch.streaming.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.dispatch.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${app.dispatch.retry-interval-ms:30000}")
+    private long retryIntervalMillis;
+
+    // Order ids announced since the last batch; queued deduplicates them
+    private final Queue<Long> arrivals = new ConcurrentLinkedQueue<>();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+
+    // Orders that fit no driver yet, oldest first; touched by the dispatch thread only
+    private final Set<Long> parked = new LinkedHashSet<>();
+
+    // Drivers that have left the warehouse, whose routes can no longer take new parcels
+    private final Set<String> departedDrivers = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean driverReturned;
+    private long nextRetryAt;
+
+    private final LongAdder eventsReceived = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder ordersInserted = new LongAdder();
+    private final LongAdder ordersRouted = new LongAdder();
+    private final LongAdder ordersParked = new LongAdder();
+    private final LongAdder batchNanos = new LongAdder();
+
+    @PostConstruct
+    public void subscribeToGeofenceEvents() {
+        gpsTrackingService.addGeofenceListener(this::handleGeofenceEvent);
+    }
+
+    /**
+     * Pick up orders that reached the warehouse while the service was down
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void enqueueBacklog() {
+        if (!enabled) {
+            return;
+        }
+        List<Order> waiting = orderRepository.findByStatus(Order.OrderStatus.IN_WAREHOUSE);
+        waiting.forEach(order -> enqueue(order.getId()));
+        if (!waiting.isEmpty()) {
+            log.info("Queued {} orders waiting in the warehouse for dispatch", waiting.size());
+        }
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.DISPATCH_QUEUE, autoStartup = "${app.dispatch.streaming.enabled:true}")
+    public void onStatusUpdate(OrderStatusUpdate statusUpdate) {
+        if (Order.OrderStatus.IN_WAREHOUSE.name().equals(statusUpdate.getStatus())) {
+            eventsReceived.increment();
+            enqueue(statusUpdate.getOrderId());
+        }
+    }
+
+    /**
+     * Queue an order for the next micro-batch; repeats are ignored
+     */
+    public void enqueue(Long orderId) {
+        if (orderId != null && queued.add(orderId)) {
+            arrivals.add(orderId);
+        }
+    }
+
+    public void handleGeofenceEvent(GeofenceIndex.GeofenceEvent event) {
+        if (event.getFenceType() != GeofenceIndex.FenceType.WAREHOUSE) {
+            return;
+        }
+        if (event.getEventType() == GeofenceIndex.EventType.DEPARTED) {
+            departedDrivers.add(event.getDriverId());
+        } else {
+            departedDrivers.remove(event.getDriverId());
+            driverReturned = true;
+        }
+    }
+
+    /**
+     * Dispatch the orders collected during the last window
+     */
+    @Scheduled(fixedDelayString = "${app.dispatch.window-ms:2000}",
+        initialDelayString = "${app.dispatch.window-ms:2000}")
+    public synchronized void dispatchBatch() {
+        if (!enabled) {
+            return;
+        }
+        List<Long> orderIds = new ArrayList<>();
+        Long orderId;
+        while (orderIds.size() < maxBatchSize && (orderId = arrivals.poll()) != null) {
+            queued.remove(orderId);
+            orderIds.add(orderId);
+        }
+        long now = System.currentTimeMillis();
+        if (!parked.isEmpty() && (driverReturned || now >= nextRetryAt)) {
+            driverReturned = false;
+            Iterator<Long> retries = parked.iterator();
+            for (int i = 0; i < maxBatchSize && retries.hasNext(); i++) {
+                orderIds.add(retries.next());
+                retries.remove();
+            }
+            nextRetryAt = parked.isEmpty() ? now + retryIntervalMillis : now;
+        }
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        // Batch assignment and urgent insertion plan the same orders and routes
+        Lock assignmentLock = deliveryManagementService.assignmentLock();
+        assignmentLock.lock();
+        try {
+            List<Order> orders = new ArrayList<>();
+            for (Order order : orderRepository.findAllById(orderIds)) {
+                if (order.getStatus() == Order.OrderStatus.IN_WAREHOUSE) {
+                    orders.add(order);
+                } else if (order.getStatus() == Order.OrderStatus.SUBMITTED
+                        || order.getStatus() == Order.OrderStatus.PROCESSING) {
+                    // The event can overtake the commit that moved the order into the warehouse
+                    park(order);
+                }
+            }
+            if (!orders.isEmpty()) {
+                orders.sort(Comparator.comparing(Order::getCreatedAt,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+                dispatch(orders);
+            }
+        } catch (Exception e) {
+            log.error("Error dispatching {} orders: {}", orderIds.size(), e.getMessage());
+            orderIds.forEach(this::enqueue);
+        } finally {
+            assignmentLock.unlock();
+            batches.increment();
+            batchNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    private void dispatch(List<Order> orders) {
+        List<Driver> activeDrivers = driverRepository.findByStatus(Driver.DriverStatus.ACTIVE);
+        Map<String, Driver> driversById = new HashMap<>();
+        activeDrivers.forEach(driver -> driversById.put(driver.getDriverId(), driver));
+
+        // Routes still at the warehouse with room, and drivers without pending stops
+        Map<String, GPSTrackingService.RouteProgress> loading = new HashMap<>();
+        Set<String> busy = new HashSet<>();
+        for (GPSTrackingService.RouteProgress progress : gpsTrackingService.getActiveRoutes()) {
+            Driver driver = driversById.get(progress.getDriverId());
+            if (driver == null || progress.getRemainingStops() == 0) {
+                continue;
+            }
+            busy.add(driver.getDriverId());
+            if (!departedDrivers.contains(driver.getDriverId()) && hasRoom(progress, driver)) {
+                loading.put(driver.getDriverId(), progress);
+            }
+        }
+
+        int inserted = 0;
+        List<Order> unplaced = new ArrayList<>();
+        for (Order order : orders) {
+            LiveInsertion insertion = loading.isEmpty() ? null
+                : routeOptimizationService.findBestInsertion(order, loading.values());
+            GPSTrackingService.RouteProgress progress = insertion == null ? null
+                : gpsTrackingService.getRouteProgress(insertion.getDriverId());
+            if (progress == null || !progress.getRoute().getRouteId().equals(insertion.getRouteId())) {
+                unplaced.add(order);
+                continue;
+            }
+            OptimizedRoute route = routeOptimizationService.insertIntoRoute(progress.getRoute(), insertion, order);
+            gpsTrackingService.startRouteTracking(insertion.getDriverId(), route);
+            markPlanned(List.of(order));
+            inserted++;
+
+            GPSTrackingService.RouteProgress updated = gpsTrackingService.getRouteProgress(insertion.getDriverId());
+            if (updated != null && hasRoom(updated, driversById.get(insertion.getDriverId()))) {
+                loading.put(insertion.getDriverId(), updated);
+            } else {
+                loading.remove(insertion.getDriverId());
+            }
+        }
+        ordersInserted.add(inserted);
+
+        List<Driver> idleDrivers = activeDrivers.stream()
+            .filter(driver -> !busy.contains(driver.getDriverId()))
+            .collect(Collectors.toList());
+        int routed = 0;
+        if (!unplaced.isEmpty() && !idleDrivers.isEmpty()) {
+            routed = planNewRoutes(idleDrivers, unplaced);
+        }
+        unplaced.removeIf(order -> order.getStatus() == Order.OrderStatus.ROUTE_PLANNED);
+        unplaced.forEach(this::park);
+        ordersRouted.add(routed);
+
+        log.info("Dispatched {} orders: {} into loading routes, {} on new routes, {} parked",
+            orders.size(), inserted, routed, unplaced.size());
+    }
+
+    /**
+     * Start routes for idle drivers covering the orders no loading route could take
+     */
+    private int planNewRoutes(List<Driver> idleDrivers, List<Order> orders) {
+        int[] capacities = new int[idleDrivers.size()];
+        for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = deliveryManagementService.calculateDriverCapacity(idleDrivers.get(i));
+        }
+        double[] driverLatitudes = new double[idleDrivers.size()];
+        double[] driverLongitudes = new double[idleDrivers.size()];
+        deliveryManagementService.fillDriverPositions(idleDrivers, driverLatitudes, driverLongitudes);
+
+        List<OptimizedRoute> routes = routeOptimizationService.calculateFleetRoutes(
+            idleDrivers, capacities, orders, driverLatitudes, driverLongitudes);
+        Map<String, Order> ordersById = new HashMap<>();
+        orders.forEach(order -> ordersById.put(order.getId().toString(), order));
+
+        int routed = 0;
+        for (int i = 0; i < idleDrivers.size(); i++) {
+            OptimizedRoute route = routes.get(i);
+            if (route == null) continue;
+
+            List<Order> assignedOrders = route.getRoutePoints().stream()
+                .map(point -> ordersById.get(point.getPointId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+            gpsTrackingService.startRouteTracking(idleDrivers.get(i).getDriverId(), route);
+            markPlanned(assignedOrders);
+            routed += assignedOrders.size();
+        }
+        return routed;
+    }
+
+    private void markPlanned(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Order order : orders) {
+            order.setStatus(Order.OrderStatus.ROUTE_PLANNED);
+            order.setUpdatedAt(now);
+        }
+        orderRepository.saveAll(orders).forEach(messageService::sendStatusUpdate);
+    }
+
+    private boolean hasRoom(GPSTrackingService.RouteProgress progress, Driver driver) {
+        return progress.getRemainingStops() < deliveryManagementService.calculateDriverCapacity(driver);
+    }
+
+    private void park(Order order) {
+        if (parked.isEmpty()) {
+            nextRetryAt = System.currentTimeMillis() + retryIntervalMillis;
+        }
+        if (parked.add(order.getId())) {
+            ordersParked.increment();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long batchCount = batches.sum();
+        stats.put("enabled", enabled);
+        stats.put("eventsReceived", eventsReceived.sum());
+        stats.put("queuedOrders", queued.size());
+        stats.put("parkedOrders", parked.size());
+        stats.put("departedDrivers", departedDrivers.size());
+        stats.put("batches", batchCount);
+        stats.put("ordersInserted", ordersInserted.sum());
+        stats.put("ordersRouted", ordersRouted.sum());
+        stats.put("ordersParked", ordersParked.sum());
+        stats.put("averageBatchMillis", batchCount == 0 ? 0.0
+            : TimeUnit.NANOSECONDS.toMicros(batchNanos.sum()) / 1000.0 / batchCount);
+        return stats;
+    }
+}
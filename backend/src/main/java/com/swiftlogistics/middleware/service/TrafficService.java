@@ -0,0 +1,83 @@
+package com.swiftlogistics.middleware.service;
+
+import com.swiftlogistics.middleware.routing.TimeWindows;
+import com.swiftlogistics.middleware.routing.TrafficModel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Time-of-day traffic from local speed profiles. The profile file is read
+ * once at startup; when it is missing or invalid, or traffic is disabled,
+ * every zone runs at factor 1 and timings match plain driving speed.
+ */
+@Service
+public class TrafficService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficService.class);
+
+    @Value("${app.traffic.enabled:true}")
+    private boolean trafficEnabled;
+
+    @Value("${app.traffic.profiles:classpath:traffic/speed-profiles-lk.csv}")
+    private Resource profilesResource;
+
+    private TrafficModel model = TrafficModel.freeFlow();
+
+    @PostConstruct
+    public void init() {
+        if (!trafficEnabled) {
+            log.info("Traffic profiles disabled, timing routes at free-running speed");
+            return;
+        }
+        try (InputStream input = profilesResource.getInputStream()) {
+            model = TrafficModel.load(input);
+            log.info("Loaded traffic profiles for {} zones from {}", model.zoneCount(),
+                profilesResource.getDescription());
+        } catch (IOException e) {
+            log.error("Failed to load traffic profiles from {}, timing routes at free-running speed: {}",
+                profilesResource.getDescription(), e.getMessage());
+        }
+    }
+
+    public TrafficModel getModel() {
+        return model;
+    }
+
+    /**
+     * Windows whose travel times follow the traffic of the given day at
+     * each point's zone
+     */
+    public TimeWindows apply(TimeWindows windows, double[] latitudes, double[] longitudes, LocalDate day) {
+        int[] zones = new int[latitudes.length];
+        for (int i = 0; i < zones.length; i++) {
+            zones[i] = model.zoneOf(latitudes[i], longitudes[i]);
+        }
+        return windows.withTraffic(model, zones, isWeekend(day));
+    }
+
+    /**
+     * Speed factor at a position at the given time
+     */
+    public double speedFactor(double latitude, double longitude, LocalDateTime time) {
+        return model.speedFactor(model.zoneOf(latitude, longitude), isWeekend(time.toLocalDate()),
+            time.toLocalTime().toSecondOfDay() / 60.0);
+    }
+
+    public String zoneName(double latitude, double longitude) {
+        return model.zoneName(model.zoneOf(latitude, longitude));
+    }
+
+    private static boolean isWeekend(LocalDate day) {
+        return day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY;
+    }
+}
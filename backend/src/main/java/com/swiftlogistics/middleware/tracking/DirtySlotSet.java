@@ -0,0 +1,49 @@
+package com.swiftlogistics.middleware.tracking;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent bitset of driver slots changed since the last drain.
+ * Marking a slot that is already set is a plain read, so a driver sending
+ * many fixes between drains costs one atomic update, not one per fix.
+ */
+public class DirtySlotSet {
+
+    private final int capacity;
+    private final AtomicLongArray words;
+
+    public DirtySlotSet(int capacity) {
+        this.capacity = capacity;
+        this.words = new AtomicLongArray((capacity + 63) >>> 6);
+    }
+
+    public void mark(int slot) {
+        int index = slot >>> 6;
+        long bit = 1L << slot;
+        long word = words.get(index);
+        while ((word & bit) == 0 && !words.compareAndSet(index, word, word | bit)) {
+            word = words.get(index);
+        }
+    }
+
+    /**
+     * Clear the set and write the slots that were marked into target, ascending.
+     * Returns the number of slots written.
+     */
+    public int drainTo(int[] target) {
+        int count = 0;
+        for (int index = 0; index < words.length(); index++) {
+            if (words.get(index) == 0) continue;
+            long word = words.getAndSet(index, 0);
+            while (word != 0) {
+                target[count++] = (index << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return count;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,266 @@
+package com.swiftlogistics.middleware.tracking;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latest known position of every driver, stored as parallel primitive arrays.
+ * Driver ids are interned to a dense slot index the first time they are seen.
+ * Each slot is guarded by a seqlock: writers make the version odd while they
+ * write and even again when done, readers retry if the version moved.
+ * Updates allocate nothing once a driver has been interned.
+ */
+public class DriverLocationStore {
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, Integer> slotByDriver = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final String[] driverIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] speeds;
+    private final double[] headings;
+    private final long[] timestamps;
+    private final AtomicLongArray versions;
+
+    public DriverLocationStore(int capacity) {
+        this.capacity = capacity;
+        this.driverIds = new String[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.speeds = new double[capacity];
+        this.headings = new double[capacity];
+        this.timestamps = new long[capacity];
+        this.versions = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Slot index of a driver, or -1 if the driver has never reported a fix
+     */
+    public int indexOf(String driverId) {
+        Integer slot = slotByDriver.get(driverId);
+        return slot != null ? slot : -1;
+    }
+
+    /**
+     * Slot index of a driver, assigning a new slot on first sight.
+     * Returns -1 when the store is full.
+     */
+    public int intern(String driverId) {
+        Integer slot = slotByDriver.get(driverId);
+        if (slot != null) {
+            return slot;
+        }
+        synchronized (slotByDriver) {
+            slot = slotByDriver.get(driverId);
+            if (slot != null) {
+                return slot;
+            }
+            int next = size.get();
+            if (next >= capacity) {
+                return -1;
+            }
+            driverIds[next] = driverId;
+            slotByDriver.put(driverId, next);
+            size.set(next + 1); // Publishes the driver id to snapshot readers
+            return next;
+        }
+    }
+
+    /**
+     * Write a fix into a slot. Returns false if the fix is older than the stored one.
+     */
+    public boolean update(int slot, double latitude, double longitude,
+                          double speed, double heading, long timestampMillis) {
+        long version = beginWrite(slot);
+
+        if (timestamps[slot] > timestampMillis) {
+            versions.set(slot, version); // Nothing written, restore the even version
+            return false;
+        }
+
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        speeds[slot] = speed;
+        headings[slot] = heading;
+        timestamps[slot] = timestampMillis;
+
+        versions.set(slot, version + 2);
+        return true;
+    }
+
+    /**
+     * Consistent read of one slot. Returns false if the slot has no fix yet.
+     */
+    public boolean read(int slot, LocationReading target) {
+        while (true) {
+            long before = versions.get(slot);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            double latitude = latitudes[slot];
+            double longitude = longitudes[slot];
+            double speed = speeds[slot];
+            double heading = headings[slot];
+            long timestamp = timestamps[slot];
+
+            VarHandle.acquireFence();
+            if (versions.get(slot) == before) {
+                if (timestamp == 0) {
+                    return false;
+                }
+                target.set(slot, driverIds[slot], latitude, longitude, speed, heading, timestamp);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Copy of every slot. Arrays are bulk-copied optimistically; only slots
+     * whose version changed during the copy are re-read individually.
+     */
+    public LocationSnapshot snapshot() {
+        int count = size.get();
+        long[] versionsBefore = new long[count];
+        for (int i = 0; i < count; i++) {
+            versionsBefore[i] = versions.get(i);
+        }
+
+        LocationSnapshot snapshot = new LocationSnapshot(count);
+        System.arraycopy(driverIds, 0, snapshot.driverIds, 0, count);
+        System.arraycopy(latitudes, 0, snapshot.latitudes, 0, count);
+        System.arraycopy(longitudes, 0, snapshot.longitudes, 0, count);
+        System.arraycopy(speeds, 0, snapshot.speeds, 0, count);
+        System.arraycopy(headings, 0, snapshot.headings, 0, count);
+        System.arraycopy(timestamps, 0, snapshot.timestamps, 0, count);
+        VarHandle.acquireFence();
+
+        LocationReading reading = null;
+        for (int i = 0; i < count; i++) {
+            long before = versionsBefore[i];
+            if ((before & 1) == 0 && versions.get(i) == before) {
+                continue;
+            }
+            if (reading == null) {
+                reading = new LocationReading();
+            }
+            if (read(i, reading)) {
+                snapshot.set(i, reading);
+            } else {
+                snapshot.timestamps[i] = 0;
+            }
+        }
+        return snapshot;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private long beginWrite(int slot) {
+        while (true) {
+            long version = versions.get(slot);
+            if ((version & 1) == 0 && versions.compareAndSet(slot, version, version + 1)) {
+                return version;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Reusable holder for a single consistent slot read
+     */
+    public static class LocationReading {
+        private int slot;
+        private String driverId;
+        private double latitude;
+        private double longitude;
+        private double speed;
+        private double heading;
+        private long timestamp;
+
+        void set(int slot, String driverId, double latitude, double longitude,
+                 double speed, double heading, long timestamp) {
+            this.slot = slot;
+            this.driverId = driverId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.speed = speed;
+            this.heading = heading;
+            this.timestamp = timestamp;
+        }
+
+        // Getters
+        public int getSlot() { return slot; }
+        public String getDriverId() { return driverId; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public double getSpeed() { return speed; }
+        public double getHeading() { return heading; }
+        public long getTimestamp() { return timestamp; }
+    }
+
+    /**
+     * Point-in-time copy of the whole fleet, indexed by slot
+     */
+    public static class LocationSnapshot {
+        private final int size;
+        private final String[] driverIds;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final double[] speeds;
+        private final double[] headings;
+        private final long[] timestamps;
+
+        LocationSnapshot(int size) {
+            this.size = size;
+            this.driverIds = new String[size];
+            this.latitudes = new double[size];
+            this.longitudes = new double[size];
+            this.speeds = new double[size];
+            this.headings = new double[size];
+            this.timestamps = new long[size];
+        }
+
+        void set(int slot, LocationReading reading) {
+            latitudes[slot] = reading.latitude;
+            longitudes[slot] = reading.longitude;
+            speeds[slot] = reading.speed;
+            headings[slot] = reading.heading;
+            timestamps[slot] = reading.timestamp;
+        }
+
+        /**
+         * Whether the slot had a fix when the snapshot was taken
+         */
+        public boolean hasFix(int slot) {
+            return driverIds[slot] != null && timestamps[slot] != 0;
+        }
+
+        public int countWithFix() {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (hasFix(i)) count++;
+            }
+            return count;
+        }
+
+        // Getters
+        public int size() { return size; }
+        public String getDriverId(int slot) { return driverIds[slot]; }
+        public double getLatitude(int slot) { return latitudes[slot]; }
+        public double getLongitude(int slot) { return longitudes[slot]; }
+        public double getSpeed(int slot) { return speeds[slot]; }
+        public double getHeading(int slot) { return headings[slot]; }
+        public long getTimestamp(int slot) { return timestamps[slot]; }
+    }
+}
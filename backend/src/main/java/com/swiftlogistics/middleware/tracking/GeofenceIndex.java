@@ -0,0 +1,350 @@
+package com.swiftlogistics.middleware.tracking;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongConsumer;
+
+/**
+ * Circular geofences bucketed into a uniform lat/lon grid.
+ * A fence is registered in every cell its exit circle overlaps, so a
+ * location update only has to test the fences of the driver's own cell.
+ * Each driver remembers its current cell and the fences it is inside, and
+ * crossing a fence boundary produces an ARRIVED or DEPARTED event. Fences
+ * use a slightly larger exit radius than entry radius so GPS jitter at the
+ * boundary does not flap between states.
+ */
+public class GeofenceIndex {
+
+    private static final Fence[] NO_FENCES = new Fence[0];
+    private static final long NO_CELL = Long.MIN_VALUE;
+
+    public enum FenceType { DELIVERY, WAREHOUSE }
+
+    public enum EventType { ARRIVED, DEPARTED }
+
+    /**
+     * Receives boundary crossings; called on the thread applying the fix
+     */
+    @FunctionalInterface
+    public interface EventSink {
+        void onEvent(GeofenceEvent event);
+    }
+
+    private final double cellSizeDegrees;
+    private final double exitRadiusFactor;
+    private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Fence> fencesById = new ConcurrentHashMap<>();
+    private final AtomicInteger cellsCreated = new AtomicInteger();
+
+    // Per driver slot: cached cell lookup and fences currently inside
+    private final long[] cachedCellKey;
+    private final Cell[] cachedCell;
+    private final int[] cachedCellsCreated;
+    private final AtomicReferenceArray<Fence[]> insideBySlot;
+
+    public GeofenceIndex(int maxDrivers, double cellSizeDegrees, double exitRadiusFactor) {
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.exitRadiusFactor = exitRadiusFactor;
+        this.cachedCellKey = new long[maxDrivers];
+        this.cachedCell = new Cell[maxDrivers];
+        this.cachedCellsCreated = new int[maxDrivers];
+        this.insideBySlot = new AtomicReferenceArray<>(maxDrivers);
+        Arrays.fill(cachedCellKey, NO_CELL);
+        for (int i = 0; i < maxDrivers; i++) {
+            insideBySlot.lazySet(i, NO_FENCES);
+        }
+    }
+
+    /**
+     * Register or replace a fence. driverSlot < 0 means the fence applies to every driver.
+     * Re-registering an unchanged fence keeps it, so drivers already inside get no new ARRIVED.
+     */
+    public void register(String fenceId, FenceType type, String reference, int driverSlot,
+                         double latitude, double longitude, double radiusKm) {
+        Fence existing = fencesById.get(fenceId);
+        if (existing != null && existing.matches(type, reference, driverSlot, latitude, longitude, radiusKm)) {
+            return;
+        }
+        unregister(fenceId);
+
+        Fence fence = new Fence(fenceId, type, reference, driverSlot, latitude, longitude,
+                                radiusKm, radiusKm * exitRadiusFactor);
+        fencesById.put(fenceId, fence);
+
+        forEachCoveredCell(fence, key -> {
+            Cell cell = cells.get(key);
+            if (cell == null) {
+                Cell created = new Cell();
+                cell = cells.putIfAbsent(key, created);
+                if (cell == null) {
+                    cell = created;
+                    // Bump after insertion so drivers caching a missing cell look it up again
+                    cellsCreated.incrementAndGet();
+                }
+            }
+            cell.add(fence);
+        });
+    }
+
+    /**
+     * Remove a fence. Drivers inside it are dropped silently on their next fix.
+     */
+    public void unregister(String fenceId) {
+        Fence fence = fencesById.remove(fenceId);
+        if (fence == null) {
+            return;
+        }
+        fence.active = false;
+        forEachCoveredCell(fence, key -> {
+            Cell cell = cells.get(key);
+            if (cell != null) {
+                cell.remove(fence);
+            }
+        });
+    }
+
+    /**
+     * Test a driver position against nearby fences and emit boundary crossings.
+     * Allocates only when the driver changes cell or crosses a boundary.
+     */
+    public void check(int slot, String driverId, double latitude, double longitude,
+                      long timestampMillis, EventSink sink) {
+        Cell cell = cellFor(slot, latitude, longitude);
+        Fence[] candidates = cell != null ? cell.fences : NO_FENCES;
+        Fence[] inside = insideBySlot.get(slot);
+        Fence[] updated = inside;
+
+        // Entries and exits for fences registered around the current cell
+        for (Fence fence : candidates) {
+            if (fence.driverSlot >= 0 && fence.driverSlot != slot) continue;
+
+            boolean wasInside = indexOf(updated, fence) >= 0;
+            double distance = GeoMath.haversineKm(latitude, longitude, fence.latitude, fence.longitude);
+
+            if (!wasInside && distance <= fence.radiusKm) {
+                updated = append(updated, fence);
+                sink.onEvent(new GeofenceEvent(fence, EventType.ARRIVED, driverId,
+                                               latitude, longitude, timestampMillis));
+            } else if (wasInside && distance > fence.exitRadiusKm) {
+                updated = removeAt(updated, indexOf(updated, fence));
+                sink.onEvent(new GeofenceEvent(fence, EventType.DEPARTED, driverId,
+                                               latitude, longitude, timestampMillis));
+            }
+        }
+
+        // Fences the driver left by jumping out of their cells, or that were unregistered
+        for (int i = updated.length - 1; i >= 0; i--) {
+            Fence fence = updated[i];
+            if (!fence.active) {
+                updated = removeAt(updated, i);
+            } else if (indexOf(candidates, fence) < 0) {
+                updated = removeAt(updated, i);
+                sink.onEvent(new GeofenceEvent(fence, EventType.DEPARTED, driverId,
+                                               latitude, longitude, timestampMillis));
+            }
+        }
+
+        if (updated != inside) {
+            insideBySlot.set(slot, updated);
+        }
+    }
+
+    /**
+     * Whether the driver was inside the fence at its last checked fix
+     */
+    public boolean isInside(int slot, String fenceId) {
+        if (slot < 0) {
+            return false;
+        }
+        for (Fence fence : insideBySlot.get(slot)) {
+            if (fence.id.equals(fenceId) && fence.active) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(String fenceId) {
+        return fencesById.containsKey(fenceId);
+    }
+
+    public int fenceCount() {
+        return fencesById.size();
+    }
+
+    private Cell cellFor(int slot, double latitude, double longitude) {
+        long key = cellKey(row(latitude), column(longitude));
+        int created = cellsCreated.get();
+
+        Cell cell = cachedCell[slot];
+        if (cachedCellKey[slot] == key && (cell != null || cachedCellsCreated[slot] == created)) {
+            return cell;
+        }
+
+        cell = cells.get(key);
+        cachedCellKey[slot] = key;
+        cachedCell[slot] = cell;
+        cachedCellsCreated[slot] = created;
+        return cell;
+    }
+
+    private void forEachCoveredCell(Fence fence, LongConsumer action) {
+        double latSpan = GeoMath.kmToLatitudeDegrees(fence.exitRadiusKm);
+        double lonSpan = GeoMath.kmToLongitudeDegrees(fence.exitRadiusKm, fence.latitude);
+        int minRow = row(fence.latitude - latSpan);
+        int maxRow = row(fence.latitude + latSpan);
+        int minColumn = column(fence.longitude - lonSpan);
+        int maxColumn = column(fence.longitude + lonSpan);
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                action.accept(cellKey(r, c));
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellSizeDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellSizeDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    private static int indexOf(Fence[] fences, Fence fence) {
+        for (int i = 0; i < fences.length; i++) {
+            if (fences[i] == fence) return i;
+        }
+        return -1;
+    }
+
+    private static Fence[] append(Fence[] fences, Fence fence) {
+        Fence[] copy = Arrays.copyOf(fences, fences.length + 1);
+        copy[fences.length] = fence;
+        return copy;
+    }
+
+    private static Fence[] removeAt(Fence[] fences, int index) {
+        if (fences.length == 1) {
+            return NO_FENCES;
+        }
+        Fence[] copy = new Fence[fences.length - 1];
+        System.arraycopy(fences, 0, copy, 0, index);
+        System.arraycopy(fences, index + 1, copy, index, fences.length - index - 1);
+        return copy;
+    }
+
+    /**
+     * Fences overlapping one grid cell; copy-on-write so readers never lock
+     */
+    private static class Cell {
+        private volatile Fence[] fences = NO_FENCES;
+
+        synchronized void add(Fence fence) {
+            fences = append(fences, fence);
+        }
+
+        synchronized void remove(Fence fence) {
+            int index = indexOf(fences, fence);
+            if (index >= 0) {
+                fences = removeAt(fences, index);
+            }
+        }
+    }
+
+    /**
+     * A circular fence around a delivery stop or warehouse
+     */
+    public static class Fence {
+        private final String id;
+        private final FenceType type;
+        private final String reference;
+        private final int driverSlot;
+        private final double latitude;
+        private final double longitude;
+        private final double radiusKm;
+        private final double exitRadiusKm;
+        private volatile boolean active = true;
+
+        Fence(String id, FenceType type, String reference, int driverSlot, double latitude,
+              double longitude, double radiusKm, double exitRadiusKm) {
+            this.id = id;
+            this.type = type;
+            this.reference = reference;
+            this.driverSlot = driverSlot;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radiusKm = radiusKm;
+            this.exitRadiusKm = exitRadiusKm;
+        }
+
+        boolean matches(FenceType type, String reference, int driverSlot, double latitude,
+                        double longitude, double radiusKm) {
+            return this.type == type && Objects.equals(this.reference, reference) && this.driverSlot == driverSlot
+                && this.latitude == latitude && this.longitude == longitude && this.radiusKm == radiusKm;
+        }
+
+        // Getters
+        public String getId() { return id; }
+        public FenceType getType() { return type; }
+        public String getReference() { return reference; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public double getRadiusKm() { return radiusKm; }
+    }
+
+    /**
+     * A driver crossing a fence boundary
+     */
+    public static class GeofenceEvent {
+        private final String fenceId;
+        private final FenceType fenceType;
+        private final String reference;
+        private final EventType eventType;
+        private final String driverId;
+        private final double latitude;
+        private final double longitude;
+        private final long timestamp;
+
+        GeofenceEvent(Fence fence, EventType eventType, String driverId,
+                      double latitude, double longitude, long timestamp) {
+            this.fenceId = fence.id;
+            this.fenceType = fence.type;
+            this.reference = fence.reference;
+            this.eventType = eventType;
+            this.driverId = driverId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.timestamp = timestamp;
+        }
+
+        // Getters
+        public String getFenceId() { return fenceId; }
+        public FenceType getFenceType() { return fenceType; }
+        public String getReference() { return reference; }
+        public EventType getEventType() { return eventType; }
+        public String getDriverId() { return driverId; }
+        public double getLatitude() { return latitude; }
+        public double getLongitude() { return longitude; }
+        public long getTimestamp() { return timestamp; }
+
+        @Override
+        public String toString() {
+            return "GeofenceEvent{" +
+                    "fenceId='" + fenceId + '\'' +
+                    ", eventType=" + eventType +
+                    ", driverId='" + driverId + '\'' +
+                    ", timestamp=" + timestamp +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.swiftlogistics.middleware.tracking;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Recent fixes of every driver, kept in fixed-capacity per-driver rings.
+ * Rings are indexed by the driver slot of {@link DriverLocationStore} and are
+ * allocated on a driver's first fix, so memory is capacity x 24 bytes per
+ * tracked driver and never grows after that. Once a ring is full the oldest
+ * fix is overwritten.
+ */
+public class LocationHistory {
+
+    private final int capacityPerDriver;
+    private final AtomicReferenceArray<DriverTrack> tracks;
+
+    public LocationHistory(int maxDrivers, int capacityPerDriver) {
+        if (capacityPerDriver < 2) {
+            throw new IllegalArgumentException("History capacity must be at least 2");
+        }
+        this.capacityPerDriver = capacityPerDriver;
+        this.tracks = new AtomicReferenceArray<>(maxDrivers);
+    }
+
+    /**
+     * Append a fix. Fixes older than the newest one held for the driver are ignored.
+     */
+    public void append(int slot, double latitude, double longitude,
+                       double speed, double heading, long timestampMillis) {
+        DriverTrack track = tracks.get(slot);
+        if (track == null) {
+            tracks.compareAndSet(slot, null, new DriverTrack(capacityPerDriver));
+            track = tracks.get(slot);
+        }
+        track.append(latitude, longitude, speed, heading, timestampMillis);
+    }
+
+    /**
+     * Fixes of a driver with from <= timestamp <= to, oldest first
+     */
+    public Track getTrack(int slot, long from, long to) {
+        DriverTrack track = slot >= 0 ? tracks.get(slot) : null;
+        if (track == null) {
+            return new Track(0);
+        }
+        return track.copyRange(from, to);
+    }
+
+    /**
+     * Timestamp of the oldest fix still held for a driver, or -1 if none
+     */
+    public long oldestTimestamp(int slot) {
+        DriverTrack track = slot >= 0 ? tracks.get(slot) : null;
+        return track != null ? track.oldestTimestamp() : -1;
+    }
+
+    public int getCapacityPerDriver() {
+        return capacityPerDriver;
+    }
+
+    /**
+     * Ring of fixes for a single driver
+     */
+    private static class DriverTrack {
+        private final int[] latitudesE7;
+        private final int[] longitudesE7;
+        private final float[] speeds;
+        private final float[] headings;
+        private final long[] timestamps;
+        private int start; // Index of the oldest fix
+        private int count;
+
+        DriverTrack(int capacity) {
+            this.latitudesE7 = new int[capacity];
+            this.longitudesE7 = new int[capacity];
+            this.speeds = new float[capacity];
+            this.headings = new float[capacity];
+            this.timestamps = new long[capacity];
+        }
+
+        synchronized void append(double latitude, double longitude,
+                                 double speed, double heading, long timestampMillis) {
+            int capacity = timestamps.length;
+            if (count > 0 && timestamps[(start + count - 1) % capacity] > timestampMillis) {
+                return; // Out-of-order fix from a concurrent writer
+            }
+
+            int index;
+            if (count < capacity) {
+                index = (start + count) % capacity;
+                count++;
+            } else {
+                index = start;
+                start = (start + 1) % capacity;
+            }
+            latitudesE7[index] = (int) Math.round(latitude * 1e7);
+            longitudesE7[index] = (int) Math.round(longitude * 1e7);
+            speeds[index] = (float) speed;
+            headings[index] = (float) heading;
+            timestamps[index] = timestampMillis;
+        }
+
+        synchronized long oldestTimestamp() {
+            return count == 0 ? -1 : timestamps[start];
+        }
+
+        synchronized Track copyRange(long from, long to) {
+            int first = lowerBound(from);
+            int end = lowerBound(to == Long.MAX_VALUE ? to : to + 1);
+            Track track = new Track(Math.max(0, end - first));
+
+            int capacity = timestamps.length;
+            for (int i = first; i < end; i++) {
+                int index = (start + i) % capacity;
+                track.add(latitudesE7[index] / 1e7, longitudesE7[index] / 1e7,
+                          speeds[index], headings[index], timestamps[index]);
+            }
+            return track;
+        }
+
+        // First logical position whose timestamp is >= value
+        private int lowerBound(long value) {
+            int capacity = timestamps.length;
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (timestamps[(start + mid) % capacity] < value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Copy of a time range of fixes, oldest first
+     */
+    public static class Track {
+        private double[] latitudes;
+        private double[] longitudes;
+        private double[] speeds;
+        private double[] headings;
+        private long[] timestamps;
+        private int size;
+
+        public Track(int capacity) {
+            this.latitudes = new double[capacity];
+            this.longitudes = new double[capacity];
+            this.speeds = new double[capacity];
+            this.headings = new double[capacity];
+            this.timestamps = new long[capacity];
+        }
+
+        void add(double latitude, double longitude, double speed, double heading, long timestamp) {
+            if (size == timestamps.length) {
+                int capacity = Math.max(16, size * 2);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                speeds = Arrays.copyOf(speeds, capacity);
+                headings = Arrays.copyOf(headings, capacity);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+            }
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            speeds[size] = speed;
+            headings[size] = heading;
+            timestamps[size] = timestamp;
+            size++;
+        }
+
+        // Getters
+        public int size() { return size; }
+        public double getLatitude(int i) { return latitudes[i]; }
+        public double getLongitude(int i) { return longitudes[i]; }
+        public double getSpeed(int i) { return speeds[i]; }
+        public double getHeading(int i) { return headings[i]; }
+        public long getTimestamp(int i) { return timestamps[i]; }
+    }
+}
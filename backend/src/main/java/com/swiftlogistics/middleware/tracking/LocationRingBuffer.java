@@ -0,0 +1,131 @@
+package com.swiftlogistics.middleware.tracking;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded multi-producer / single-consumer ring buffer for GPS fixes.
+ * Slots are preallocated as parallel primitive arrays, so publishing and
+ * draining a fix does not allocate. Each slot carries a sequence number
+ * that tells producers when it is free and the consumer when it is ready.
+ */
+public class LocationRingBuffer {
+
+    /**
+     * Receives fixes drained from the buffer on the consumer thread
+     */
+    @FunctionalInterface
+    public interface FixHandler {
+        void onFix(String driverId, double latitude, double longitude,
+                   double speed, double heading, long timestampMillis);
+    }
+
+    private final int capacity;
+    private final int mask;
+
+    private final AtomicLongArray sequences;
+    private final String[] driverIds;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[] speeds;
+    private final double[] headings;
+    private final long[] timestamps;
+
+    // Next position producers will claim
+    private final AtomicLong tail = new AtomicLong();
+
+    // Next position the consumer will read; only written by the consumer thread
+    private volatile long head;
+
+    public LocationRingBuffer(int requestedCapacity) {
+        if (requestedCapacity < 2) {
+            throw new IllegalArgumentException("Ring buffer capacity must be at least 2");
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        this.driverIds = new String[capacity];
+        this.latitudes = new double[capacity];
+        this.longitudes = new double[capacity];
+        this.speeds = new double[capacity];
+        this.headings = new double[capacity];
+        this.timestamps = new long[capacity];
+
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publish a fix. Returns false without blocking when the buffer is full.
+     */
+    public boolean offer(String driverId, double latitude, double longitude,
+                         double speed, double heading, long timestampMillis) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false; // Consumer has not released this slot yet
+            }
+            // Another producer claimed the slot first, retry with the new tail
+        }
+
+        driverIds[index] = driverId;
+        latitudes[index] = latitude;
+        longitudes[index] = longitude;
+        speeds[index] = speed;
+        headings[index] = heading;
+        timestamps[index] = timestampMillis;
+
+        // Volatile write publishes the slot contents to the consumer
+        sequences.set(index, position + 1);
+        return true;
+    }
+
+    /**
+     * Drain up to maxFixes published fixes into the handler.
+     * Must only be called from the single consumer thread.
+     */
+    public int drain(FixHandler handler, int maxFixes) {
+        long position = head;
+        int drained = 0;
+
+        while (drained < maxFixes) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break; // Next slot not yet published
+            }
+
+            handler.onFix(driverIds[index], latitudes[index], longitudes[index],
+                          speeds[index], headings[index], timestamps[index]);
+
+            // Hand the slot back to producers for the next lap
+            sequences.set(index, position + capacity);
+            position++;
+            drained++;
+        }
+
+        head = position;
+        return drained;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Approximate number of fixes waiting to be drained
+     */
+    public int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+}
@@ -0,0 +1,251 @@
+package com.swiftlogistics.middleware.tracking;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform lat/lon grid over driver slots of a {@link DriverLocationStore}.
+ * Each driver is a member of exactly one cell; the index only touches the
+ * cell map when a driver crosses into a new cell, so most position updates
+ * are a single array compare. Queries visit the cells around the query point
+ * and read live positions from the store.
+ */
+public class SpatialGridIndex {
+
+    private static final long NO_CELL = Long.MIN_VALUE;
+    private static final int LOCK_STRIPES = 64;
+
+    // Result.sortByDistance packs the slot into the low bits of its sort key
+    private static final int SLOT_BITS = 24;
+    static final int MAX_SLOTS = 1 << SLOT_BITS;
+
+    private final DriverLocationStore store;
+    private final double cellSizeDegrees;
+    private final double cellSizeKm;
+    private final ConcurrentHashMap<Long, Cell> cells = new ConcurrentHashMap<>();
+    private final long[] cellOfSlot;
+    private final Object[] slotLocks = new Object[LOCK_STRIPES];
+
+    public SpatialGridIndex(DriverLocationStore store, double cellSizeDegrees) {
+        if (store.capacity() > MAX_SLOTS) {
+            throw new IllegalArgumentException("Spatial index supports at most " + MAX_SLOTS
+                + " driver slots, store has " + store.capacity());
+        }
+        this.store = store;
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.cellSizeKm = cellSizeDegrees * GeoMath.KM_PER_DEGREE;
+        this.cellOfSlot = new long[store.capacity()];
+        Arrays.fill(cellOfSlot, NO_CELL);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            slotLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Move a driver slot to the cell containing the given position
+     */
+    public void update(int slot, double latitude, double longitude) {
+        long key = cellKey(row(latitude), column(longitude));
+        if (cellOfSlot[slot] == key) {
+            return; // Still in the same cell
+        }
+
+        synchronized (slotLocks[slot & (LOCK_STRIPES - 1)]) {
+            long previous = cellOfSlot[slot];
+            if (previous == key) {
+                return;
+            }
+            if (previous != NO_CELL) {
+                Cell oldCell = cells.get(previous);
+                if (oldCell != null) {
+                    oldCell.remove(slot);
+                }
+            }
+            cells.computeIfAbsent(key, k -> new Cell()).add(slot);
+            cellOfSlot[slot] = key;
+        }
+    }
+
+    /**
+     * Drivers within radiusKm of a point whose last fix is not older than minTimestamp
+     */
+    public Result findInRadius(double latitude, double longitude, double radiusKm, long minTimestamp) {
+        Result result = new Result(16);
+        DriverLocationStore.LocationReading reading = new DriverLocationStore.LocationReading();
+
+        int minRow = row(latitude - GeoMath.kmToLatitudeDegrees(radiusKm));
+        int maxRow = row(latitude + GeoMath.kmToLatitudeDegrees(radiusKm));
+        double lonSpan = GeoMath.kmToLongitudeDegrees(radiusKm, latitude);
+        int minColumn = column(longitude - lonSpan);
+        int maxColumn = column(longitude + lonSpan);
+
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minColumn; c <= maxColumn; c++) {
+                Cell cell = cells.get(cellKey(r, c));
+                if (cell == null) continue;
+
+                int[] members = cell.members();
+                for (int slot : members) {
+                    if (!store.read(slot, reading) || reading.getTimestamp() < minTimestamp) continue;
+                    double distance = GeoMath.haversineKm(latitude, longitude,
+                        reading.getLatitude(), reading.getLongitude());
+                    if (distance <= radiusKm) {
+                        result.add(slot, distance);
+                    }
+                }
+            }
+        }
+
+        result.sortByDistance();
+        return result;
+    }
+
+    /**
+     * The k drivers closest to a point, searching outwards ring by ring up to maxSearchKm
+     */
+    public Result findNearest(double latitude, double longitude, int k, double maxSearchKm, long minTimestamp) {
+        Result best = new Result(k);
+        if (k <= 0) {
+            return best;
+        }
+        DriverLocationStore.LocationReading reading = new DriverLocationStore.LocationReading();
+
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+
+        // Longitude cells shrink towards the poles; use the narrower side as ring width
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 1e-6);
+        double ringWidthKm = cellSizeKm * Math.min(1.0, cosLat);
+        int maxRing = (int) Math.ceil(maxSearchKm / ringWidthKm) + 1;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Every cell in this ring is at least (ring - 1) cell widths away
+            if (best.size() == k && (ring - 1) * ringWidthKm > best.distanceAt(k - 1)) {
+                break;
+            }
+
+            for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                boolean edgeRow = r == centerRow - ring || r == centerRow + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = centerColumn - ring; c <= centerColumn + ring; c += step) {
+                    Cell cell = cells.get(cellKey(r, c));
+                    if (cell == null) continue;
+
+                    for (int slot : cell.members()) {
+                        if (!store.read(slot, reading) || reading.getTimestamp() < minTimestamp) continue;
+                        double distance = GeoMath.haversineKm(latitude, longitude,
+                            reading.getLatitude(), reading.getLongitude());
+                        if (distance <= maxSearchKm) {
+                            best.offerBounded(slot, distance, k);
+                        }
+                    }
+                }
+            }
+        }
+
+        return best;
+    }
+
+    public int cellCount() {
+        return cells.size();
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellSizeDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor(longitude / cellSizeDegrees);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+
+    /**
+     * Driver slots currently inside one grid cell
+     */
+    private static class Cell {
+        private int[] slots = new int[4];
+        private int size;
+
+        synchronized void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        synchronized void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+
+        synchronized int[] members() {
+            return Arrays.copyOf(slots, size);
+        }
+    }
+
+    /**
+     * Driver slots with their distance to the query point
+     */
+    public static class Result {
+        private int[] slots;
+        private double[] distances;
+        private int size;
+
+        Result(int initialCapacity) {
+            this.slots = new int[Math.max(1, initialCapacity)];
+            this.distances = new double[Math.max(1, initialCapacity)];
+        }
+
+        void add(int slot, double distance) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            slots[size] = slot;
+            distances[size] = distance;
+            size++;
+        }
+
+        // Keep the k smallest distances in ascending order
+        void offerBounded(int slot, double distance, int k) {
+            if (size == k && distance >= distances[k - 1]) {
+                return;
+            }
+            int position = size < k ? size++ : k - 1;
+            while (position > 0 && distances[position - 1] > distance) {
+                slots[position] = slots[position - 1];
+                distances[position] = distances[position - 1];
+                position--;
+            }
+            slots[position] = slot;
+            distances[position] = distance;
+        }
+
+        void sortByDistance() {
+            // Pack millimetre distance above the slot so a primitive sort orders both
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (Math.round(distances[i] * 1_000_000.0) << SLOT_BITS) | slots[i];
+            }
+            Arrays.sort(keys);
+            for (int i = 0; i < size; i++) {
+                slots[i] = (int) (keys[i] & (MAX_SLOTS - 1));
+                distances[i] = (keys[i] >>> SLOT_BITS) / 1_000_000.0;
+            }
+        }
+
+        // Getters
+        public int size() { return size; }
+        public int slotAt(int i) { return slots[i]; }
+        public double distanceAt(int i) { return distances[i]; }
+    }
+}
@@ -0,0 +1,226 @@
+package com.swiftlogistics.middleware.tracking;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Lossy compression of driver tracks.
+ *
+ * Simplification is a time-aware Douglas-Peucker: a fix is dropped when its
+ * position is within the error bound of where the driver would have been by
+ * interpolating linearly in time between the kept neighbours (synchronized
+ * Euclidean distance). This keeps stops and speed changes that plain
+ * Douglas-Peucker would flatten away.
+ *
+ * Kept fixes are encoded as zigzag varints: coordinates (1e-6 degree, about
+ * 11 cm) and timestamps as delta-of-delta, speed and heading as deltas. A GPS
+ * feed at a steady rate mostly produces one- or two-byte values per field.
+ * {@link Decoder} reads one fix at a time, so replay never materialises the
+ * whole track.
+ */
+public final class TrackCompressor {
+
+    private static final double COORDINATE_SCALE = 1e6;
+    private static final double METERS_PER_DEGREE = GeoMath.KM_PER_DEGREE * 1000.0;
+
+    private TrackCompressor() {}
+
+    /**
+     * Indices of the fixes to keep so no dropped fix deviates more than
+     * toleranceMeters from its time-interpolated position. First and last are always kept.
+     */
+    public static int[] simplify(LocationHistory.Track track, double toleranceMeters) {
+        int n = track.size();
+        if (n <= 2) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            return all;
+        }
+
+        // Local equirectangular projection in metres; accurate at tracking scales
+        double cosLat = Math.cos(Math.toRadians(track.getLatitude(0)));
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+
+        while (top > 0) {
+            int end = stack[--top];
+            int start = stack[--top];
+            if (end - start < 2) continue;
+
+            double startX = track.getLongitude(start) * cosLat * METERS_PER_DEGREE;
+            double startY = track.getLatitude(start) * METERS_PER_DEGREE;
+            double endX = track.getLongitude(end) * cosLat * METERS_PER_DEGREE;
+            double endY = track.getLatitude(end) * METERS_PER_DEGREE;
+            long startTime = track.getTimestamp(start);
+            long span = track.getTimestamp(end) - startTime;
+
+            int farthest = -1;
+            double maxDistance = toleranceMeters;
+            for (int i = start + 1; i < end; i++) {
+                double ratio = span > 0 ? (double) (track.getTimestamp(i) - startTime) / span : 0.0;
+                double dx = track.getLongitude(i) * cosLat * METERS_PER_DEGREE - (startX + ratio * (endX - startX));
+                double dy = track.getLatitude(i) * METERS_PER_DEGREE - (startY + ratio * (endY - startY));
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                if (top + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = start;
+                stack[top++] = farthest;
+                stack[top++] = farthest;
+                stack[top++] = end;
+            }
+        }
+
+        int count = 0;
+        for (boolean k : keep) if (k) count++;
+        int[] indices = new int[count];
+        for (int i = 0, j = 0; i < n; i++) {
+            if (keep[i]) indices[j++] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * Write the selected fixes of a track. The block is self-delimiting.
+     */
+    public static void encode(LocationHistory.Track track, int[] indices, OutputStream out) throws IOException {
+        writeVarint(out, indices.length);
+
+        long previousLatitude = 0, previousLongitude = 0, previousTime = 0;
+        long latitudeDelta = 0, longitudeDelta = 0, timeDelta = 0;
+        long previousSpeed = 0, previousHeading = 0;
+
+        for (int k = 0; k < indices.length; k++) {
+            int i = indices[k];
+            long latitude = Math.round(track.getLatitude(i) * COORDINATE_SCALE);
+            long longitude = Math.round(track.getLongitude(i) * COORDINATE_SCALE);
+            long time = track.getTimestamp(i);
+            long speed = Math.round(track.getSpeed(i) * 10.0);
+            long heading = Math.round(track.getHeading(i) * 10.0);
+
+            if (k == 0) {
+                writeVarint(out, zigzag(latitude));
+                writeVarint(out, zigzag(longitude));
+                writeVarint(out, zigzag(time));
+            } else {
+                long dLatitude = latitude - previousLatitude;
+                long dLongitude = longitude - previousLongitude;
+                long dTime = time - previousTime;
+                writeVarint(out, zigzag(dLatitude - latitudeDelta));
+                writeVarint(out, zigzag(dLongitude - longitudeDelta));
+                writeVarint(out, zigzag(dTime - timeDelta));
+                latitudeDelta = dLatitude;
+                longitudeDelta = dLongitude;
+                timeDelta = dTime;
+            }
+            writeVarint(out, zigzag(speed - previousSpeed));
+            writeVarint(out, zigzag(heading - previousHeading));
+
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+            previousTime = time;
+            previousSpeed = speed;
+            previousHeading = heading;
+        }
+    }
+
+    /**
+     * Streaming reader for one block written by {@link #encode}
+     */
+    public static class Decoder {
+        private final InputStream in;
+        private final int count;
+        private int position;
+
+        private long latitude, longitude, time, speed, heading;
+        private long latitudeDelta, longitudeDelta, timeDelta;
+
+        public Decoder(InputStream in) throws IOException {
+            this.in = in;
+            this.count = (int) readVarint(in);
+        }
+
+        /**
+         * Advance to the next fix; false once the block is exhausted
+         */
+        public boolean next() throws IOException {
+            if (position == count) {
+                return false;
+            }
+            if (position == 0) {
+                latitude = unzigzag(readVarint(in));
+                longitude = unzigzag(readVarint(in));
+                time = unzigzag(readVarint(in));
+            } else {
+                latitudeDelta += unzigzag(readVarint(in));
+                longitudeDelta += unzigzag(readVarint(in));
+                timeDelta += unzigzag(readVarint(in));
+                latitude += latitudeDelta;
+                longitude += longitudeDelta;
+                time += timeDelta;
+            }
+            speed += unzigzag(readVarint(in));
+            heading += unzigzag(readVarint(in));
+            position++;
+            return true;
+        }
+
+        // Getters
+        public int getCount() { return count; }
+        public double getLatitude() { return latitude / COORDINATE_SCALE; }
+        public double getLongitude() { return longitude / COORDINATE_SCALE; }
+        public double getSpeed() { return speed / 10.0; }
+        public double getHeading() { return heading / 10.0; }
+        public long getTimestamp() { return time; }
+    }
+
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Truncated varint");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
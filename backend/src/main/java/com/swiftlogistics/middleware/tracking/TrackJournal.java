@@ -0,0 +1,673 @@
+package com.swiftlogistics.middleware.tracking;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of every applied location fix, kept in memory-mapped
+ * segment files of fixed-width binary records.
+ *
+ * Record layout (32 bytes, little endian):
+ * timestamp long, driver key int, latitude E7 int, longitude E7 int,
+ * speed float, heading float, CRC32C of the preceding 28 bytes int.
+ *
+ * Driver ids are written once to a dictionary file and referenced by a dense
+ * key. Segments are pre-sized and zero-filled, so after a crash the active
+ * segment is recovered by scanning forward until the first record whose
+ * checksum does not match. A new segment is started when the current one is
+ * full or older than the roll interval; sealed segments whose newest fix is
+ * older than the retention period are deleted on roll and at startup.
+ *
+ * Writes land in the page cache and survive a process crash; they are forced
+ * to disk when a segment is sealed and on close.
+ *
+ * Sealed segments can be compacted into a ".trk" file holding one
+ * {@link TrackCompressor} block per driver. Compacted segments are read by
+ * streaming decode and kept for their own, longer retention period.
+ */
+public class TrackJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TrackJournal.class);
+
+    public static final int RECORD_SIZE = 32;
+    private static final int HEADER_SIZE = 32;
+    private static final int MAGIC = 0x534c474a; // "SLGJ"
+    private static final int FORMAT_VERSION = 1;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String COMPACTED_SUFFIX = ".trk";
+    private static final int COMPACTED_MAGIC = 0x534c4754; // "SLGT"
+    private static final String DICTIONARY_FILE = "drivers.dict";
+    private static final int READ_CHUNK_RECORDS = 4096;
+
+    /**
+     * Receives journal records in write order
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void onRecord(String driverId, double latitude, double longitude,
+                      double speed, double heading, long timestampMillis);
+    }
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final long rollIntervalMillis;
+    private final long retentionMillis;
+    private final long compactedRetentionMillis;
+
+    // Driver dictionary: journal key <-> driver id, plus a cache by store slot
+    private final List<String> driverIdByKey = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> keyByDriverId = new HashMap<>();
+    private final int[] keyBySlot;
+    private FileChannel dictionaryChannel;
+
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private Segment active;
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+    public TrackJournal(Path directory, long segmentBytes, long rollIntervalMillis,
+                        long retentionMillis, long compactedRetentionMillis, int maxDrivers) throws IOException {
+        if (segmentBytes < HEADER_SIZE + RECORD_SIZE || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between "
+                + (HEADER_SIZE + RECORD_SIZE) + " bytes and 2 GB");
+        }
+        this.directory = directory;
+        this.recordsPerSegment = (int) ((segmentBytes - HEADER_SIZE) / RECORD_SIZE);
+        this.rollIntervalMillis = rollIntervalMillis;
+        this.retentionMillis = retentionMillis;
+        this.compactedRetentionMillis = compactedRetentionMillis;
+        this.keyBySlot = new int[maxDrivers];
+        Arrays.fill(keyBySlot, -1);
+
+        Files.createDirectories(directory);
+        loadDictionary();
+        recoverSegments();
+        deleteExpiredSegments(System.currentTimeMillis());
+    }
+
+    /**
+     * Append one fix. slot is the driver's {@link DriverLocationStore} slot and
+     * only serves as a lookup cache for the driver key.
+     */
+    public synchronized void append(int slot, String driverId, double latitude, double longitude,
+                                    double speed, double heading, long timestampMillis) throws IOException {
+        int key = slot >= 0 && slot < keyBySlot.length ? keyBySlot[slot] : -1;
+        if (key < 0) {
+            key = driverKey(driverId);
+            if (slot >= 0 && slot < keyBySlot.length) {
+                keyBySlot[slot] = key;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        if (active == null || active.count == recordsPerSegment
+                || now - active.createdAt >= rollIntervalMillis) {
+            roll(now);
+        }
+
+        scratch.clear();
+        scratch.putLong(timestampMillis);
+        scratch.putInt(key);
+        scratch.putInt((int) Math.round(latitude * 1e7));
+        scratch.putInt((int) Math.round(longitude * 1e7));
+        scratch.putFloat((float) speed);
+        scratch.putFloat((float) heading);
+        crc.reset();
+        crc.update(scratch.array(), 0, RECORD_SIZE - 4);
+        scratch.putInt((int) crc.getValue());
+
+        MappedByteBuffer buffer = active.mapped;
+        buffer.put(HEADER_SIZE + active.count * RECORD_SIZE, scratch.array(), 0, RECORD_SIZE);
+        active.recordAppended(timestampMillis);
+    }
+
+    /**
+     * Fixes of one driver with from <= timestamp <= to, in write order
+     */
+    public LocationHistory.Track readTrack(String driverId, long from, long to) throws IOException {
+        LocationHistory.Track track = new LocationHistory.Track(64);
+        Integer key;
+        synchronized (this) {
+            key = keyByDriverId.get(driverId);
+        }
+        if (key == null) {
+            return track;
+        }
+        int driverKey = key;
+        scan(from, to, driverKey, (id, latitude, longitude, speed, heading, timestamp) ->
+            track.add(latitude, longitude, speed, heading, timestamp));
+        return track;
+    }
+
+    /**
+     * Visit every fix with from <= timestamp <= to, in write order
+     */
+    public void replay(long from, long to, RecordVisitor visitor) throws IOException {
+        scan(from, to, -1, visitor);
+    }
+
+    /**
+     * Timestamp of the oldest fix still retained, or -1 if the journal is empty
+     */
+    public long oldestTimestamp() {
+        long oldest = Long.MAX_VALUE;
+        for (Segment segment : segments) {
+            if (segment.count > 0) {
+                oldest = Math.min(oldest, segment.minTimestamp);
+            }
+        }
+        return oldest == Long.MAX_VALUE ? -1 : oldest;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    public long recordCount() {
+        long total = 0;
+        for (Segment segment : segments) {
+            total += segment.count;
+        }
+        return total;
+    }
+
+    /**
+     * Force the active segment to disk
+     */
+    public synchronized void flush() {
+        if (active != null) {
+            active.mapped.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (active != null) {
+            active.seal();
+            active = null;
+        }
+        if (dictionaryChannel != null) {
+            dictionaryChannel.force(true);
+            dictionaryChannel.close();
+        }
+    }
+
+    private void scan(long from, long to, int driverKey, RecordVisitor visitor) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (Segment segment : segments) {
+            int count = segment.count; // Published after the record bytes were written
+            if (count == 0 || segment.maxTimestamp < from || segment.minTimestamp > to) {
+                continue;
+            }
+
+            if (segment.compacted) {
+                scanCompacted(segment, from, to, driverKey, visitor);
+                continue;
+            }
+
+            ByteBuffer source;
+            FileChannel channel = null;
+            MappedByteBuffer mapped = segment.mapped;
+            if (mapped != null) {
+                source = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            } else {
+                if (!Files.exists(segment.path)) continue; // Removed by retention
+                channel = FileChannel.open(segment.path, StandardOpenOption.READ);
+                source = null;
+            }
+
+            try {
+                for (int first = 0; first < count; first += READ_CHUNK_RECORDS) {
+                    int records = Math.min(READ_CHUNK_RECORDS, count - first);
+                    long offset = HEADER_SIZE + (long) first * RECORD_SIZE;
+                    chunk.clear().limit(records * RECORD_SIZE);
+                    if (source != null) {
+                        chunk.put(source.slice((int) offset, records * RECORD_SIZE));
+                    } else {
+                        while (chunk.hasRemaining()) {
+                            if (channel.read(chunk, offset + chunk.position()) < 0) break;
+                        }
+                    }
+                    chunk.flip();
+
+                    while (chunk.remaining() >= RECORD_SIZE) {
+                        long timestamp = chunk.getLong();
+                        int key = chunk.getInt();
+                        int latitudeE7 = chunk.getInt();
+                        int longitudeE7 = chunk.getInt();
+                        float speed = chunk.getFloat();
+                        float heading = chunk.getFloat();
+                        chunk.getInt(); // Checksum, verified during recovery
+
+                        if (timestamp < from || timestamp > to || (driverKey >= 0 && key != driverKey)) {
+                            continue;
+                        }
+                        visitor.onRecord(driverIdByKey.get(key), latitudeE7 / 1e7, longitudeE7 / 1e7,
+                                         speed, heading, timestamp);
+                    }
+                }
+            } finally {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+        }
+    }
+
+    private void scanCompacted(Segment segment, long from, long to, int driverKey,
+                               RecordVisitor visitor) throws IOException {
+        if (!Files.exists(segment.path)) {
+            return; // Removed by retention
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(segment.path), 64 * 1024))) {
+            readCompactedHeader(in, segment.path);
+            in.readLong(); // Timestamp bounds and record count, already held by the segment
+            in.readLong();
+            in.readInt();
+            int blocks = in.readInt();
+            for (int b = 0; b < blocks; b++) {
+                int key = (int) TrackCompressor.readVarint(in);
+                long length = TrackCompressor.readVarint(in);
+                if (driverKey >= 0 && key != driverKey) {
+                    in.skipNBytes(length);
+                    continue;
+                }
+                String driverId = driverIdByKey.get(key);
+                TrackCompressor.Decoder decoder = new TrackCompressor.Decoder(in);
+                while (decoder.next()) {
+                    long timestamp = decoder.getTimestamp();
+                    if (timestamp >= from && timestamp <= to) {
+                        visitor.onRecord(driverId, decoder.getLatitude(), decoder.getLongitude(),
+                                         decoder.getSpeed(), decoder.getHeading(), timestamp);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Replace every sealed raw segment by a simplified, delta-encoded copy.
+     * Runs outside the append lock; only the segment list swap is synchronized.
+     */
+    public CompactionResult compactSealedSegments(double toleranceMeters) throws IOException {
+        CompactionResult result = new CompactionResult();
+        for (Segment segment : segments) {
+            if (segment.compacted || segment.mapped != null || segment == active) {
+                continue;
+            }
+            compactSegment(segment, toleranceMeters, result);
+        }
+        return result;
+    }
+
+    private void compactSegment(Segment segment, double toleranceMeters, CompactionResult result) throws IOException {
+        if (!Files.exists(segment.path)) {
+            return;
+        }
+        long rawBytes = Files.size(segment.path);
+
+        // Group the segment's fixes by driver; a segment is bounded so this stays bounded too
+        Map<Integer, LocationHistory.Track> tracks = new HashMap<>();
+        scan(Long.MIN_VALUE, Long.MAX_VALUE, segment, (key, latitude, longitude, speed, heading, timestamp) ->
+            tracks.computeIfAbsent(key, k -> new LocationHistory.Track(64))
+                  .add(latitude, longitude, speed, heading, timestamp));
+
+        Path target = segment.path.resolveSibling(String.format("%016d%s", segment.sequence, COMPACTED_SUFFIX));
+        Path temporary = segment.path.resolveSibling(target.getFileName() + ".tmp");
+        Segment compacted = new Segment(segment.sequence, target, segment.createdAt);
+        compacted.compacted = true;
+
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary), 64 * 1024))) {
+            out.writeInt(COMPACTED_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(segment.createdAt);
+            out.writeLong(segment.minTimestamp);
+            out.writeLong(segment.maxTimestamp);
+            int kept = 0;
+            for (LocationHistory.Track track : tracks.values()) {
+                kept += TrackCompressor.simplify(track, toleranceMeters).length;
+            }
+            out.writeInt(kept);
+            out.writeInt(tracks.size());
+
+            for (Map.Entry<Integer, LocationHistory.Track> entry : tracks.entrySet()) {
+                LocationHistory.Track track = entry.getValue();
+                int[] indices = TrackCompressor.simplify(track, toleranceMeters);
+                block.reset();
+                TrackCompressor.encode(track, indices, block);
+                TrackCompressor.writeVarint(out, entry.getKey());
+                TrackCompressor.writeVarint(out, block.size());
+                block.writeTo(out);
+                for (int i : indices) {
+                    compacted.recordAppended(track.getTimestamp(i));
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        boolean swapped;
+        synchronized (this) {
+            int index = segments.indexOf(segment);
+            swapped = index >= 0;
+            if (swapped) {
+                segments.set(index, compacted);
+            }
+        }
+        Files.deleteIfExists(swapped ? segment.path : target);
+        if (swapped) {
+            result.segments++;
+            result.recordsBefore += segment.count;
+            result.recordsAfter += compacted.count;
+            result.bytesBefore += rawBytes;
+            result.bytesAfter += Files.size(target);
+        }
+    }
+
+    // Raw records of one segment, keyed by driver key rather than id
+    private void scan(long from, long to, Segment segment, KeyedRecordVisitor visitor) throws IOException {
+        int count = segment.count;
+        ByteBuffer chunk = ByteBuffer.allocate(READ_CHUNK_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+            for (int first = 0; first < count; first += READ_CHUNK_RECORDS) {
+                int records = Math.min(READ_CHUNK_RECORDS, count - first);
+                long offset = HEADER_SIZE + (long) first * RECORD_SIZE;
+                chunk.clear().limit(records * RECORD_SIZE);
+                while (chunk.hasRemaining()) {
+                    if (channel.read(chunk, offset + chunk.position()) < 0) break;
+                }
+                chunk.flip();
+                while (chunk.remaining() >= RECORD_SIZE) {
+                    long timestamp = chunk.getLong();
+                    int key = chunk.getInt();
+                    int latitudeE7 = chunk.getInt();
+                    int longitudeE7 = chunk.getInt();
+                    float speed = chunk.getFloat();
+                    float heading = chunk.getFloat();
+                    chunk.getInt();
+                    if (timestamp >= from && timestamp <= to) {
+                        visitor.onRecord(key, latitudeE7 / 1e7, longitudeE7 / 1e7, speed, heading, timestamp);
+                    }
+                }
+            }
+        }
+    }
+
+    private void roll(long now) throws IOException {
+        long sequence = 0;
+        if (active != null) {
+            sequence = active.sequence + 1;
+            active.seal();
+        } else if (!segments.isEmpty()) {
+            sequence = segments.get(segments.size() - 1).sequence + 1;
+        }
+
+        Path path = directory.resolve(String.format("%016d%s", sequence, SEGMENT_SUFFIX));
+        Segment segment = new Segment(sequence, path, now);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) recordsPerSegment * RECORD_SIZE);
+        }
+        segment.mapped.order(ByteOrder.LITTLE_ENDIAN);
+        segment.mapped.putInt(0, MAGIC);
+        segment.mapped.putInt(4, FORMAT_VERSION);
+        segment.mapped.putInt(8, RECORD_SIZE);
+        segment.mapped.putLong(16, now);
+
+        segments.add(segment);
+        active = segment;
+        deleteExpiredSegments(now);
+    }
+
+    private void recoverSegments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*{" + SEGMENT_SUFFIX + ","
+                + COMPACTED_SUFFIX + "}")) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(null); // Zero-padded sequence numbers sort by name
+
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            String name = path.getFileName().toString();
+            boolean compacted = name.endsWith(COMPACTED_SUFFIX);
+            long sequence;
+            try {
+                sequence = Long.parseLong(name.substring(0, name.length() - 4));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            if (compacted) {
+                // A raw segment left behind by a crash between rename and delete
+                Files.deleteIfExists(path.resolveSibling(String.format("%016d%s", sequence, SEGMENT_SUFFIX)));
+                Segment segment = recoverCompacted(sequence, path);
+                if (segment != null) {
+                    segments.add(segment);
+                }
+                continue;
+            }
+            if (i + 1 < paths.size() && paths.get(i + 1).getFileName().toString()
+                    .equals(String.format("%016d%s", sequence, COMPACTED_SUFFIX))) {
+                continue; // Compacted copy exists and is picked up next
+            }
+
+            boolean last = i == paths.size() - 1;
+            Segment segment = recoverSegment(sequence, path, last);
+            if (segment != null) {
+                segments.add(segment);
+                if (last && segment.mapped != null) {
+                    active = segment;
+                }
+            }
+        }
+    }
+
+    // Scan a segment up to its last valid record; the newest segment stays mapped for appends
+    private Segment recoverSegment(long sequence, Path path, boolean reopen) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(8) != RECORD_SIZE) {
+                return null;
+            }
+
+            Segment segment = new Segment(sequence, path, mapped.getLong(16));
+            int capacity = (int) ((fileSize - HEADER_SIZE) / RECORD_SIZE);
+            byte[] record = new byte[RECORD_SIZE];
+            ByteBuffer view = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+
+            int count = 0;
+            while (count < capacity) {
+                mapped.get(HEADER_SIZE + count * RECORD_SIZE, record);
+                long timestamp = view.getLong(0);
+                int key = view.getInt(8);
+                crc.reset();
+                crc.update(record, 0, RECORD_SIZE - 4);
+                if (timestamp <= 0 || key < 0 || key >= driverIdByKey.size()
+                        || view.getInt(RECORD_SIZE - 4) != (int) crc.getValue()) {
+                    break; // First torn or never-written record
+                }
+                segment.recordAppended(timestamp);
+                count++;
+            }
+
+            if (reopen && count < capacity && capacity == recordsPerSegment) {
+                // Pages may reach disk out of order, so a valid-looking record can sit past
+                // a torn one. Clear the whole tail so it cannot resurface once appends reach it.
+                byte[] zeros = new byte[RECORD_SIZE];
+                for (int i = count; i < capacity; i++) {
+                    int offset = HEADER_SIZE + i * RECORD_SIZE;
+                    if (mapped.getLong(offset) != 0 || mapped.getInt(offset + RECORD_SIZE - 4) != 0) {
+                        mapped.put(offset, zeros);
+                    }
+                }
+                segment.mapped = mapped;
+            }
+            return segment;
+        }
+    }
+
+    private Segment recoverCompacted(long sequence, Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            Segment segment = new Segment(sequence, path, 0);
+            segment.compacted = true;
+            readCompactedHeader(in, path);
+            segment.minTimestamp = in.readLong();
+            segment.maxTimestamp = in.readLong();
+            segment.count = in.readInt();
+            return segment;
+        } catch (IOException e) {
+            log.warn("Skipping unreadable journal segment {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    // Validates magic and version and skips the creation time; leaves the stream at the timestamp bounds
+    private static void readCompactedHeader(DataInputStream in, Path path) throws IOException {
+        if (in.readInt() != COMPACTED_MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a compacted journal segment: " + path);
+        }
+        in.readLong();
+    }
+
+    private void deleteExpiredSegments(long now) {
+        for (Segment segment : segments) {
+            if (segment == active) continue;
+            long cutoff = now - (segment.compacted ? compactedRetentionMillis : retentionMillis);
+            if (segment.count == 0 || segment.maxTimestamp < cutoff) {
+                segments.remove(segment);
+                try {
+                    Files.deleteIfExists(segment.path);
+                } catch (IOException e) {
+                    log.warn("Failed to delete journal segment {}: {}", segment.path, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private int driverKey(String driverId) throws IOException {
+        Integer key = keyByDriverId.get(driverId);
+        if (key != null) {
+            return key;
+        }
+        // Persist the dictionary entry before any record refers to it
+        dictionaryChannel.write(ByteBuffer.wrap((driverId + "\n").getBytes(StandardCharsets.UTF_8)));
+        int next = driverIdByKey.size();
+        driverIdByKey.add(driverId);
+        keyByDriverId.put(driverId, next);
+        return next;
+    }
+
+    private void loadDictionary() throws IOException {
+        Path path = directory.resolve(DICTIONARY_FILE);
+        dictionaryChannel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        byte[] content = Files.readAllBytes(path);
+        int lineStart = 0;
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\n') {
+                String driverId = new String(content, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                keyByDriverId.put(driverId, driverIdByKey.size());
+                driverIdByKey.add(driverId);
+                lineStart = i + 1;
+            }
+        }
+        // Drop a partially written last entry
+        dictionaryChannel.truncate(lineStart);
+        dictionaryChannel.position(lineStart);
+    }
+
+    @FunctionalInterface
+    private interface KeyedRecordVisitor {
+        void onRecord(int driverKey, double latitude, double longitude,
+                      double speed, double heading, long timestampMillis);
+    }
+
+    /**
+     * Outcome of one compaction pass
+     */
+    public static class CompactionResult {
+        private int segments;
+        private long recordsBefore;
+        private long recordsAfter;
+        private long bytesBefore;
+        private long bytesAfter;
+
+        // Getters
+        public int getSegments() { return segments; }
+        public long getRecordsBefore() { return recordsBefore; }
+        public long getRecordsAfter() { return recordsAfter; }
+        public long getBytesBefore() { return bytesBefore; }
+        public long getBytesAfter() { return bytesAfter; }
+    }
+
+    /**
+     * One segment file; count and the timestamp bounds are published by the writer
+     */
+    private static class Segment {
+        private final long sequence;
+        private final Path path;
+        private final long createdAt;
+        private MappedByteBuffer mapped; // Only while the segment accepts appends
+        private boolean compacted;
+        private volatile long minTimestamp = Long.MAX_VALUE;
+        private volatile long maxTimestamp = Long.MIN_VALUE;
+        private volatile int count;
+
+        Segment(long sequence, Path path, long createdAt) {
+            this.sequence = sequence;
+            this.path = path;
+            this.createdAt = createdAt;
+        }
+
+        void recordAppended(long timestampMillis) {
+            if (timestampMillis < minTimestamp) minTimestamp = timestampMillis;
+            if (timestampMillis > maxTimestamp) maxTimestamp = timestampMillis;
+            count = count + 1;
+        }
+
+        void seal() {
+            if (mapped != null) {
+                mapped.force();
+                mapped = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.swiftlogistics.middleware.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        LruCache<String, Integer> cache = new LruCache<>(3, 1);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("c", 3);
+
+        // Reading "a" makes "b" the eldest
+        assertEquals(1, cache.get("a"));
+        cache.put("d", 4);
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.get("a"));
+        assertEquals(3, cache.get("c"));
+        assertEquals(4, cache.get("d"));
+    }
+
+    @Test
+    void replacingValueRefreshesEntry() {
+        LruCache<String, Integer> cache = new LruCache<>(2, 1);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("a", 10);
+        cache.put("c", 3);
+
+        assertEquals(10, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void segmentedCacheStaysWithinCapacity() {
+        LruCache<Integer, Integer> cache = new LruCache<>(64, 8);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.size() <= 64, "size " + cache.size());
+
+        // The newest entry survives; the oldest is long gone
+        assertEquals(9_999, cache.get(9_999));
+        assertNull(cache.get(0));
+    }
+
+    @Test
+    void concurrencyAboveCapacityKeepsEveryEntry() {
+        LruCache<Integer, Integer> cache = new LruCache<>(2, 16);
+        cache.put(1, 1);
+        cache.put(2, 2);
+        assertEquals(1, cache.get(1));
+        assertEquals(2, cache.get(2));
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<String, String>(0, 4));
+    }
+}
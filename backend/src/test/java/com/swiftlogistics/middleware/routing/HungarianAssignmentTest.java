@@ -0,0 +1,120 @@
+package com.swiftlogistics.middleware.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HungarianAssignmentTest {
+
+    private final Random random = new Random(17);
+
+    @Test
+    void matchesBruteForceOnRandomSquareMatrices() {
+        for (int trial = 0; trial < 300; trial++) {
+            int n = 1 + random.nextInt(7);
+            double[] costs = new double[n * n];
+            for (int i = 0; i < costs.length; i++) costs[i] = random.nextDouble() * 100;
+            assertOptimal(costs, n, n);
+        }
+    }
+
+    @Test
+    void matchesBruteForceOnRectangularMatrices() {
+        for (int trial = 0; trial < 300; trial++) {
+            int columns = 2 + random.nextInt(6);
+            int rows = 1 + random.nextInt(columns);
+            double[] costs = new double[rows * columns];
+            for (int i = 0; i < costs.length; i++) costs[i] = random.nextDouble() * 100;
+            assertOptimal(costs, rows, columns);
+        }
+    }
+
+    @Test
+    void matchesBruteForceWithTiedCosts() {
+        for (int trial = 0; trial < 300; trial++) {
+            int columns = 2 + random.nextInt(6);
+            int rows = 1 + random.nextInt(columns);
+            double[] costs = new double[rows * columns];
+            for (int i = 0; i < costs.length; i++) costs[i] = random.nextInt(4);
+            assertOptimal(costs, rows, columns);
+        }
+    }
+
+    @Test
+    void matchesBruteForceOnNearRankOneCosts() {
+        // Every driver's drive to one depot plus a small per-pair term
+        for (int trial = 0; trial < 200; trial++) {
+            int n = 2 + random.nextInt(6);
+            double[] toDepot = new double[n];
+            double[] fromDepot = new double[n];
+            for (int i = 0; i < n; i++) {
+                toDepot[i] = random.nextInt(20);
+                fromDepot[i] = random.nextInt(20);
+            }
+            double[] costs = new double[n * n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    costs[i * n + j] = toDepot[i] + fromDepot[j] + (random.nextInt(5) == 0 ? random.nextInt(3) : 0);
+                }
+            }
+            assertOptimal(costs, n, n);
+        }
+    }
+
+    @Test
+    void avoidsForbiddenPairsPricedHigh() {
+        double forbidden = 1e9;
+        double[] costs = {
+            1, forbidden, forbidden,
+            2, 3, forbidden,
+            forbidden, 1, 5
+        };
+        assertArrayEquals(new int[] {0, 1, 2}, expectValid(HungarianAssignment.solve(costs, 3, 3), 3, 3));
+    }
+
+    @Test
+    void rejectsInvalidInput() {
+        assertThrows(IllegalArgumentException.class, () -> HungarianAssignment.solve(new double[6], 3, 2));
+        assertThrows(IllegalArgumentException.class, () -> HungarianAssignment.solve(new double[5], 2, 3));
+        assertThrows(IllegalArgumentException.class,
+            () -> HungarianAssignment.solve(new double[] {1, Double.POSITIVE_INFINITY}, 1, 2));
+        assertEquals(0, HungarianAssignment.solve(new double[0], 0, 3).length);
+    }
+
+    private void assertOptimal(double[] costs, int rows, int columns) {
+        int[] assignment = expectValid(HungarianAssignment.solve(costs.clone(), rows, columns), rows, columns);
+        double total = 0;
+        for (int i = 0; i < rows; i++) {
+            total += costs[i * columns + assignment[i]];
+        }
+        double best = bruteForce(costs, rows, columns, 0, new boolean[columns]);
+        assertEquals(best, total, 1e-9, rows + " by " + columns);
+    }
+
+    private static int[] expectValid(int[] assignment, int rows, int columns) {
+        assertEquals(rows, assignment.length);
+        boolean[] used = new boolean[columns];
+        for (int column : assignment) {
+            assertTrue(column >= 0 && column < columns, "column " + column);
+            assertFalse(used[column], "column " + column + " assigned twice");
+            used[column] = true;
+        }
+        return assignment;
+    }
+
+    private static double bruteForce(double[] costs, int rows, int columns, int row, boolean[] used) {
+        if (row == rows) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < columns; j++) {
+            if (used[j]) continue;
+            used[j] = true;
+            best = Math.min(best, costs[row * columns + j] + bruteForce(costs, rows, columns, row + 1, used));
+            used[j] = false;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,135 @@
+package com.swiftlogistics.middleware.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiStartOptimizerTest {
+
+    private static final long BUDGET = TimeUnit.SECONDS.toNanos(10);
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void keepsShortestOfAllStarts() {
+        DistanceMatrix matrix = randomMatrix(30, new Random(3));
+        int[] initial = identity(30);
+        MultiStartOptimizer optimizer = new MultiStartOptimizer(null, pool, 3);
+
+        MultiStartResult result = optimizer.optimize(initial, matrix, null, 16, BUDGET, 99);
+
+        // Without an improver each start is its construction; start 0 is the given tour
+        double best = matrix.pathDistance(initial);
+        int bestStart = 0;
+        for (int start = 1; start < 16; start++) {
+            int[] tour = TourConstruction.randomizedNearestNeighbour(matrix, 0, 3, new SplittableRandom(99 + start));
+            double distance = matrix.pathDistance(tour);
+            if (distance < best - 1e-9) {
+                best = distance;
+                bestStart = start;
+            }
+        }
+        assertEquals(16, result.getStartsCompleted());
+        assertFalse(result.isBudgetExhausted());
+        assertEquals(bestStart, result.getBestStart());
+        assertEquals(best, result.getDistance(), 1e-9);
+        assertEquals(matrix.pathDistance(result.getTour()), result.getDistance(), 1e-9);
+    }
+
+    @Test
+    void improvedResultIsAPermutationNoLongerThanImprovingTheInitialTour() {
+        DistanceMatrix matrix = randomMatrix(60, new Random(5));
+        int[] initial = identity(60);
+        LocalSearchImprover improver = new LocalSearchImprover(8);
+
+        int[] alone = initial.clone();
+        improver.improve(alone, matrix, null, BUDGET);
+        MultiStartResult result = new MultiStartOptimizer(improver, pool, 3)
+            .optimize(initial, matrix, null, 8, BUDGET, 1);
+
+        int[] tour = result.getTour();
+        assertEquals(0, tour[0]);
+        int[] sorted = tour.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(identity(60), sorted);
+        assertTrue(result.getDistance() <= matrix.pathDistance(alone) + 1e-9);
+        assertArrayEquals(identity(60), initial, "initial tour is not modified");
+
+        // Same seed, same answer regardless of which thread finished first
+        MultiStartResult again = new MultiStartOptimizer(improver, pool, 3)
+            .optimize(initial, matrix, null, 8, BUDGET, 1);
+        assertArrayEquals(tour, again.getTour());
+    }
+
+    @Test
+    void prefersOnTimeTourOverShorterLateOne() {
+        // Points on a line: 1 is 1 km out, 2 is 2 km out. Visiting 1 first is
+        // shorter, but its 10 minute service makes 2 miss its 5 minute deadline.
+        double[] positions = {0, 1, 2};
+        double[] distances = new double[9];
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                distances[i * 3 + j] = Math.abs(positions[i] - positions[j]);
+            }
+        }
+        DistanceMatrix matrix = DistanceMatrix.of(3, distances);
+        TimeWindows windows = new TimeWindows(new double[] {0, 0, 0}, new double[] {1000, 1000, 5},
+                                              new double[] {0, 10, 0}, 30);
+
+        MultiStartResult result = new MultiStartOptimizer(null, pool, 2)
+            .optimize(new int[] {0, 1, 2}, matrix, windows, 16, BUDGET, 7);
+
+        assertArrayEquals(new int[] {0, 2, 1}, result.getTour());
+        assertEquals(0, result.getLateness(), 1e-9);
+        assertEquals(3, result.getDistance(), 1e-9);
+    }
+
+    @Test
+    void exhaustedBudgetStillReturnsFirstStart() {
+        DistanceMatrix matrix = randomMatrix(20, new Random(8));
+        int[] initial = identity(20);
+
+        MultiStartResult result = new MultiStartOptimizer(null, pool, 3).optimize(initial, matrix, null, 8, 0, 1);
+
+        assertEquals(1, result.getStartsCompleted());
+        assertTrue(result.isBudgetExhausted());
+        assertEquals(0, result.getBestStart());
+        assertArrayEquals(initial, result.getTour());
+    }
+
+    @Test
+    void rejectsNonPositiveCounts() {
+        assertThrows(IllegalArgumentException.class, () -> new MultiStartOptimizer(null, pool, 0));
+        MultiStartOptimizer optimizer = new MultiStartOptimizer(null, pool, 1);
+        assertThrows(IllegalArgumentException.class,
+            () -> optimizer.optimize(identity(3), randomMatrix(3, new Random(1)), null, 0, BUDGET, 1));
+    }
+
+    private static DistanceMatrix randomMatrix(int size, Random random) {
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            latitudes[i] = 6.8 + random.nextDouble() * 0.3;
+            longitudes[i] = 79.8 + random.nextDouble() * 0.3;
+        }
+        return DistanceMatrix.haversine(latitudes, longitudes);
+    }
+
+    private static int[] identity(int size) {
+        int[] tour = new int[size];
+        for (int i = 0; i < size; i++) tour[i] = i;
+        return tour;
+    }
+}
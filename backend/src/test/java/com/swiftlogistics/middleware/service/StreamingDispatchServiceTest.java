@@ -0,0 +1,195 @@
+package com.swiftlogistics.middleware.service;
+
+import com.swiftlogistics.middleware.dto.OptimizedRoute;
+import com.swiftlogistics.middleware.dto.RoutePoint;
+import com.swiftlogistics.middleware.model.Driver;
+import com.swiftlogistics.middleware.model.Order;
+import com.swiftlogistics.middleware.repository.DriverRepository;
+import com.swiftlogistics.middleware.repository.OrderRepository;
+import com.swiftlogistics.middleware.tracking.GeofenceIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StreamingDispatchServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private DriverRepository driverRepository;
+
+    @Mock
+    private DeliveryManagementService deliveryManagementService;
+
+    @Mock
+    private RouteOptimizationService routeOptimizationService;
+
+    @Mock
+    private GPSTrackingService gpsTrackingService;
+
+    @Mock
+    private MessageService messageService;
+
+    @InjectMocks
+    private StreamingDispatchService dispatchService;
+
+    private final Order order = order(1L, Order.OrderStatus.IN_WAREHOUSE);
+    private final Driver driver = new Driver("D1", "Kamal Silva", "kamal@example.com");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dispatchService, "enabled", true);
+        ReflectionTestUtils.setField(dispatchService, "maxBatchSize", 200);
+        ReflectionTestUtils.setField(dispatchService, "retryIntervalMillis", 60_000L);
+        lenient().when(deliveryManagementService.assignmentLock()).thenReturn(new ReentrantLock());
+        lenient().when(deliveryManagementService.calculateDriverCapacity(any())).thenReturn(10);
+        lenient().when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void parksOrderNoDriverCanTakeAndRetriesWhenDriverReturns() {
+        when(orderRepository.findAllById(List.of(1L))).thenReturn(List.of(order));
+        when(driverRepository.findByStatus(Driver.DriverStatus.ACTIVE)).thenReturn(List.of());
+
+        dispatchService.enqueue(1L);
+        dispatchService.dispatchBatch();
+        assertEquals(1, stat("parkedOrders"));
+        assertEquals(1L, stat("ordersParked"));
+
+        // Nothing new and the retry is not due yet
+        dispatchService.dispatchBatch();
+        verify(orderRepository, times(1)).findAllById(any());
+
+        OptimizedRoute route = route("R1", "1");
+        when(driverRepository.findByStatus(Driver.DriverStatus.ACTIVE)).thenReturn(List.of(driver));
+        when(routeOptimizationService.calculateFleetRoutes(eq(List.of(driver)), any(), eq(List.of(order)),
+            any(), any())).thenReturn(List.of(route));
+
+        dispatchService.handleGeofenceEvent(warehouseEvent(GeofenceIndex.EventType.ARRIVED, "D2"));
+        dispatchService.dispatchBatch();
+
+        assertEquals(Order.OrderStatus.ROUTE_PLANNED, order.getStatus());
+        verify(gpsTrackingService).startRouteTracking("D1", route);
+        verify(messageService).sendStatusUpdate(order);
+        assertEquals(0, stat("parkedOrders"));
+        assertEquals(1L, stat("ordersRouted"));
+    }
+
+    @Test
+    void retriesParkedOrdersOnceIntervalPasses() {
+        ReflectionTestUtils.setField(dispatchService, "retryIntervalMillis", 0L);
+        when(orderRepository.findAllById(List.of(1L))).thenReturn(List.of(order));
+        when(driverRepository.findByStatus(Driver.DriverStatus.ACTIVE)).thenReturn(List.of());
+
+        dispatchService.enqueue(1L);
+        dispatchService.dispatchBatch();
+        dispatchService.dispatchBatch();
+
+        verify(orderRepository, times(2)).findAllById(List.of(1L));
+        assertEquals(1, stat("parkedOrders"));
+        assertEquals(2L, stat("ordersParked"), "parked again after the retry");
+    }
+
+    @Test
+    void parksOrderWhoseEventOvertookItsCommit() {
+        Order processing = order(2L, Order.OrderStatus.PROCESSING);
+        when(orderRepository.findAllById(List.of(2L))).thenReturn(List.of(processing));
+
+        dispatchService.enqueue(2L);
+        dispatchService.dispatchBatch();
+
+        assertEquals(1, stat("parkedOrders"));
+        verifyNoInteractions(driverRepository, routeOptimizationService);
+    }
+
+    @Test
+    void doesNotInsertIntoRouteThatLeftTheWarehouse() {
+        OptimizedRoute loading = route("R1", "9");
+        when(orderRepository.findAllById(List.of(1L))).thenReturn(List.of(order));
+        when(driverRepository.findByStatus(Driver.DriverStatus.ACTIVE)).thenReturn(List.of(driver));
+        when(gpsTrackingService.getActiveRoutes())
+            .thenReturn(List.of(new GPSTrackingService.RouteProgress("D1", loading)));
+
+        dispatchService.handleGeofenceEvent(warehouseEvent(GeofenceIndex.EventType.DEPARTED, "D1"));
+        dispatchService.enqueue(1L);
+        dispatchService.dispatchBatch();
+
+        // D1 is out delivering: neither a loading route nor idle
+        verify(routeOptimizationService, never()).findBestInsertion(any(), any());
+        verify(routeOptimizationService, never()).calculateFleetRoutes(any(), any(), any(), any(), any());
+        assertEquals(1, stat("parkedOrders"));
+        assertEquals(1, stat("departedDrivers"));
+
+        // Back at the warehouse, its route can take the parked order again
+        dispatchService.handleGeofenceEvent(warehouseEvent(GeofenceIndex.EventType.ARRIVED, "D1"));
+        dispatchService.dispatchBatch();
+        verify(routeOptimizationService).findBestInsertion(eq(order), any());
+        assertEquals(0, stat("departedDrivers"));
+    }
+
+    @Test
+    void requeuesBatchWhenDispatchFails() {
+        when(orderRepository.findAllById(List.of(1L)))
+            .thenThrow(new RuntimeException("database unavailable"))
+            .thenReturn(List.of(order));
+        when(driverRepository.findByStatus(Driver.DriverStatus.ACTIVE)).thenReturn(List.of());
+
+        dispatchService.enqueue(1L);
+        dispatchService.dispatchBatch();
+        assertEquals(1, stat("queuedOrders"));
+        assertEquals(0, stat("parkedOrders"));
+
+        dispatchService.dispatchBatch();
+        assertEquals(0, stat("queuedOrders"));
+        assertEquals(1, stat("parkedOrders"));
+    }
+
+    @Test
+    void ignoresRepeatedArrivals() {
+        dispatchService.enqueue(1L);
+        dispatchService.enqueue(1L);
+        dispatchService.enqueue(null);
+        assertEquals(1, stat("queuedOrders"));
+    }
+
+    private Number stat(String name) {
+        return (Number) dispatchService.getStats().get(name);
+    }
+
+    private static Order order(Long id, Order.OrderStatus status) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(status);
+        return order;
+    }
+
+    private static OptimizedRoute route(String routeId, String orderId) {
+        OptimizedRoute route = new OptimizedRoute();
+        route.setRouteId(routeId);
+        route.setRoutePoints(List.of(
+            new RoutePoint("Warehouse", 6.93, 79.85, "WAREHOUSE", null, "WAREHOUSE"),
+            new RoutePoint("27 Galle Road", 6.90, 79.85, orderId, orderId, "DELIVERY")));
+        return route;
+    }
+
+    private static GeofenceIndex.GeofenceEvent warehouseEvent(GeofenceIndex.EventType type, String driverId) {
+        GeofenceIndex.GeofenceEvent event = mock(GeofenceIndex.GeofenceEvent.class);
+        when(event.getFenceType()).thenReturn(GeofenceIndex.FenceType.WAREHOUSE);
+        when(event.getEventType()).thenReturn(type);
+        lenient().when(event.getDriverId()).thenReturn(driverId);
+        return event;
+    }
+}
@@ -0,0 +1,111 @@
+package com.swiftlogistics.middleware.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DriverLocationStoreTest {
+
+    @Test
+    void internsDriversToDenseSlots() {
+        DriverLocationStore store = new DriverLocationStore(2);
+        assertEquals(-1, store.indexOf("D1"));
+        assertEquals(0, store.intern("D1"));
+        assertEquals(1, store.intern("D2"));
+        assertEquals(0, store.intern("D1"));
+        assertEquals(1, store.indexOf("D2"));
+        assertEquals(-1, store.intern("D3"), "store is full");
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void readsLatestFixAndRejectsStaleOnes() {
+        DriverLocationStore store = new DriverLocationStore(4);
+        int slot = store.intern("D1");
+        DriverLocationStore.LocationReading reading = new DriverLocationStore.LocationReading();
+        assertFalse(store.read(slot, reading), "no fix yet");
+
+        assertTrue(store.update(slot, 6.9, 79.8, 30, 90, 2000));
+        assertFalse(store.update(slot, 7.5, 80.5, 10, 0, 1000));
+
+        assertTrue(store.read(slot, reading));
+        assertEquals("D1", reading.getDriverId());
+        assertEquals(6.9, reading.getLatitude());
+        assertEquals(79.8, reading.getLongitude());
+        assertEquals(30, reading.getSpeed());
+        assertEquals(90, reading.getHeading());
+        assertEquals(2000, reading.getTimestamp());
+
+        // A rejected write leaves the slot writable
+        assertTrue(store.update(slot, 7.0, 80.0, 0, 0, 3000));
+        assertTrue(store.read(slot, reading));
+        assertEquals(7.0, reading.getLatitude());
+    }
+
+    @Test
+    void snapshotCopiesEverySlot() {
+        DriverLocationStore store = new DriverLocationStore(4);
+        store.update(store.intern("D1"), 1, 2, 3, 4, 10);
+        store.intern("D2");
+
+        DriverLocationStore.LocationSnapshot snapshot = store.snapshot();
+        assertEquals(2, snapshot.size());
+        assertTrue(snapshot.hasFix(0));
+        assertFalse(snapshot.hasFix(1));
+        assertEquals(1, snapshot.countWithFix());
+        assertEquals("D1", snapshot.getDriverId(0));
+        assertEquals(2, snapshot.getLongitude(0));
+        assertEquals(10, snapshot.getTimestamp(0));
+    }
+
+    @Test
+    void readsAreConsistentUnderConcurrentWriter() throws InterruptedException {
+        DriverLocationStore store = new DriverLocationStore(4);
+        int slot = store.intern("D1");
+        store.update(slot, 1, -1, 2, 1, 1);
+
+        // Every write derives all fields from one counter, so a torn read shows up as a mismatch
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            long n = 1;
+            while (running.get()) {
+                n++;
+                store.update(slot, n, -n, 2 * n, n, n);
+            }
+        });
+        writer.start();
+
+        AtomicReference<String> failure = new AtomicReference<>();
+        DriverLocationStore.LocationReading reading = new DriverLocationStore.LocationReading();
+        long last = 0;
+        long deadline = System.nanoTime() + 500_000_000L;
+        try {
+            while (System.nanoTime() < deadline && failure.get() == null) {
+                assertTrue(store.read(slot, reading));
+                long n = reading.getTimestamp();
+                if (reading.getLatitude() != n || reading.getLongitude() != -n
+                    || reading.getSpeed() != 2 * n || reading.getHeading() != n) {
+                    failure.set("torn read at " + n);
+                } else if (n < last) {
+                    failure.set("went back from " + last + " to " + n);
+                }
+                last = n;
+
+                DriverLocationStore.LocationSnapshot snapshot = store.snapshot();
+                long s = snapshot.getTimestamp(slot);
+                if (snapshot.getLatitude(slot) != s || snapshot.getLongitude(slot) != -s
+                    || snapshot.getSpeed(slot) != 2 * s || snapshot.getHeading(slot) != s) {
+                    failure.set("torn snapshot at " + s);
+                }
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+        assertNull(failure.get());
+        assertTrue(last > 1, "writer made progress");
+    }
+}
@@ -0,0 +1,114 @@
+package com.swiftlogistics.middleware.tracking;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeofenceIndexTest {
+
+    private static final double LAT = 6.9271;
+    private static final double LON = 79.8612;
+    private static final double RADIUS_KM = 0.1;
+    private static final double EXIT_FACTOR = 1.5;
+
+    private GeofenceIndex index;
+    private final List<GeofenceIndex.GeofenceEvent> events = new ArrayList<>();
+    private long clock;
+
+    @BeforeEach
+    void setUp() {
+        index = new GeofenceIndex(4, 0.01, EXIT_FACTOR);
+        index.register("STOP-1", GeofenceIndex.FenceType.DELIVERY, "42", 0, LAT, LON, RADIUS_KM);
+    }
+
+    @Test
+    void arrivesInsideRadiusAndDepartsOnlyBeyondExitRadius() {
+        fixAt(0, 0.5);
+        assertTrue(events.isEmpty());
+
+        fixAt(0, 0.09);
+        assertEvents(GeofenceIndex.EventType.ARRIVED);
+        assertTrue(index.isInside(0, "STOP-1"));
+        assertEquals("42", events.get(0).getReference());
+        assertEquals(GeofenceIndex.FenceType.DELIVERY, events.get(0).getFenceType());
+
+        // Jitter between the entry and exit radius keeps the driver inside
+        fixAt(0, 0.12);
+        fixAt(0, 0.08);
+        fixAt(0, 0.14);
+        assertEvents(GeofenceIndex.EventType.ARRIVED);
+        assertTrue(index.isInside(0, "STOP-1"));
+
+        fixAt(0, 0.16);
+        assertEvents(GeofenceIndex.EventType.ARRIVED, GeofenceIndex.EventType.DEPARTED);
+        assertFalse(index.isInside(0, "STOP-1"));
+
+        // Coming back between the radii is not an arrival
+        fixAt(0, 0.12);
+        assertEquals(2, events.size());
+        fixAt(0, 0.05);
+        assertEvents(GeofenceIndex.EventType.ARRIVED, GeofenceIndex.EventType.DEPARTED,
+                     GeofenceIndex.EventType.ARRIVED);
+    }
+
+    @Test
+    void departsWhenJumpingFarAway() {
+        fixAt(0, 0);
+        index.check(0, "D0", LAT + 1, LON + 1, ++clock, events::add);
+        assertEvents(GeofenceIndex.EventType.ARRIVED, GeofenceIndex.EventType.DEPARTED);
+    }
+
+    @Test
+    void ignoresFencesOfOtherDrivers() {
+        fixAt(1, 0);
+        assertTrue(events.isEmpty());
+
+        index.register("DEPOT", GeofenceIndex.FenceType.WAREHOUSE, null, -1, LAT, LON, RADIUS_KM);
+        fixAt(1, 0);
+        assertEvents(GeofenceIndex.EventType.ARRIVED);
+        assertEquals("DEPOT", events.get(0).getFenceId());
+    }
+
+    @Test
+    void reRegisteringUnchangedFenceKeepsDriverInside() {
+        fixAt(0, 0);
+        index.register("STOP-1", GeofenceIndex.FenceType.DELIVERY, "42", 0, LAT, LON, RADIUS_KM);
+        fixAt(0, 0);
+        assertEvents(GeofenceIndex.EventType.ARRIVED);
+        assertTrue(index.isInside(0, "STOP-1"));
+
+        // A moved fence replaces the old one, so the driver arrives again
+        index.register("STOP-1", GeofenceIndex.FenceType.DELIVERY, "42", 0, LAT, LON + 0.0001, RADIUS_KM);
+        fixAt(0, 0);
+        assertEvents(GeofenceIndex.EventType.ARRIVED, GeofenceIndex.EventType.ARRIVED);
+        assertEquals(1, index.fenceCount());
+    }
+
+    @Test
+    void unregisteredFenceIsDroppedSilently() {
+        fixAt(0, 0);
+        index.unregister("STOP-1");
+        fixAt(0, 1);
+        assertEvents(GeofenceIndex.EventType.ARRIVED);
+        assertFalse(index.contains("STOP-1"));
+        assertFalse(index.isInside(0, "STOP-1"));
+    }
+
+    // A fix for the driver in the given slot, kmNorth of the fence centre
+    private void fixAt(int slot, double kmNorth) {
+        index.check(slot, "D" + slot, LAT + GeoMath.kmToLatitudeDegrees(kmNorth), LON, ++clock, events::add);
+    }
+
+    private void assertEvents(GeofenceIndex.EventType... expected) {
+        List<GeofenceIndex.EventType> actual = new ArrayList<>();
+        for (GeofenceIndex.GeofenceEvent event : events) {
+            actual.add(event.getEventType());
+        }
+        assertEquals(List.of(expected), actual);
+    }
+}
@@ -0,0 +1,159 @@
+package com.swiftlogistics.middleware.tracking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationRingBufferTest {
+
+    private static final class Recorder implements LocationRingBuffer.FixHandler {
+        final List<String> driverIds = new ArrayList<>();
+        final List<double[]> values = new ArrayList<>();
+        final List<Long> timestamps = new ArrayList<>();
+
+        @Override
+        public void onFix(String driverId, double latitude, double longitude,
+                          double speed, double heading, long timestampMillis) {
+            driverIds.add(driverId);
+            values.add(new double[] {latitude, longitude, speed, heading});
+            timestamps.add(timestampMillis);
+        }
+    }
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(8, new LocationRingBuffer(5).capacity());
+        assertEquals(8, new LocationRingBuffer(8).capacity());
+        assertEquals(2, new LocationRingBuffer(2).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new LocationRingBuffer(1));
+    }
+
+    @Test
+    void drainsPublishedFixesInOrder() {
+        LocationRingBuffer buffer = new LocationRingBuffer(8);
+        assertTrue(buffer.offer("D1", 6.9, 79.8, 30.0, 90.0, 1000L));
+        assertTrue(buffer.offer("D2", 7.0, 79.9, 0.0, 180.0, 2000L));
+        assertEquals(2, buffer.size());
+
+        Recorder recorder = new Recorder();
+        assertEquals(2, buffer.drain(recorder, 10));
+
+        assertEquals(List.of("D1", "D2"), recorder.driverIds);
+        assertArrayEquals(new double[] {6.9, 79.8, 30.0, 90.0}, recorder.values.get(0));
+        assertArrayEquals(new double[] {7.0, 79.9, 0.0, 180.0}, recorder.values.get(1));
+        assertEquals(List.of(1000L, 2000L), recorder.timestamps);
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.drain(recorder, 10));
+    }
+
+    @Test
+    void drainStopsAtMaxFixes() {
+        LocationRingBuffer buffer = new LocationRingBuffer(8);
+        for (int i = 0; i < 5; i++) {
+            buffer.offer("D" + i, 0, 0, 0, 0, i);
+        }
+        Recorder recorder = new Recorder();
+        assertEquals(3, buffer.drain(recorder, 3));
+        assertEquals(2, buffer.size());
+        assertEquals(2, buffer.drain(recorder, 3));
+        assertEquals(List.of("D0", "D1", "D2", "D3", "D4"), recorder.driverIds);
+    }
+
+    @Test
+    void rejectsOffersWhenFullUntilDrained() {
+        LocationRingBuffer buffer = new LocationRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer("D" + i, 0, 0, 0, 0, i));
+        }
+        assertFalse(buffer.offer("overflow", 0, 0, 0, 0, 99));
+        assertEquals(4, buffer.size());
+
+        Recorder recorder = new Recorder();
+        assertEquals(1, buffer.drain(recorder, 1));
+        assertTrue(buffer.offer("D4", 0, 0, 0, 0, 4));
+        assertFalse(buffer.offer("overflow", 0, 0, 0, 0, 99));
+
+        buffer.drain(recorder, 10);
+        assertEquals(List.of("D0", "D1", "D2", "D3", "D4"), recorder.driverIds);
+    }
+
+    @Test
+    void reusesSlotsOverManyLaps() {
+        LocationRingBuffer buffer = new LocationRingBuffer(4);
+        Recorder recorder = new Recorder();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(buffer.offer("D" + i, i, -i, 0, 0, i));
+            if (i % 3 == 2) {
+                buffer.drain(recorder, 4);
+            }
+        }
+        buffer.drain(recorder, 4);
+        assertEquals(100, recorder.driverIds.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("D" + i, recorder.driverIds.get(i));
+            assertEquals(i, recorder.values.get(i)[0]);
+            assertEquals(-i, recorder.values.get(i)[1]);
+        }
+    }
+
+    @Test
+    void deliversEveryFixOnceWithConcurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20_000;
+        LocationRingBuffer buffer = new LocationRingBuffer(256);
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String driverId = "D" + p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perProducer; i++) {
+                    // Retry on full so every fix is eventually delivered
+                    while (!buffer.offer(driverId, i, 0, 0, 0, i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        long[] next = new long[producers];
+        int[] received = {0};
+        LocationRingBuffer.FixHandler handler = (driverId, latitude, longitude, speed, heading, timestamp) -> {
+            int producer = Integer.parseInt(driverId.substring(1));
+            // Fixes of one producer arrive in the order it published them
+            assertEquals(next[producer], timestamp);
+            assertEquals((double) timestamp, latitude);
+            next[producer]++;
+            received[0]++;
+        };
+
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received[0] < producers * perProducer && System.nanoTime() < deadline) {
+            if (buffer.drain(handler, 64) == 0) {
+                Thread.onSpinWait();
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(producers * perProducer, received[0]);
+        for (long count : next) {
+            assertEquals(perProducer, count);
+        }
+        assertEquals(0, buffer.size());
+    }
+}
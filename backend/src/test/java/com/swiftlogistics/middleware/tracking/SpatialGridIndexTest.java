@@ -0,0 +1,135 @@
+package com.swiftlogistics.middleware.tracking;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SpatialGridIndexTest {
+
+    private static final int DRIVERS = 600;
+    private static final long STALE_BEFORE = 1_000;
+
+    private DriverLocationStore store;
+    private SpatialGridIndex index;
+    private final Random random = new Random(42);
+
+    @BeforeEach
+    void setUp() {
+        store = new DriverLocationStore(DRIVERS);
+        index = new SpatialGridIndex(store, 0.01);
+        for (int i = 0; i < DRIVERS; i++) {
+            // Every tenth driver has not reported recently
+            place(store.intern("D" + i), randomLatitude(), randomLongitude(), i % 10 == 0 ? 500 : 2_000);
+        }
+    }
+
+    @Test
+    void radiusMatchesBruteForce() {
+        for (int query = 0; query < 50; query++) {
+            double latitude = randomLatitude();
+            double longitude = randomLongitude();
+            double radiusKm = 0.5 + random.nextDouble() * 6;
+
+            SpatialGridIndex.Result result = index.findInRadius(latitude, longitude, radiusKm, STALE_BEFORE);
+            double[] expected = bruteForce(latitude, longitude, radiusKm);
+
+            assertEquals(expected.length, result.size(), "drivers within " + radiusKm + " km");
+            for (int i = 0; i < result.size(); i++) {
+                assertEquals(expected[i], result.distanceAt(i), 1e-6);
+                assertEquals(result.distanceAt(i), distanceTo(result.slotAt(i), latitude, longitude), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        for (int query = 0; query < 50; query++) {
+            double latitude = randomLatitude();
+            double longitude = randomLongitude();
+            int k = 1 + random.nextInt(20);
+            double maxSearchKm = 1 + random.nextDouble() * 10;
+
+            SpatialGridIndex.Result result = index.findNearest(latitude, longitude, k, maxSearchKm, STALE_BEFORE);
+            double[] expected = bruteForce(latitude, longitude, maxSearchKm);
+
+            assertEquals(Math.min(k, expected.length), result.size());
+            for (int i = 0; i < result.size(); i++) {
+                assertEquals(expected[i], result.distanceAt(i), 1e-9);
+                assertEquals(result.distanceAt(i), distanceTo(result.slotAt(i), latitude, longitude), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void followsDriversAcrossCells() {
+        DriverLocationStore small = new DriverLocationStore(4);
+        SpatialGridIndex grid = new SpatialGridIndex(small, 0.01);
+        int slot = small.intern("D1");
+        small.update(slot, 6.90, 79.85, 0, 0, 2_000);
+        grid.update(slot, 6.90, 79.85);
+        assertEquals(1, grid.findInRadius(6.90, 79.85, 0.5, 0).size());
+
+        small.update(slot, 6.95, 79.90, 0, 0, 3_000);
+        grid.update(slot, 6.95, 79.90);
+        assertEquals(0, grid.findInRadius(6.90, 79.85, 0.5, 0).size());
+        SpatialGridIndex.Result moved = grid.findNearest(6.95, 79.90, 3, 1, 0);
+        assertEquals(1, moved.size());
+        assertEquals(slot, moved.slotAt(0));
+    }
+
+    @Test
+    void nearestWithNonPositiveKIsEmpty() {
+        assertEquals(0, index.findNearest(6.9, 79.9, 0, 10, 0).size());
+    }
+
+    @Test
+    void rejectsStoreTooLargeForPackedSortKeys() {
+        DriverLocationStore huge = mock(DriverLocationStore.class);
+        when(huge.capacity()).thenReturn(SpatialGridIndex.MAX_SLOTS + 1);
+        assertThrows(IllegalArgumentException.class, () -> new SpatialGridIndex(huge, 0.01));
+    }
+
+    private void place(int slot, double latitude, double longitude, long timestamp) {
+        store.update(slot, latitude, longitude, 0, 0, timestamp);
+        index.update(slot, latitude, longitude);
+    }
+
+    private double[] bruteForce(double latitude, double longitude, double radiusKm) {
+        List<Double> distances = new ArrayList<>();
+        DriverLocationStore.LocationReading reading = new DriverLocationStore.LocationReading();
+        for (int slot = 0; slot < store.size(); slot++) {
+            if (!store.read(slot, reading) || reading.getTimestamp() < STALE_BEFORE) continue;
+            double distance = GeoMath.haversineKm(latitude, longitude, reading.getLatitude(), reading.getLongitude());
+            if (distance <= radiusKm) {
+                distances.add(distance);
+            }
+        }
+        double[] sorted = distances.stream().mapToDouble(Double::doubleValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private double distanceTo(int slot, double latitude, double longitude) {
+        DriverLocationStore.LocationReading reading = new DriverLocationStore.LocationReading();
+        assertTrue(store.read(slot, reading));
+        assertTrue(reading.getTimestamp() >= STALE_BEFORE, "stale driver returned");
+        return GeoMath.haversineKm(latitude, longitude, reading.getLatitude(), reading.getLongitude());
+    }
+
+    // Greater Colombo, a few cells wide in each direction
+    private double randomLatitude() {
+        return 6.80 + random.nextDouble() * 0.30;
+    }
+
+    private double randomLongitude() {
+        return 79.80 + random.nextDouble() * 0.30;
+    }
+}
@@ -0,0 +1,144 @@
+package com.swiftlogistics.middleware.tracking;
+
+import com.swiftlogistics.middleware.geo.GeoMath;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackCompressorTest {
+
+    private static final double METERS_PER_DEGREE = GeoMath.KM_PER_DEGREE * 1000.0;
+
+    @Test
+    void encodeDecodeRoundTripsEveryFix() throws IOException {
+        LocationHistory.Track track = randomTrack(500, new Random(7), -33.87, 151.21);
+        int[] all = new int[track.size()];
+        for (int i = 0; i < all.length; i++) all[i] = i;
+
+        TrackCompressor.Decoder decoder = decode(track, all);
+        assertEquals(track.size(), decoder.getCount());
+        for (int i = 0; i < track.size(); i++) {
+            assertTrue(decoder.next());
+            assertEquals(track.getLatitude(i), decoder.getLatitude(), 0.5e-6);
+            assertEquals(track.getLongitude(i), decoder.getLongitude(), 0.5e-6);
+            assertEquals(track.getSpeed(i), decoder.getSpeed(), 0.05);
+            assertEquals(track.getHeading(i), decoder.getHeading(), 0.05);
+            assertEquals(track.getTimestamp(i), decoder.getTimestamp());
+        }
+        assertFalse(decoder.next());
+    }
+
+    @Test
+    void encodesSteadyFeedCompactly() throws IOException {
+        LocationHistory.Track track = new LocationHistory.Track(16);
+        for (int i = 0; i < 1000; i++) {
+            track.add(6.9 + i * 1e-5, 79.8 + i * 2e-5, 36.0, 45.0, 1_700_000_000_000L + i * 5000L);
+        }
+        int[] all = new int[track.size()];
+        for (int i = 0; i < all.length; i++) all[i] = i;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TrackCompressor.encode(track, all, out);
+
+        // Five single-byte fields per fix after the first
+        assertTrue(out.size() < 1000 * 6, "encoded " + out.size() + " bytes");
+    }
+
+    @Test
+    void simplifiedTrackStaysWithinTolerance() throws IOException {
+        double tolerance = 15.0;
+        LocationHistory.Track track = randomTrack(2000, new Random(11), 6.93, 79.85);
+        int[] kept = TrackCompressor.simplify(track, tolerance);
+
+        assertEquals(0, kept[0]);
+        assertEquals(track.size() - 1, kept[kept.length - 1]);
+        assertTrue(kept.length < track.size(), "kept " + kept.length + " of " + track.size());
+
+        // Every dropped fix is near the decoded, time-interpolated position of its kept neighbours
+        double cosLat = Math.cos(Math.toRadians(track.getLatitude(0)));
+        double[][] decoded = new double[kept.length][];
+        TrackCompressor.Decoder decoder = decode(track, kept);
+        for (int k = 0; decoder.next(); k++) {
+            decoded[k] = new double[] {decoder.getLatitude(), decoder.getLongitude(), decoder.getTimestamp()};
+        }
+        for (int k = 0; k + 1 < kept.length; k++) {
+            double[] start = decoded[k];
+            double[] end = decoded[k + 1];
+            for (int i = kept[k] + 1; i < kept[k + 1]; i++) {
+                double ratio = (track.getTimestamp(i) - start[2]) / (end[2] - start[2]);
+                double dy = (track.getLatitude(i) - (start[0] + ratio * (end[0] - start[0]))) * METERS_PER_DEGREE;
+                double dx = (track.getLongitude(i) - (start[1] + ratio * (end[1] - start[1])))
+                    * cosLat * METERS_PER_DEGREE;
+                assertTrue(Math.hypot(dx, dy) <= tolerance + 0.5, "fix " + i + " off by " + Math.hypot(dx, dy));
+            }
+        }
+    }
+
+    @Test
+    void keepsStopsOnStraightRoad() {
+        LocationHistory.Track track = new LocationHistory.Track(16);
+        long time = 0;
+        double latitude = 6.9;
+        for (int i = 0; i < 30; i++) {
+            track.add(latitude, 79.8, 36, 0, time);
+            time += 5000;
+            // Parked in the middle third, otherwise 50 m per fix northwards
+            if (i < 10 || i >= 20) latitude += 50 / METERS_PER_DEGREE;
+        }
+        int[] kept = TrackCompressor.simplify(track, 5.0);
+        assertArrayEquals(new int[] {0, 10, 20, 29}, kept);
+
+        LocationHistory.Track constant = new LocationHistory.Track(16);
+        for (int i = 0; i < 30; i++) {
+            constant.add(6.9 + i * 50 / METERS_PER_DEGREE, 79.8, 36, 0, i * 5000L);
+        }
+        assertArrayEquals(new int[] {0, 29}, TrackCompressor.simplify(constant, 5.0));
+    }
+
+    @Test
+    void varintsRoundTripAndRejectTruncation() throws IOException {
+        long[] values = {0, 1, 127, 128, 16_383, 16_384, Integer.MAX_VALUE, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long value : values) {
+            TrackCompressor.writeVarint(out, value);
+        }
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        for (long value : values) {
+            assertEquals(value, TrackCompressor.readVarint(in));
+        }
+        ByteArrayInputStream truncated = new ByteArrayInputStream(new byte[] {(byte) 0x80});
+        assertThrows(EOFException.class, () -> TrackCompressor.readVarint(truncated));
+    }
+
+    private static TrackCompressor.Decoder decode(LocationHistory.Track track, int[] indices) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TrackCompressor.encode(track, indices, out);
+        return new TrackCompressor.Decoder(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    // A driver wandering at varying speed with irregular reporting intervals and occasional stops
+    private static LocationHistory.Track randomTrack(int size, Random random, double latitude, double longitude) {
+        LocationHistory.Track track = new LocationHistory.Track(16);
+        long time = 1_700_000_000_000L;
+        double heading = random.nextDouble() * 360;
+        for (int i = 0; i < size; i++) {
+            boolean stopped = random.nextInt(10) == 0;
+            double speed = stopped ? 0 : 5 + random.nextDouble() * 60;
+            track.add(latitude, longitude, speed, heading, time);
+
+            long interval = 1000 + random.nextInt(9000);
+            double meters = speed / 3.6 * interval / 1000.0;
+            heading = (heading + random.nextGaussian() * 15 + 360) % 360;
+            latitude += Math.cos(Math.toRadians(heading)) * meters / METERS_PER_DEGREE;
+            longitude += Math.sin(Math.toRadians(heading)) * meters
+                / (METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude)));
+            time += interval;
+        }
+        return track;
+    }
+}
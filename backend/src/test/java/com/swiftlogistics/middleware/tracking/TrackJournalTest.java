@@ -0,0 +1,164 @@
+package com.swiftlogistics.middleware.tracking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackJournalTest {
+
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORDS_PER_SEGMENT = 64;
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    @TempDir
+    Path directory;
+
+    private long base;
+
+    @BeforeEach
+    void setUp() {
+        base = System.currentTimeMillis() - 60_000;
+    }
+
+    @Test
+    void replaysAppendedFixesAfterReopen() throws IOException {
+        try (TrackJournal journal = open()) {
+            appendFixes(journal, 0, 10);
+            assertEquals(10, journal.recordCount());
+        }
+        try (TrackJournal journal = open()) {
+            List<long[]> records = replay(journal);
+            assertEquals(10, records.size());
+            for (int i = 0; i < 10; i++) {
+                assertFix(records.get(i), i);
+            }
+            assertEquals(base, journal.oldestTimestamp());
+
+            LocationHistory.Track track = journal.readTrack("D1", Long.MIN_VALUE, Long.MAX_VALUE);
+            assertEquals(5, track.size());
+        }
+    }
+
+    @Test
+    void recoversUpToCorruptChecksum() throws IOException {
+        try (TrackJournal journal = open()) {
+            appendFixes(journal, 0, 10);
+        }
+        Path segment = onlySegment();
+        // Flip a latitude byte of the eighth record; the two after it still carry valid checksums
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long offset = HEADER_SIZE + 7L * TrackJournal.RECORD_SIZE + 12;
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, offset);
+            one.put(0, (byte) (one.get(0) ^ 0x5a)).rewind();
+            channel.write(one, offset);
+        }
+
+        try (TrackJournal journal = open()) {
+            assertEquals(7, journal.recordCount());
+            appendFixes(journal, 100, 1);
+        }
+        try (TrackJournal journal = open()) {
+            // The valid records past the corrupt one were cleared and do not resurface
+            List<long[]> records = replay(journal);
+            assertEquals(8, records.size());
+            for (int i = 0; i < 7; i++) {
+                assertFix(records.get(i), i);
+            }
+            assertFix(records.get(7), 100);
+            assertEquals(1, journal.segmentCount());
+        }
+    }
+
+    @Test
+    void recoversTruncatedSegment() throws IOException {
+        try (TrackJournal journal = open()) {
+            appendFixes(journal, 0, 10);
+        }
+        Path segment = onlySegment();
+        // Cut the file in the middle of the sixth record
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(HEADER_SIZE + 5L * TrackJournal.RECORD_SIZE + 10);
+        }
+
+        try (TrackJournal journal = open()) {
+            assertEquals(5, journal.recordCount());
+            // A short segment is kept read-only and appends go to a new one
+            appendFixes(journal, 100, 1);
+            assertEquals(2, journal.segmentCount());
+        }
+        try (TrackJournal journal = open()) {
+            List<long[]> records = replay(journal);
+            assertEquals(6, records.size());
+            for (int i = 0; i < 5; i++) {
+                assertFix(records.get(i), i);
+            }
+            assertFix(records.get(5), 100);
+        }
+    }
+
+    @Test
+    void dropsPartialDictionaryEntry() throws IOException {
+        try (TrackJournal journal = open()) {
+            appendFixes(journal, 0, 2);
+        }
+        Files.write(directory.resolve("drivers.dict"), "D9".getBytes(), StandardOpenOption.APPEND);
+
+        try (TrackJournal journal = open()) {
+            assertEquals(2, journal.recordCount());
+            journal.append(-1, "D7", 1, 1, 0, 0, base + 500_000);
+            List<String> drivers = new ArrayList<>();
+            journal.replay(Long.MIN_VALUE, Long.MAX_VALUE, (driverId, lat, lon, speed, heading, ts) ->
+                drivers.add(driverId));
+            assertEquals(List.of("D0", "D1", "D7"), drivers);
+        }
+        assertEquals("D0\nD1\nD7\n", Files.readString(directory.resolve("drivers.dict")));
+    }
+
+    private TrackJournal open() throws IOException {
+        return new TrackJournal(directory, HEADER_SIZE + (long) RECORDS_PER_SEGMENT * TrackJournal.RECORD_SIZE,
+                                DAY, DAY, DAY, 8);
+    }
+
+    // Fix i belongs to driver D(i % 2) and encodes i in every field
+    private void appendFixes(TrackJournal journal, int first, int count) throws IOException {
+        for (int i = first; i < first + count; i++) {
+            journal.append(i % 2, "D" + (i % 2), 6.9 + i * 1e-4, 79.8 + i * 1e-4, i, i, base + i * 1000L);
+        }
+    }
+
+    private List<long[]> replay(TrackJournal journal) throws IOException {
+        List<long[]> records = new ArrayList<>();
+        journal.replay(Long.MIN_VALUE, Long.MAX_VALUE, (driverId, lat, lon, speed, heading, ts) ->
+            records.add(new long[] {Long.parseLong(driverId.substring(1)), Math.round(lat * 1e7),
+                                    Math.round(lon * 1e7), (long) speed, ts}));
+        return records;
+    }
+
+    private void assertFix(long[] record, int i) {
+        assertEquals(i % 2, record[0]);
+        assertEquals(Math.round((6.9 + i * 1e-4) * 1e7), record[1]);
+        assertEquals(Math.round((79.8 + i * 1e-4) * 1e7), record[2]);
+        assertEquals(i, record[3]);
+        assertEquals(base + i * 1000L, record[4]);
+    }
+
+    private Path onlySegment() throws IOException {
+        try (var paths = Files.list(directory)) {
+            List<Path> segments = paths.filter(p -> p.toString().endsWith(".seg")).toList();
+            assertEquals(1, segments.size());
+            return segments.get(0);
+        }
+    }
+}